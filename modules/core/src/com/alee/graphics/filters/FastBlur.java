@@ -0,0 +1,711 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.alee.graphics.filters;
+
+import com.alee.utils.concurrent.ConcurrentUtils;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.WritableRaster;
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class provides fast Gaussian blur used by {@link com.alee.graphics.filters.GaussianFilter} and
+ * {@link com.alee.graphics.filters.ShadowFilter}.
+ * <p/>
+ * Blur is performed in two separable passes, each of them blurs rows and writes them transposed so the second pass works on columns.
+ * Small radii use integer Gaussian kernel without any edge checks for inner pixels, radii starting from {@link #getBoxBlurRadius()} are
+ * approximated with three successive box blurs which cost the same for any radius.
+ * Rows are blurred in parallel on the shared fork-join pool once image has at least {@link #getParallelThreshold()} pixels.
+ * <p/>
+ * Pixel arrays are reused between calls through soft-referenced per-thread scratch buffers.
+ * Pixels of images provided by the caller are copied through their rasters instead of accessing their data buffers directly, since
+ * stealing image data prevents it from being accelerated later.
+ *
+ * @author Mikle Garin
+ * @see com.alee.graphics.filters.GaussianFilter
+ */
+
+public final class FastBlur
+{
+    /**
+     * Fixed-point precision of kernel weights.
+     */
+    private static final int SHIFT = 16;
+    private static final int ONE = 1 << SHIFT;
+    private static final int HALF = ONE >> 1;
+
+    /**
+     * Scratch buffer slots.
+     * Image buffers are only used by the thread which requested the blur, row buffers are used by the threads processing rows.
+     */
+    private static final int IMAGE_BUFFER = 0;
+    private static final int TRANSPOSE_BUFFER = 1;
+    private static final int ROW_BUFFER_1 = 2;
+    private static final int ROW_BUFFER_2 = 3;
+
+    /**
+     * Per-thread scratch buffers.
+     */
+    private static final ThreadLocal<SoftReference<int[][]>> scratch = new ThreadLocal<SoftReference<int[][]>> ();
+
+    /**
+     * Radius starting from which blur is approximated with three box blurs.
+     */
+    private static volatile float boxBlurRadius = 12f;
+
+    /**
+     * Minimum amount of image pixels for the blur to be performed in parallel.
+     */
+    private static volatile int parallelThreshold = 128 * 128;
+
+    /**
+     * Returns radius starting from which blur is approximated with three box blurs.
+     *
+     * @return radius starting from which blur is approximated with three box blurs
+     */
+    public static float getBoxBlurRadius ()
+    {
+        return boxBlurRadius;
+    }
+
+    /**
+     * Sets radius starting from which blur is approximated with three box blurs.
+     *
+     * @param boxBlurRadius radius starting from which blur is approximated with three box blurs
+     */
+    public static void setBoxBlurRadius ( final float boxBlurRadius )
+    {
+        if ( boxBlurRadius < 1 )
+        {
+            throw new IllegalArgumentException ( "Invalid box blur radius: " + boxBlurRadius );
+        }
+        FastBlur.boxBlurRadius = boxBlurRadius;
+    }
+
+    /**
+     * Returns minimum amount of image pixels for the blur to be performed in parallel.
+     *
+     * @return minimum amount of image pixels for the blur to be performed in parallel
+     */
+    public static int getParallelThreshold ()
+    {
+        return parallelThreshold;
+    }
+
+    /**
+     * Sets minimum amount of image pixels for the blur to be performed in parallel.
+     *
+     * @param parallelThreshold minimum amount of image pixels for the blur to be performed in parallel
+     */
+    public static void setParallelThreshold ( final int parallelThreshold )
+    {
+        if ( parallelThreshold < 1 )
+        {
+            throw new IllegalArgumentException ( "Invalid parallel threshold: " + parallelThreshold );
+        }
+        FastBlur.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Blurs source image and places result into destination image.
+     * Source and destination images should have the same size and might be the same image.
+     *
+     * @param src    source image
+     * @param dst    destination image
+     * @param radius blur radius
+     * @param alpha  whether alpha channel should be blurred or made opaque
+     * @return destination image
+     */
+    public static BufferedImage blur ( final BufferedImage src, final BufferedImage dst, final float radius, final boolean alpha )
+    {
+        final int width = src.getWidth ();
+        final int height = src.getHeight ();
+        final int[] pixels = getBuffer ( IMAGE_BUFFER, width * height );
+        final boolean direct = isIntImage ( src ) && src.getType () == dst.getType ();
+        if ( direct )
+        {
+            src.getRaster ().getDataElements ( 0, 0, width, height, pixels );
+        }
+        else
+        {
+            src.getRGB ( 0, 0, width, height, pixels, 0, width );
+        }
+
+        blur ( pixels, width, height, radius, alpha );
+
+        if ( direct )
+        {
+            dst.getRaster ().setDataElements ( 0, 0, width, height, pixels );
+        }
+        else
+        {
+            dst.setRGB ( 0, 0, width, height, pixels, 0, width );
+        }
+        return dst;
+    }
+
+    /**
+     * Blurs ARGB pixels in place.
+     *
+     * @param pixels ARGB pixels
+     * @param width  image width
+     * @param height image height
+     * @param radius blur radius
+     * @param alpha  whether alpha channel should be blurred or made opaque
+     */
+    public static void blur ( final int[] pixels, final int width, final int height, final float radius, final boolean alpha )
+    {
+        blur ( pixels, width, height, radius, alpha, false );
+    }
+
+    /**
+     * Blurs single channel values in place.
+     * Values should be in 0-255 range, for example alpha values of the image.
+     *
+     * @param values single channel values
+     * @param width  image width
+     * @param height image height
+     * @param radius blur radius
+     */
+    public static void blurChannel ( final int[] values, final int width, final int height, final float radius )
+    {
+        blur ( values, width, height, radius, true, true );
+    }
+
+    /**
+     * Returns alpha values of the specified image multiplied by opacity.
+     *
+     * @param image   image to retrieve alpha values from
+     * @param opacity opacity to multiply alpha values by
+     * @param values  array to place alpha values into or null to create a new one
+     * @return alpha values of the specified image multiplied by opacity
+     */
+    public static int[] getAlpha ( final BufferedImage image, final float opacity, int[] values )
+    {
+        final int width = image.getWidth ();
+        final int height = image.getHeight ();
+        final int size = width * height;
+        if ( values == null || values.length < size )
+        {
+            values = new int[ size ];
+        }
+        if ( image.getType () == BufferedImage.TYPE_INT_ARGB )
+        {
+            image.getRaster ().getDataElements ( 0, 0, width, height, values );
+            for ( int i = 0; i < size; i++ )
+            {
+                values[ i ] = values[ i ] >>> 24;
+            }
+        }
+        else
+        {
+            final WritableRaster alphaRaster = image.getAlphaRaster ();
+            if ( alphaRaster != null )
+            {
+                alphaRaster.getSamples ( 0, 0, width, height, 0, values );
+            }
+            else
+            {
+                for ( int i = 0; i < size; i++ )
+                {
+                    values[ i ] = 0xff;
+                }
+            }
+        }
+        if ( opacity < 1f )
+        {
+            final int o = Math.round ( Math.max ( 0f, opacity ) * ONE );
+            for ( int i = 0; i < size; i++ )
+            {
+                values[ i ] = values[ i ] * o >> SHIFT;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns new ARGB image filled with the specified color and alpha values.
+     * Its pixels are written directly into its data buffer.
+     *
+     * @param values alpha values
+     * @param width  image width
+     * @param height image height
+     * @param rgb    RGB color
+     * @return new ARGB image filled with the specified color and alpha values
+     */
+    public static BufferedImage createAlphaImage ( final int[] values, final int width, final int height, final int rgb )
+    {
+        final BufferedImage image = new BufferedImage ( width, height, BufferedImage.TYPE_INT_ARGB );
+        final int[] data = ( ( DataBufferInt ) image.getRaster ().getDataBuffer () ).getData ();
+        final int color = rgb & 0xffffff;
+        final int size = width * height;
+        for ( int i = 0; i < size; i++ )
+        {
+            data[ i ] = values[ i ] << 24 | color;
+        }
+        return image;
+    }
+
+    /**
+     * Returns whether blur with the specified radius is approximated with three box blurs or not.
+     *
+     * @param radius blur radius
+     * @return true if blur with the specified radius is approximated with three box blurs, false otherwise
+     */
+    public static boolean isBoxBlur ( final float radius )
+    {
+        return radius >= boxBlurRadius;
+    }
+
+    /**
+     * Returns whether image of the specified size is blurred in parallel or not.
+     *
+     * @param pixels amount of image pixels
+     * @return true if image of the specified size is blurred in parallel, false otherwise
+     */
+    public static boolean isParallel ( final int pixels )
+    {
+        return pixels >= parallelThreshold && Runtime.getRuntime ().availableProcessors () > 1;
+    }
+
+    /**
+     * Returns integer Gaussian kernel with weights summing up to fixed-point one.
+     * Weights are equal to {@link com.alee.graphics.filters.GaussianFilter#makeKernel(float)} ones rounded to fixed-point precision.
+     *
+     * @param radius blur radius
+     * @return integer Gaussian kernel
+     */
+    public static int[] createKernel ( final float radius )
+    {
+        final float[] matrix = GaussianFilter.makeKernel ( radius ).getKernelData ( null );
+        final int[] kernel = new int[ matrix.length ];
+        int total = 0;
+        for ( int i = 0; i < matrix.length; i++ )
+        {
+            kernel[ i ] = Math.round ( matrix[ i ] * ONE );
+            total += kernel[ i ];
+        }
+        kernel[ kernel.length / 2 ] += ONE - total;
+        return kernel;
+    }
+
+    /**
+     * Returns radii of three box blurs approximating Gaussian blur with the specified radius.
+     * Gaussian sigma is one third of the radius, same as within {@link com.alee.graphics.filters.GaussianFilter#makeKernel(float)}.
+     *
+     * @param radius blur radius
+     * @return radii of three box blurs approximating Gaussian blur with the specified radius
+     */
+    public static int[] createBoxRadii ( final float radius )
+    {
+        final double sigma = radius / 3.0;
+        final double variance = 12 * sigma * sigma;
+        int lower = ( int ) Math.floor ( Math.sqrt ( variance / 3 + 1 ) );
+        if ( lower % 2 == 0 )
+        {
+            lower--;
+        }
+        final int upper = lower + 2;
+        final int lowerCount = ( int ) Math.round ( ( variance - 3 * lower * lower - 12 * lower - 9 ) / ( -4 * lower - 4 ) );
+        final int[] radii = new int[ 3 ];
+        for ( int i = 0; i < radii.length; i++ )
+        {
+            radii[ i ] = ( ( i < lowerCount ? lower : upper ) - 1 ) / 2;
+        }
+        return radii;
+    }
+
+    /**
+     * Blurs pixels or single channel values in place.
+     *
+     * @param pixels  pixels or single channel values
+     * @param width   image width
+     * @param height  image height
+     * @param radius  blur radius
+     * @param alpha   whether alpha channel should be blurred or made opaque
+     * @param channel whether values are single channel values or ARGB pixels
+     */
+    private static void blur ( final int[] pixels, final int width, final int height, final float radius, final boolean alpha,
+                               final boolean channel )
+    {
+        if ( radius <= 0 || width == 0 || height == 0 )
+        {
+            return;
+        }
+        final int[] transposed = getBuffer ( TRANSPOSE_BUFFER, width * height );
+        final boolean parallel = isParallel ( width * height );
+        if ( isBoxBlur ( radius ) )
+        {
+            final int[] radii = createBoxRadii ( radius );
+            blurRows ( new BoxPass ( pixels, transposed, width, height, radii, alpha, channel ), height, parallel );
+            blurRows ( new BoxPass ( transposed, pixels, height, width, radii, alpha, channel ), width, parallel );
+        }
+        else
+        {
+            final int[] kernel = createKernel ( radius );
+            blurRows ( new KernelPass ( pixels, transposed, width, height, kernel, alpha, channel ), height, parallel );
+            blurRows ( new KernelPass ( transposed, pixels, height, width, kernel, alpha, channel ), width, parallel );
+        }
+    }
+
+    /**
+     * Performs pass over the specified amount of rows.
+     *
+     * @param pass     blur pass
+     * @param rows     amount of rows
+     * @param parallel whether rows should be processed in parallel or not
+     */
+    private static void blurRows ( final Pass pass, final int rows, final boolean parallel )
+    {
+        if ( parallel )
+        {
+            final int processors = Runtime.getRuntime ().availableProcessors ();
+            final int minRows = Math.max ( 1, rows / ( processors * 4 ) );
+            ConcurrentUtils.getForkJoinPool ().invoke ( new RowsTask ( pass, 0, rows, minRows ) );
+        }
+        else
+        {
+            pass.blur ( 0, rows );
+        }
+    }
+
+    /**
+     * Returns whether image pixels can be copied through its raster as ARGB values or not.
+     *
+     * @param image image to check
+     * @return true if image pixels can be copied through its raster as ARGB values, false otherwise
+     */
+    private static boolean isIntImage ( final BufferedImage image )
+    {
+        final int type = image.getType ();
+        return type == BufferedImage.TYPE_INT_ARGB || type == BufferedImage.TYPE_INT_RGB;
+    }
+
+    /**
+     * Returns scratch buffer of at least the specified size for the current thread.
+     *
+     * @param slot buffer slot
+     * @param size minimum buffer size
+     * @return scratch buffer of at least the specified size for the current thread
+     */
+    private static int[] getBuffer ( final int slot, final int size )
+    {
+        final SoftReference<int[][]> reference = scratch.get ();
+        int[][] buffers = reference != null ? reference.get () : null;
+        if ( buffers == null )
+        {
+            buffers = new int[ 4 ][];
+            scratch.set ( new SoftReference<int[][]> ( buffers ) );
+        }
+        int[] buffer = buffers[ slot ];
+        if ( buffer == null || buffer.length < size )
+        {
+            buffer = new int[ size ];
+            buffers[ slot ] = buffer;
+        }
+        return buffer;
+    }
+
+    /**
+     * Blur pass which blurs rows of the input and writes them as columns of the output.
+     */
+    private static abstract class Pass
+    {
+        protected final int[] in;
+        protected final int[] out;
+        protected final int width;
+        protected final int height;
+        protected final boolean alpha;
+        protected final boolean channel;
+
+        public Pass ( final int[] in, final int[] out, final int width, final int height, final boolean alpha, final boolean channel )
+        {
+            super ();
+            this.in = in;
+            this.out = out;
+            this.width = width;
+            this.height = height;
+            this.alpha = alpha;
+            this.channel = channel;
+        }
+
+        /**
+         * Blurs rows within the specified range.
+         *
+         * @param from first row index
+         * @param to   last row index, exclusive
+         */
+        public abstract void blur ( int from, int to );
+    }
+
+    /**
+     * Gaussian kernel pass.
+     */
+    private static final class KernelPass extends Pass
+    {
+        private final int[] kernel;
+
+        public KernelPass ( final int[] in, final int[] out, final int width, final int height, final int[] kernel, final boolean alpha,
+                            final boolean channel )
+        {
+            super ( in, out, width, height, alpha, channel );
+            this.kernel = kernel;
+        }
+
+        @Override
+        public void blur ( final int from, final int to )
+        {
+            final int[] in = this.in;
+            final int[] out = this.out;
+            final int[] kernel = this.kernel;
+            final int taps = kernel.length;
+            final int r = taps / 2;
+            final int last = width - 1;
+            for ( int y = from; y < to; y++ )
+            {
+                final int offset = y * width;
+                int index = y;
+                for ( int x = 0; x < width; x++ )
+                {
+                    final int start = x - r;
+                    final boolean inner = start >= 0 && x + r <= last;
+                    if ( channel )
+                    {
+                        int v = HALF;
+                        if ( inner )
+                        {
+                            final int p = offset + start;
+                            for ( int k = 0; k < taps; k++ )
+                            {
+                                v += kernel[ k ] * in[ p + k ];
+                            }
+                        }
+                        else
+                        {
+                            for ( int k = 0; k < taps; k++ )
+                            {
+                                v += kernel[ k ] * in[ offset + Math.min ( Math.max ( start + k, 0 ), last ) ];
+                            }
+                        }
+                        out[ index ] = v >>> SHIFT;
+                    }
+                    else
+                    {
+                        int a = HALF;
+                        int rd = HALF;
+                        int g = HALF;
+                        int b = HALF;
+                        if ( inner )
+                        {
+                            final int p = offset + start;
+                            for ( int k = 0; k < taps; k++ )
+                            {
+                                final int f = kernel[ k ];
+                                final int rgb = in[ p + k ];
+                                a += f * ( rgb >>> 24 );
+                                rd += f * ( ( rgb >> 16 ) & 0xff );
+                                g += f * ( ( rgb >> 8 ) & 0xff );
+                                b += f * ( rgb & 0xff );
+                            }
+                        }
+                        else
+                        {
+                            for ( int k = 0; k < taps; k++ )
+                            {
+                                final int f = kernel[ k ];
+                                final int rgb = in[ offset + Math.min ( Math.max ( start + k, 0 ), last ) ];
+                                a += f * ( rgb >>> 24 );
+                                rd += f * ( ( rgb >> 16 ) & 0xff );
+                                g += f * ( ( rgb >> 8 ) & 0xff );
+                                b += f * ( rgb & 0xff );
+                            }
+                        }
+                        final int ia = alpha ? a >>> SHIFT : 0xff;
+                        out[ index ] = ia << 24 | ( rd >>> SHIFT ) << 16 | ( g >>> SHIFT ) << 8 | b >>> SHIFT;
+                    }
+                    index += height;
+                }
+            }
+        }
+    }
+
+    /**
+     * Triple box blur pass.
+     */
+    private static final class BoxPass extends Pass
+    {
+        private final int[] radii;
+
+        public BoxPass ( final int[] in, final int[] out, final int width, final int height, final int[] radii, final boolean alpha,
+                         final boolean channel )
+        {
+            super ( in, out, width, height, alpha, channel );
+            this.radii = radii;
+        }
+
+        @Override
+        public void blur ( final int from, final int to )
+        {
+            final int r1 = radii[ 0 ];
+            final int r12 = r1 + radii[ 1 ];
+            final int pad = r12 + radii[ 2 ];
+            final int length = width + pad * 2;
+
+            // Row buffers have one extra element since running sum is also updated after the last value
+            final int[] row1 = getBuffer ( ROW_BUFFER_1, length + 1 );
+            final int[] row2 = getBuffer ( ROW_BUFFER_2, length + 1 );
+            for ( int y = from; y < to; y++ )
+            {
+                // Extending row with its edge values once so that box blurs do not need any edge checks
+                // Blurring each box result with clamped edges again would make edges noticeably different from Gaussian blur
+                final int offset = y * width;
+                Arrays.fill ( row1, 0, pad, in[ offset ] );
+                System.arraycopy ( in, offset, row1, pad, width );
+                Arrays.fill ( row1, pad + width, length, in[ offset + width - 1 ] );
+
+                // Each box blur narrows down the part of the row which contains valid values
+                if ( channel )
+                {
+                    boxChannel ( row1, row2, r1, length - r1, radii[ 0 ], r1, 1 );
+                    boxChannel ( row2, row1, r12, length - r12, radii[ 1 ], r12, 1 );
+                    boxChannel ( row1, out, pad, pad + width, radii[ 2 ], y, height );
+                }
+                else
+                {
+                    box ( row1, row2, r1, length - r1, radii[ 0 ], r1, 1 );
+                    box ( row2, row1, r12, length - r12, radii[ 1 ], r12, 1 );
+                    box ( row1, out, pad, pad + width, radii[ 2 ], y, height );
+                }
+            }
+        }
+
+        /**
+         * Performs box blur of ARGB pixels within the specified range of the row.
+         * Source pixels should be available within the box radius around that range.
+         *
+         * @param src    source row pixels
+         * @param dst    destination pixels
+         * @param from   first blurred pixel index
+         * @param to     last blurred pixel index, exclusive
+         * @param r      box radius
+         * @param index  first destination index
+         * @param stride destination pixels stride
+         */
+        private void box ( final int[] src, final int[] dst, final int from, final int to, final int r, int index, final int stride )
+        {
+            final int multiplier = ONE / ( 2 * r + 1 );
+            int a = 0;
+            int rd = 0;
+            int g = 0;
+            int b = 0;
+            for ( int i = from - r; i <= from + r; i++ )
+            {
+                final int rgb = src[ i ];
+                a += rgb >>> 24;
+                rd += ( rgb >> 16 ) & 0xff;
+                g += ( rgb >> 8 ) & 0xff;
+                b += rgb & 0xff;
+            }
+            for ( int i = from; i < to; i++ )
+            {
+                final int ia = alpha ? ( a * multiplier + HALF ) >>> SHIFT : 0xff;
+                dst[ index ] = ia << 24 | ( ( rd * multiplier + HALF ) >>> SHIFT ) << 16 | ( ( g * multiplier + HALF ) >>> SHIFT ) << 8 |
+                        ( b * multiplier + HALF ) >>> SHIFT;
+                index += stride;
+
+                final int rgbIn = src[ i + r + 1 ];
+                final int rgbOut = src[ i - r ];
+                a += ( rgbIn >>> 24 ) - ( rgbOut >>> 24 );
+                rd += ( ( rgbIn >> 16 ) & 0xff ) - ( ( rgbOut >> 16 ) & 0xff );
+                g += ( ( rgbIn >> 8 ) & 0xff ) - ( ( rgbOut >> 8 ) & 0xff );
+                b += ( rgbIn & 0xff ) - ( rgbOut & 0xff );
+            }
+        }
+
+        /**
+         * Performs box blur of channel values within the specified range of the row.
+         * Source values should be available within the box radius around that range.
+         *
+         * @param src    source row values
+         * @param dst    destination values
+         * @param from   first blurred value index
+         * @param to     last blurred value index, exclusive
+         * @param r      box radius
+         * @param index  first destination index
+         * @param stride destination values stride
+         */
+        private void boxChannel ( final int[] src, final int[] dst, final int from, final int to, final int r, int index,
+                                  final int stride )
+        {
+            final int multiplier = ONE / ( 2 * r + 1 );
+            int v = 0;
+            for ( int i = from - r; i <= from + r; i++ )
+            {
+                v += src[ i ];
+            }
+            for ( int i = from; i < to; i++ )
+            {
+                dst[ index ] = ( v * multiplier + HALF ) >>> SHIFT;
+                index += stride;
+                v += src[ i + r + 1 ] - src[ i - r ];
+            }
+        }
+    }
+
+    /**
+     * Fork-join task which splits rows between worker threads.
+     */
+    private static final class RowsTask extends RecursiveAction
+    {
+        /**
+         * Tasks are never serialized, they only exist while blur is performed.
+         */
+        private static final long serialVersionUID = 1L;
+
+        private final transient Pass pass;
+        private final int from;
+        private final int to;
+        private final int minRows;
+
+        public RowsTask ( final Pass pass, final int from, final int to, final int minRows )
+        {
+            super ();
+            this.pass = pass;
+            this.from = from;
+            this.to = to;
+            this.minRows = minRows;
+        }
+
+        @Override
+        protected void compute ()
+        {
+            if ( to - from <= minRows )
+            {
+                pass.blur ( from, to );
+            }
+            else
+            {
+                final int middle = ( from + to ) >>> 1;
+                invokeAll ( new RowsTask ( pass, from, middle, minRows ), new RowsTask ( pass, middle, to, minRows ) );
+            }
+        }
+    }
+}
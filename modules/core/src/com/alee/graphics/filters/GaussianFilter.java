@@ -46,6 +46,11 @@ import java.awt.image.Kernel;
 public class GaussianFilter extends ConvolveFilter
 {
     protected float radius;
+
+    /**
+     * Kernel for the current radius.
+     * It is only created on request through {@link #getKernel()} since blur itself is performed by {@link FastBlur}.
+     */
     protected Kernel kernel;
 
     /**
@@ -74,7 +79,21 @@ public class GaussianFilter extends ConvolveFilter
     public void setRadius ( float radius )
     {
         this.radius = radius;
-        kernel = makeKernel ( radius );
+        kernel = null;
+    }
+
+    /**
+     * Returns kernel for the current radius.
+     *
+     * @return kernel for the current radius
+     */
+    public Kernel getKernel ()
+    {
+        if ( kernel == null )
+        {
+            kernel = makeKernel ( radius );
+        }
+        return kernel;
     }
 
     /**
@@ -98,14 +117,10 @@ public class GaussianFilter extends ConvolveFilter
             dst = createCompatibleDestImage ( src, null );
         }
 
-        int[] inPixels = new int[ width * height ];
-        int[] outPixels = new int[ width * height ];
-        src.getRGB ( 0, 0, width, height, inPixels, 0, width );
-
-        convolveAndTranspose ( kernel, inPixels, outPixels, width, height, alpha, CLAMP_EDGES );
-        convolveAndTranspose ( kernel, outPixels, inPixels, height, width, alpha, CLAMP_EDGES );
-
-        dst.setRGB ( 0, 0, width, height, inPixels, 0, width );
+        if ( width > 0 && height > 0 )
+        {
+            FastBlur.blur ( src, dst, radius, alpha );
+        }
         return dst;
     }
 
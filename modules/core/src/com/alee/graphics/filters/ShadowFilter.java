@@ -35,7 +35,6 @@ package com.alee.graphics.filters;
 
 import java.awt.*;
 import java.awt.geom.AffineTransform;
-import java.awt.image.BandCombineOp;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
 
@@ -174,11 +173,11 @@ public class ShadowFilter extends AbstractBufferedImageOp
             }
         }
 
-        // Make a black mask from the image's alpha channel
-        final float[][] extractAlpha = { { 0, 0, 0, 0 }, { 0, 0, 0, 0 }, { 0, 0, 0, 0 }, { 0, 0, 0, opacity } };
-        BufferedImage shadow = new BufferedImage ( width, height, BufferedImage.TYPE_INT_ARGB );
-        new BandCombineOp ( extractAlpha, null ).filter ( src.getRaster (), shadow.getRaster () );
-        shadow = new GaussianFilter ( radius ).filter ( shadow, null );
+        // Make a blurred black mask from the image's alpha channel
+        // Only alpha values are blurred since mask color channels are empty anyway
+        final int[] alpha = FastBlur.getAlpha ( src, opacity, null );
+        FastBlur.blurChannel ( alpha, width, height, radius );
+        final BufferedImage shadow = FastBlur.createAlphaImage ( alpha, width, height, 0 );
 
         final Graphics2D g = dst.createGraphics ();
         g.setComposite ( AlphaComposite.getInstance ( AlphaComposite.SRC_OVER, opacity ) );
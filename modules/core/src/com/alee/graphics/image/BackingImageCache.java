@@ -0,0 +1,335 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.alee.graphics.image;
+
+import com.alee.utils.ShapeCacheKey;
+
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thread-safe cache of pre-rendered backing images shared between painters.
+ * Images are stored under an owner, usually painter class, and a {@link com.alee.utils.ShapeCacheKey} containing every setting which
+ * affects the rendered image, so images are shared between all components painted with the same settings and are never reused once
+ * any of those settings changes.
+ * <p/>
+ * Least recently used images are evicted once their total size exceeds the memory budget.
+ * Requesting an image doesn't allocate anything, so cache can be checked on each paint.
+ *
+ * @author Mikle Garin
+ * @see com.alee.utils.ShapeCacheKey
+ */
+
+public class BackingImageCache
+{
+    /**
+     * Default memory budget in bytes.
+     */
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    /**
+     * Cached images in access order.
+     */
+    protected final LinkedHashMap<CacheKey, CacheEntry> entries = new LinkedHashMap<CacheKey, CacheEntry> ( 64, 0.75f, true );
+
+    /**
+     * Reusable key used to look up images.
+     */
+    protected final CacheKey lookupKey = new CacheKey ( null, null );
+
+    /**
+     * Memory budget in bytes.
+     */
+    protected long maxBytes;
+
+    /**
+     * Cache statistics.
+     */
+    protected long bytes = 0;
+    protected long hits = 0;
+    protected long misses = 0;
+    protected long evictions = 0;
+
+    /**
+     * Constructs new backing images cache with default memory budget.
+     */
+    public BackingImageCache ()
+    {
+        this ( DEFAULT_MAX_BYTES );
+    }
+
+    /**
+     * Constructs new backing images cache.
+     *
+     * @param maxBytes memory budget in bytes
+     */
+    public BackingImageCache ( final long maxBytes )
+    {
+        super ();
+        setMaxBytes ( maxBytes );
+    }
+
+    /**
+     * Returns memory budget in bytes.
+     *
+     * @return memory budget in bytes
+     */
+    public synchronized long getMaxBytes ()
+    {
+        return maxBytes;
+    }
+
+    /**
+     * Sets memory budget in bytes.
+     * Images are evicted immediately if they do not fit into the new budget.
+     *
+     * @param maxBytes memory budget in bytes
+     */
+    public synchronized void setMaxBytes ( final long maxBytes )
+    {
+        if ( maxBytes < 0 )
+        {
+            throw new IllegalArgumentException ( "Invalid memory budget: " + maxBytes );
+        }
+        this.maxBytes = maxBytes;
+        evict ();
+    }
+
+    /**
+     * Returns whether image of the specified size should be cached or not.
+     * Single image is not allowed to take more than a quarter of the memory budget, otherwise it would evict most of other images.
+     *
+     * @param width  image width
+     * @param height image height
+     * @return true if image of the specified size should be cached, false otherwise
+     */
+    public synchronized boolean isCacheable ( final int width, final int height )
+    {
+        return width > 0 && height > 0 && 4L * width * height <= maxBytes / 4;
+    }
+
+    /**
+     * Returns cached image or null if there is no image cached under the specified key.
+     *
+     * @param owner    images owner
+     * @param settings image settings
+     * @return cached image or null if there is no image cached under the specified key
+     */
+    public synchronized BufferedImage get ( final Object owner, final ShapeCacheKey settings )
+    {
+        lookupKey.set ( owner, settings );
+        final CacheEntry entry = entries.get ( lookupKey );
+        lookupKey.set ( null, null );
+        if ( entry != null )
+        {
+            hits++;
+            return entry.image;
+        }
+        else
+        {
+            misses++;
+            return null;
+        }
+    }
+
+    /**
+     * Caches image under the specified key.
+     * Settings key is copied so the same instance can be safely refilled afterwards.
+     *
+     * @param owner    images owner
+     * @param settings image settings
+     * @param image    image to cache
+     */
+    public synchronized void put ( final Object owner, final ShapeCacheKey settings, final BufferedImage image )
+    {
+        if ( image != null )
+        {
+            final CacheEntry entry = new CacheEntry ( image, LruImageCache.getBytes ( image ) );
+            final CacheEntry old = entries.put ( new CacheKey ( owner, settings.copy () ), entry );
+            if ( old != null )
+            {
+                bytes -= old.bytes;
+            }
+            bytes += entry.bytes;
+            evict ();
+        }
+    }
+
+    /**
+     * Evicts least recently used images until the rest of them fit into memory budget.
+     */
+    protected void evict ()
+    {
+        final Iterator<Map.Entry<CacheKey, CacheEntry>> iterator = entries.entrySet ().iterator ();
+        while ( bytes > maxBytes && iterator.hasNext () )
+        {
+            final Map.Entry<CacheKey, CacheEntry> eldest = iterator.next ();
+            iterator.remove ();
+            bytes -= eldest.getValue ().bytes;
+            evictions++;
+        }
+    }
+
+    /**
+     * Removes all images cached for the specified owner.
+     *
+     * @param owner images owner
+     */
+    public synchronized void clear ( final Object owner )
+    {
+        final Iterator<Map.Entry<CacheKey, CacheEntry>> iterator = entries.entrySet ().iterator ();
+        while ( iterator.hasNext () )
+        {
+            final Map.Entry<CacheKey, CacheEntry> entry = iterator.next ();
+            if ( entry.getKey ().owner == owner )
+            {
+                iterator.remove ();
+                bytes -= entry.getValue ().bytes;
+            }
+        }
+    }
+
+    /**
+     * Removes all cached images.
+     */
+    public synchronized void clear ()
+    {
+        entries.clear ();
+        bytes = 0;
+    }
+
+    /**
+     * Returns amount of successful image requests.
+     *
+     * @return amount of successful image requests
+     */
+    public synchronized long getHits ()
+    {
+        return hits;
+    }
+
+    /**
+     * Returns amount of image requests which didn't find anything.
+     *
+     * @return amount of image requests which didn't find anything
+     */
+    public synchronized long getMisses ()
+    {
+        return misses;
+    }
+
+    /**
+     * Returns amount of images evicted to satisfy cache memory budget.
+     *
+     * @return amount of images evicted to satisfy cache memory budget
+     */
+    public synchronized long getEvictions ()
+    {
+        return evictions;
+    }
+
+    /**
+     * Returns amount of cached images.
+     *
+     * @return amount of cached images
+     */
+    public synchronized int getSize ()
+    {
+        return entries.size ();
+    }
+
+    /**
+     * Returns approximate amount of pixel bytes held by the cache.
+     *
+     * @return approximate amount of pixel bytes held by the cache
+     */
+    public synchronized long getBytes ()
+    {
+        return bytes;
+    }
+
+    /**
+     * Resets cache statistics.
+     */
+    public synchronized void resetStatistics ()
+    {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    /**
+     * Cache key combining images owner and image settings.
+     */
+    protected static final class CacheKey
+    {
+        private Object owner;
+        private ShapeCacheKey settings;
+
+        public CacheKey ( final Object owner, final ShapeCacheKey settings )
+        {
+            super ();
+            set ( owner, settings );
+        }
+
+        public void set ( final Object owner, final ShapeCacheKey settings )
+        {
+            this.owner = owner;
+            this.settings = settings;
+        }
+
+        @Override
+        public boolean equals ( final Object obj )
+        {
+            if ( this == obj )
+            {
+                return true;
+            }
+            if ( !( obj instanceof CacheKey ) )
+            {
+                return false;
+            }
+            final CacheKey other = ( CacheKey ) obj;
+            return owner == other.owner && settings.equals ( other.settings );
+        }
+
+        @Override
+        public int hashCode ()
+        {
+            return 31 * System.identityHashCode ( owner ) + settings.hashCode ();
+        }
+    }
+
+    /**
+     * Cached image along with its size.
+     */
+    protected static final class CacheEntry
+    {
+        private final BufferedImage image;
+        private final long bytes;
+
+        public CacheEntry ( final BufferedImage image, final long bytes )
+        {
+            super ();
+            this.image = image;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,475 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.alee.graphics.image;
+
+import com.alee.managers.log.Log;
+import com.alee.utils.ImageUtils;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.security.MessageDigest;
+import java.util.*;
+
+/**
+ * Thread-safe on-disk thumbnails cache which keeps generated thumbnails across application sessions.
+ * Thumbnails are stored as PNG files keyed by source file path, thumbnail size and source file modification time, so any change of
+ * the source file automatically makes its old thumbnail unreachable.
+ * <p/>
+ * Least recently used thumbnails are removed once total size of cached files exceeds the size limit.
+ * Access order is persisted through cached files modification time.
+ *
+ * @author Mikle Garin
+ * @see com.alee.utils.ImageUtils#createThumbnailIcon(String, int)
+ */
+
+public class DiskThumbnailCache
+{
+    /**
+     * Default cache size limit in bytes.
+     */
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * Cached thumbnail files extension.
+     */
+    protected static final String EXTENSION = ".png";
+
+    /**
+     * Separator between key and thumbnail description within cached file name.
+     */
+    protected static final char SEPARATOR = '_';
+
+    /**
+     * Cache directory.
+     */
+    protected final File directory;
+
+    /**
+     * Cache size limit in bytes.
+     */
+    protected long maxBytes;
+
+    /**
+     * Cached files in access order.
+     * It is lazily filled from the cache directory on first access.
+     */
+    protected LinkedHashMap<String, File> files = null;
+
+    /**
+     * Cache statistics.
+     */
+    protected long bytes = 0;
+    protected long hits = 0;
+    protected long misses = 0;
+    protected long writes = 0;
+    protected long evictions = 0;
+
+    /**
+     * Constructs new thumbnails cache within the specified directory with default size limit.
+     *
+     * @param directory cache directory
+     */
+    public DiskThumbnailCache ( final File directory )
+    {
+        this ( directory, DEFAULT_MAX_BYTES );
+    }
+
+    /**
+     * Constructs new thumbnails cache within the specified directory.
+     *
+     * @param directory cache directory
+     * @param maxBytes  cache size limit in bytes
+     */
+    public DiskThumbnailCache ( final File directory, final long maxBytes )
+    {
+        super ();
+        this.directory = directory;
+        setMaxBytes ( maxBytes );
+    }
+
+    /**
+     * Returns cache directory.
+     *
+     * @return cache directory
+     */
+    public File getDirectory ()
+    {
+        return directory;
+    }
+
+    /**
+     * Returns cache size limit in bytes.
+     *
+     * @return cache size limit in bytes
+     */
+    public synchronized long getMaxBytes ()
+    {
+        return maxBytes;
+    }
+
+    /**
+     * Sets cache size limit in bytes.
+     * Cached files are removed immediately if they do not fit into the new limit.
+     *
+     * @param maxBytes cache size limit in bytes
+     */
+    public synchronized void setMaxBytes ( final long maxBytes )
+    {
+        if ( maxBytes < 0 )
+        {
+            throw new IllegalArgumentException ( "Invalid cache size limit: " + maxBytes );
+        }
+        this.maxBytes = maxBytes;
+        if ( files != null )
+        {
+            evict ();
+        }
+    }
+
+    /**
+     * Returns cached thumbnail for the specified file or null if it is not cached yet.
+     * Returned thumbnail description is the same as it was when thumbnail was cached.
+     *
+     * @param file source file
+     * @param size thumbnail size
+     * @return cached thumbnail for the specified file or null if it is not cached yet
+     */
+    public ImageIcon get ( final File file, final int size )
+    {
+        final String key = getKey ( file, size );
+        final File cached;
+        synchronized ( this )
+        {
+            cached = getFiles ().get ( key );
+            if ( cached == null )
+            {
+                misses++;
+                return null;
+            }
+        }
+        try
+        {
+            final BufferedImage image = ImageIO.read ( cached );
+            if ( image != null )
+            {
+                // Persisting access order
+                cached.setLastModified ( System.currentTimeMillis () );
+
+                final ImageIcon thumbnail = new ImageIcon ( image );
+                thumbnail.setDescription ( getDescription ( cached ) );
+                synchronized ( this )
+                {
+                    hits++;
+                }
+                return thumbnail;
+            }
+        }
+        catch ( final Throwable e )
+        {
+            // Broken file is simply removed below
+        }
+        synchronized ( this )
+        {
+            misses++;
+            remove ( key );
+        }
+        return null;
+    }
+
+    /**
+     * Caches thumbnail for the specified file.
+     *
+     * @param file      source file
+     * @param size      thumbnail size
+     * @param thumbnail thumbnail to cache
+     */
+    public void put ( final File file, final int size, final ImageIcon thumbnail )
+    {
+        if ( thumbnail == null || thumbnail.getIconWidth () <= 0 || thumbnail.getIconHeight () <= 0 )
+        {
+            return;
+        }
+        final String key = getKey ( file, size );
+        final String description = thumbnail.getDescription ();
+        final boolean validDescription = description != null && description.matches ( "[0-9a-zA-Z]+" );
+        final File cached = new File ( directory, key + ( validDescription ? SEPARATOR + description : "" ) + EXTENSION );
+        synchronized ( this )
+        {
+            remove ( key );
+        }
+        try
+        {
+            if ( !directory.exists () && !directory.mkdirs () )
+            {
+                return;
+            }
+
+            // Writing into temporary file first to avoid exposing partially written thumbnails
+            final File temp = new File ( directory, key + ".tmp" );
+            if ( !ImageIO.write ( ImageUtils.getBufferedImage ( thumbnail ), "png", temp ) )
+            {
+                temp.delete ();
+                return;
+            }
+            if ( !temp.renameTo ( cached ) )
+            {
+                temp.delete ();
+                return;
+            }
+        }
+        catch ( final Throwable e )
+        {
+            Log.error ( this, e );
+            return;
+        }
+        synchronized ( this )
+        {
+            final File old = getFiles ().put ( key, cached );
+            if ( old != null && !old.equals ( cached ) )
+            {
+                bytes -= old.length ();
+                old.delete ();
+            }
+            bytes += cached.length ();
+            writes++;
+            evict ();
+        }
+    }
+
+    /**
+     * Removes all cached thumbnails.
+     */
+    public synchronized void clear ()
+    {
+        for ( final File file : getFiles ().values () )
+        {
+            file.delete ();
+        }
+        files.clear ();
+        bytes = 0;
+    }
+
+    /**
+     * Returns cached files map, loading it from the cache directory if needed.
+     * Should be called within the lock.
+     *
+     * @return cached files map
+     */
+    protected LinkedHashMap<String, File> getFiles ()
+    {
+        if ( files == null )
+        {
+            files = new LinkedHashMap<String, File> ( 64, 0.75f, true );
+            bytes = 0;
+            final File[] existing = directory.listFiles ();
+            if ( existing != null )
+            {
+                // Restoring access order from files modification time
+                Arrays.sort ( existing, new Comparator<File> ()
+                {
+                    @Override
+                    public int compare ( final File f1, final File f2 )
+                    {
+                        final long m1 = f1.lastModified ();
+                        final long m2 = f2.lastModified ();
+                        return m1 < m2 ? -1 : m1 == m2 ? 0 : 1;
+                    }
+                } );
+                for ( final File file : existing )
+                {
+                    final String name = file.getName ();
+                    if ( name.endsWith ( EXTENSION ) )
+                    {
+                        final int separator = name.indexOf ( SEPARATOR );
+                        final String key = name.substring ( 0, separator != -1 ? separator : name.length () - EXTENSION.length () );
+                        files.put ( key, file );
+                        bytes += file.length ();
+                    }
+                    else if ( name.endsWith ( ".tmp" ) )
+                    {
+                        file.delete ();
+                    }
+                }
+            }
+            evict ();
+        }
+        return files;
+    }
+
+    /**
+     * Removes cached file for the specified key.
+     * Should be called within the lock.
+     *
+     * @param key cache key
+     */
+    protected void remove ( final String key )
+    {
+        final File file = getFiles ().remove ( key );
+        if ( file != null )
+        {
+            bytes -= file.length ();
+            file.delete ();
+        }
+    }
+
+    /**
+     * Removes least recently used files until the rest of them fit into the size limit.
+     * Should be called within the lock.
+     */
+    protected void evict ()
+    {
+        final Iterator<File> iterator = files.values ().iterator ();
+        while ( bytes > maxBytes && iterator.hasNext () )
+        {
+            final File eldest = iterator.next ();
+            iterator.remove ();
+            bytes -= eldest.length ();
+            eldest.delete ();
+            evictions++;
+        }
+        if ( files.isEmpty () )
+        {
+            bytes = 0;
+        }
+    }
+
+    /**
+     * Returns cache key for the specified file and thumbnail size.
+     *
+     * @param file source file
+     * @param size thumbnail size
+     * @return cache key for the specified file and thumbnail size
+     */
+    protected String getKey ( final File file, final int size )
+    {
+        final String id = file.getAbsolutePath () + "|" + size + "|" + file.lastModified ();
+        try
+        {
+            final byte[] digest = MessageDigest.getInstance ( "MD5" ).digest ( id.getBytes ( "UTF-8" ) );
+            final StringBuilder sb = new StringBuilder ( digest.length * 2 );
+            for ( final byte b : digest )
+            {
+                sb.append ( Character.forDigit ( ( b >> 4 ) & 0xF, 16 ) ).append ( Character.forDigit ( b & 0xF, 16 ) );
+            }
+            return sb.toString ();
+        }
+        catch ( final Exception e )
+        {
+            // MD5 and UTF-8 are always available
+            return Integer.toHexString ( id.hashCode () );
+        }
+    }
+
+    /**
+     * Returns thumbnail description stored within the cached file name.
+     *
+     * @param cached cached file
+     * @return thumbnail description stored within the cached file name
+     */
+    protected String getDescription ( final File cached )
+    {
+        final String name = cached.getName ();
+        final int separator = name.indexOf ( SEPARATOR );
+        return separator != -1 ? name.substring ( separator + 1, name.length () - EXTENSION.length () ) : null;
+    }
+
+    /**
+     * Returns amount of thumbnails found in cache.
+     *
+     * @return amount of thumbnails found in cache
+     */
+    public synchronized long getHits ()
+    {
+        return hits;
+    }
+
+    /**
+     * Returns amount of thumbnail requests which didn't find anything.
+     *
+     * @return amount of thumbnail requests which didn't find anything
+     */
+    public synchronized long getMisses ()
+    {
+        return misses;
+    }
+
+    /**
+     * Returns ratio of successful thumbnail requests to all requests or 0 if there were no requests yet.
+     *
+     * @return ratio of successful thumbnail requests to all requests
+     */
+    public synchronized float getHitRate ()
+    {
+        final long requests = hits + misses;
+        return requests > 0 ? ( float ) hits / requests : 0f;
+    }
+
+    /**
+     * Returns amount of thumbnails written into cache.
+     *
+     * @return amount of thumbnails written into cache
+     */
+    public synchronized long getWrites ()
+    {
+        return writes;
+    }
+
+    /**
+     * Returns amount of thumbnails removed to satisfy cache size limit.
+     *
+     * @return amount of thumbnails removed to satisfy cache size limit
+     */
+    public synchronized long getEvictions ()
+    {
+        return evictions;
+    }
+
+    /**
+     * Returns amount of cached thumbnails.
+     *
+     * @return amount of cached thumbnails
+     */
+    public synchronized int getSize ()
+    {
+        return getFiles ().size ();
+    }
+
+    /**
+     * Returns total size of cached files in bytes.
+     *
+     * @return total size of cached files in bytes
+     */
+    public synchronized long getBytes ()
+    {
+        getFiles ();
+        return bytes;
+    }
+
+    /**
+     * Resets cache statistics.
+     */
+    public synchronized void resetStatistics ()
+    {
+        hits = 0;
+        misses = 0;
+        writes = 0;
+        evictions = 0;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.alee.graphics.image;
+
+/**
+ * This interface represents images cache used by {@link com.alee.utils.ImageUtils}.
+ * Cached values are either {@link javax.swing.ImageIcon} or {@link java.awt.Image} instances stored under a namespace and a key.
+ * Namespaces allow to separate different kinds of cached images and to clear them separately.
+ * <p/>
+ * Implementations must be thread-safe since images might be requested from any thread.
+ *
+ * @author Mikle Garin
+ * @see com.alee.graphics.image.LruImageCache
+ * @see com.alee.utils.ImageUtils#installImageCache(ImageCache)
+ */
+
+public interface ImageCache
+{
+    /**
+     * Returns cached value or null if there is no value cached under the specified key.
+     *
+     * @param namespace cache namespace
+     * @param key       value key
+     * @param type      value type
+     * @param <T>       value type
+     * @return cached value or null if there is no value cached under the specified key
+     * @throws ClassCastException if cached value is not of the specified type
+     */
+    public <T> T get ( String namespace, String key, Class<T> type );
+
+    /**
+     * Caches value under the specified key.
+     * Null values are not cached.
+     *
+     * @param namespace cache namespace
+     * @param key       value key
+     * @param value     image or image icon to cache
+     */
+    public void put ( String namespace, String key, Object value );
+
+    /**
+     * Removes cached value and returns it.
+     *
+     * @param namespace cache namespace
+     * @param key       value key
+     * @param type      value type
+     * @param <T>       value type
+     * @return removed value or null if there was no value cached under the specified key
+     * @throws ClassCastException if removed value is not of the specified type
+     */
+    public <T> T remove ( String namespace, String key, Class<T> type );
+
+    /**
+     * Removes all values cached within the specified namespace.
+     *
+     * @param namespace cache namespace
+     */
+    public void clear ( String namespace );
+
+    /**
+     * Removes all cached values.
+     */
+    public void clear ();
+
+    /**
+     * Returns amount of successful value requests.
+     *
+     * @return amount of successful value requests
+     */
+    public long getHits ();
+
+    /**
+     * Returns amount of value requests which didn't find anything.
+     *
+     * @return amount of value requests which didn't find anything
+     */
+    public long getMisses ();
+
+    /**
+     * Returns amount of values evicted to satisfy cache memory budget.
+     *
+     * @return amount of values evicted to satisfy cache memory budget
+     */
+    public long getEvictions ();
+
+    /**
+     * Returns amount of cached values.
+     *
+     * @return amount of cached values
+     */
+    public int getSize ();
+
+    /**
+     * Returns approximate amount of decoded pixel bytes held by the cache.
+     *
+     * @return approximate amount of decoded pixel bytes held by the cache
+     */
+    public long getBytes ();
+}
@@ -0,0 +1,429 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.alee.graphics.image;
+
+import com.alee.utils.map.SoftHashMap;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.*;
+import java.util.List;
+
+/**
+ * Thread-safe images cache which evicts least recently used values once their total decoded pixel bytes exceed the memory budget.
+ * Optionally evicted values can be moved into a soft-referenced tier from which they are restored on request until garbage collector
+ * decides to clear them.
+ *
+ * @author Mikle Garin
+ * @see com.alee.graphics.image.ImageCache
+ */
+
+public class LruImageCache implements ImageCache
+{
+    /**
+     * Default memory budget in bytes.
+     */
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * Strongly referenced cached values in access order.
+     */
+    protected final LinkedHashMap<CacheKey, CacheEntry> entries = new LinkedHashMap<CacheKey, CacheEntry> ( 64, 0.75f, true );
+
+    /**
+     * Soft-referenced values evicted from the strong tier.
+     */
+    protected final SoftHashMap<CacheKey, Object> softEntries = new SoftHashMap<CacheKey, Object> ();
+
+    /**
+     * Memory budget in bytes.
+     */
+    protected long maxBytes;
+
+    /**
+     * Whether evicted values should be moved into soft-referenced tier or not.
+     */
+    protected boolean useSoftTier;
+
+    /**
+     * Cache statistics.
+     */
+    protected long bytes = 0;
+    protected long hits = 0;
+    protected long softHits = 0;
+    protected long misses = 0;
+    protected long evictions = 0;
+
+    /**
+     * Constructs new images cache with default memory budget and soft-referenced tier enabled.
+     */
+    public LruImageCache ()
+    {
+        this ( DEFAULT_MAX_BYTES, true );
+    }
+
+    /**
+     * Constructs new images cache.
+     *
+     * @param maxBytes    memory budget in bytes
+     * @param useSoftTier whether evicted values should be moved into soft-referenced tier or not
+     */
+    public LruImageCache ( final long maxBytes, final boolean useSoftTier )
+    {
+        super ();
+        setMaxBytes ( maxBytes );
+        this.useSoftTier = useSoftTier;
+    }
+
+    /**
+     * Returns memory budget in bytes.
+     *
+     * @return memory budget in bytes
+     */
+    public synchronized long getMaxBytes ()
+    {
+        return maxBytes;
+    }
+
+    /**
+     * Sets memory budget in bytes.
+     * Values are evicted immediately if they do not fit into the new budget.
+     *
+     * @param maxBytes memory budget in bytes
+     */
+    public synchronized void setMaxBytes ( final long maxBytes )
+    {
+        if ( maxBytes < 0 )
+        {
+            throw new IllegalArgumentException ( "Invalid memory budget: " + maxBytes );
+        }
+        this.maxBytes = maxBytes;
+        evict ();
+    }
+
+    /**
+     * Returns whether evicted values are moved into soft-referenced tier or not.
+     *
+     * @return true if evicted values are moved into soft-referenced tier, false otherwise
+     */
+    public synchronized boolean isUseSoftTier ()
+    {
+        return useSoftTier;
+    }
+
+    /**
+     * Sets whether evicted values should be moved into soft-referenced tier or not.
+     *
+     * @param useSoftTier whether evicted values should be moved into soft-referenced tier or not
+     */
+    public synchronized void setUseSoftTier ( final boolean useSoftTier )
+    {
+        this.useSoftTier = useSoftTier;
+        if ( !useSoftTier )
+        {
+            softEntries.clear ();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized <T> T get ( final String namespace, final String key, final Class<T> type )
+    {
+        final CacheKey cacheKey = new CacheKey ( namespace, key );
+        final CacheEntry entry = entries.get ( cacheKey );
+        if ( entry != null )
+        {
+            hits++;
+            return type.cast ( entry.value );
+        }
+        if ( useSoftTier )
+        {
+            final Object value = softEntries.remove ( cacheKey );
+            if ( value != null )
+            {
+                // Restoring value into strong tier
+                hits++;
+                softHits++;
+                putImpl ( cacheKey, value );
+                return type.cast ( value );
+            }
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void put ( final String namespace, final String key, final Object value )
+    {
+        if ( value != null )
+        {
+            final CacheKey cacheKey = new CacheKey ( namespace, key );
+            softEntries.remove ( cacheKey );
+            putImpl ( cacheKey, value );
+        }
+    }
+
+    /**
+     * Places value into strong tier and evicts values exceeding memory budget.
+     *
+     * @param cacheKey cache key
+     * @param value    value to cache
+     */
+    protected void putImpl ( final CacheKey cacheKey, final Object value )
+    {
+        final CacheEntry entry = new CacheEntry ( value, getBytes ( value ) );
+        final CacheEntry old = entries.put ( cacheKey, entry );
+        if ( old != null )
+        {
+            bytes -= old.bytes;
+        }
+        bytes += entry.bytes;
+        evict ();
+    }
+
+    /**
+     * Evicts least recently used values until the rest of them fit into memory budget.
+     */
+    protected void evict ()
+    {
+        final Iterator<Map.Entry<CacheKey, CacheEntry>> iterator = entries.entrySet ().iterator ();
+        while ( bytes > maxBytes && iterator.hasNext () )
+        {
+            final Map.Entry<CacheKey, CacheEntry> eldest = iterator.next ();
+            iterator.remove ();
+            bytes -= eldest.getValue ().bytes;
+            evictions++;
+            if ( useSoftTier )
+            {
+                softEntries.put ( eldest.getKey (), eldest.getValue ().value );
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized <T> T remove ( final String namespace, final String key, final Class<T> type )
+    {
+        final CacheKey cacheKey = new CacheKey ( namespace, key );
+        final Object soft = softEntries.remove ( cacheKey );
+        final CacheEntry entry = entries.remove ( cacheKey );
+        if ( entry != null )
+        {
+            bytes -= entry.bytes;
+            return type.cast ( entry.value );
+        }
+        return type.cast ( soft );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void clear ( final String namespace )
+    {
+        final Iterator<Map.Entry<CacheKey, CacheEntry>> iterator = entries.entrySet ().iterator ();
+        while ( iterator.hasNext () )
+        {
+            final Map.Entry<CacheKey, CacheEntry> entry = iterator.next ();
+            if ( entry.getKey ().namespace.equals ( namespace ) )
+            {
+                iterator.remove ();
+                bytes -= entry.getValue ().bytes;
+            }
+        }
+        final List<CacheKey> softKeys = new ArrayList<CacheKey> ( softEntries.keySet () );
+        for ( final CacheKey softKey : softKeys )
+        {
+            if ( softKey.namespace.equals ( namespace ) )
+            {
+                softEntries.remove ( softKey );
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void clear ()
+    {
+        entries.clear ();
+        softEntries.clear ();
+        bytes = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized long getHits ()
+    {
+        return hits;
+    }
+
+    /**
+     * Returns amount of successful value requests served from soft-referenced tier.
+     *
+     * @return amount of successful value requests served from soft-referenced tier
+     */
+    public synchronized long getSoftHits ()
+    {
+        return softHits;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized long getMisses ()
+    {
+        return misses;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized long getEvictions ()
+    {
+        return evictions;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized int getSize ()
+    {
+        return entries.size ();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized long getBytes ()
+    {
+        return bytes;
+    }
+
+    /**
+     * Resets cache statistics.
+     */
+    public synchronized void resetStatistics ()
+    {
+        hits = 0;
+        softHits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    /**
+     * Returns approximate amount of decoded pixel bytes used by the specified image or image icon.
+     *
+     * @param value image or image icon
+     * @return approximate amount of decoded pixel bytes used by the specified image or image icon
+     */
+    public static long getBytes ( final Object value )
+    {
+        if ( value instanceof BufferedImage )
+        {
+            final BufferedImage image = ( BufferedImage ) value;
+            final int pixelSize = Math.max ( 1, image.getColorModel ().getPixelSize () / 8 );
+            return ( long ) image.getWidth () * image.getHeight () * pixelSize;
+        }
+        else if ( value instanceof Image )
+        {
+            final Image image = ( Image ) value;
+            return 4L * Math.max ( 0, image.getWidth ( null ) ) * Math.max ( 0, image.getHeight ( null ) );
+        }
+        else if ( value instanceof ImageIcon )
+        {
+            final Image image = ( ( ImageIcon ) value ).getImage ();
+            return image != null ? getBytes ( image ) : 0;
+        }
+        else
+        {
+            return 0;
+        }
+    }
+
+    /**
+     * Cache key combining namespace and value key.
+     */
+    protected static final class CacheKey
+    {
+        private final String namespace;
+        private final String key;
+        private final int hash;
+
+        public CacheKey ( final String namespace, final String key )
+        {
+            super ();
+            this.namespace = namespace;
+            this.key = key;
+            this.hash = 31 * namespace.hashCode () + ( key != null ? key.hashCode () : 0 );
+        }
+
+        @Override
+        public boolean equals ( final Object obj )
+        {
+            if ( this == obj )
+            {
+                return true;
+            }
+            if ( !( obj instanceof CacheKey ) )
+            {
+                return false;
+            }
+            final CacheKey other = ( CacheKey ) obj;
+            return hash == other.hash && namespace.equals ( other.namespace ) &&
+                    ( key != null ? key.equals ( other.key ) : other.key == null );
+        }
+
+        @Override
+        public int hashCode ()
+        {
+            return hash;
+        }
+    }
+
+    /**
+     * Strongly cached value along with its size.
+     */
+    protected static final class CacheEntry
+    {
+        private final Object value;
+        private final long bytes;
+
+        public CacheEntry ( final Object value, final long bytes )
+        {
+            super ();
+            this.value = value;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.alee.graphics.image.gif;
+
+import com.alee.managers.log.Log;
+import com.alee.utils.swing.WebTimer;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Shared clock which drives all animated GifIcon instances.
+ * <p/>
+ * Instead of a separate thread per icon, all animated icons are registered here and checked by a single timer running on the shared
+ * WebTimer pulse outside of the Event Dispatch Thread. Each tick advances icons which reached their next frame time.
+ * Icons which were not painted for a while are considered to be invisible and are skipped, timer stops completely once there are no
+ * visible icons left and is started again by the next icon paint.
+ * <p/>
+ * Icons are referenced weakly, so animation never prevents unused icons from being garbage collected.
+ *
+ * @author Mikle Garin
+ * @see com.alee.graphics.image.gif.GifIcon
+ * @see com.alee.utils.swing.WebTimerPulse
+ */
+
+public final class GifAnimationClock
+{
+    /**
+     * Clock tick period in milliseconds.
+     */
+    public static final long TICK_PERIOD = 10L;
+
+    /**
+     * Time in milliseconds after the expected repaint within which icon still considered visible if it wasn't painted.
+     */
+    public static final long VISIBILITY_TIMEOUT = 1000L;
+
+    /**
+     * Registered animated icons.
+     */
+    private static final List<WeakReference<GifIcon>> icons = new ArrayList<WeakReference<GifIcon>> ();
+
+    /**
+     * Lock object for icons list and timer state.
+     */
+    private static final Object lock = new Object ();
+
+    /**
+     * Clock timer.
+     */
+    private static WebTimer timer = null;
+
+    /**
+     * Whether clock timer is running or not.
+     */
+    private static volatile boolean running = false;
+
+    /**
+     * Wake up requests counter.
+     * It is used to avoid stopping the clock when some icon was painted during the tick.
+     */
+    private static volatile long wakeUps = 0;
+
+    /**
+     * Registers icon within the clock.
+     *
+     * @param icon icon to register
+     */
+    static void register ( final GifIcon icon )
+    {
+        synchronized ( lock )
+        {
+            if ( indexOf ( icon ) == -1 )
+            {
+                icons.add ( new WeakReference<GifIcon> ( icon ) );
+            }
+        }
+        wakeUp ();
+    }
+
+    /**
+     * Unregisters icon from the clock.
+     *
+     * @param icon icon to unregister
+     */
+    static void unregister ( final GifIcon icon )
+    {
+        synchronized ( lock )
+        {
+            final int index = indexOf ( icon );
+            if ( index != -1 )
+            {
+                icons.remove ( index );
+            }
+        }
+    }
+
+    /**
+     * Returns index of the specified icon reference or -1 if it is not registered.
+     * Should be called within the lock.
+     *
+     * @param icon icon to look for
+     * @return index of the specified icon reference or -1 if it is not registered
+     */
+    private static int indexOf ( final GifIcon icon )
+    {
+        for ( int i = 0; i < icons.size (); i++ )
+        {
+            if ( icons.get ( i ).get () == icon )
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Starts clock if it is not running.
+     * This method is called on each icon paint so it should stay cheap when clock is already running.
+     */
+    static void wakeUp ()
+    {
+        wakeUps++;
+        if ( !running )
+        {
+            synchronized ( lock )
+            {
+                if ( !running && icons.size () > 0 )
+                {
+                    if ( timer == null )
+                    {
+                        timer = new WebTimer ( "GifAnimationClock", TICK_PERIOD, new ActionListener ()
+                        {
+                            @Override
+                            public void actionPerformed ( final ActionEvent e )
+                            {
+                                tick ();
+                            }
+                        } );
+                        timer.setUseSharedPulse ( true );
+                        timer.setUseEventDispatchThread ( false );
+                        timer.setUseDaemonThread ( true );
+                    }
+                    running = true;
+                    timer.start ();
+                }
+            }
+        }
+    }
+
+    /**
+     * Advances all visible icons which reached their next frame time.
+     */
+    private static void tick ()
+    {
+        final long wakeUpsBefore = wakeUps;
+        final List<GifIcon> current;
+        synchronized ( lock )
+        {
+            current = new ArrayList<GifIcon> ( icons.size () );
+            final Iterator<WeakReference<GifIcon>> iterator = icons.iterator ();
+            while ( iterator.hasNext () )
+            {
+                final GifIcon icon = iterator.next ().get ();
+                if ( icon != null )
+                {
+                    current.add ( icon );
+                }
+                else
+                {
+                    iterator.remove ();
+                }
+            }
+        }
+
+        // Advancing icons
+        final long now = System.currentTimeMillis ();
+        boolean active = false;
+        for ( final GifIcon icon : current )
+        {
+            try
+            {
+                active |= icon.tick ( now );
+            }
+            catch ( final Throwable e )
+            {
+                Log.error ( GifAnimationClock.class, e );
+            }
+        }
+
+        // Stopping clock when nothing is visible
+        if ( !active )
+        {
+            synchronized ( lock )
+            {
+                // Flag is dropped before the check so that concurrent wake up either is noticed here or restarts the clock itself
+                running = false;
+                if ( wakeUps != wakeUpsBefore )
+                {
+                    running = true;
+                }
+                else
+                {
+                    timer.stop ();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns amount of registered animated icons.
+     *
+     * @return amount of registered animated icons
+     */
+    public static int getAnimatedIcons ()
+    {
+        synchronized ( lock )
+        {
+            return icons.size ();
+        }
+    }
+
+    /**
+     * Returns whether clock is running or not.
+     *
+     * @return true if clock is running, false otherwise
+     */
+    public static boolean isRunning ()
+    {
+        return running;
+    }
+}
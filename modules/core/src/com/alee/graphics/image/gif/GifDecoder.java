@@ -23,8 +23,10 @@ import java.awt.image.DataBufferInt;
 import java.io.BufferedInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * @author Kevin Weiner, FM Software; LZW decoder adapted from John Cristy's ImageMagick.
@@ -48,7 +50,7 @@ public class GifDecoder
      */
     public static final int STATUS_OPEN_ERROR = 2;
 
-    private BufferedInputStream in;
+    private InputStream in;
     private int status;
 
     private int width;            // full image width
@@ -93,9 +95,16 @@ public class GifDecoder
     private byte[] pixelStack;
     private byte[] pixels;
 
-    private ArrayList frames;     // frames read from current file
+    private ArrayList<GifFrame> frames;     // frames read from current file
     private int frameCount;
 
+    // Streaming and scanning modes
+    private boolean scanOnly = false;            // skip pixel data and only collect frames info
+    private BufferedImage[] ring = null;         // reused frame images in streaming mode
+    private int ringPosition = 0;                // total amount of frames streamed into ring
+    private boolean restoreToPrevious = false;   // whether any frame uses "restore to previous" disposal
+    private int lastStreamDelay = 0;             // delay of the last streamed frame
+
     // Instance
     //    private static GifDecoder instance;
     //
@@ -143,7 +152,7 @@ public class GifDecoder
         delay = -1;
         if ( ( n >= 0 ) && ( n < frameCount ) )
         {
-            delay = ( ( GifFrame ) frames.get ( n ) ).delay;
+            delay = frames.get ( n ).delay;
         }
         return delay;
     }
@@ -159,7 +168,7 @@ public class GifDecoder
         BufferedImage bi = null;
         if ( ( n >= 0 ) && ( n < frameCount ) )
         {
-            bi = ( ( GifFrame ) frames.get ( n ) ).bufferedImage;
+            bi = frames.get ( n ).bufferedImage;
         }
         return bi;
     }
@@ -204,6 +213,7 @@ public class GifDecoder
     public int read ( final BufferedInputStream is )
     {
         init ();
+        ring = null;
         if ( is != null )
         {
             in = is;
@@ -245,16 +255,17 @@ public class GifDecoder
         try
         {
             name = name.trim ();
+            final BufferedInputStream is;
             if ( name.indexOf ( "://" ) > 0 )
             {
                 final URL url = new URL ( name );
-                in = new BufferedInputStream ( url.openStream () );
+                is = new BufferedInputStream ( url.openStream () );
             }
             else
             {
-                in = new BufferedInputStream ( new FileInputStream ( name ) );
+                is = new BufferedInputStream ( new FileInputStream ( name ) );
             }
-            status = read ( in );
+            status = read ( is );
         }
         catch ( final IOException e )
         {
@@ -265,6 +276,168 @@ public class GifDecoder
     }
 
 
+    /**
+     * Reads GIF frames information without decoding their pixel data.
+     * Afterwards frame count, delays, image size and disposal information are available while frame images are null.
+     *
+     * @param is input stream with gif animation
+     * @return status code (0=no error)
+     */
+    public int readInfo ( final InputStream is )
+    {
+        scanOnly = true;
+        try
+        {
+            init ();
+            resetState ();
+            in = is;
+            readHeader ();
+            if ( !err () )
+            {
+                readContents ();
+            }
+        }
+        finally
+        {
+            scanOnly = false;
+            close ( is );
+        }
+        return status;
+    }
+
+    /**
+     * Starts streaming decoding of the specified GIF data.
+     * Frames are not stored, instead each call to {@link #readNextFrame()} composes next frame into one of the specified amount of
+     * reused images, so only that many frame images are ever kept in memory.
+     * <p/>
+     * Requires at least two images to keep the previous frame intact while the next one is composed, and at least three images if any
+     * frame uses "restore to previous" disposal method. Stream can be restarted any time to loop the animation, images are kept.
+     *
+     * @param is      input stream with gif animation
+     * @param buffers amount of reused frame images
+     * @return status code (0=no error)
+     */
+    public int startStream ( final InputStream is, final int buffers )
+    {
+        if ( in != null && in != is )
+        {
+            close ( in );
+        }
+        init ();
+        resetState ();
+        if ( ring == null || ring.length != buffers )
+        {
+            ring = new BufferedImage[ buffers ];
+        }
+        in = is;
+        readHeader ();
+        return status;
+    }
+
+    /**
+     * Reads and composes next frame of the started stream.
+     * Returned image is reused by the following frames, its contents remain intact until ring buffers are cycled through.
+     *
+     * @return next frame image or null if there are no more frames or an error occurred
+     */
+    public BufferedImage readNextFrame ()
+    {
+        final int count = frameCount;
+        while ( frameCount == count && !err () )
+        {
+            if ( readContentBlock () )
+            {
+                break;
+            }
+        }
+        return frameCount > count && !err () ? currentBufImg : null;
+    }
+
+    /**
+     * Returns frame image currently composed within the started stream.
+     *
+     * @return frame image currently composed within the started stream
+     */
+    public BufferedImage getStreamFrame ()
+    {
+        return ring != null ? currentBufImg : null;
+    }
+
+    /**
+     * Returns delay of the last frame read from the started stream in milliseconds.
+     *
+     * @return delay of the last frame read from the started stream in milliseconds
+     */
+    public int getStreamDelay ()
+    {
+        return lastStreamDelay;
+    }
+
+    /**
+     * Returns whether any of the frames read so far uses "restore to previous" disposal method.
+     *
+     * @return true if any of the frames read so far uses "restore to previous" disposal method, false otherwise
+     */
+    public boolean isRestoreToPrevious ()
+    {
+        return restoreToPrevious;
+    }
+
+    /**
+     * Returns full image width.
+     *
+     * @return full image width
+     */
+    public int getWidth ()
+    {
+        return width;
+    }
+
+    /**
+     * Returns full image height.
+     *
+     * @return full image height
+     */
+    public int getHeight ()
+    {
+        return height;
+    }
+
+    /**
+     * Resets frame composition state left from previous reads.
+     */
+    protected void resetState ()
+    {
+        dispose = 0;
+        lastDispose = 0;
+        transparency = false;
+        delay = 0;
+        lastRect = null;
+        currentBufImg = null;
+        prevBufImg = null;
+        restoreToPrevious = false;
+    }
+
+    /**
+     * Closes the specified stream ignoring any exceptions.
+     *
+     * @param is stream to close
+     */
+    protected void close ( final InputStream is )
+    {
+        try
+        {
+            if ( is != null )
+            {
+                is.close ();
+            }
+        }
+        catch ( final IOException e )
+        {
+            //
+        }
+    }
+
     /**
      * Decodes LZW image data into pixel array. Adapted from John Cristy's ImageMagick.
      */
@@ -442,7 +615,7 @@ public class GifDecoder
     {
         status = STATUS_OK;
         frameCount = 0;
-        frames = new ArrayList ();
+        frames = new ArrayList<GifFrame> ();
         gct = null;
         lct = null;
     }
@@ -554,53 +727,66 @@ public class GifDecoder
         boolean done = false;
         while ( !( done || err () ) )
         {
-            int code = read ();
-            switch ( code )
-            {
+            done = readContentBlock ();
+        }
+    }
 
-                case 0x2C:    // image separator
-                    readImage ();
-                    break;
 
-                case 0x21:    // extension
-                    code = read ();
-                    switch ( code )
-                    {
+    /**
+     * Reads single GIF content block.
+     *
+     * @return true if terminator was reached, false otherwise
+     */
+    protected boolean readContentBlock ()
+    {
+        boolean done = false;
+        int code = read ();
+        switch ( code )
+        {
 
-                        case 0xf9:    // graphics control extension
-                            readGraphicControlExt ();
-                            break;
+            case 0x2C:    // image separator
+                readImage ();
+                break;
 
-                        case 0xff:    // application extension
-                            readBlock ();
-                            String app = "";
-                            for ( int i = 0; i < 11; i++ )
-                            {
-                                app += ( char ) currentDataBlock[ i ];
-                            }
-                            if ( app.equals ( "NETSCAPE2.0" ) )
-                            {
-                                readNetscapeExt ();
-                            }
-                            else
-                            {
-                                skip ();        // don't care
-                            }
-                            break;
+            case 0x21:    // extension
+                code = read ();
+                switch ( code )
+                {
 
-                        default:    // uninteresting extension
-                            skip ();
-                    }
-                    break;
+                    case 0xf9:    // graphics control extension
+                        readGraphicControlExt ();
+                        break;
 
-                case 0x3b:        // terminator
-                    done = true;
-                    break;
+                    case 0xff:    // application extension
+                        readBlock ();
+                        String app = "";
+                        for ( int i = 0; i < 11; i++ )
+                        {
+                            app += ( char ) currentDataBlock[ i ];
+                        }
+                        if ( app.equals ( "NETSCAPE2.0" ) )
+                        {
+                            readNetscapeExt ();
+                        }
+                        else
+                        {
+                            skip ();        // don't care
+                        }
+                        break;
 
-                default:
-                    status = STATUS_FORMAT_ERROR;
-            }
+                    default:    // uninteresting extension
+                        skip ();
+                }
+                break;
+
+            case 0x3b:        // terminator
+                done = true;
+                break;
+
+            default:
+                status = STATUS_FORMAT_ERROR;
         }
+        return done;
     }
 
 
@@ -616,6 +802,10 @@ public class GifDecoder
         {
             dispose = 1;   // elect to keep old image if discretionary
         }
+        if ( dispose == 3 )
+        {
+            restoreToPrevious = true;
+        }
         transparency = ( packed & 1 ) != 0;
         delay = readShort () * 10;   // delay in milliseconds
         transIndex = read ();        // transparent color index
@@ -695,6 +885,25 @@ public class GifDecoder
             return;
         }
 
+        if ( scanOnly )
+        {
+            // skip pixel data and only remember frame delay
+            read ();
+            skip ();
+            if ( err () )
+            {
+                return;
+            }
+            frameCount++;
+            frames.add ( new GifFrame ( null, delay ) );
+            if ( transparency )
+            {
+                act[ transIndex ] = save;
+            }
+            resetFrame ();
+            return;
+        }
+
         decodeImageData ();   // decode pixel data
         skip ();
 
@@ -705,12 +914,37 @@ public class GifDecoder
 
         frameCount++;
 
-        // create new image to receive frame data
-        currentBufImg = new BufferedImage ( width, height, BufferedImage.TYPE_INT_ARGB_PRE );
+        if ( ring != null )
+        {
+            // reuse one of the ring images in streaming mode
+            final int index = ringPosition % ring.length;
+            if ( ring[ index ] == null )
+            {
+                ring[ index ] = new BufferedImage ( width, height, BufferedImage.TYPE_INT_ARGB_PRE );
+            }
+            else
+            {
+                Arrays.fill ( ( ( DataBufferInt ) ring[ index ].getRaster ().getDataBuffer () ).getData (), 0 );
+            }
+            currentBufImg = ring[ index ];
+            ringPosition++;
+        }
+        else
+        {
+            // create new image to receive frame data
+            currentBufImg = new BufferedImage ( width, height, BufferedImage.TYPE_INT_ARGB_PRE );
+        }
 
         setPixels ();   // transfer pixel data to image
 
-        frames.add ( new GifFrame ( currentBufImg, delay ) );   // add image to frame list
+        if ( ring == null )
+        {
+            frames.add ( new GifFrame ( currentBufImg, delay ) );   // add image to frame list
+        }
+        else
+        {
+            lastStreamDelay = delay;
+        }
 
         if ( transparency )
         {
@@ -807,7 +1041,7 @@ public class GifDecoder
                 final int n = frameCount - 2;
                 if ( n > 0 )
                 {
-                    prevBufImg = getFrame ( n - 1 );
+                    prevBufImg = ring == null ? getFrame ( n - 1 ) : ring.length > 2 ? ring[ ( ringPosition - 3 ) % ring.length ] : null;
                 }
                 else
                 {
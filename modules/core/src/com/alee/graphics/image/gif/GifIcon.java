@@ -20,29 +20,85 @@ package com.alee.graphics.image.gif;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.BufferedInputStream;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.IOException;
+import java.io.*;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
+ * Animated GIF icon.
+ * <p/>
+ * Icon keeps only compressed GIF data in memory and decodes frames on demand while animation plays, so only two or three frame images
+ * are kept at any time instead of all of them. All animated icons are driven by the shared {@link GifAnimationClock}.
+ * <p/>
+ * Animation is paused once icon is not used for a while, which happens when no component showing it is visible. Icon is considered
+ * to be in use while it is painted through {@link #paintIcon(Component, Graphics, int, int)} or while its frames are requested through
+ * {@link #getImage()}, setting repaint listener also counts as a use. Paused animation continues as soon as icon is used again.
+ * <p/>
+ * Use {@link #setRepaintListener(RepaintListener)} to repaint components showing this icon when its frame changes.
+ *
  * @author Mikle Garin
+ * @see com.alee.graphics.image.gif.GifAnimationClock
  */
 
 public class GifIcon implements Icon
 {
+    /**
+     * Listener informed about displayed frame changes.
+     */
     private RepaintListener repaintListener;
 
-    private final Map<Integer, GifDecoder.GifFrame> frames;
+    /**
+     * Compressed GIF data.
+     */
+    private final byte[] data;
+
+    /**
+     * GIF read status.
+     */
     private int status = GifDecoder.STATUS_OK;
 
+    /**
+     * GIF image size.
+     */
+    private int width = 0;
+    private int height = 0;
+
+    /**
+     * Frames information.
+     */
     private int frameCount = 0;
-    private int displayedFrame = -1;
-    private Thread gifAnimator;
+    private int[] delays = null;
+
+    /**
+     * Amount of reused frame images required to decode this GIF.
+     */
+    private int buffers = 1;
+
+    /**
+     * Streaming frames decoder.
+     * It is only accessed within the icon lock.
+     */
+    private final GifDecoder decoder = new GifDecoder ();
 
-    private boolean stopAnimation = false;
+    /**
+     * Displayed frame.
+     */
+    private volatile int displayedFrame = -1;
+    private volatile BufferedImage image = null;
+
+    /**
+     * Copy of the displayed frame image provided to {@link #getImage()} callers.
+     * It is only accessed within the icon lock.
+     */
+    private BufferedImage snapshot = null;
+    private int snapshotFrame = -1;
+
+    /**
+     * Animation state.
+     */
+    private volatile boolean animated = false;
+    private long nextFrameTime = 0;
+    private volatile long lastUseTime = 0;
 
     public GifIcon ( final Class nearClass, final String imgSrc ) throws IOException
     {
@@ -58,99 +114,246 @@ public class GifIcon implements Icon
     {
         super ();
 
-        frames = new HashMap<Integer, GifDecoder.GifFrame> ();
+        // Keeping compressed data only
+        data = readData ( stream );
 
-        final GifDecoder gifDecoder = new GifDecoder ();
-        status = gifDecoder.read ( stream );
+        // Reading frames information without decoding them
+        if ( data != null )
+        {
+            final GifDecoder info = new GifDecoder ();
+            status = info.readInfo ( new ByteArrayInputStream ( data ) );
+            if ( status == GifDecoder.STATUS_OK && info.getFrameCount () > 0 )
+            {
+                width = info.getWidth ();
+                height = info.getHeight ();
+                frameCount = info.getFrameCount ();
+                delays = new int[ frameCount ];
+                for ( int i = 0; i < frameCount; i++ )
+                {
+                    delays[ i ] = info.getDelay ( i );
+                }
+                buffers = frameCount == 1 ? 1 : info.isRestoreToPrevious () ? 3 : 2;
 
-        if ( status == GifDecoder.STATUS_OK )
+                // Decoding first frame
+                restart ();
+                startAnimation ();
+            }
+            else if ( status == GifDecoder.STATUS_OK )
+            {
+                status = GifDecoder.STATUS_FORMAT_ERROR;
+            }
+        }
+        else
         {
-            frameCount = gifDecoder.getFrameCount ();
-            displayedFrame = 0;
-            for ( int i = 0; i < frameCount; i++ )
+            status = GifDecoder.STATUS_OPEN_ERROR;
+        }
+    }
+
+    /**
+     * Returns all data read from the specified stream or null if it cannot be read.
+     *
+     * @param stream stream to read
+     * @return all data read from the specified stream or null if it cannot be read
+     */
+    private static byte[] readData ( final InputStream stream )
+    {
+        try
+        {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream ( Math.max ( 1024, stream.available () ) );
+            final byte[] buffer = new byte[ 4096 ];
+            int read;
+            while ( ( read = stream.read ( buffer ) ) != -1 )
+            {
+                out.write ( buffer, 0, read );
+            }
+            return out.toByteArray ();
+        }
+        catch ( final IOException e )
+        {
+            return null;
+        }
+        finally
+        {
+            try
+            {
+                stream.close ();
+            }
+            catch ( final IOException e )
             {
-                frames.put ( i, new GifDecoder.GifFrame ( gifDecoder.getFrame ( i ), gifDecoder.getDelay ( i ) ) );
+                //
             }
-            startAnimation ();
         }
     }
 
+    /**
+     * Restarts frames stream and decodes the first frame.
+     */
+    private synchronized void restart ()
+    {
+        decoder.startStream ( new ByteArrayInputStream ( data ), buffers );
+        final BufferedImage first = decoder.readNextFrame ();
+        if ( first != null )
+        {
+            displayedFrame = 0;
+            image = first;
+        }
+    }
+
+    /**
+     * Starts animation from the first frame.
+     */
     public void startAnimation ()
     {
         if ( frameCount > 1 )
         {
-            displayedFrame = 0;
-            gifAnimator = new Thread ( new Runnable ()
+            synchronized ( this )
             {
-                @Override
-                public void run ()
+                if ( displayedFrame != 0 )
                 {
-                    while ( !stopAnimation )
-                    {
-                        final int delay = frames.get ( displayedFrame ).delay;
-                        try
-                        {
-                            Thread.sleep ( delay == 0 ? 100 : delay );
-                        }
-                        catch ( final InterruptedException e )
-                        {
-                            //
-                        }
-
-                        // Refresh displayed frame
-                        if ( displayedFrame == frameCount - 1 )
-                        {
-                            displayedFrame = 0;
-                        }
-                        else
-                        {
-                            displayedFrame++;
-                        }
-
-                        if ( repaintListener != null )
-                        {
-                            repaintListener.imageRepaintOccured ();
-                        }
-                    }
+                    restart ();
                 }
-            } );
-            gifAnimator.setDaemon ( true );
-            gifAnimator.start ();
+                nextFrameTime = System.currentTimeMillis () + getDelay ( 0 );
+            }
+            animated = true;
+            GifAnimationClock.register ( this );
         }
     }
 
+    /**
+     * Stops animation at the currently displayed frame.
+     */
     public void stopAnimation ()
     {
-        if ( gifAnimator.isAlive () )
+        animated = false;
+        GifAnimationClock.unregister ( this );
+    }
+
+    /**
+     * Returns whether animation is running or not.
+     *
+     * @return true if animation is running, false otherwise
+     */
+    public boolean isAnimated ()
+    {
+        return animated;
+    }
+
+    /**
+     * Advances animation if next frame time has come.
+     * This method is called by the shared animation clock.
+     *
+     * @param now current time in milliseconds
+     * @return true if icon is visible and its animation should continue, false otherwise
+     */
+    synchronized boolean tick ( final long now )
+    {
+        // Pausing animation while icon is not painted
+        if ( !animated || now - lastUseTime > getDelay ( displayedFrame ) + GifAnimationClock.VISIBILITY_TIMEOUT )
         {
-            stopAnimation = true;
+            return false;
         }
+
+        // Switching to the next frame
+        if ( now >= nextFrameTime )
+        {
+            BufferedImage next = decoder.readNextFrame ();
+            int frame = displayedFrame + 1;
+            if ( next == null || frame >= frameCount )
+            {
+                // Looping animation
+                decoder.startStream ( new ByteArrayInputStream ( data ), buffers );
+                next = decoder.readNextFrame ();
+                frame = 0;
+            }
+            if ( next == null )
+            {
+                // Data became unreadable, animation cannot continue
+                animated = false;
+                GifAnimationClock.unregister ( this );
+                return false;
+            }
+            displayedFrame = frame;
+            image = next;
+            nextFrameTime = now + getDelay ( frame );
+
+            // Informing about repaint
+            final RepaintListener listener = repaintListener;
+            if ( listener != null )
+            {
+                listener.imageRepaintOccured ();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns actual delay of the specified frame in milliseconds.
+     *
+     * @param frame frame index
+     * @return actual delay of the specified frame in milliseconds
+     */
+    private int getDelay ( final int frame )
+    {
+        final int delay = delays != null && frame >= 0 && frame < delays.length ? delays[ frame ] : 0;
+        return delay == 0 ? 100 : delay;
     }
 
     @Override
     public void paintIcon ( final Component c, final Graphics g, final int x, final int y )
     {
-        if ( frameCount > 0 )
+        final BufferedImage current = image;
+        if ( current != null )
+        {
+            markUsed ();
+            g.drawImage ( current, x, y, c );
+        }
+    }
+
+    /**
+     * Marks icon as being in use, so its animation continues or resumes if it was paused.
+     */
+    private void markUsed ()
+    {
+        if ( animated )
         {
-            g.drawImage ( frames.get ( displayedFrame ).bufferedImage, x, y, c );
+            lastUseTime = System.currentTimeMillis ();
+            GifAnimationClock.wakeUp ();
         }
     }
 
     @Override
     public int getIconWidth ()
     {
-        return frames.get ( displayedFrame ).bufferedImage.getWidth ();
+        return width;
     }
 
     @Override
     public int getIconHeight ()
     {
-        return frames.get ( displayedFrame ).bufferedImage.getHeight ();
+        return height;
     }
 
-    public BufferedImage getImage ()
+    /**
+     * Returns copy of the currently displayed frame image.
+     * Frame images are reused by the decoder while animation plays, so displayed image itself cannot be safely exposed.
+     * Copy is made only once per displayed frame and the same image is returned until frame changes, so it should not be modified.
+     * Use {@link #paintIcon(Component, Graphics, int, int)} to paint current frame without any copying.
+     *
+     * @return copy of the currently displayed frame image
+     */
+    public synchronized BufferedImage getImage ()
     {
-        return frames.get ( displayedFrame ).bufferedImage;
+        markUsed ();
+        if ( image == null )
+        {
+            return null;
+        }
+        if ( snapshot == null || snapshotFrame != displayedFrame )
+        {
+            snapshot = new BufferedImage ( image.getColorModel (), image.copyData ( null ), image.isAlphaPremultiplied (), null );
+            snapshotFrame = displayedFrame;
+        }
+        return snapshot;
     }
 
     public int getStatus ()
@@ -168,11 +371,39 @@ public class GifIcon implements Icon
         return displayedFrame;
     }
 
+    /**
+     * Returns all frames of this GIF.
+     * Note that all frames are fully decoded on each call, so this method is costly and should be used with care.
+     *
+     * @return all frames of this GIF
+     */
     public Map<Integer, GifDecoder.GifFrame> getFrames ()
     {
+        final Map<Integer, GifDecoder.GifFrame> frames = new HashMap<Integer, GifDecoder.GifFrame> ( frameCount );
+        if ( data != null )
+        {
+            final GifDecoder gifDecoder = new GifDecoder ();
+            if ( gifDecoder.read ( new BufferedInputStream ( new ByteArrayInputStream ( data ) ) ) == GifDecoder.STATUS_OK )
+            {
+                for ( int i = 0; i < gifDecoder.getFrameCount (); i++ )
+                {
+                    frames.put ( i, new GifDecoder.GifFrame ( gifDecoder.getFrame ( i ), gifDecoder.getDelay ( i ) ) );
+                }
+            }
+        }
         return frames;
     }
 
+    /**
+     * Returns approximate amount of memory in bytes used by this icon data and frame images.
+     *
+     * @return approximate amount of memory in bytes used by this icon data and frame images
+     */
+    public long getMemoryUsage ()
+    {
+        return ( data != null ? data.length : 0 ) + ( long ) buffers * width * height * 4;
+    }
+
     public RepaintListener getRepaintListener ()
     {
         return repaintListener;
@@ -181,5 +412,9 @@ public class GifIcon implements Icon
     public void setRepaintListener ( final RepaintListener repaintListener )
     {
         this.repaintListener = repaintListener;
+        if ( repaintListener != null )
+        {
+            markUsed ();
+        }
     }
-}
\ No newline at end of file
+}
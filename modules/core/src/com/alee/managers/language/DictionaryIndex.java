@@ -0,0 +1,515 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.alee.managers.language;
+
+import com.alee.managers.language.data.Dictionary;
+import com.alee.managers.language.data.LanguageInfo;
+import com.alee.managers.language.data.Record;
+import com.alee.managers.language.data.Value;
+
+import java.util.*;
+
+/**
+ * Flattened translations index used by {@link com.alee.managers.language.LanguageManager}.
+ * <p/>
+ * Each added dictionary is walked only once and compiled into an {@link Entry} containing its full keys and records.
+ * Every distinct key is assigned to a slot and translations are stored in per-language value arrays (columns) indexed by those slots.
+ * Switching language simply selects another column, columns are built once per language and kept until index is cleared.
+ * <p/>
+ * Dictionaries added later override values of previously added ones, just like records merge in the global dictionary does.
+ * Adding or removing dictionary only updates slots of its own keys.
+ * <p/>
+ * This class is not thread-safe, just like the rest of LanguageManager dictionaries methods.
+ *
+ * @author Mikle Garin
+ * @see com.alee.managers.language.LanguageManager
+ */
+
+public final class DictionaryIndex
+{
+    /**
+     * Added dictionaries entries in order of their addition.
+     */
+    private final List<Entry> entries = new ArrayList<Entry> ();
+
+    /**
+     * Slots mapped by full keys.
+     */
+    private final Map<String, Integer> slots = new HashMap<String, Integer> ();
+
+    /**
+     * Amount of added dictionary records occupying each slot.
+     */
+    private int[] owners = new int[ 64 ];
+
+    /**
+     * Amount of slots ever allocated.
+     */
+    private int allocated = 0;
+
+    /**
+     * Released slots available for reuse.
+     */
+    private int[] freeSlots = new int[ 16 ];
+
+    /**
+     * Amount of released slots available for reuse.
+     */
+    private int freeCount = 0;
+
+    /**
+     * Value columns built so far mapped by their language.
+     */
+    private final Map<String, Value[]> columns = new HashMap<String, Value[]> ();
+
+    /**
+     * Current language.
+     */
+    private String language;
+
+    /**
+     * Current language values column.
+     */
+    private Value[] column;
+
+    /**
+     * Constructs new empty index.
+     *
+     * @param language initial language
+     */
+    public DictionaryIndex ( final String language )
+    {
+        super ();
+        this.language = language;
+        this.column = getColumn ( language );
+    }
+
+    /**
+     * Returns current language.
+     *
+     * @return current language
+     */
+    public String getLanguage ()
+    {
+        return language;
+    }
+
+    /**
+     * Switches current language.
+     * Values column for the specified language is built only once, subsequent switches to that language are instant.
+     *
+     * @param language new language
+     */
+    public void setLanguage ( final String language )
+    {
+        this.language = language;
+        this.column = getColumn ( language );
+    }
+
+    /**
+     * Returns value for the specified key in current language.
+     *
+     * @param key full language key
+     * @return value for the specified key in current language
+     */
+    public Value get ( final String key )
+    {
+        final Integer slot = slots.get ( key );
+        return slot != null ? column[ slot ] : null;
+    }
+
+    /**
+     * Returns whether or not any of added dictionaries contains record with the specified key.
+     *
+     * @param key full language key
+     * @return true if any of added dictionaries contains record with the specified key, false otherwise
+     */
+    public boolean contains ( final String key )
+    {
+        return slots.containsKey ( key );
+    }
+
+    /**
+     * Returns amount of distinct keys in this index.
+     *
+     * @return amount of distinct keys in this index
+     */
+    public int size ()
+    {
+        return slots.size ();
+    }
+
+    /**
+     * Returns all full keys of the specified dictionary or null if it is not added into this index.
+     *
+     * @param dictionary dictionary to retrieve keys for
+     * @return all full keys of the specified dictionary or null if it is not added into this index
+     */
+    public List<String> getKeys ( final Dictionary dictionary )
+    {
+        final Entry entry = getEntry ( dictionary );
+        return entry != null ? Arrays.asList ( entry.keys ) : null;
+    }
+
+    /**
+     * Returns information about the specified language from the last added dictionary which provides it.
+     *
+     * @param language language to retrieve information for
+     * @return information about the specified language from the last added dictionary which provides it
+     */
+    public LanguageInfo getLanguageInfo ( final String language )
+    {
+        for ( int i = entries.size () - 1; i >= 0; i-- )
+        {
+            final List<LanguageInfo> infos = entries.get ( i ).infos;
+            for ( int j = infos.size () - 1; j >= 0; j-- )
+            {
+                final LanguageInfo info = infos.get ( j );
+                if ( info.getLang ().equals ( language ) )
+                {
+                    return info;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds dictionary into this index.
+     * Its values override values of previously added dictionaries within all built columns.
+     *
+     * @param dictionary dictionary to add
+     */
+    public void add ( final Dictionary dictionary )
+    {
+        final Entry entry = new Entry ( dictionary );
+        final int count = entry.keys.length;
+        entry.slots = new int[ count ];
+        for ( int i = 0; i < count; i++ )
+        {
+            final Integer existing = slots.get ( entry.keys[ i ] );
+            final int slot;
+            if ( existing != null )
+            {
+                slot = existing;
+            }
+            else
+            {
+                slot = allocateSlot ();
+                slots.put ( entry.keys[ i ], slot );
+            }
+            owners[ slot ]++;
+            entry.slots[ i ] = slot;
+        }
+        entries.add ( entry );
+
+        // Overriding values within built columns
+        for ( final Map.Entry<String, Value[]> c : columns.entrySet () )
+        {
+            final Value[] values = ensureCapacity ( c );
+            for ( int i = 0; i < count; i++ )
+            {
+                final Value value = entry.getValue ( i, c.getKey () );
+                if ( value != null )
+                {
+                    values[ entry.slots[ i ] ] = value;
+                }
+            }
+        }
+        column = columns.get ( language );
+    }
+
+    /**
+     * Removes dictionary from this index.
+     * Slots of its keys are restored from the remaining dictionaries within all built columns.
+     *
+     * @param dictionary dictionary to remove
+     * @return true if dictionary was removed, false if it wasn't added into this index
+     */
+    public boolean remove ( final Dictionary dictionary )
+    {
+        final Entry entry = getEntry ( dictionary );
+        if ( entry == null )
+        {
+            return false;
+        }
+        entries.remove ( entry );
+
+        // Releasing unused slots and marking slots which are still used by other dictionaries
+        boolean[] affected = null;
+        for ( int i = 0; i < entry.keys.length; i++ )
+        {
+            final int slot = entry.slots[ i ];
+            owners[ slot ]--;
+            for ( final Value[] values : columns.values () )
+            {
+                values[ slot ] = null;
+            }
+            if ( owners[ slot ] == 0 )
+            {
+                slots.remove ( entry.keys[ i ] );
+                releaseSlot ( slot );
+            }
+            else
+            {
+                if ( affected == null )
+                {
+                    affected = new boolean[ allocated ];
+                }
+                affected[ slot ] = true;
+            }
+        }
+
+        // Restoring overridden values from remaining dictionaries
+        if ( affected != null )
+        {
+            for ( final Map.Entry<String, Value[]> c : columns.entrySet () )
+            {
+                final Value[] values = c.getValue ();
+                for ( final Entry e : entries )
+                {
+                    for ( int i = 0; i < e.slots.length; i++ )
+                    {
+                        if ( affected[ e.slots[ i ] ] )
+                        {
+                            final Value value = e.getValue ( i, c.getKey () );
+                            if ( value != null )
+                            {
+                                values[ e.slots[ i ] ] = value;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes all dictionaries and built columns from this index.
+     */
+    public void clear ()
+    {
+        entries.clear ();
+        slots.clear ();
+        columns.clear ();
+        owners = new int[ 64 ];
+        allocated = 0;
+        freeCount = 0;
+        column = getColumn ( language );
+    }
+
+    /**
+     * Returns values column for the specified language, builds it if needed.
+     *
+     * @param language column language
+     * @return values column for the specified language
+     */
+    private Value[] getColumn ( final String language )
+    {
+        Value[] values = columns.get ( language );
+        if ( values == null )
+        {
+            values = new Value[ owners.length ];
+            for ( final Entry entry : entries )
+            {
+                for ( int i = 0; i < entry.slots.length; i++ )
+                {
+                    final Value value = entry.getValue ( i, language );
+                    if ( value != null )
+                    {
+                        values[ entry.slots[ i ] ] = value;
+                    }
+                }
+            }
+            columns.put ( language, values );
+        }
+        return values;
+    }
+
+    /**
+     * Returns column from the specified map entry ensuring that it can hold all allocated slots.
+     *
+     * @param c column map entry
+     * @return column which can hold all allocated slots
+     */
+    private Value[] ensureCapacity ( final Map.Entry<String, Value[]> c )
+    {
+        Value[] values = c.getValue ();
+        if ( values.length < owners.length )
+        {
+            values = Arrays.copyOf ( values, owners.length );
+            c.setValue ( values );
+        }
+        return values;
+    }
+
+    /**
+     * Returns new or previously released slot.
+     *
+     * @return new or previously released slot
+     */
+    private int allocateSlot ()
+    {
+        if ( freeCount > 0 )
+        {
+            return freeSlots[ --freeCount ];
+        }
+        if ( allocated == owners.length )
+        {
+            owners = Arrays.copyOf ( owners, owners.length * 2 );
+        }
+        return allocated++;
+    }
+
+    /**
+     * Marks slot as available for reuse.
+     *
+     * @param slot released slot
+     */
+    private void releaseSlot ( final int slot )
+    {
+        if ( freeCount == freeSlots.length )
+        {
+            freeSlots = Arrays.copyOf ( freeSlots, freeSlots.length * 2 );
+        }
+        freeSlots[ freeCount++ ] = slot;
+    }
+
+    /**
+     * Returns entry of the specified dictionary or null if it is not added into this index.
+     *
+     * @param dictionary dictionary to look for
+     * @return entry of the specified dictionary or null if it is not added into this index
+     */
+    private Entry getEntry ( final Dictionary dictionary )
+    {
+        for ( final Entry entry : entries )
+        {
+            if ( entry.dictionary == dictionary )
+            {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Dictionary compiled into flat arrays of full keys and records.
+     */
+    private static final class Entry
+    {
+        /**
+         * Compiled dictionary.
+         */
+        private final Dictionary dictionary;
+
+        /**
+         * Full keys, each key is built once when dictionary is compiled.
+         */
+        private final String[] keys;
+
+        /**
+         * Records in the same order as keys.
+         */
+        private final Record[] records;
+
+        /**
+         * Language information provided by the dictionary and its subdictionaries.
+         */
+        private final List<LanguageInfo> infos = new ArrayList<LanguageInfo> ( 1 );
+
+        /**
+         * Index slots in the same order as keys.
+         */
+        private int[] slots;
+
+        /**
+         * Compiles specified dictionary.
+         *
+         * @param dictionary dictionary to compile
+         */
+        public Entry ( final Dictionary dictionary )
+        {
+            super ();
+            this.dictionary = dictionary;
+            final List<String> keys = new ArrayList<String> ();
+            final List<Record> records = new ArrayList<Record> ();
+            compile ( dictionary.getPrefix (), dictionary, keys, records );
+            this.keys = keys.toArray ( new String[ keys.size () ] );
+            this.records = records.toArray ( new Record[ records.size () ] );
+        }
+
+        /**
+         * Collects full keys and records of the specified dictionary and its subdictionaries.
+         *
+         * @param prefix     dictionary prefix
+         * @param dictionary dictionary to compile
+         * @param keys       full keys list
+         * @param records    records list
+         */
+        private void compile ( String prefix, final Dictionary dictionary, final List<String> keys, final List<Record> records )
+        {
+            // Determining prefix
+            prefix = prefix != null && !prefix.equals ( "" ) ? prefix + "." : "";
+
+            // Collecting current level records
+            if ( dictionary.getRecords () != null )
+            {
+                for ( final Record record : dictionary.getRecords () )
+                {
+                    keys.add ( prefix + record.getKey () );
+                    records.add ( record );
+                }
+            }
+
+            // Collecting language information
+            if ( dictionary.getLanguageInfos () != null )
+            {
+                infos.addAll ( dictionary.getLanguageInfos () );
+            }
+
+            // Collecting subdictionaries
+            if ( dictionary.getSubdictionaries () != null )
+            {
+                for ( final Dictionary subDictionary : dictionary.getSubdictionaries () )
+                {
+                    final String sp = subDictionary.getPrefix ();
+                    compile ( prefix + ( sp != null && !sp.equals ( "" ) ? sp : "" ), subDictionary, keys, records );
+                }
+            }
+        }
+
+        /**
+         * Returns value of the record at the specified index for the specified language.
+         *
+         * @param index    record index
+         * @param language value language
+         * @return value of the record at the specified index for the specified language
+         */
+        public Value getValue ( final int index, final String language )
+        {
+            final Record record = records[ index ];
+            final Value value = record.getValue ( language );
+            if ( value != null && value.getHotkey () == null && record.getHotkey () != null )
+            {
+                value.setHotkey ( record.getHotkey () );
+            }
+            return value;
+        }
+    }
+}
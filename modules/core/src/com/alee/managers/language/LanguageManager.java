@@ -150,15 +150,25 @@ public class LanguageManager implements LanguageConstants
 
     /**
      * Global dictionary merged from all added dictionaries.
-     * Used to store current dictionaries merge result and as a result improve translations retrieval speed.
+     * It is only built on request and dropped on any dictionaries change since translations are retrieved from index.
+     *
+     * @see #getGlobalDictionary()
      */
     protected static Dictionary globalDictionary;
 
     /**
-     * Global values map that contains merged translations for currently selected language.
+     * Flattened index of all added dictionaries that contains merged translations for each used language.
      * It gets updated on any dictionaries change or global language change.
      */
-    protected static final Map<String, Value> globalCache = new HashMap<String, Value> ();
+    protected static DictionaryIndex dictionaryIndex;
+
+    /**
+     * Temporary values created for missing language keys.
+     * They are dropped on any dictionaries change or global language change.
+     *
+     * @see #getNotNullValue(String)
+     */
+    protected static final Map<String, Value> temporaryValues = new HashMap<String, Value> ();
 
     /**
      * List of all added dictionaries.
@@ -221,6 +231,49 @@ public class LanguageManager implements LanguageConstants
      */
     protected static final Map<Component, AncestorListener> componentsListeners = new WeakHashMap<Component, AncestorListener> ();
 
+    /**
+     * Whether or not components language updates should be deferred.
+     * In deferred mode showing components are updated in time-sliced EDT batches and hidden ones are only marked as stale.
+     * Stale components are updated when they become showing.
+     *
+     * @see #updateComponents()
+     * @see #updateComponents(java.util.List)
+     */
+    protected static boolean deferredUpdates = false;
+
+    /**
+     * Maximum time in milliseconds spent on a single deferred updates batch before EDT is released.
+     */
+    protected static long deferredUpdatesSlice = 10L;
+
+    /**
+     * Registered components which language is outdated but they are not showing yet.
+     */
+    protected static final Map<JComponent, Boolean> staleComponents = new WeakHashMap<JComponent, Boolean> ();
+
+    /**
+     * Showing components waiting for their deferred language update.
+     */
+    protected static final LinkedList<WeakReference<JComponent>> pendingComponents = new LinkedList<WeakReference<JComponent>> ();
+
+    /**
+     * Components which are already queued for deferred language update.
+     */
+    protected static final Map<JComponent, Boolean> queuedComponents = new WeakHashMap<JComponent, Boolean> ();
+
+    /**
+     * Whether or not deferred updates batch is already scheduled.
+     */
+    protected static boolean batchScheduled = false;
+
+    /**
+     * Deferred updates statistics.
+     */
+    protected static long batches = 0;
+    protected static long lastBatchTime = 0;
+    protected static long maxBatchTime = 0;
+    protected static long totalBatchTime = 0;
+
     /**
      * Language container operations synchronization object.
      */
@@ -315,7 +368,7 @@ public class LanguageManager implements LanguageConstants
             updateLocale ();
 
             // Default data
-            globalDictionary = new Dictionary ();
+            dictionaryIndex = new DictionaryIndex ( language );
 
             // Class aliases
             XmlUtils.processAnnotations ( Dictionary.class );
@@ -548,7 +601,11 @@ public class LanguageManager implements LanguageConstants
                 @Override
                 public void ancestorAdded ( final AncestorEvent event )
                 {
-                    updateComponentKey ( ref.get () );
+                    final JComponent component = ref.get ();
+                    if ( component != null && !updateStaleComponent ( component ) )
+                    {
+                        updateComponentKey ( component );
+                    }
                 }
             };
             component.addAncestorListener ( listener );
@@ -609,6 +666,8 @@ public class LanguageManager implements LanguageConstants
                 components.remove ( component );
                 componentsData.remove ( component );
                 componentKeysCache.remove ( component );
+                staleComponents.remove ( component );
+                queuedComponents.remove ( component );
 
                 final AncestorListener listener = componentsListeners.get ( component );
                 component.removeAncestorListener ( listener );
@@ -791,11 +850,18 @@ public class LanguageManager implements LanguageConstants
      */
     public static void updateComponents ()
     {
-        synchronized ( componentsLock )
+        if ( deferredUpdates )
         {
-            for ( final Map.Entry<JComponent, String> entry : components.entrySet () )
+            deferComponentsUpdate ( null );
+        }
+        else
+        {
+            synchronized ( componentsLock )
             {
-                updateComponent ( entry.getKey (), entry.getValue () );
+                for ( final Map.Entry<JComponent, String> entry : components.entrySet () )
+                {
+                    updateComponent ( entry.getKey (), entry.getValue () );
+                }
             }
         }
     }
@@ -807,18 +873,303 @@ public class LanguageManager implements LanguageConstants
      */
     public static void updateComponents ( final List<String> keys )
     {
+        if ( deferredUpdates )
+        {
+            deferComponentsUpdate ( new HashSet<String> ( keys ) );
+        }
+        else
+        {
+            synchronized ( componentsLock )
+            {
+                for ( final Map.Entry<JComponent, String> entry : components.entrySet () )
+                {
+                    if ( keys.contains ( entry.getValue () ) )
+                    {
+                        updateComponent ( entry.getKey (), entry.getValue () );
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Queues showing components with the specified keys for deferred language update and marks hidden ones as stale.
+     *
+     * @param keys language keys of the components to update, null to update all registered components
+     */
+    protected static void deferComponentsUpdate ( final Set<String> keys )
+    {
+        final boolean schedule;
         synchronized ( componentsLock )
         {
             for ( final Map.Entry<JComponent, String> entry : components.entrySet () )
             {
-                if ( keys.contains ( entry.getValue () ) )
+                if ( keys == null || keys.contains ( entry.getValue () ) )
                 {
-                    updateComponent ( entry.getKey (), entry.getValue () );
+                    final JComponent component = entry.getKey ();
+                    if ( component.isShowing () )
+                    {
+                        queueComponent ( component );
+                    }
+                    else
+                    {
+                        staleComponents.put ( component, true );
+                    }
                 }
             }
+            schedule = !pendingComponents.isEmpty () && !batchScheduled;
+            if ( schedule )
+            {
+                batchScheduled = true;
+            }
+        }
+
+        // Batch is always performed later and outside of the components lock
+        // Components update might call listeners code which should never be executed while lock is held
+        if ( schedule )
+        {
+            SwingUtilities.invokeLater ( new Runnable ()
+            {
+                @Override
+                public void run ()
+                {
+                    performUpdatesBatch ();
+                }
+            } );
+        }
+    }
+
+    /**
+     * Queues component for deferred language update unless it is already queued.
+     * Should be called within components lock.
+     *
+     * @param component component to queue
+     */
+    protected static void queueComponent ( final JComponent component )
+    {
+        if ( !queuedComponents.containsKey ( component ) )
+        {
+            queuedComponents.put ( component, true );
+            pendingComponents.add ( new WeakReference<JComponent> ( component ) );
         }
     }
 
+    /**
+     * Updates queued components language until batch time slice ends.
+     * Schedules next batch in case there are still queued components left.
+     */
+    protected static void performUpdatesBatch ()
+    {
+        final long start = System.nanoTime ();
+        final long slice = deferredUpdatesSlice * 1000000L;
+        while ( true )
+        {
+            final JComponent component;
+            final String key;
+            synchronized ( componentsLock )
+            {
+                final WeakReference<JComponent> reference = pendingComponents.poll ();
+                if ( reference == null )
+                {
+                    batchScheduled = false;
+                    break;
+                }
+                component = reference.get ();
+                if ( component == null )
+                {
+                    continue;
+                }
+                queuedComponents.remove ( component );
+                key = components.get ( component );
+                if ( key == null )
+                {
+                    continue;
+                }
+                if ( !component.isShowing () )
+                {
+                    staleComponents.put ( component, true );
+                    continue;
+                }
+            }
+            updateComponent ( component, key );
+            if ( System.nanoTime () - start >= slice )
+            {
+                SwingUtilities.invokeLater ( new Runnable ()
+                {
+                    @Override
+                    public void run ()
+                    {
+                        performUpdatesBatch ();
+                    }
+                } );
+                break;
+            }
+        }
+        final long time = System.nanoTime () - start;
+        batches++;
+        lastBatchTime = time;
+        maxBatchTime = Math.max ( maxBatchTime, time );
+        totalBatchTime += time;
+    }
+
+    /**
+     * Updates component language in case it is marked as stale.
+     *
+     * @param component component to update
+     * @return true if component was stale and got updated, false otherwise
+     */
+    protected static boolean updateStaleComponent ( final JComponent component )
+    {
+        final String key;
+        synchronized ( componentsLock )
+        {
+            if ( staleComponents.remove ( component ) == null )
+            {
+                return false;
+            }
+            key = components.get ( component );
+        }
+        if ( key != null )
+        {
+            updateComponent ( component, key );
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether or not components language updates are deferred.
+     *
+     * @return true if components language updates are deferred, false otherwise
+     */
+    public static boolean isDeferredUpdates ()
+    {
+        return deferredUpdates;
+    }
+
+    /**
+     * Sets whether or not components language updates should be deferred.
+     * Disabling deferred mode instantly updates all stale components.
+     *
+     * @param deferred whether or not components language updates should be deferred
+     */
+    public static void setDeferredUpdates ( final boolean deferred )
+    {
+        deferredUpdates = deferred;
+        if ( !deferred )
+        {
+            final List<JComponent> stale;
+            synchronized ( componentsLock )
+            {
+                stale = new ArrayList<JComponent> ( staleComponents.keySet () );
+            }
+            for ( final JComponent component : stale )
+            {
+                updateStaleComponent ( component );
+            }
+        }
+    }
+
+    /**
+     * Returns maximum time in milliseconds spent on a single deferred updates batch.
+     *
+     * @return maximum time in milliseconds spent on a single deferred updates batch
+     */
+    public static long getDeferredUpdatesSlice ()
+    {
+        return deferredUpdatesSlice;
+    }
+
+    /**
+     * Sets maximum time in milliseconds spent on a single deferred updates batch.
+     *
+     * @param slice maximum time in milliseconds spent on a single deferred updates batch
+     */
+    public static void setDeferredUpdatesSlice ( final long slice )
+    {
+        if ( slice <= 0 )
+        {
+            throw new IllegalArgumentException ( "Invalid time slice: " + slice );
+        }
+        deferredUpdatesSlice = slice;
+    }
+
+    /**
+     * Returns amount of hidden components waiting for their language update.
+     *
+     * @return amount of hidden components waiting for their language update
+     */
+    public static int getStaleComponentsCount ()
+    {
+        synchronized ( componentsLock )
+        {
+            return staleComponents.size ();
+        }
+    }
+
+    /**
+     * Returns amount of showing components queued for deferred language update.
+     *
+     * @return amount of showing components queued for deferred language update
+     */
+    public static int getPendingComponentsCount ()
+    {
+        synchronized ( componentsLock )
+        {
+            return queuedComponents.size ();
+        }
+    }
+
+    /**
+     * Returns amount of performed deferred updates batches.
+     *
+     * @return amount of performed deferred updates batches
+     */
+    public static long getBatches ()
+    {
+        return batches;
+    }
+
+    /**
+     * Returns time in nanoseconds spent on the last deferred updates batch.
+     *
+     * @return time in nanoseconds spent on the last deferred updates batch
+     */
+    public static long getLastBatchTime ()
+    {
+        return lastBatchTime;
+    }
+
+    /**
+     * Returns maximum time in nanoseconds spent on a single deferred updates batch.
+     *
+     * @return maximum time in nanoseconds spent on a single deferred updates batch
+     */
+    public static long getMaxBatchTime ()
+    {
+        return maxBatchTime;
+    }
+
+    /**
+     * Returns total time in nanoseconds spent on deferred updates batches.
+     *
+     * @return total time in nanoseconds spent on deferred updates batches
+     */
+    public static long getTotalBatchTime ()
+    {
+        return totalBatchTime;
+    }
+
+    /**
+     * Resets deferred updates statistics.
+     */
+    public static void resetStatistics ()
+    {
+        batches = 0;
+        lastBatchTime = 0;
+        maxBatchTime = 0;
+        totalBatchTime = 0;
+    }
+
     /**
      * Forces component language update.
      *
@@ -849,6 +1200,15 @@ public class LanguageManager implements LanguageConstants
             data = null;
         }
 
+        // Component language is actual from now on
+        if ( deferredUpdates )
+        {
+            synchronized ( componentsLock )
+            {
+                staleComponents.remove ( component );
+            }
+        }
+
         // Not-null value for specified key
         final Value value = getNotNullValue ( component, key );
 
@@ -962,7 +1322,7 @@ public class LanguageManager implements LanguageConstants
      */
     public static String getLanguageTitle ( final String language )
     {
-        final LanguageInfo info = globalDictionary.getLanguageInfo ( language );
+        final LanguageInfo info = dictionaryIndex != null ? dictionaryIndex.getLanguageInfo ( language ) : null;
         return info != null ? info.getTitle () : null;
     }
 
@@ -1143,6 +1503,14 @@ public class LanguageManager implements LanguageConstants
      */
     public static Dictionary getGlobalDictionary ()
     {
+        if ( globalDictionary == null )
+        {
+            globalDictionary = new Dictionary ();
+            for ( final Dictionary dictionary : dictionaries )
+            {
+                LanguageUtils.mergeDictionary ( dictionary, globalDictionary );
+            }
+        }
         return globalDictionary;
     }
 
@@ -1358,8 +1726,8 @@ public class LanguageManager implements LanguageConstants
         // Updating dictionaries
         dictionaries.add ( dictionary );
 
-        // Updating global dictionary
-        LanguageUtils.mergeDictionary ( dictionary, globalDictionary );
+        // Dropping outdated global dictionary
+        globalDictionary = null;
 
         // Updating global cache
         updateCache ( dictionary );
@@ -1399,23 +1767,18 @@ public class LanguageManager implements LanguageConstants
     {
         if ( dictionary != null && isDictionaryAdded ( dictionary ) )
         {
-            // Clearing global dictionaries storage
-            globalDictionary.clear ();
+            // Dropping outdated global dictionary
+            globalDictionary = null;
 
             // Removing dictionary
-            dictionaries.remove ( dictionary );
+            final Dictionary removed = dictionaries.remove ( dictionaries.indexOf ( dictionary ) );
 
             // Removing dictionary from cache
-            MapUtils.removeAllValues ( dictionariesCache, dictionary );
-
-            // Updating dictionaries
-            for ( final Dictionary d : dictionaries )
-            {
-                LanguageUtils.mergeDictionary ( d, globalDictionary );
-            }
+            MapUtils.removeAllValues ( dictionariesCache, removed );
 
             // Updating global cache
-            rebuildCache ();
+            temporaryValues.clear ();
+            dictionaryIndex.remove ( removed );
 
             // Firing removal event
             fireDictionaryRemoved ( dictionary );
@@ -1483,7 +1846,7 @@ public class LanguageManager implements LanguageConstants
      */
     public static void clearDictionaries ()
     {
-        globalDictionary.clear ();
+        globalDictionary = null;
         dictionaries.clear ();
         clearCache ();
         fireDictionariesCleared ();
@@ -1557,8 +1920,16 @@ public class LanguageManager implements LanguageConstants
      */
     public static Value getValue ( final String key )
     {
-        // Global cache might be null when LanguageManager is not initialized
-        return globalCache != null ? globalCache.get ( key ) : null;
+        // Index might be null when LanguageManager is not initialized
+        if ( dictionaryIndex != null )
+        {
+            final Value value = dictionaryIndex.get ( key );
+            return value != null ? value : temporaryValues.get ( key );
+        }
+        else
+        {
+            return null;
+        }
     }
 
     /**
@@ -1578,7 +1949,7 @@ public class LanguageManager implements LanguageConstants
         else
         {
             final Value tmpValue = new Value ( getLanguage (), key );
-            globalCache.put ( key, tmpValue );
+            temporaryValues.put ( key, tmpValue );
             return tmpValue;
         }
     }
@@ -1591,7 +1962,7 @@ public class LanguageManager implements LanguageConstants
      */
     public static boolean contains ( final String key )
     {
-        return globalCache.containsKey ( key );
+        return dictionaryIndex != null && dictionaryIndex.contains ( key ) || temporaryValues.containsKey ( key );
     }
 
     /**
@@ -1751,13 +2122,13 @@ public class LanguageManager implements LanguageConstants
     }
 
     /**
-     * Rebuilds global dictionaries cache from a scratch.
-     * This is required for cases when dictionary changes cannot be tracked or when current language changes.
+     * Switches global dictionaries cache to current language.
+     * Values for each language are only collected once, switching back to previously used language doesn't walk dictionaries.
      */
     protected static void rebuildCache ()
     {
-        clearCache ();
-        updateCache ( globalDictionary );
+        temporaryValues.clear ();
+        dictionaryIndex.setLanguage ( language );
     }
 
     /**
@@ -1765,54 +2136,19 @@ public class LanguageManager implements LanguageConstants
      */
     protected static void clearCache ()
     {
-        globalCache.clear ();
+        temporaryValues.clear ();
+        dictionaryIndex.clear ();
     }
 
     /**
      * Updates global dictionaries cache with the specified dictionary.
+     * Only keys of the specified dictionary are updated.
      *
      * @param dictionary dictionary to update cache with
      */
     protected static void updateCache ( final Dictionary dictionary )
     {
-        updateCache ( dictionary.getPrefix (), dictionary );
-    }
-
-    /**
-     * Updates global dictionaries cache with the specified dictionary.
-     *
-     * @param prefix     dictionary prefix
-     * @param dictionary dictionary to update cache with
-     */
-    protected static void updateCache ( String prefix, final Dictionary dictionary )
-    {
-        // Determining prefix
-        prefix = prefix != null && !prefix.equals ( "" ) ? prefix + "." : "";
-
-        // Parsing current level records
-        if ( dictionary.getRecords () != null )
-        {
-            for ( final Record record : dictionary.getRecords () )
-            {
-                final Value value = record.getValue ( language );
-                if ( value != null && value.getHotkey () == null && record.getHotkey () != null )
-                {
-                    value.setHotkey ( record.getHotkey () );
-                }
-                globalCache.put ( prefix + record.getKey (), value );
-            }
-        }
-
-        // Parsing subdictionaries
-        if ( dictionary.getSubdictionaries () != null )
-        {
-            for ( final Dictionary subDictionary : dictionary.getSubdictionaries () )
-            {
-                final String sp = subDictionary.getPrefix ();
-                final String subPrefix = prefix + ( sp != null && !sp.equals ( "" ) ? sp : "" );
-                updateCache ( subPrefix, subDictionary );
-            }
-        }
+        dictionaryIndex.add ( dictionary );
     }
 
     /**
@@ -29,6 +29,12 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -70,6 +76,12 @@ public class SettingsManager
      */
     protected static String backupFilesExtension = ".backup";
 
+    /**
+     * Temporary files extension.
+     * Settings are written into temporary file first and then moved to replace the actual settings file.
+     */
+    protected static String tempFilesExtension = ".tmp";
+
     /**
      * Default settings directory location.
      */
@@ -136,6 +148,17 @@ public class SettingsManager
      */
     protected static final List<String> groupsToSaveOnChange = new ArrayList<String> ();
 
+    /**
+     * Whether settings should be written into files in background or not.
+     * If set to true settings snapshots are written by a separate thread and calling thread is never blocked by file system.
+     */
+    protected static boolean saveInBackground = true;
+
+    /**
+     * Background settings save queue.
+     */
+    protected static final SettingsSaveQueue saveQueue = new SettingsSaveQueue ();
+
     /**
      * Whether settings log is enabled or not.
      * Log will display what settings are being loaded and saved and when that happens.
@@ -920,9 +943,16 @@ public class SettingsManager
         {
             final File file = getGroupFile ( group, dir );
             final File backupFile = getGroupBackupFile ( group, dir );
+            saveQueue.cancel ( file );
             FileUtils.deleteFiles ( file, backupFile );
         }
 
+        // Cancelling delayed save
+        synchronized ( saveOnChangeLock )
+        {
+            groupsToSaveOnChange.remove ( group );
+        }
+
         // Resetting group if it was already loaded
         if ( groups.containsKey ( group ) )
         {
@@ -1079,9 +1109,20 @@ public class SettingsManager
     public static void saveSettings ()
     {
         // Saving all settings groups
-        for ( final Map.Entry<String, SettingsGroup> entry : groups.entrySet () )
+        if ( saveInBackground )
         {
-            saveSettingsGroup ( entry.getValue () );
+            for ( final Map.Entry<String, SettingsGroup> entry : groups.entrySet () )
+            {
+                queueSettingsGroupSave ( entry.getValue () );
+            }
+            saveQueue.flush ();
+        }
+        else
+        {
+            for ( final Map.Entry<String, SettingsGroup> entry : groups.entrySet () )
+            {
+                saveSettingsGroup ( entry.getValue () );
+            }
         }
 
         // Saving all settings files
@@ -1106,6 +1147,7 @@ public class SettingsManager
 
     /**
      * Saves specified settings group.
+     * This method blocks until settings group is written even if settings are saved in background.
      *
      * @param settingsGroup settings group to save
      */
@@ -1113,51 +1155,157 @@ public class SettingsManager
     {
         if ( allowSave )
         {
-            try
+            if ( saveInBackground )
             {
-                // Used values
-                final String group = settingsGroup.getName ();
-                final File dir = new File ( getGroupFilePath ( group ) );
-
-                // Ensure group settings directory exists and perform save
-                if ( FileUtils.ensureDirectoryExists ( dir ) )
+                // Passing save through the queue to keep writes order
+                queueSettingsGroupSave ( settingsGroup );
+                saveQueue.flush ();
+            }
+            else
+            {
+                try
                 {
-                    // Settings file
-                    final File file = getGroupFile ( group, dir );
-
-                    // Creating settings backup if there are old settings
-                    File backupFile = null;
-                    if ( file.exists () )
-                    {
-                        backupFile = getGroupBackupFile ( group, dir );
-                        FileUtils.copyFile ( file, backupFile );
-                    }
-
-                    // Saving settings
-                    XmlUtils.toXML ( settingsGroup, file );
-
-                    // Removing backup file if save was successful
-                    if ( backupFile != null && backupFile.exists () )
-                    {
-                        FileUtils.deleteFile ( backupFile );
-                    }
-
+                    final String group = settingsGroup.getName ();
+                    writeSettings ( settingsGroup, getGroupFile ( group, new File ( getGroupFilePath ( group ) ) ) );
                     if ( saveLoggingEnabled )
                     {
                         Log.info ( SettingsManager.class, "Settings group \"" + group + "\" saved successfully" );
                     }
                 }
-                else
+                catch ( final Throwable e )
                 {
-                    throw new RuntimeException ( "Cannot create settings directory: " + dir.getAbsolutePath () );
+                    Log.error ( SettingsManager.class, "Unable to save settings group \"" + settingsGroup.getName () +
+                            "\" due to unexpected exception:", e );
                 }
             }
-            catch ( final Throwable e )
+        }
+    }
+
+    /**
+     * Queues specified settings group save in background.
+     * Snapshot of the settings group is taken right away so it can be modified further without affecting this save.
+     *
+     * @param settingsGroup settings group to save
+     */
+    protected static void queueSettingsGroupSave ( final SettingsGroup settingsGroup )
+    {
+        if ( allowSave )
+        {
+            final String group = settingsGroup.getName ();
+            final File file = getGroupFile ( group, new File ( getGroupFilePath ( group ) ) );
+            saveQueue.enqueue ( group, createSnapshot ( settingsGroup ), file );
+        }
+    }
+
+    /**
+     * Returns snapshot of the specified settings group.
+     * Snapshot contains its own copy of settings map and copies of all settings values which can be copied, see
+     * {@link #copySettingValue(Object)}, so settings group can be modified while snapshot is being written in background.
+     *
+     * @param settingsGroup settings group
+     * @return snapshot of the specified settings group
+     */
+    protected static SettingsGroup createSnapshot ( final SettingsGroup settingsGroup )
+    {
+        final Map<String, Object> settings = settingsGroup.getSettings ();
+        final HashMap<String, Object> copy = new HashMap<String, Object> ( settings.size () );
+        for ( final Map.Entry<String, Object> entry : settings.entrySet () )
+        {
+            copy.put ( entry.getKey (), copySettingValue ( entry.getValue () ) );
+        }
+        final SettingsGroup snapshot = new SettingsGroup ( settingsGroup.getId (), settingsGroup.getName () );
+        snapshot.setSettings ( copy );
+        return snapshot;
+    }
+
+    /**
+     * Returns copy of the specified setting value for settings group snapshot.
+     * Immutable values are returned as is, cloneable values are cloned and list and map values are copied deeply.
+     * Any other values are shared with the settings group, so they should either be immutable or should be replaced instead of being
+     * modified while background save is pending.
+     *
+     * @param value setting value
+     * @return copy of the specified setting value
+     */
+    @SuppressWarnings ( "unchecked" )
+    protected static Object copySettingValue ( final Object value )
+    {
+        if ( value == null || value instanceof String || value instanceof Number || value instanceof Boolean ||
+                value instanceof Character || value instanceof Enum || !( value instanceof Cloneable ) )
+        {
+            return value;
+        }
+
+        final Object copy;
+        try
+        {
+            copy = ReflectUtils.clone ( ( Cloneable ) value );
+        }
+        catch ( final Throwable e )
+        {
+            // Value cannot be cloned so it is shared with the settings group
+            return value;
+        }
+        if ( copy instanceof List )
+        {
+            final List<Object> list = ( List<Object> ) copy;
+            for ( int i = 0; i < list.size (); i++ )
             {
-                Log.error ( SettingsManager.class, "Unable to save settings group \"" + settingsGroup.getName () +
-                        "\" due to unexpected exception:", e );
+                list.set ( i, copySettingValue ( list.get ( i ) ) );
             }
         }
+        else if ( copy instanceof Map )
+        {
+            for ( final Map.Entry<Object, Object> mapEntry : ( ( Map<Object, Object> ) copy ).entrySet () )
+            {
+                mapEntry.setValue ( copySettingValue ( mapEntry.getValue () ) );
+            }
+        }
+        return copy != null ? copy : value;
+    }
+
+    /**
+     * Writes settings into the specified file.
+     * Settings are written into temporary file which is synced to the disk and then moved to replace the specified file.
+     * This way settings file always contains either old or new settings even if application is terminated in the middle of the save.
+     *
+     * @param settings settings to write
+     * @param file     settings file
+     * @throws IOException if settings cannot be written
+     */
+    protected static void writeSettings ( final Object settings, final File file ) throws IOException
+    {
+        // Ensure settings directory exists
+        final File dir = file.getAbsoluteFile ().getParentFile ();
+        if ( !FileUtils.ensureDirectoryExists ( dir ) )
+        {
+            throw new IOException ( "Cannot create settings directory: " + dir.getAbsolutePath () );
+        }
+
+        // Writing settings into temporary file
+        final File temp = new File ( dir, file.getName () + tempFilesExtension );
+        final FileOutputStream fos = new FileOutputStream ( temp );
+        try
+        {
+            final OutputStreamWriter osw = new OutputStreamWriter ( fos, "UTF-8" );
+            XmlUtils.toXML ( settings, osw );
+            osw.flush ();
+            fos.getFD ().sync ();
+        }
+        finally
+        {
+            fos.close ();
+        }
+
+        // Replacing settings file
+        try
+        {
+            Files.move ( temp.toPath (), file.toPath (), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        }
+        catch ( final AtomicMoveNotSupportedException e )
+        {
+            Files.move ( temp.toPath (), file.toPath (), StandardCopyOption.REPLACE_EXISTING );
+        }
     }
 
     protected static File getGroupFile ( final String group, final File dir )
@@ -1199,14 +1347,7 @@ public class SettingsManager
                             @Override
                             public void actionPerformed ( final ActionEvent e )
                             {
-                                synchronized ( saveOnChangeLock )
-                                {
-                                    for ( final String group : groupsToSaveOnChange )
-                                    {
-                                        saveSettingsGroup ( group );
-                                    }
-                                    groupsToSaveOnChange.clear ();
-                                }
+                                saveDelayedSettingsGroups ();
                             }
                         } );
                         groupSaveScheduler.setRepeats ( false );
@@ -1219,6 +1360,11 @@ public class SettingsManager
                 }
             }
         }
+        else if ( saveInBackground )
+        {
+            // Queueing save right away
+            queueSettingsGroupSave ( getSettingsGroup ( group ) );
+        }
         else
         {
             // Saving right away
@@ -1226,6 +1372,71 @@ public class SettingsManager
         }
     }
 
+    /**
+     * Saves all settings groups delayed for save.
+     * If settings are saved in background this only takes their snapshots and queues them.
+     */
+    protected static void saveDelayedSettingsGroups ()
+    {
+        synchronized ( saveOnChangeLock )
+        {
+            for ( final String group : groupsToSaveOnChange )
+            {
+                if ( saveInBackground )
+                {
+                    queueSettingsGroupSave ( getSettingsGroup ( group ) );
+                }
+                else
+                {
+                    saveSettingsGroup ( group );
+                }
+            }
+            groupsToSaveOnChange.clear ();
+        }
+    }
+
+    /**
+     * Writes all pending settings changes.
+     * This method blocks until all delayed and queued settings saves are written.
+     */
+    public static void flushSettings ()
+    {
+        // Scheduler is stopped outside of the lock since stop might wait for the scheduled save which requires the same lock
+        final WebTimer scheduler;
+        synchronized ( saveOnChangeLock )
+        {
+            scheduler = groupSaveScheduler;
+        }
+        if ( scheduler != null )
+        {
+            scheduler.stop ();
+        }
+        saveDelayedSettingsGroups ();
+        saveQueue.flush ();
+    }
+
+    /**
+     * Writes all pending settings changes and stops background settings saving.
+     * Any settings saved afterwards are written right away in the calling thread.
+     * This method is supposed to be called on application shutdown.
+     */
+    public static void shutdown ()
+    {
+        flushSettings ();
+        saveQueue.close ();
+    }
+
+    /**
+     * Returns background settings save queue.
+     * It can be used to retrieve queue depth and save latency statistics.
+     *
+     * @return background settings save queue
+     */
+    public static SettingsSaveQueue getSaveQueue ()
+    {
+        return saveQueue;
+    }
+
     /**
      * Returns settings group state.
      *
@@ -1307,7 +1518,14 @@ public class SettingsManager
     {
         if ( allowSave )
         {
-            XmlUtils.toXML ( settings, getSettingsFile ( fileName ) );
+            try
+            {
+                writeSettings ( settings, getSettingsFile ( fileName ) );
+            }
+            catch ( final Throwable e )
+            {
+                Log.error ( SettingsManager.class, "Unable to save settings \"" + fileName + "\" due to unexpected exception:", e );
+            }
         }
     }
 
@@ -1531,6 +1749,31 @@ public class SettingsManager
         SettingsManager.saveOnChangeDelay = saveOnChangeDelay;
     }
 
+    /**
+     * Returns whether settings are written into files in background or not.
+     *
+     * @return true if settings are written into files in background, false otherwise
+     */
+    public static boolean isSaveInBackground ()
+    {
+        return saveInBackground;
+    }
+
+    /**
+     * Sets whether settings should be written into files in background or not.
+     * All settings queued so far are written before this method returns if background saving gets disabled.
+     *
+     * @param saveInBackground whether settings should be written into files in background or not
+     */
+    public static void setSaveInBackground ( final boolean saveInBackground )
+    {
+        SettingsManager.saveInBackground = saveInBackground;
+        if ( !saveInBackground )
+        {
+            saveQueue.flush ();
+        }
+    }
+
     /**
      * Returns whether should display settings load and save error messages or not.
      *
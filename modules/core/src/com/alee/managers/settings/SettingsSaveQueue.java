@@ -0,0 +1,447 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.alee.managers.settings;
+
+import com.alee.managers.log.Log;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Write-behind queue used by {@link SettingsManager} to save settings outside of the calling thread.
+ * <p/>
+ * Each save request carries a snapshot of settings taken at the moment it was queued, so settings can be freely modified while they are
+ * being written. Requests for the same file are coalesced - if a newer snapshot arrives before the previous one was written only the
+ * newer one is written. All writes are performed by a single daemon thread in the order they were queued.
+ *
+ * @author Mikle Garin
+ * @see com.alee.managers.settings.SettingsManager#isSaveInBackground()
+ */
+
+public class SettingsSaveQueue
+{
+    /**
+     * Save thread name.
+     */
+    public static final String THREAD_NAME = "SettingsManager.saveQueue";
+
+    /**
+     * Queued save requests by absolute paths of their files.
+     */
+    protected final Map<String, PendingSave> pending = new LinkedHashMap<String, PendingSave> ();
+
+    /**
+     * Lock object for queue data.
+     */
+    protected final Object lock = new Object ();
+
+    /**
+     * Save executor.
+     */
+    protected ExecutorService executor = null;
+
+    /**
+     * Whether save request is being written at the moment or not.
+     */
+    protected boolean writing = false;
+
+    /**
+     * Whether queue is closed or not.
+     * Closed queue writes settings right away in the calling thread.
+     */
+    protected boolean closed = false;
+
+    /**
+     * Queue statistics.
+     */
+    protected long saved = 0;
+    protected long failed = 0;
+    protected long coalesced = 0;
+    protected long lastSaveLatency = 0;
+    protected long maxSaveLatency = 0;
+    protected long totalSaveLatency = 0;
+    protected long lastWriteTime = 0;
+    protected long maxWriteTime = 0;
+
+    /**
+     * Queues settings save.
+     * If there is a queued save for the same file it is replaced with this one.
+     *
+     * @param name     settings name used in log messages, usually settings group name or settings file name
+     * @param settings settings snapshot to save
+     * @param file     file to save settings into
+     */
+    public void enqueue ( final String name, final Object settings, final File file )
+    {
+        final String key = file.getAbsolutePath ();
+        final PendingSave save = new PendingSave ( name, settings, file );
+        synchronized ( lock )
+        {
+            if ( !closed )
+            {
+                if ( pending.put ( key, save ) != null )
+                {
+                    coalesced++;
+                }
+                else
+                {
+                    getExecutor ().execute ( new Runnable ()
+                    {
+                        @Override
+                        public void run ()
+                        {
+                            write ( key );
+                        }
+                    } );
+                }
+                return;
+            }
+        }
+
+        // Queue is closed so we simply write settings right away
+        write ( save );
+    }
+
+    /**
+     * Removes queued save for the specified file.
+     * Save which is being written at the moment is not affected.
+     *
+     * @param file file to cancel save for
+     * @return true if queued save was removed, false otherwise
+     */
+    public boolean cancel ( final File file )
+    {
+        synchronized ( lock )
+        {
+            final boolean removed = pending.remove ( file.getAbsolutePath () ) != null;
+            lock.notifyAll ();
+            return removed;
+        }
+    }
+
+    /**
+     * Writes latest snapshot queued for the file with the specified absolute path.
+     *
+     * @param key absolute file path
+     */
+    protected void write ( final String key )
+    {
+        final PendingSave save;
+        synchronized ( lock )
+        {
+            save = pending.remove ( key );
+            if ( save == null )
+            {
+                // Save was cancelled
+                lock.notifyAll ();
+                return;
+            }
+            writing = true;
+        }
+        try
+        {
+            write ( save );
+        }
+        finally
+        {
+            synchronized ( lock )
+            {
+                writing = false;
+                lock.notifyAll ();
+            }
+        }
+    }
+
+    /**
+     * Writes specified save request.
+     *
+     * @param save save request
+     */
+    protected void write ( final PendingSave save )
+    {
+        final long start = System.nanoTime ();
+        boolean success = false;
+        try
+        {
+            SettingsManager.writeSettings ( save.settings, save.file );
+            success = true;
+            if ( SettingsManager.isSaveLoggingEnabled () )
+            {
+                Log.info ( SettingsManager.class, "Settings \"" + save.name + "\" saved successfully" );
+            }
+        }
+        catch ( final Throwable e )
+        {
+            Log.error ( SettingsManager.class, "Unable to save settings \"" + save.name + "\" due to unexpected exception:", e );
+        }
+        final long end = System.nanoTime ();
+        synchronized ( lock )
+        {
+            if ( success )
+            {
+                saved++;
+                lastWriteTime = end - start;
+                maxWriteTime = Math.max ( maxWriteTime, lastWriteTime );
+                lastSaveLatency = end - save.time;
+                maxSaveLatency = Math.max ( maxSaveLatency, lastSaveLatency );
+                totalSaveLatency += lastSaveLatency;
+            }
+            else
+            {
+                failed++;
+            }
+        }
+    }
+
+    /**
+     * Blocks until all queued saves are written.
+     */
+    public void flush ()
+    {
+        synchronized ( lock )
+        {
+            try
+            {
+                while ( !pending.isEmpty () || writing )
+                {
+                    lock.wait ();
+                }
+            }
+            catch ( final InterruptedException e )
+            {
+                Thread.currentThread ().interrupt ();
+            }
+        }
+    }
+
+    /**
+     * Writes all queued saves and closes this queue.
+     * Any saves requested afterwards are written right away in the calling thread.
+     */
+    public void close ()
+    {
+        flush ();
+        synchronized ( lock )
+        {
+            closed = true;
+            if ( executor != null )
+            {
+                executor.shutdown ();
+                executor = null;
+            }
+        }
+        // Saves queued while we were closing
+        flush ();
+    }
+
+    /**
+     * Returns whether this queue is closed or not.
+     *
+     * @return true if this queue is closed, false otherwise
+     */
+    public boolean isClosed ()
+    {
+        synchronized ( lock )
+        {
+            return closed;
+        }
+    }
+
+    /**
+     * Returns save executor.
+     * Should be called within the lock.
+     *
+     * @return save executor
+     */
+    protected ExecutorService getExecutor ()
+    {
+        if ( executor == null )
+        {
+            executor = Executors.newSingleThreadExecutor ( new ThreadFactory ()
+            {
+                @Override
+                public Thread newThread ( final Runnable r )
+                {
+                    final Thread thread = new Thread ( r, THREAD_NAME );
+                    thread.setDaemon ( true );
+                    return thread;
+                }
+            } );
+        }
+        return executor;
+    }
+
+    /**
+     * Returns amount of saves waiting to be written.
+     *
+     * @return amount of saves waiting to be written
+     */
+    public int getQueueDepth ()
+    {
+        synchronized ( lock )
+        {
+            return pending.size ();
+        }
+    }
+
+    /**
+     * Returns amount of successfully written saves.
+     *
+     * @return amount of successfully written saves
+     */
+    public long getSavedCount ()
+    {
+        synchronized ( lock )
+        {
+            return saved;
+        }
+    }
+
+    /**
+     * Returns amount of failed saves.
+     *
+     * @return amount of failed saves
+     */
+    public long getFailedCount ()
+    {
+        synchronized ( lock )
+        {
+            return failed;
+        }
+    }
+
+    /**
+     * Returns amount of saves replaced by newer snapshots before they were written.
+     *
+     * @return amount of saves replaced by newer snapshots before they were written
+     */
+    public long getCoalescedCount ()
+    {
+        synchronized ( lock )
+        {
+            return coalesced;
+        }
+    }
+
+    /**
+     * Returns time in nanoseconds between queueing and writing of the last save.
+     *
+     * @return time in nanoseconds between queueing and writing of the last save
+     */
+    public long getLastSaveLatency ()
+    {
+        synchronized ( lock )
+        {
+            return lastSaveLatency;
+        }
+    }
+
+    /**
+     * Returns maximum time in nanoseconds between queueing and writing of a single save.
+     *
+     * @return maximum time in nanoseconds between queueing and writing of a single save
+     */
+    public long getMaxSaveLatency ()
+    {
+        synchronized ( lock )
+        {
+            return maxSaveLatency;
+        }
+    }
+
+    /**
+     * Returns average time in nanoseconds between queueing and writing of a single save.
+     *
+     * @return average time in nanoseconds between queueing and writing of a single save
+     */
+    public long getAverageSaveLatency ()
+    {
+        synchronized ( lock )
+        {
+            return saved > 0 ? totalSaveLatency / saved : 0;
+        }
+    }
+
+    /**
+     * Returns time in nanoseconds spent on writing the last save.
+     *
+     * @return time in nanoseconds spent on writing the last save
+     */
+    public long getLastWriteTime ()
+    {
+        synchronized ( lock )
+        {
+            return lastWriteTime;
+        }
+    }
+
+    /**
+     * Returns maximum time in nanoseconds spent on writing a single save.
+     *
+     * @return maximum time in nanoseconds spent on writing a single save
+     */
+    public long getMaxWriteTime ()
+    {
+        synchronized ( lock )
+        {
+            return maxWriteTime;
+        }
+    }
+
+    /**
+     * Resets queue statistics.
+     */
+    public void resetStatistics ()
+    {
+        synchronized ( lock )
+        {
+            saved = 0;
+            failed = 0;
+            coalesced = 0;
+            lastSaveLatency = 0;
+            maxSaveLatency = 0;
+            totalSaveLatency = 0;
+            lastWriteTime = 0;
+            maxWriteTime = 0;
+        }
+    }
+
+    /**
+     * Queued save request.
+     */
+    protected static final class PendingSave
+    {
+        private final String name;
+        private final Object settings;
+        private final File file;
+        private final long time;
+
+        public PendingSave ( final String name, final Object settings, final File file )
+        {
+            super ();
+            this.name = name;
+            this.settings = settings;
+            this.file = file;
+            this.time = System.nanoTime ();
+        }
+    }
+}
@@ -23,8 +23,11 @@ import com.alee.managers.language.LanguageManager;
 import com.alee.managers.log.Log;
 import com.alee.managers.proxy.ProxyManager;
 import com.alee.utils.compare.Filter;
+import com.alee.utils.file.FileAttributes;
+import com.alee.utils.file.FileAttributesCache;
 import com.alee.utils.file.FileDescription;
 import com.alee.utils.file.FileDownloadListener;
+import com.alee.utils.file.FileTracker;
 import com.alee.utils.file.SystemFileListener;
 import com.alee.utils.filefilter.AbstractFileFilter;
 import com.alee.utils.filefilter.CustomFileFilter;
@@ -48,9 +51,11 @@ import java.util.*;
 /**
  * This class provides a set of utilities to work with files, file names and their extensions.
  * <p/>
- * Note that methods which request information about files from the system has their own caches to improve performance.
- * If you will need to clear that cache simply call the corresponding clearCache method, for example:
- * For method "isHidden" you will need to call "clearIsHiddenCache" and all cached values will be resetted.
+ * Note that methods which request information about files from the system cache their results to improve performance.
+ * All cached values for a single file are stored in one {@link com.alee.utils.file.FileAttributes} record which is dropped
+ * automatically once the file or its parent directory changes, see {@link com.alee.utils.file.FileAttributesCache}.
+ * If you will need to clear that cache manually simply call the corresponding clearCache method, for example:
+ * For method "isHidden" you will need to call "clearIsHiddenCache" and all cached values for that file will be resetted.
  *
  * @author Mikle Garin
  */
@@ -118,59 +123,10 @@ public final class FileUtils
                     '{', '}', '[', ']', ']' };
 
     /**
-     * Cache for "isDrive" method result.
+     * Cached file attributes.
+     * Single record holds all cached values for a file and is invalidated automatically when that file changes.
      */
-    private static final Map<String, Boolean> isDriveCache = new HashMap<String, Boolean> ();
-
-    /**
-     * Cache for "isComputer" method result.
-     */
-    private static final Map<String, Boolean> isComputerCache = new HashMap<String, Boolean> ();
-
-    /**
-     * Cache for "isCdDrive" method result.
-     */
-    private static final Map<String, Boolean> isCdDriveCache = new HashMap<String, Boolean> ();
-
-    /**
-     * Cache for "isFile" method result.
-     */
-    private static final Map<String, Boolean> isFileCache = new HashMap<String, Boolean> ();
-
-    /**
-     * Cache for "isDirectory" method result.
-     */
-    private static final Map<String, Boolean> isDirectoryCache = new HashMap<String, Boolean> ();
-
-    /**
-     * Cache for "isHidden" method result.
-     */
-    private static final Map<String, Boolean> isHiddenCache = new HashMap<String, Boolean> ();
-
-    /**
-     * Cache for "getDisplayFileName" method result.
-     */
-    private static final Map<String, String> displayFileNameCache = new HashMap<String, String> ();
-
-    /**
-     * Cache for "getFileDescription" method result.
-     */
-    private static final Map<String, FileDescription> fileDescriptionCache = new HashMap<String, FileDescription> ();
-
-    /**
-     * Cache for "getFileTypeDescription" method result.
-     */
-    private static final Map<String, String> fileTypeDescriptionCache = new HashMap<String, String> ();
-
-    /**
-     * Cache for "getDisplayFileCreationDate" method result.
-     */
-    private static final Map<String, String> displayFileCreationDateCache = new HashMap<String, String> ();
-
-    /**
-     * Cache for "getDisplayFileModificationDate" method result.
-     */
-    private static final Map<String, String> displayFileModificationDateCache = new HashMap<String, String> ();
+    private static final FileAttributesCache attributesCache = new FileAttributesCache ();
 
     /**
      * File extension icons cache lock.
@@ -188,7 +144,7 @@ public final class FileUtils
     private static final Map<String, ImageIcon> resourceIconsCache = new HashMap<String, ImageIcon> ();
 
     /**
-     * Default file tracking updates delay.
+     * Default file tracking polling delay, used only for files which cannot be watched.
      */
     private static final int FILE_TRACKING_DELAY = 5000;
 
@@ -228,17 +184,7 @@ public final class FileUtils
      */
     public static void clearFileCaches ( final String path )
     {
-        clearDisplayFileNameCache ( path );
-        clearIsHiddenCache ( path );
-        clearIsFileCache ( path );
-        clearIsDirectoryCache ( path );
-        clearIsComputerCache ( path );
-        clearIsDriveCache ( path );
-        clearIsCdDriveCache ( path );
-        clearFileDescriptionCache ( path );
-        clearFileTypeDescriptionCache ( path );
-        clearDisplayFileCreationDateCache ( path );
-        clearDisplayFileModificationDateCache ( path );
+        attributesCache.invalidate ( path );
     }
 
     /**
@@ -1233,8 +1179,7 @@ public final class FileUtils
      */
     public static String getDisplayFileSize ( final File file )
     {
-        // todo Cache this value
-        return getFileSizeString ( file.length () );
+        return getFileSizeString ( getAttributes ( file ).getSize () );
     }
 
     /**
@@ -1246,8 +1191,7 @@ public final class FileUtils
      */
     public static String getDisplayFileSize ( final File file, final int digits )
     {
-        // todo Cache this value
-        return getFileSizeString ( file.length (), digits );
+        return getFileSizeString ( getAttributes ( file ).getSize (), digits );
     }
 
     /**
@@ -2204,12 +2148,47 @@ public final class FileUtils
         return dir.exists () || dir.mkdirs ();
     }
 
+    /**
+     * Returns file attributes cache used by this class.
+     *
+     * @return file attributes cache used by this class
+     */
+    public static FileAttributesCache getFileAttributesCache ()
+    {
+        return attributesCache;
+    }
+
+    /**
+     * Returns cached attributes record for the specified file.
+     *
+     * @param file file to process
+     * @return cached attributes record for the specified file
+     */
+    private static FileAttributes getAttributes ( final File file )
+    {
+        return attributesCache.get ( file );
+    }
+
+    /**
+     * Returns formatted date to display.
+     *
+     * @param time date time
+     * @return formatted date to display
+     */
+    private static String formatDisplayDate ( final long time )
+    {
+        synchronized ( sdf )
+        {
+            return sdf.format ( new Date ( time ) );
+        }
+    }
+
     /**
      * Clears cache for "isDrive" method.
      */
     public static void clearIsDriveCache ()
     {
-        isDriveCache.clear ();
+        attributesCache.clear ();
     }
 
     /**
@@ -2217,7 +2196,7 @@ public final class FileUtils
      */
     public static void clearIsDriveCache ( final String absolutePath )
     {
-        isDriveCache.remove ( absolutePath );
+        attributesCache.invalidate ( absolutePath );
     }
 
     /**
@@ -2228,15 +2207,15 @@ public final class FileUtils
      */
     public static boolean isDrive ( final File file )
     {
-        final String absolutePath = file.getAbsolutePath ();
-        if ( isDriveCache.containsKey ( absolutePath ) )
+        final FileAttributes attributes = getAttributes ( file );
+        if ( attributes.isComputed ( FileAttributes.DRIVE ) )
         {
-            return isDriveCache.get ( absolutePath );
+            return attributes.isDrive ();
         }
         else
         {
             final boolean isDrive = fsv.isDrive ( file );
-            isDriveCache.put ( absolutePath, isDrive );
+            attributes.setDrive ( isDrive );
             return isDrive;
         }
     }
@@ -2246,7 +2225,7 @@ public final class FileUtils
      */
     public static void clearIsComputerCache ()
     {
-        isComputerCache.clear ();
+        attributesCache.clear ();
     }
 
     /**
@@ -2254,7 +2233,7 @@ public final class FileUtils
      */
     public static void clearIsComputerCache ( final String absolutePath )
     {
-        isComputerCache.remove ( absolutePath );
+        attributesCache.invalidate ( absolutePath );
     }
 
     /**
@@ -2265,15 +2244,15 @@ public final class FileUtils
      */
     public static boolean isComputer ( final File file )
     {
-        final String absolutePath = file.getAbsolutePath ();
-        if ( isComputerCache.containsKey ( absolutePath ) )
+        final FileAttributes attributes = getAttributes ( file );
+        if ( attributes.isComputed ( FileAttributes.COMPUTER ) )
         {
-            return isComputerCache.get ( absolutePath );
+            return attributes.isComputer ();
         }
         else
         {
             final boolean isComputer = fsv.isComputerNode ( file );
-            isComputerCache.put ( absolutePath, isComputer );
+            attributes.setComputer ( isComputer );
             return isComputer;
         }
     }
@@ -2283,7 +2262,7 @@ public final class FileUtils
      */
     public static void clearIsCdDriveCache ()
     {
-        isCdDriveCache.clear ();
+        attributesCache.clear ();
     }
 
     /**
@@ -2291,7 +2270,7 @@ public final class FileUtils
      */
     public static void clearIsCdDriveCache ( final String absolutePath )
     {
-        isCdDriveCache.remove ( absolutePath );
+        attributesCache.invalidate ( absolutePath );
     }
 
     /**
@@ -2304,10 +2283,10 @@ public final class FileUtils
      */
     public static boolean isCdDrive ( final File file )
     {
-        final String absolutePath = file.getAbsolutePath ();
-        if ( isCdDriveCache.containsKey ( absolutePath ) )
+        final FileAttributes attributes = getAttributes ( file );
+        if ( attributes.isComputed ( FileAttributes.CD_DRIVE ) )
         {
-            return isCdDriveCache.get ( absolutePath );
+            return attributes.isCdDrive ();
         }
         else
         {
@@ -2331,7 +2310,7 @@ public final class FileUtils
             {
                 isCdDrive = false;
             }
-            isCdDriveCache.put ( absolutePath, isCdDrive );
+            attributes.setCdDrive ( isCdDrive );
             return isCdDrive;
         }
     }
@@ -2341,7 +2320,7 @@ public final class FileUtils
      */
     public static void clearIsFileCache ()
     {
-        isFileCache.clear ();
+        attributesCache.clear ();
     }
 
     /**
@@ -2349,7 +2328,7 @@ public final class FileUtils
      */
     public static void clearIsFileCache ( final String absolutePath )
     {
-        isFileCache.remove ( absolutePath );
+        attributesCache.invalidate ( absolutePath );
     }
 
     /**
@@ -2360,20 +2339,7 @@ public final class FileUtils
      */
     public static boolean isFile ( final File file )
     {
-        if ( file == null )
-        {
-            return false;
-        }
-        else if ( isFileCache.containsKey ( file.getAbsolutePath () ) )
-        {
-            return isFileCache.get ( file.getAbsolutePath () );
-        }
-        else
-        {
-            final boolean isFile = file.isFile ();
-            isFileCache.put ( file.getAbsolutePath (), isFile );
-            return isFile;
-        }
+        return file != null && getAttributes ( file ).isFile ();
     }
 
     /**
@@ -2381,7 +2347,7 @@ public final class FileUtils
      */
     public static void clearIsDirectoryCache ()
     {
-        isDirectoryCache.clear ();
+        attributesCache.clear ();
     }
 
     /**
@@ -2389,7 +2355,7 @@ public final class FileUtils
      */
     public static void clearIsDirectoryCache ( final String absolutePath )
     {
-        isDirectoryCache.remove ( absolutePath );
+        attributesCache.invalidate ( absolutePath );
     }
 
     /**
@@ -2400,20 +2366,7 @@ public final class FileUtils
      */
     public static boolean isDirectory ( final File file )
     {
-        if ( file == null )
-        {
-            return false;
-        }
-        else if ( isDirectoryCache.containsKey ( file.getAbsolutePath () ) )
-        {
-            return isDirectoryCache.get ( file.getAbsolutePath () );
-        }
-        else
-        {
-            final boolean isDirectory = file.isDirectory ();
-            isDirectoryCache.put ( file.getAbsolutePath (), isDirectory );
-            return isDirectory;
-        }
+        return file != null && getAttributes ( file ).isDirectory ();
     }
 
     /**
@@ -2421,7 +2374,7 @@ public final class FileUtils
      */
     public static void clearIsHiddenCache ()
     {
-        isHiddenCache.clear ();
+        attributesCache.clear ();
     }
 
     /**
@@ -2429,7 +2382,7 @@ public final class FileUtils
      */
     public static void clearIsHiddenCache ( final String absolutePath )
     {
-        isHiddenCache.remove ( absolutePath );
+        attributesCache.invalidate ( absolutePath );
     }
 
     /**
@@ -2438,23 +2391,9 @@ public final class FileUtils
      * @param file file to process
      * @return true if the specified file is hidden, false otherwise
      */
-    public static boolean isHidden ( File file )
+    public static boolean isHidden ( final File file )
     {
-        if ( file == null )
-        {
-            return false;
-        }
-        else if ( isHiddenCache.containsKey ( file.getAbsolutePath () ) )
-        {
-            return isHiddenCache.get ( file.getAbsolutePath () );
-        }
-        else
-        {
-            file = file.getAbsoluteFile ();
-            final boolean isHidden = file.getParentFile () != null && file.isHidden ();
-            isHiddenCache.put ( file.getAbsolutePath (), isHidden );
-            return isHidden;
-        }
+        return file != null && getAttributes ( file ).isHidden ();
     }
 
     /**
@@ -2462,7 +2401,7 @@ public final class FileUtils
      */
     public static void clearFileDescriptionCache ()
     {
-        fileDescriptionCache.clear ();
+        attributesCache.clear ();
     }
 
     /**
@@ -2470,7 +2409,7 @@ public final class FileUtils
      */
     public static void clearFileDescriptionCache ( final String absolutePath )
     {
-        fileDescriptionCache.remove ( absolutePath );
+        attributesCache.invalidate ( absolutePath );
     }
 
     /**
@@ -2482,14 +2421,15 @@ public final class FileUtils
      */
     public static FileDescription getFileDescription ( final File file, final String fileSize )
     {
-        if ( fileDescriptionCache.containsKey ( file.getAbsolutePath () ) )
+        final FileAttributes attributes = getAttributes ( file );
+        if ( attributes.isComputed ( FileAttributes.DESCRIPTION ) )
         {
-            return fileDescriptionCache.get ( file.getAbsolutePath () );
+            return attributes.getDescription ();
         }
         else
         {
             final FileDescription fileDescription = createFileDescription ( file, fileSize );
-            fileDescriptionCache.put ( file.getAbsolutePath (), fileDescription );
+            attributes.setDescription ( fileDescription );
             return fileDescription;
         }
     }
@@ -2499,7 +2439,7 @@ public final class FileUtils
      */
     public static void clearDisplayFileNameCache ()
     {
-        displayFileNameCache.clear ();
+        attributesCache.clear ();
     }
 
     /**
@@ -2507,7 +2447,7 @@ public final class FileUtils
      */
     public static void clearDisplayFileNameCache ( final String absolutePath )
     {
-        displayFileNameCache.remove ( absolutePath );
+        attributesCache.invalidate ( absolutePath );
     }
 
     /**
@@ -2518,10 +2458,10 @@ public final class FileUtils
      */
     public static String getDisplayFileName ( final File file )
     {
-        final String absolutePath = file.getAbsolutePath ();
-        if ( displayFileNameCache.containsKey ( absolutePath ) )
+        final FileAttributes attributes = getAttributes ( file );
+        if ( attributes.isComputed ( FileAttributes.DISPLAY_NAME ) )
         {
-            return displayFileNameCache.get ( absolutePath );
+            return attributes.getDisplayName ();
         }
         else
         {
@@ -2530,7 +2470,7 @@ public final class FileUtils
             {
                 name = getFileTypeDescription ( file );
             }
-            displayFileNameCache.put ( absolutePath, name );
+            attributes.setDisplayName ( name );
             return name;
         }
     }
@@ -2540,7 +2480,7 @@ public final class FileUtils
      */
     public static void clearDisplayFileCreationDateCache ()
     {
-        displayFileCreationDateCache.clear ();
+        attributesCache.clear ();
     }
 
     /**
@@ -2548,26 +2488,27 @@ public final class FileUtils
      */
     public static void clearDisplayFileCreationDateCache ( final String absolutePath )
     {
-        displayFileCreationDateCache.remove ( absolutePath );
+        attributesCache.invalidate ( absolutePath );
     }
 
     /**
-     * Returns file modification date to display.
+     * Returns file creation date to display.
+     * File modification date is used on file systems which do not provide creation date.
      *
      * @param file file to process
-     * @return file modification date to display
+     * @return file creation date to display
      */
     public static String getDisplayFileCreationDate ( final File file )
     {
-        final String absolutePath = file.getAbsolutePath ();
-        if ( displayFileCreationDateCache.containsKey ( absolutePath ) )
+        final FileAttributes attributes = getAttributes ( file );
+        if ( attributes.isComputed ( FileAttributes.DISPLAY_CREATION_DATE ) )
         {
-            return displayFileCreationDateCache.get ( absolutePath );
+            return attributes.getDisplayCreationDate ();
         }
         else
         {
-            final String date = sdf.format ( new Date ( file.lastModified () ) );
-            displayFileCreationDateCache.put ( absolutePath, date );
+            final String date = formatDisplayDate ( attributes.getCreationTime () );
+            attributes.setDisplayCreationDate ( date );
             return date;
         }
     }
@@ -2577,7 +2518,7 @@ public final class FileUtils
      */
     public static void clearDisplayFileModificationDateCache ()
     {
-        displayFileModificationDateCache.clear ();
+        attributesCache.clear ();
     }
 
     /**
@@ -2585,7 +2526,7 @@ public final class FileUtils
      */
     public static void clearDisplayFileModificationDateCache ( final String absolutePath )
     {
-        displayFileModificationDateCache.remove ( absolutePath );
+        attributesCache.invalidate ( absolutePath );
     }
 
     /**
@@ -2596,15 +2537,15 @@ public final class FileUtils
      */
     public static String getDisplayFileModificationDate ( final File file )
     {
-        final String absolutePath = file.getAbsolutePath ();
-        if ( displayFileModificationDateCache.containsKey ( absolutePath ) )
+        final FileAttributes attributes = getAttributes ( file );
+        if ( attributes.isComputed ( FileAttributes.DISPLAY_MODIFICATION_DATE ) )
         {
-            return displayFileModificationDateCache.get ( absolutePath );
+            return attributes.getDisplayModificationDate ();
         }
         else
         {
-            final String date = sdf.format ( new Date ( file.lastModified () ) );
-            displayFileModificationDateCache.put ( absolutePath, date );
+            final String date = formatDisplayDate ( attributes.getLastModified () );
+            attributes.setDisplayModificationDate ( date );
             return date;
         }
     }
@@ -2614,7 +2555,7 @@ public final class FileUtils
      */
     public static void clearFileTypeDescriptionCache ()
     {
-        fileTypeDescriptionCache.clear ();
+        attributesCache.clear ();
     }
 
     /**
@@ -2622,7 +2563,7 @@ public final class FileUtils
      */
     public static void clearFileTypeDescriptionCache ( final String absolutePath )
     {
-        fileTypeDescriptionCache.remove ( absolutePath );
+        attributesCache.invalidate ( absolutePath );
     }
 
     /**
@@ -2639,15 +2580,15 @@ public final class FileUtils
         }
         else
         {
-            final String absolutePath = file.getAbsolutePath ();
-            if ( fileTypeDescriptionCache.containsKey ( absolutePath ) )
+            final FileAttributes attributes = getAttributes ( file );
+            if ( attributes.isComputed ( FileAttributes.TYPE_DESCRIPTION ) )
             {
-                return fileTypeDescriptionCache.get ( absolutePath );
+                return attributes.getTypeDescription ();
             }
             else
             {
                 final String description = fsv.getSystemTypeDescription ( file );
-                fileTypeDescriptionCache.put ( absolutePath, description );
+                attributes.setTypeDescription ( description );
                 return description;
             }
         }
@@ -2908,21 +2849,32 @@ public final class FileUtils
     }
 
     /**
-     * Starts tracking file for possible changes.
+     * Returns timer which tracks file for possible changes once started.
+     * Each timer polls file in its own thread, use {@link #watchFile(java.io.File, com.alee.utils.file.SystemFileListener)} instead.
      *
+     * @param file     file to track
      * @param listener system file listener
+     * @return file tracking timer
+     * @deprecated use {@link #watchFile(java.io.File, com.alee.utils.file.SystemFileListener)} instead
      */
+    @Deprecated
     public static WebTimer trackFile ( final File file, final SystemFileListener listener )
     {
         return trackFile ( file, listener, FILE_TRACKING_DELAY );
     }
 
     /**
-     * Starts tracking file for possible changes.
+     * Returns timer which tracks file for possible changes once started.
+     * Each timer polls file in its own thread, use {@link #watchFile(java.io.File, com.alee.utils.file.SystemFileListener, long)}
+     * instead.
      *
+     * @param file     file to track
      * @param listener system file listener
      * @param delay    delay between checks for changes
+     * @return file tracking timer
+     * @deprecated use {@link #watchFile(java.io.File, com.alee.utils.file.SystemFileListener, long)} instead
      */
+    @Deprecated
     public static WebTimer trackFile ( final File file, final SystemFileListener listener, final long delay )
     {
         final WebTimer tracker = new WebTimer ( "File tracker - " + file.getName (), delay, 0 );
@@ -2936,7 +2888,7 @@ public final class FileUtils
                 if ( file.exists () )
                 {
                     final long lm = file.lastModified ();
-                    if ( lastModified != lm )
+                    if ( lastModified == null || lastModified != lm )
                     {
                         listener.modified ( file );
                         lastModified = lm;
@@ -2952,4 +2904,34 @@ public final class FileUtils
         tracker.setUseDaemonThread ( true );
         return tracker;
     }
+
+    /**
+     * Starts tracking file for possible changes.
+     * Returned handle can be used to stop tracking.
+     *
+     * @param file     file to track
+     * @param listener system file listener
+     * @return file tracker
+     */
+    public static FileTracker watchFile ( final File file, final SystemFileListener listener )
+    {
+        return watchFile ( file, listener, FILE_TRACKING_DELAY );
+    }
+
+    /**
+     * Starts tracking file for possible changes.
+     * Returned handle can be used to stop tracking.
+     * <p/>
+     * File changes are received from the file system whenever possible, delay is only used to poll files located on file systems
+     * which do not support watching.
+     *
+     * @param file     file to track
+     * @param listener system file listener
+     * @param delay    delay between checks for changes
+     * @return file tracker
+     */
+    public static FileTracker watchFile ( final File file, final SystemFileListener listener, final long delay )
+    {
+        return new FileTracker ( file, listener, delay ).start ();
+    }
 }
@@ -18,10 +18,12 @@
 package com.alee.utils;
 
 import com.alee.global.StyleConstants;
+import com.alee.graphics.image.BackingImageCache;
 import com.alee.utils.laf.ShadeType;
 
 import java.awt.*;
-import java.awt.geom.Area;
+import java.awt.geom.*;
+import java.awt.image.BufferedImage;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -397,6 +399,58 @@ public final class GraphicsUtils
         return stroke;
     }
 
+    /**
+     * Gradient shade masks cache.
+     */
+    private static final BackingImageCache shadeMaskCache = new BackingImageCache ( 8L * 1024 * 1024 );
+
+    /**
+     * Reusable gradient shade mask keys.
+     */
+    private static final ThreadLocal<ShapeCacheKey> shadeMaskKey = new ThreadLocal<ShapeCacheKey> ()
+    {
+        @Override
+        protected ShapeCacheKey initialValue ()
+        {
+            return new ShapeCacheKey ( 24 );
+        }
+    };
+
+    /**
+     * Whether gradient shades of rectangular shapes should be painted from cached masks or not.
+     */
+    private static boolean useShadeMasks = true;
+
+    /**
+     * Returns whether gradient shades of rectangular shapes are painted from cached masks or not.
+     *
+     * @return true if gradient shades of rectangular shapes are painted from cached masks, false otherwise
+     */
+    public static boolean isUseShadeMasks ()
+    {
+        return useShadeMasks;
+    }
+
+    /**
+     * Sets whether gradient shades of rectangular shapes should be painted from cached masks or not.
+     *
+     * @param useShadeMasks whether gradient shades of rectangular shapes should be painted from cached masks or not
+     */
+    public static void setUseShadeMasks ( final boolean useShadeMasks )
+    {
+        GraphicsUtils.useShadeMasks = useShadeMasks;
+    }
+
+    /**
+     * Returns gradient shade masks cache.
+     *
+     * @return gradient shade masks cache
+     */
+    public static BackingImageCache getShadeMaskCache ()
+    {
+        return shadeMaskCache;
+    }
+
     /**
      * Draws web styled shade using specified shape
      */
@@ -479,20 +533,10 @@ public final class GraphicsUtils
             g2d.setStroke ( getStroke ( width * 2, round ? BasicStroke.CAP_ROUND : BasicStroke.CAP_BUTT ) );
             g2d.draw ( shape );
         }
-        else
+        else if ( !drawShadeMask ( g2d, shape, width, round, currentComposite ) )
         {
             // Drawing comples gradient shade
-            width = width * 2;
-            for ( int i = width; i >= 2; i -= 2 )
-            {
-                // float minTransp = 0.2f;
-                // float maxTransp = 0.6f;
-                // float opacity = minTransp + ( maxTransp - minTransp ) * ( 1 - ( i - 2 ) / ( width - 2 ) );
-                final float opacity = ( float ) ( width - i ) / ( width - 1 );
-                g2d.setComposite ( AlphaComposite.getInstance ( AlphaComposite.SRC_OVER, opacity * currentComposite ) );
-                g2d.setStroke ( getStroke ( i, round ? BasicStroke.CAP_ROUND : BasicStroke.CAP_BUTT ) );
-                g2d.draw ( shape );
-            }
+            drawGradientShade ( g2d, shape, width, round, currentComposite );
         }
 
         // Restoring initial grphics settings
@@ -500,4 +544,115 @@ public final class GraphicsUtils
         restoreComposite ( g2d, oldComposite );
         restoreClip ( g2d, oldClip );
     }
+
+    /**
+     * Draws gradient shade using multiple strokes of decreasing width.
+     * This works for any shape but requires drawing the shape as many times as wide the shade is.
+     *
+     * @param g2d       graphics context
+     * @param shape     shade shape
+     * @param width     shade width
+     * @param round     whether shade stroke should have round caps or not
+     * @param composite base composite opacity
+     */
+    private static void drawGradientShade ( final Graphics2D g2d, final Shape shape, final int width, final boolean round,
+                                            final float composite )
+    {
+        final int strokeWidth = width * 2;
+        for ( int i = strokeWidth; i >= 2; i -= 2 )
+        {
+            // float minTransp = 0.2f;
+            // float maxTransp = 0.6f;
+            // float opacity = minTransp + ( maxTransp - minTransp ) * ( 1 - ( i - 2 ) / ( width - 2 ) );
+            final float opacity = ( float ) ( strokeWidth - i ) / ( strokeWidth - 1 );
+            g2d.setComposite ( AlphaComposite.getInstance ( AlphaComposite.SRC_OVER, opacity * composite ) );
+            g2d.setStroke ( getStroke ( i, round ? BasicStroke.CAP_ROUND : BasicStroke.CAP_BUTT ) );
+            g2d.draw ( shape );
+        }
+    }
+
+    /**
+     * Draws gradient shade from the cached mask with a single image draw.
+     * Mask is rendered with {@link #drawGradientShade(java.awt.Graphics2D, java.awt.Shape, int, boolean, float)} once for each shape
+     * size, sub-pixel location, shade settings and rendering hints, so the result is the same as drawing the shade directly.
+     * Only rectangles, round rectangles and ellipses are supported since the shape has to be fully described by the mask key.
+     *
+     * @param g2d       graphics context
+     * @param shape     shade shape
+     * @param width     shade width
+     * @param round     whether shade stroke should have round caps or not
+     * @param composite base composite opacity
+     * @return true if shade was drawn, false if shade cannot be drawn from the mask
+     */
+    private static boolean drawShadeMask ( final Graphics2D g2d, final Shape shape, final int width, final boolean round,
+                                           final float composite )
+    {
+        // Checking that shape and graphics are supported
+        final int shapeType = shape instanceof Rectangle2D ? 1 : shape instanceof RoundRectangle2D ? 2 : shape instanceof Ellipse2D ? 3 : 0;
+        final Paint paint = g2d.getPaint ();
+        if ( !useShadeMasks || shapeType == 0 || !( paint instanceof Color ) )
+        {
+            return false;
+        }
+        final AffineTransform transform = g2d.getTransform ();
+        if ( ( transform.getType () & ~AffineTransform.TYPE_TRANSLATION ) != 0 ||
+                transform.getTranslateX () != Math.rint ( transform.getTranslateX () ) ||
+                transform.getTranslateY () != Math.rint ( transform.getTranslateY () ) )
+        {
+            return false;
+        }
+        final RectangularShape rs = ( RectangularShape ) shape;
+        if ( rs.isEmpty () )
+        {
+            return false;
+        }
+
+        // Calculating mask bounds, shade stroke goes at most shade width beyond the shape
+        final int margin = width + 2;
+        final int x = ( int ) Math.floor ( rs.getX () );
+        final int y = ( int ) Math.floor ( rs.getY () );
+        final int maskWidth = ( int ) Math.ceil ( rs.getMaxX () ) - x + margin * 2;
+        final int maskHeight = ( int ) Math.ceil ( rs.getMaxY () ) - y + margin * 2;
+        if ( !shadeMaskCache.isCacheable ( maskWidth, maskHeight ) )
+        {
+            return false;
+        }
+
+        // Retrieving cached mask
+        final Object aa = g2d.getRenderingHint ( RenderingHints.KEY_ANTIALIASING );
+        final Object sc = g2d.getRenderingHint ( RenderingHints.KEY_STROKE_CONTROL );
+        final ShapeCacheKey key = shadeMaskKey.get ().clear ();
+        key.add ( shapeType ).add ( rs.getX () - x ).add ( rs.getY () - y ).add ( rs.getWidth () ).add ( rs.getHeight () );
+        if ( shapeType == 2 )
+        {
+            final RoundRectangle2D rr = ( RoundRectangle2D ) rs;
+            key.add ( rr.getArcWidth () ).add ( rr.getArcHeight () );
+        }
+        key.add ( width ).add ( round ).add ( ( Color ) paint ).add ( composite ).add ( aa == RenderingHints.VALUE_ANTIALIAS_ON )
+                .add ( sc == RenderingHints.VALUE_STROKE_PURE ? 2 : sc == RenderingHints.VALUE_STROKE_NORMALIZE ? 1 : 0 );
+        BufferedImage mask = shadeMaskCache.get ( GraphicsUtils.class, key );
+        if ( mask == null )
+        {
+            mask = new BufferedImage ( maskWidth, maskHeight, BufferedImage.TYPE_INT_ARGB_PRE );
+            final Graphics2D mg = mask.createGraphics ();
+            if ( aa != null )
+            {
+                mg.setRenderingHint ( RenderingHints.KEY_ANTIALIASING, aa );
+            }
+            if ( sc != null )
+            {
+                mg.setRenderingHint ( RenderingHints.KEY_STROKE_CONTROL, sc );
+            }
+            mg.translate ( margin - x, margin - y );
+            mg.setPaint ( paint );
+            drawGradientShade ( mg, shape, width, round, composite );
+            mg.dispose ();
+            shadeMaskCache.put ( GraphicsUtils.class, key, mask );
+        }
+
+        // Drawing mask
+        g2d.setComposite ( AlphaComposite.SrcOver );
+        g2d.drawImage ( mask, x - margin, y - margin, null );
+        return true;
+    }
 }
\ No newline at end of file
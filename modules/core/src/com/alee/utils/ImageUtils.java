@@ -20,10 +20,15 @@ package com.alee.utils;
 import com.alee.global.GlobalConstants;
 import com.alee.global.StyleConstants;
 import com.alee.graphics.filters.ShadowFilter;
+import com.alee.graphics.image.ImageCache;
+import com.alee.graphics.image.LruImageCache;
 import com.alee.managers.log.Log;
 import com.mortennobel.imagescaling.ResampleOp;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.geom.GeneralPath;
@@ -32,9 +37,8 @@ import java.awt.image.BufferedImage;
 import java.io.*;
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 /**
  * @author Mikle Garin
@@ -48,6 +52,46 @@ public final class ImageUtils
 
     public static final String IMAGE_CACHE_SEPARATOR = StyleConstants.SEPARATOR;
 
+    /**
+     * Image cache namespaces.
+     */
+    private static final String ICONS_CACHE = "icons";
+    private static final String MERGED_ICONS_CACHE = "merged.icons";
+    private static final String MERGED_IMAGES_CACHE = "merged.images";
+    private static final String SIZED_PREVIEW_CACHE = "sized.preview";
+    private static final String GRAYSCALE_CACHE = "grayscale";
+    private static final String TRANSPARENT_CACHE = "transparent";
+
+    /**
+     * Images cache shared by all image utilities.
+     */
+    private static ImageCache imageCache = new LruImageCache ();
+
+    /**
+     * Returns images cache shared by all image utilities.
+     *
+     * @return images cache shared by all image utilities
+     */
+    public static ImageCache getImageCache ()
+    {
+        return imageCache;
+    }
+
+    /**
+     * Sets images cache shared by all image utilities.
+     * Values cached in the previous cache are not transferred into the new one.
+     *
+     * @param imageCache new images cache
+     */
+    public static void installImageCache ( final ImageCache imageCache )
+    {
+        if ( imageCache == null )
+        {
+            throw new NullPointerException ( "Image cache cannot be null" );
+        }
+        ImageUtils.imageCache = imageCache;
+    }
+
     /**
      * Checks if the specified image pixel is fully transparent
      */
@@ -270,11 +314,9 @@ public final class ImageUtils
      * Merges few images into single one
      */
 
-    private static final Map<String, ImageIcon> mergedIconsCache = new HashMap<String, ImageIcon> ();
-
     public static void clearMergedIconsCache ()
     {
-        mergedIconsCache.clear ();
+        imageCache.clear ( MERGED_ICONS_CACHE );
     }
 
     public static ImageIcon mergeIcons ( final List<ImageIcon> icons )
@@ -285,9 +327,10 @@ public final class ImageUtils
     public static ImageIcon mergeIcons ( final String key, final List<ImageIcon> icons )
     {
         // Icon is cached already
-        if ( key != null && mergedIconsCache.containsKey ( key ) )
+        final ImageIcon cached = key != null ? imageCache.get ( MERGED_ICONS_CACHE, key, ImageIcon.class ) : null;
+        if ( cached != null )
         {
-            return mergedIconsCache.get ( key );
+            return cached;
         }
 
         // No icons given
@@ -312,7 +355,7 @@ public final class ImageUtils
         final ImageIcon icon = new ImageIcon ( mergeImages ( images ) );
         if ( key != null )
         {
-            mergedIconsCache.put ( key, icon );
+            imageCache.put ( MERGED_ICONS_CACHE, key, icon );
         }
         return icon;
     }
@@ -325,9 +368,10 @@ public final class ImageUtils
     public static ImageIcon mergeIcons ( final String key, final ImageIcon... icons )
     {
         // Icon is cached already
-        if ( key != null && mergedIconsCache.containsKey ( key ) )
+        final ImageIcon cached = key != null ? imageCache.get ( MERGED_ICONS_CACHE, key, ImageIcon.class ) : null;
+        if ( cached != null )
         {
-            return mergedIconsCache.get ( key );
+            return cached;
         }
 
         // No icons given
@@ -352,16 +396,14 @@ public final class ImageUtils
         final ImageIcon icon = new ImageIcon ( mergeImages ( images ) );
         if ( key != null )
         {
-            mergedIconsCache.put ( key, icon );
+            imageCache.put ( MERGED_ICONS_CACHE, key, icon );
         }
         return icon;
     }
 
-    private static final Map<String, BufferedImage> mergedImagesCache = new HashMap<String, BufferedImage> ();
-
     public static void clearMergedImagesCache ()
     {
-        mergedImagesCache.clear ();
+        imageCache.clear ( MERGED_IMAGES_CACHE );
     }
 
     public static BufferedImage mergeImages ( final Image... images )
@@ -372,9 +414,10 @@ public final class ImageUtils
     public static BufferedImage mergeImages ( final String key, final Image... images )
     {
         // Image is cached already
-        if ( key != null && mergedImagesCache.containsKey ( key ) )
+        final BufferedImage cached = key != null ? imageCache.get ( MERGED_IMAGES_CACHE, key, BufferedImage.class ) : null;
+        if ( cached != null )
         {
-            return mergedImagesCache.get ( key );
+            return cached;
         }
 
         // No images given
@@ -420,7 +463,7 @@ public final class ImageUtils
 
         if ( key != null )
         {
-            mergedImagesCache.put ( key, bi );
+            imageCache.put ( MERGED_IMAGES_CACHE, key, bi );
         }
         return bi;
     }
@@ -725,6 +768,19 @@ public final class ImageUtils
 
     public static ImageIcon createThumbnailIcon ( final String src, final int size )
     {
+        // Reading image at reduced resolution when its format allows that
+        final Dimension originalSize = new Dimension ();
+        final BufferedImage reduced = src != null ? readThumbnailImage ( new File ( src ), size, originalSize ) : null;
+        if ( reduced != null )
+        {
+            final ImageIcon imageIcon = createPreviewIcon ( reduced, size );
+            if ( imageIcon != null )
+            {
+                imageIcon.setDescription ( originalSize.width + "x" + originalSize.height );
+            }
+            return imageIcon;
+        }
+
         // Retrieving image to create thumbnail from
         final ImageIcon icon = getImageIcon ( src, false );
         if ( icon != null )
@@ -746,6 +802,99 @@ public final class ImageUtils
         }
     }
 
+    /**
+     * Returns image read from the specified file at reduced resolution suitable for a thumbnail of the specified size.
+     * Embedded thumbnail is used if image reader provides one which is large enough, otherwise image is decoded with source
+     * subsampling so that it is never fully decoded into memory. Returned image is at least twice as large as requested size unless
+     * the source image itself is smaller, so it should still be downscaled to the exact size afterwards.
+     * <p/>
+     * Returns null if there is no suitable image reader or image cannot be read.
+     *
+     * @param file         image file
+     * @param size         thumbnail size
+     * @param originalSize dimension to store original image size into, might be null
+     * @return image read at reduced resolution or null if it cannot be read
+     */
+    public static BufferedImage readThumbnailImage ( final File file, final int size, final Dimension originalSize )
+    {
+        if ( file == null || !file.isFile () )
+        {
+            return null;
+        }
+        ImageInputStream stream = null;
+        ImageReader reader = null;
+        try
+        {
+            stream = ImageIO.createImageInputStream ( file );
+            if ( stream == null )
+            {
+                return null;
+            }
+            final Iterator<ImageReader> readers = ImageIO.getImageReaders ( stream );
+            if ( !readers.hasNext () )
+            {
+                return null;
+            }
+            reader = readers.next ();
+            reader.setInput ( stream, true, false );
+
+            // Original image size
+            final int width = reader.getWidth ( 0 );
+            final int height = reader.getHeight ( 0 );
+            if ( originalSize != null )
+            {
+                originalSize.setSize ( width, height );
+            }
+
+            // Embedded thumbnail with the same proportions
+            final int required = Math.min ( size * 2, Math.max ( width, height ) );
+            if ( reader.readerSupportsThumbnails () && reader.hasThumbnails ( 0 ) )
+            {
+                final int thumbnails = reader.getNumThumbnails ( 0 );
+                for ( int i = 0; i < thumbnails; i++ )
+                {
+                    final int tw = reader.getThumbnailWidth ( 0, i );
+                    final int th = reader.getThumbnailHeight ( 0, i );
+                    if ( th > 0 && Math.max ( tw, th ) >= required && Math.abs ( ( float ) tw / th - ( float ) width / height ) < 0.05f )
+                    {
+                        return reader.readThumbnail ( 0, i );
+                    }
+                }
+            }
+
+            // Subsampled image
+            final int subsampling = Math.max ( 1, Math.max ( width, height ) / Math.max ( 1, required ) );
+            final ImageReadParam param = reader.getDefaultReadParam ();
+            if ( subsampling > 1 )
+            {
+                param.setSourceSubsampling ( subsampling, subsampling, 0, 0 );
+            }
+            return reader.read ( 0, param );
+        }
+        catch ( final Throwable e )
+        {
+            return null;
+        }
+        finally
+        {
+            if ( reader != null )
+            {
+                reader.dispose ();
+            }
+            if ( stream != null )
+            {
+                try
+                {
+                    stream.close ();
+                }
+                catch ( final IOException e )
+                {
+                    // Ignore stream close exceptions
+                }
+            }
+        }
+    }
+
     public static ImageIcon createPreviewIcon ( final ImageIcon image, final int size )
     {
         return createPreviewIcon ( image.getImage (), size );
@@ -850,32 +999,27 @@ public final class ImageUtils
      * Image read methods
      */
 
-    private static final Map<String, ImageIcon> iconsCache = new HashMap<String, ImageIcon> ();
-
     public static boolean isImageCached ( final String src )
     {
-        return iconsCache.containsKey ( src ) && iconsCache.get ( src ) != null;
+        return imageCache.get ( ICONS_CACHE, src, ImageIcon.class ) != null;
     }
 
     public static void setImageCache ( final String src, final ImageIcon imageIcon )
     {
-        iconsCache.put ( src, imageIcon );
+        imageCache.put ( ICONS_CACHE, src, imageIcon );
     }
 
     public static void clearImagesCache ()
     {
-        iconsCache.clear ();
+        imageCache.clear ( ICONS_CACHE );
     }
 
     public static void clearImageCache ( final String src )
     {
-        if ( iconsCache.size () > 0 && iconsCache.containsKey ( src ) )
+        final ImageIcon imageIcon = imageCache.remove ( ICONS_CACHE, src, ImageIcon.class );
+        if ( imageIcon != null && imageIcon.getImage () != null )
         {
-            if ( iconsCache.get ( src ) != null && iconsCache.get ( src ).getImage () != null )
-            {
-                iconsCache.get ( src ).getImage ().flush ();
-            }
-            iconsCache.remove ( src );
+            imageIcon.getImage ().flush ();
         }
     }
 
@@ -898,27 +1042,17 @@ public final class ImageUtils
     {
         if ( src != null && !src.trim ().equals ( "" ) )
         {
-            final ImageIcon imageIcon;
-            if ( useCache && iconsCache.containsKey ( src ) )
+            final ImageIcon cached = useCache ? imageCache.get ( ICONS_CACHE, src, ImageIcon.class ) : null;
+            if ( cached != null )
             {
-                imageIcon = iconsCache.get ( src );
-                if ( imageIcon != null )
-                {
-                    return imageIcon;
-                }
-                else
-                {
-                    // todo This might cause performance issues
-                    iconsCache.remove ( src );
-                    return getImageIcon ( src, useCache );
-                }
+                return cached;
             }
             else
             {
-                imageIcon = createImageIcon ( src );
+                final ImageIcon imageIcon = createImageIcon ( src );
                 if ( useCache )
                 {
-                    iconsCache.put ( src, imageIcon );
+                    imageCache.put ( ICONS_CACHE, src, imageIcon );
                 }
                 return imageIcon;
             }
@@ -958,27 +1092,17 @@ public final class ImageUtils
         if ( resource != null )
         {
             final String key = resource.toString ();
-            final ImageIcon imageIcon;
-            if ( useCache && iconsCache.containsKey ( key ) )
+            final ImageIcon cached = useCache ? imageCache.get ( ICONS_CACHE, key, ImageIcon.class ) : null;
+            if ( cached != null )
             {
-                imageIcon = iconsCache.get ( key );
-                if ( imageIcon != null )
-                {
-                    return imageIcon;
-                }
-                else
-                {
-                    // todo This might cause performance issues
-                    iconsCache.remove ( key );
-                    return getImageIcon ( key, useCache );
-                }
+                return cached;
             }
             else
             {
-                imageIcon = new ImageIcon ( resource );
+                final ImageIcon imageIcon = new ImageIcon ( resource );
                 if ( useCache )
                 {
-                    iconsCache.put ( key, imageIcon );
+                    imageCache.put ( ICONS_CACHE, key, imageIcon );
                 }
                 return imageIcon;
             }
@@ -1104,33 +1228,34 @@ public final class ImageUtils
      * Scaled preview creation
      */
 
-    private static final Map<String, ImageIcon> sizedPreviewCache = new HashMap<String, ImageIcon> ();
-
     public static ImageIcon getSizedImagePreview ( final String src, final int length, final boolean drawBorder )
     {
-        if ( sizedPreviewCache.containsKey ( length + IMAGE_CACHE_SEPARATOR + src ) )
+        final String id = length + IMAGE_CACHE_SEPARATOR + src;
+        final ImageIcon cached = imageCache.get ( SIZED_PREVIEW_CACHE, id, ImageIcon.class );
+        if ( cached != null )
         {
-            return sizedPreviewCache.get ( length + IMAGE_CACHE_SEPARATOR + src );
+            return cached;
         }
         else
         {
             final ImageIcon icon = createThumbnailIcon ( src, length );
             final ImageIcon sized = createSizedImagePreview ( icon, length, drawBorder );
-            sizedPreviewCache.put ( length + IMAGE_CACHE_SEPARATOR + src, sized );
+            imageCache.put ( SIZED_PREVIEW_CACHE, id, sized );
             return sized;
         }
     }
 
     public static ImageIcon getSizedImagePreview ( final String id, final ImageIcon icon, final int length, final boolean drawBorder )
     {
-        if ( sizedPreviewCache.containsKey ( id ) )
+        final ImageIcon cached = imageCache.get ( SIZED_PREVIEW_CACHE, id, ImageIcon.class );
+        if ( cached != null )
         {
-            return sizedPreviewCache.get ( id );
+            return cached;
         }
         else
         {
             final ImageIcon sized = createSizedImagePreview ( icon, length, drawBorder );
-            sizedPreviewCache.put ( id, sized );
+            imageCache.put ( SIZED_PREVIEW_CACHE, id, sized );
             return sized;
         }
     }
@@ -1167,28 +1292,28 @@ public final class ImageUtils
      * Creates disabled image copy
      */
 
-    private static final Map<String, ImageIcon> grayscaleCache = new HashMap<String, ImageIcon> ();
-
     public static void clearDisabledCopyCache ()
     {
-        grayscaleCache.clear ();
+        imageCache.clear ( GRAYSCALE_CACHE );
     }
 
     public static void clearDisabledCopyCache ( final String id )
     {
-        grayscaleCache.remove ( id );
+        imageCache.remove ( GRAYSCALE_CACHE, id, ImageIcon.class );
     }
 
     public static ImageIcon getDisabledCopy ( final String key, final ImageIcon imageIcon )
     {
-        if ( grayscaleCache.containsKey ( key ) )
+        final ImageIcon cached = imageCache.get ( GRAYSCALE_CACHE, key, ImageIcon.class );
+        if ( cached != null )
         {
-            return grayscaleCache.get ( key );
+            return cached;
         }
         else
         {
-            grayscaleCache.put ( key, createDisabledCopy ( imageIcon ) );
-            return grayscaleCache.get ( key );
+            final ImageIcon disabledCopy = createDisabledCopy ( imageIcon );
+            imageCache.put ( GRAYSCALE_CACHE, key, disabledCopy );
+            return disabledCopy;
         }
     }
 
@@ -1233,18 +1358,18 @@ public final class ImageUtils
      * Creating partially transparent ImageIcon
      */
 
-    private static final Map<String, ImageIcon> trasparentCache = new HashMap<String, ImageIcon> ();
-
     public static ImageIcon getTransparentCopy ( final String id, final ImageIcon imageIcon, final float trasparency )
     {
-        if ( trasparentCache.containsKey ( id ) )
+        final ImageIcon cached = imageCache.get ( TRANSPARENT_CACHE, id, ImageIcon.class );
+        if ( cached != null )
         {
-            return trasparentCache.get ( id );
+            return cached;
         }
         else
         {
-            trasparentCache.put ( id, createTransparentCopy ( imageIcon, trasparency ) );
-            return trasparentCache.get ( id );
+            final ImageIcon transparentCopy = createTransparentCopy ( imageIcon, trasparency );
+            imageCache.put ( TRANSPARENT_CACHE, id, transparentCopy );
+            return transparentCopy;
         }
     }
 
@@ -22,6 +22,7 @@ import com.alee.utils.file.FileDownloadListener;
 import com.alee.utils.reflection.JarEntry;
 import com.alee.utils.reflection.JarEntryType;
 import com.alee.utils.reflection.JarStructure;
+import com.alee.utils.reflection.ReflectionCache;
 
 import java.io.File;
 import java.io.IOException;
@@ -51,9 +52,19 @@ public final class ReflectUtils
     private static boolean safeMethodsLoggingEnabled = false;
 
     /**
-     * Methods lookup cache.
+     * Reflection metadata cache.
      */
-    private static final Map<Class, Map<String, Method>> methodsLookupCache = new HashMap<Class, Map<String, Method>> ();
+    private static final ReflectionCache reflectionCache = new ReflectionCache ();
+
+    /**
+     * Returns reflection metadata cache used by this class.
+     *
+     * @return reflection metadata cache used by this class
+     */
+    public static ReflectionCache getReflectionCache ()
+    {
+        return reflectionCache;
+    }
 
     /**
      * Returns whether should allow safe methods to log errors or not.
@@ -301,6 +312,25 @@ public final class ReflectUtils
      * @throws NoSuchFieldException
      */
     public static Field getFieldImpl ( final Class classType, final String fieldName ) throws NoSuchFieldException
+    {
+        final Object cached = reflectionCache.getField ( classType, fieldName );
+        if ( cached != null )
+        {
+            return cached != ReflectionCache.MISSING ? ( Field ) cached : null;
+        }
+        final Field field = findField ( classType, fieldName );
+        reflectionCache.putField ( classType, fieldName, field != null ? field : ReflectionCache.MISSING );
+        return field;
+    }
+
+    /**
+     * Returns specified class field found in the class or one of its super-classes.
+     *
+     * @param classType type of the class where field can be located
+     * @param fieldName field name
+     * @return specified class field or null if it was not found
+     */
+    private static Field findField ( final Class<?> classType, final String fieldName )
     {
         Field field;
         try
@@ -310,7 +340,7 @@ public final class ReflectUtils
         catch ( final NoSuchFieldException e )
         {
             final Class superclass = classType.getSuperclass ();
-            field = superclass != null ? getFieldImpl ( superclass, fieldName ) : null;
+            field = superclass != null ? findField ( superclass, fieldName ) : null;
         }
         return field;
     }
@@ -984,6 +1014,42 @@ public final class ReflectUtils
      * @throws NoSuchMethodException
      */
     public static Constructor getConstructor ( final Class theClass, final Class... parameterTypes ) throws NoSuchMethodException
+    {
+        // Checking cache
+        final ReflectionCache.MemberKey key = new ReflectionCache.MemberKey ( "<init>", parameterTypes );
+        final Object cached = reflectionCache.getConstructor ( theClass, key );
+        if ( cached == ReflectionCache.MISSING )
+        {
+            throw new NoSuchMethodException ( theClass.getCanonicalName () + argumentTypesToString ( parameterTypes ) );
+        }
+        else if ( cached != null )
+        {
+            return ( Constructor ) cached;
+        }
+
+        // Updating cache
+        try
+        {
+            final Constructor<?> constructor = getConstructorImpl ( theClass, parameterTypes );
+            reflectionCache.putConstructor ( theClass, key, constructor );
+            return constructor;
+        }
+        catch ( final NoSuchMethodException e )
+        {
+            reflectionCache.putConstructor ( theClass, key, ReflectionCache.MISSING );
+            throw e;
+        }
+    }
+
+    /**
+     * Returns class constructor for the specified argument types.
+     *
+     * @param theClass       class to process
+     * @param parameterTypes constructor argument types
+     * @return class constructor for the specified argument types
+     * @throws NoSuchMethodException
+     */
+    private static Constructor<?> getConstructorImpl ( final Class<?> theClass, final Class<?>... parameterTypes ) throws NoSuchMethodException
     {
         // todo Constructors priority check (by super types)
         // todo For now some constructor with [Object] arg might be used instead of constructor with [String]
@@ -1273,18 +1339,24 @@ public final class ReflectUtils
      */
     public static Method getFieldGetter ( final Class aClass, final String field )
     {
-        // Try "get" method first
-        final Method get = getMethodSafely ( aClass, getGetterMethodName ( field ) );
-        if ( get != null )
+        // Checking cache
+        final Object cached = reflectionCache.getGetter ( aClass, field );
+        if ( cached != null )
         {
-            return get;
+            return cached != ReflectionCache.MISSING ? ( Method ) cached : null;
         }
-        else
+
+        // Try "get" method first
+        Method getter = getMethodSafely ( aClass, getGetterMethodName ( field ) );
+        if ( getter == null )
         {
             // Try "is" method second
-            final Method is = getMethodSafely ( aClass, getIsGetterMethodName ( field ) );
-            return is != null ? is : null;
+            getter = getMethodSafely ( aClass, getIsGetterMethodName ( field ) );
         }
+
+        // Updating cache
+        reflectionCache.putGetter ( aClass, field, getter != null ? getter : ReflectionCache.MISSING );
+        return getter;
     }
 
     /**
@@ -1397,31 +1469,31 @@ public final class ReflectUtils
         // todo For now some method with [Object] arg might be used instead of method with [String]
         // todo To avoid issues don't call methods with same amount of arguments and which are castable to each other
 
-        // Method key
-        final Class[] classTypes = getClassTypes ( arguments );
-        final String key = aClass.getCanonicalName () + "." + methodName + argumentTypesToString ( classTypes );
-
         // Checking cache
-        Method method = null;
-        Map<String, Method> classMethodsCache = methodsLookupCache.get ( aClass );
-        if ( classMethodsCache != null )
+        final Class[] classTypes = getClassTypes ( arguments );
+        final ReflectionCache.MemberKey key = new ReflectionCache.MemberKey ( methodName, classTypes );
+        final Object cached = reflectionCache.getMethod ( aClass, key );
+        if ( cached == ReflectionCache.MISSING )
         {
-            method = classMethodsCache.get ( key );
+            throw new NoSuchMethodException ( aClass.getCanonicalName () + "." + methodName + argumentTypesToString ( classTypes ) );
         }
-        else
+        else if ( cached != null )
         {
-            classMethodsCache = new HashMap<String, Method> ( 1 );
-            methodsLookupCache.put ( aClass, classMethodsCache );
+            return ( Method ) cached;
         }
 
         // Updating cache
-        if ( method == null )
+        try
         {
-            method = getMethodImpl ( aClass, methodName, arguments );
-            classMethodsCache.put ( key, method );
+            final Method method = getMethodImpl ( aClass, methodName, arguments );
+            reflectionCache.putMethod ( aClass, key, method );
+            return method;
+        }
+        catch ( final NoSuchMethodException e )
+        {
+            reflectionCache.putMethod ( aClass, key, ReflectionCache.MISSING );
+            throw e;
         }
-
-        return method;
     }
 
     /**
@@ -27,16 +27,16 @@ import java.util.WeakHashMap;
 /**
  * This utility class can be used to implement shape caching withing any painter or component.
  * This might be useful to improve component painting performance in case it uses complex shapes.
+ * <p/>
+ * Shape settings can be provided either as a set of objects combined into a string key or as a reusable {@link ShapeCacheKey}.
+ * The second option doesn't allocate anything when cached shape is still up-to-date and should be preferred for frequent painting.
  *
  * @author Mikle Garin
+ * @see com.alee.utils.ShapeCacheKey
  */
 
 public final class ShapeCache
 {
-    /**
-     * todo 1. Improve shape settings key generation/usage performance
-     */
-
     /**
      * Separator for settings cached within single key.
      */
@@ -76,7 +76,7 @@ public final class ShapeCache
         else
         {
             final CachedShape cachedShape = cacheById.get ( shapeId );
-            if ( cachedShape == null || !cachedShape.getKey ().equals ( settingsKey ) )
+            if ( cachedShape == null || !settingsKey.equals ( cachedShape.getKey () ) )
             {
                 // Shape is not yet cached or cache entry is outdated
                 final Shape shape = shapeProvider.provide ();
@@ -91,6 +91,84 @@ public final class ShapeCache
         }
     }
 
+    /**
+     * Returns cached component shape.
+     * If shape is not yet cached it will be created.
+     * If shape settings are changed from the last time it was queued it will be re-created.
+     *
+     * @param component     component for which shape is cached
+     * @param shapeId       unique shape ID
+     * @param shapeProvider shape provider
+     * @param settings      shape settings key
+     * @param <T>           shape type
+     * @return cached component shape
+     */
+    public static <T extends Shape> T getShape ( final Component component, final String shapeId, final DataProvider<T> shapeProvider,
+                                                 final ShapeCacheKey settings )
+    {
+        T shape = getCachedShape ( component, shapeId, settings );
+        if ( shape == null )
+        {
+            shape = shapeProvider.provide ();
+            cacheShape ( component, shapeId, settings, shape );
+        }
+        return shape;
+    }
+
+    /**
+     * Returns cached component shape if it exists and was cached for the same settings, null otherwise.
+     * This method doesn't allocate anything so it can be safely used on each paint call.
+     *
+     * @param component component for which shape is cached
+     * @param shapeId   unique shape ID
+     * @param settings  shape settings key
+     * @param <T>       shape type
+     * @return cached component shape if it exists and was cached for the same settings, null otherwise
+     */
+    @SuppressWarnings ( "unchecked" )
+    public static <T extends Shape> T getCachedShape ( final Component component, final String shapeId, final ShapeCacheKey settings )
+    {
+        final Map<String, CachedShape> cacheById = shapeCache.get ( component );
+        if ( cacheById != null )
+        {
+            final CachedShape cachedShape = cacheById.get ( shapeId );
+            if ( cachedShape != null && settings.equals ( cachedShape.getSettings () ) )
+            {
+                return ( T ) cachedShape.getShape ();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Caches component shape for the specified settings.
+     * Settings key is copied so the same key instance can be refilled and reused afterwards.
+     *
+     * @param component component for which shape is cached
+     * @param shapeId   unique shape ID
+     * @param settings  shape settings key
+     * @param shape     shape to cache
+     */
+    public static void cacheShape ( final Component component, final String shapeId, final ShapeCacheKey settings, final Shape shape )
+    {
+        Map<String, CachedShape> cacheById = shapeCache.get ( component );
+        if ( cacheById == null )
+        {
+            cacheById = new HashMap<String, CachedShape> ( 1 );
+            shapeCache.put ( component, cacheById );
+        }
+        final CachedShape cachedShape = cacheById.get ( shapeId );
+        if ( cachedShape != null && cachedShape.getSettings () != null )
+        {
+            // Updating existing entry to avoid settings key re-allocation
+            cachedShape.update ( settings, shape );
+        }
+        else
+        {
+            cacheById.put ( shapeId, new CachedShape ( settings.copy (), shape ) );
+        }
+    }
+
     /**
      * Combines shape settings into a single key for cache map and returns it.
      *
@@ -146,12 +224,22 @@ public final class ShapeCache
     private static class CachedShape
     {
         private final String key;
-        private final Shape shape;
+        private final ShapeCacheKey settings;
+        private Shape shape;
 
         public CachedShape ( final String key, final Shape shape )
         {
             super ();
             this.key = key;
+            this.settings = null;
+            this.shape = shape;
+        }
+
+        public CachedShape ( final ShapeCacheKey settings, final Shape shape )
+        {
+            super ();
+            this.key = null;
+            this.settings = settings;
             this.shape = shape;
         }
 
@@ -160,9 +248,20 @@ public final class ShapeCache
             return key;
         }
 
+        private ShapeCacheKey getSettings ()
+        {
+            return settings;
+        }
+
         private Shape getShape ()
         {
             return shape;
         }
+
+        private void update ( final ShapeCacheKey settings, final Shape shape )
+        {
+            this.settings.set ( settings );
+            this.shape = shape;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,273 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.alee.utils;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Reusable shape settings key for {@link com.alee.utils.ShapeCache}.
+ * All settings are packed into a primitive array so filling and comparing this key doesn't allocate anything.
+ * <p/>
+ * Painters usually keep a single key instance, clear and fill it before each shape request.
+ * Shape cache keeps its own copy of the key so the same instance can be safely refilled afterwards.
+ *
+ * @author Mikle Garin
+ * @see com.alee.utils.ShapeCache
+ */
+
+public final class ShapeCacheKey
+{
+    /**
+     * Packed settings values.
+     */
+    private int[] values;
+
+    /**
+     * Amount of packed values.
+     */
+    private int size;
+
+    /**
+     * Constructs new empty shape settings key.
+     */
+    public ShapeCacheKey ()
+    {
+        this ( 16 );
+    }
+
+    /**
+     * Constructs new empty shape settings key with the specified initial capacity.
+     *
+     * @param capacity initial amount of packed values
+     */
+    public ShapeCacheKey ( final int capacity )
+    {
+        super ();
+        this.values = new int[ Math.max ( capacity, 1 ) ];
+        this.size = 0;
+    }
+
+    /**
+     * Removes all settings from this key.
+     *
+     * @return this key
+     */
+    public ShapeCacheKey clear ()
+    {
+        size = 0;
+        return this;
+    }
+
+    /**
+     * Adds integer setting into this key.
+     *
+     * @param value setting value
+     * @return this key
+     */
+    public ShapeCacheKey add ( final int value )
+    {
+        if ( size == values.length )
+        {
+            values = Arrays.copyOf ( values, values.length * 2 );
+        }
+        values[ size++ ] = value;
+        return this;
+    }
+
+    /**
+     * Adds boolean setting into this key.
+     *
+     * @param value setting value
+     * @return this key
+     */
+    public ShapeCacheKey add ( final boolean value )
+    {
+        return add ( value ? 1 : 0 );
+    }
+
+    /**
+     * Adds float setting into this key.
+     *
+     * @param value setting value
+     * @return this key
+     */
+    public ShapeCacheKey add ( final float value )
+    {
+        return add ( Float.floatToIntBits ( value ) );
+    }
+
+    /**
+     * Adds double setting into this key.
+     *
+     * @param value setting value
+     * @return this key
+     */
+    public ShapeCacheKey add ( final double value )
+    {
+        final long bits = Double.doubleToLongBits ( value );
+        return add ( ( int ) ( bits >>> 32 ) ).add ( ( int ) bits );
+    }
+
+    /**
+     * Adds color setting into this key.
+     *
+     * @param value setting value
+     * @return this key
+     */
+    public ShapeCacheKey add ( final Color value )
+    {
+        return value != null ? add ( 1 ).add ( value.getRGB () ) : add ( 0 );
+    }
+
+    /**
+     * Adds enum setting into this key.
+     *
+     * @param value setting value
+     * @return this key
+     */
+    public ShapeCacheKey add ( final Enum<?> value )
+    {
+        return add ( value != null ? value.ordinal () : -1 );
+    }
+
+    /**
+     * Adds dimension setting into this key.
+     *
+     * @param value setting value
+     * @return this key
+     */
+    public ShapeCacheKey add ( final Dimension value )
+    {
+        return value != null ? add ( 1 ).add ( value.width ).add ( value.height ) : add ( 0 );
+    }
+
+    /**
+     * Adds point setting into this key.
+     *
+     * @param value setting value
+     * @return this key
+     */
+    public ShapeCacheKey add ( final Point value )
+    {
+        return value != null ? add ( 1 ).add ( value.x ).add ( value.y ) : add ( 0 );
+    }
+
+    /**
+     * Adds rectangle setting into this key.
+     *
+     * @param value setting value
+     * @return this key
+     */
+    public ShapeCacheKey add ( final Rectangle value )
+    {
+        return value != null ? add ( 1 ).add ( value.x ).add ( value.y ).add ( value.width ).add ( value.height ) : add ( 0 );
+    }
+
+    /**
+     * Adds insets setting into this key.
+     *
+     * @param value setting value
+     * @return this key
+     */
+    public ShapeCacheKey add ( final Insets value )
+    {
+        return value != null ? add ( 1 ).add ( value.top ).add ( value.left ).add ( value.bottom ).add ( value.right ) : add ( 0 );
+    }
+
+    /**
+     * Replaces settings of this key with settings from the specified key.
+     *
+     * @param key key to copy settings from
+     * @return this key
+     */
+    public ShapeCacheKey set ( final ShapeCacheKey key )
+    {
+        if ( values.length < key.size )
+        {
+            values = new int[ key.values.length ];
+        }
+        System.arraycopy ( key.values, 0, values, 0, key.size );
+        size = key.size;
+        return this;
+    }
+
+    /**
+     * Returns new key with the same settings.
+     *
+     * @return new key with the same settings
+     */
+    public ShapeCacheKey copy ()
+    {
+        return new ShapeCacheKey ( size ).set ( this );
+    }
+
+    /**
+     * Returns whether this key contains the same settings as the specified key or not.
+     *
+     * @param key key to compare with
+     * @return true if this key contains the same settings as the specified key, false otherwise
+     */
+    public boolean equals ( final ShapeCacheKey key )
+    {
+        if ( key == null || key.size != size )
+        {
+            return false;
+        }
+        for ( int i = 0; i < size; i++ )
+        {
+            if ( values[ i ] != key.values[ i ] )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals ( final Object obj )
+    {
+        return obj instanceof ShapeCacheKey && equals ( ( ShapeCacheKey ) obj );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode ()
+    {
+        int hash = 1;
+        for ( int i = 0; i < size; i++ )
+        {
+            hash = 31 * hash + values[ i ];
+        }
+        return hash;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString ()
+    {
+        return Arrays.toString ( Arrays.copyOf ( values, size ) );
+    }
+}
@@ -28,6 +28,7 @@ import com.alee.utils.xml.*;
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.converters.Converter;
 import com.thoughtworks.xstream.converters.SingleValueConverter;
+import com.thoughtworks.xstream.io.HierarchicalStreamDriver;
 import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
 import com.thoughtworks.xstream.io.xml.DomDriver;
 
@@ -53,6 +54,13 @@ public final class XmlUtils
      */
     public static boolean aliasJdkClasses = true;
 
+    /**
+     * Whether should use streaming XML driver or DOM-based one.
+     * Streaming driver reads XML event by event without building the whole document tree in memory first.
+     * This option has to be changed before XStream instance is initialized to have any effect.
+     */
+    public static boolean useStreamingDriver = true;
+
     /**
      * Custom converters.
      */
@@ -67,31 +75,75 @@ public final class XmlUtils
     /**
      * XStream instance.
      */
-    private static XStream xStream = null;
+    private static volatile XStream xStream = null;
+
+    /**
+     * XStream initialization and configuration lock.
+     */
+    private static final Object xStreamLock = new Object ();
 
     /**
      * Returns global XStream instance configured with all required aliases and converters.
+     * <p/>
+     * Returned instance can be used to serialize and deserialize objects from multiple threads at once.
+     * Configuration methods like {@link #alias(String, Class)} are synchronized, but they should still be called before XStream is used
+     * from multiple threads, preferably right at the application startup.
      *
      * @return XStream
      */
     public static XStream getXStream ()
     {
-        if ( xStream == null )
+        XStream instance = xStream;
+        if ( instance == null )
         {
-            initializeXStream ();
+            synchronized ( xStreamLock )
+            {
+                instance = xStream;
+                if ( instance == null )
+                {
+                    instance = createXStream ();
+                    xStream = instance;
+                }
+            }
         }
-        return xStream;
+        return instance;
+    }
+
+    /**
+     * Returns new XStream driver according to current settings.
+     *
+     * @return new XStream driver
+     */
+    private static HierarchicalStreamDriver createDriver ()
+    {
+        if ( useStreamingDriver )
+        {
+            try
+            {
+                // Ensuring that StAX parser is available right away
+                final StreamingXmlDriver driver = new StreamingXmlDriver ();
+                driver.getInputFactory ();
+                return driver;
+            }
+            catch ( final Throwable e )
+            {
+                Log.warn ( XmlUtils.class, "Unable to initialize streaming XML driver, DOM driver will be used instead", e );
+            }
+        }
+        return new DomDriver ();
     }
 
     /**
-     * Initializes global XStream instance.
+     * Returns new XStream instance configured with all required aliases and converters.
+     *
+     * @return new XStream instance
      */
-    private static void initializeXStream ()
+    private static XStream createXStream ()
     {
+        // XStream instnce initialization
+        final XStream xStream = new XStream ( createDriver () );
         try
         {
-            // XStream instnce initialization
-            xStream = new XStream ( new DomDriver () );
             // xStream.setMode ( XStream.ID_REFERENCES );
 
             // Standart Java-classes aliases
@@ -135,6 +187,7 @@ public final class XmlUtils
         {
             Log.error ( XmlUtils.class, e );
         }
+        return xStream;
     }
 
     /**
@@ -145,7 +198,11 @@ public final class XmlUtils
      */
     public static void processAnnotations ( final Class type )
     {
-        getXStream ().processAnnotations ( type );
+        final XStream xStream = getXStream ();
+        synchronized ( xStreamLock )
+        {
+            xStream.processAnnotations ( type );
+        }
     }
 
     /**
@@ -155,7 +212,11 @@ public final class XmlUtils
      */
     public static void processAnnotations ( final Class[] types )
     {
-        getXStream ().processAnnotations ( types );
+        final XStream xStream = getXStream ();
+        synchronized ( xStreamLock )
+        {
+            xStream.processAnnotations ( types );
+        }
     }
 
     /**
@@ -166,7 +227,11 @@ public final class XmlUtils
      */
     public static void alias ( final String name, final Class type )
     {
-        getXStream ().alias ( name, type );
+        final XStream xStream = getXStream ();
+        synchronized ( xStreamLock )
+        {
+            xStream.alias ( name, type );
+        }
     }
 
     /**
@@ -177,7 +242,11 @@ public final class XmlUtils
      */
     public static void useAttributeFor ( final Class type, final String field )
     {
-        getXStream ().useAttributeFor ( type, field );
+        final XStream xStream = getXStream ();
+        synchronized ( xStreamLock )
+        {
+            xStream.useAttributeFor ( type, field );
+        }
     }
 
     /**
@@ -188,7 +257,11 @@ public final class XmlUtils
      */
     public static void addImplicitArray ( final Class type, final String field )
     {
-        getXStream ().addImplicitArray ( type, field );
+        final XStream xStream = getXStream ();
+        synchronized ( xStreamLock )
+        {
+            xStream.addImplicitArray ( type, field );
+        }
     }
 
     /**
@@ -200,7 +273,11 @@ public final class XmlUtils
      */
     public static void addImplicitArray ( final Class type, final String field, final String itemName )
     {
-        getXStream ().addImplicitArray ( type, field, itemName );
+        final XStream xStream = getXStream ();
+        synchronized ( xStreamLock )
+        {
+            xStream.addImplicitArray ( type, field, itemName );
+        }
     }
 
     /**
@@ -210,7 +287,11 @@ public final class XmlUtils
      */
     public static void registerConverter ( final Converter converter )
     {
-        getXStream ().registerConverter ( converter );
+        final XStream xStream = getXStream ();
+        synchronized ( xStreamLock )
+        {
+            xStream.registerConverter ( converter );
+        }
     }
 
     /**
@@ -220,7 +301,11 @@ public final class XmlUtils
      */
     public static void registerConverter ( final SingleValueConverter converter )
     {
-        getXStream ().registerConverter ( converter );
+        final XStream xStream = getXStream ();
+        synchronized ( xStreamLock )
+        {
+            xStream.registerConverter ( converter );
+        }
     }
 
     /**
@@ -232,7 +317,11 @@ public final class XmlUtils
      */
     public static <T extends AliasProvider> void alias ( final Class<T> aliasProvider )
     {
-        ReflectUtils.callStaticMethodSafely ( aliasProvider, AliasProvider.methodName, getXStream () );
+        final XStream xStream = getXStream ();
+        synchronized ( xStreamLock )
+        {
+            ReflectUtils.callStaticMethodSafely ( aliasProvider, AliasProvider.methodName, xStream );
+        }
     }
 
     /**
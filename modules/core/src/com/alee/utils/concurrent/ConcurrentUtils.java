@@ -0,0 +1,49 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.alee.utils.concurrent;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class provides a set of utilities for concurrent tasks execution.
+ *
+ * @author Mikle Garin
+ */
+
+public final class ConcurrentUtils
+{
+    /**
+     * Shared fork-join pool.
+     */
+    private static ForkJoinPool forkJoinPool = null;
+
+    /**
+     * Returns fork-join pool shared by all library parts which split their work between multiple threads.
+     * Its worker threads are daemon threads so the pool never prevents application from exiting.
+     *
+     * @return shared fork-join pool
+     */
+    public static synchronized ForkJoinPool getForkJoinPool ()
+    {
+        if ( forkJoinPool == null )
+        {
+            forkJoinPool = new ForkJoinPool ();
+        }
+        return forkJoinPool;
+    }
+}
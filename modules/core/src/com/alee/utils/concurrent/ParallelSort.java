@@ -0,0 +1,221 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.alee.utils.concurrent;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class provides stable merge sort performed on the shared fork-join pool.
+ * Array parts are sorted separately by worker threads and then merged, so large arrays are sorted using all available cores.
+ * Arrays smaller than {@link #getSequentialThreshold()} are simply sorted within the calling thread.
+ *
+ * @author Mikle Garin
+ * @see com.alee.utils.concurrent.ConcurrentUtils#getForkJoinPool()
+ */
+
+public final class ParallelSort
+{
+    /**
+     * Array part size which is always sorted sequentially.
+     */
+    private static volatile int sequentialThreshold = 8192;
+
+    /**
+     * Returns array part size which is always sorted sequentially.
+     *
+     * @return array part size which is always sorted sequentially
+     */
+    public static int getSequentialThreshold ()
+    {
+        return sequentialThreshold;
+    }
+
+    /**
+     * Sets array part size which is always sorted sequentially.
+     *
+     * @param sequentialThreshold array part size which is always sorted sequentially
+     */
+    public static void setSequentialThreshold ( final int sequentialThreshold )
+    {
+        if ( sequentialThreshold < 1 )
+        {
+            throw new IllegalArgumentException ( "Invalid sequential threshold: " + sequentialThreshold );
+        }
+        ParallelSort.sequentialThreshold = sequentialThreshold;
+    }
+
+    /**
+     * Returns whether array of the specified size will be sorted in parallel or not.
+     *
+     * @param size array size
+     * @return true if array of the specified size will be sorted in parallel, false otherwise
+     */
+    public static boolean isParallel ( final int size )
+    {
+        return size > sequentialThreshold * 2 && Runtime.getRuntime ().availableProcessors () > 1;
+    }
+
+    /**
+     * Sorts the specified array using the specified comparator.
+     * Sorting is stable, equal elements are not reordered.
+     *
+     * @param array      array to sort
+     * @param comparator elements comparator
+     * @param <T>        elements type
+     */
+    public static <T> void sort ( final T[] array, final Comparator<? super T> comparator )
+    {
+        if ( isParallel ( array.length ) )
+        {
+            final T[] buffer = Arrays.copyOf ( array, array.length );
+            final SortTask<T> task = new SortTask<T> ( array, buffer, 0, array.length, comparator );
+            ConcurrentUtils.getForkJoinPool ().invoke ( task );
+        }
+        else
+        {
+            Arrays.sort ( array, comparator );
+        }
+    }
+
+    /**
+     * Sorts the specified list using the specified comparator.
+     * Sorting is stable, equal elements are not reordered.
+     *
+     * @param list       list to sort
+     * @param comparator elements comparator
+     * @param <T>        elements type
+     */
+    @SuppressWarnings ( "unchecked" )
+    public static <T> void sort ( final List<T> list, final Comparator<? super T> comparator )
+    {
+        if ( isParallel ( list.size () ) )
+        {
+            // List elements are all of type T, so its array can be treated as such
+            final T[] array = ( T[] ) list.toArray ();
+            sort ( array, comparator );
+            final ListIterator<T> iterator = list.listIterator ();
+            for ( final T element : array )
+            {
+                iterator.next ();
+                iterator.set ( element );
+            }
+        }
+        else
+        {
+            Collections.sort ( list, comparator );
+        }
+    }
+
+    /**
+     * Fork-join merge sort task.
+     *
+     * @param <T> elements type
+     */
+    private static final class SortTask<T> extends RecursiveAction
+    {
+        /**
+         * Tasks are never serialized, they only exist while sorting is performed.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Sorted array.
+         */
+        private final transient T[] array;
+
+        /**
+         * Merge buffer of the same size.
+         */
+        private final transient T[] buffer;
+
+        /**
+         * Sorted part bounds.
+         */
+        private final int from;
+        private final int to;
+
+        /**
+         * Elements comparator.
+         */
+        private final transient Comparator<? super T> comparator;
+
+        /**
+         * Constructs new sort task.
+         *
+         * @param array      sorted array
+         * @param buffer     merge buffer
+         * @param from       sorted part start index, inclusive
+         * @param to         sorted part end index, exclusive
+         * @param comparator elements comparator
+         */
+        public SortTask ( final T[] array, final T[] buffer, final int from, final int to, final Comparator<? super T> comparator )
+        {
+            super ();
+            this.array = array;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.comparator = comparator;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void compute ()
+        {
+            if ( to - from <= sequentialThreshold )
+            {
+                Arrays.sort ( array, from, to, comparator );
+            }
+            else
+            {
+                // Sorting both halves in parallel
+                final int middle = ( from + to ) >>> 1;
+                invokeAll ( new SortTask<T> ( array, buffer, from, middle, comparator ),
+                        new SortTask<T> ( array, buffer, middle, to, comparator ) );
+
+                // Merging halves, left elements go first when equal to keep sorting stable
+                if ( comparator.compare ( array[ middle - 1 ], array[ middle ] ) > 0 )
+                {
+                    System.arraycopy ( array, from, buffer, from, to - from );
+                    int left = from;
+                    int right = middle;
+                    int index = from;
+                    while ( left < middle && right < to )
+                    {
+                        array[ index++ ] = comparator.compare ( buffer[ right ], buffer[ left ] ) < 0 ? buffer[ right++ ] : buffer[ left++ ];
+                    }
+                    while ( left < middle )
+                    {
+                        array[ index++ ] = buffer[ left++ ];
+                    }
+                    while ( right < to )
+                    {
+                        array[ index++ ] = buffer[ right++ ];
+                    }
+                }
+            }
+        }
+    }
+}
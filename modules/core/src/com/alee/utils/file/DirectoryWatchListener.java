@@ -0,0 +1,48 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.alee.utils.file;
+
+import java.io.File;
+import java.nio.file.WatchEvent;
+
+/**
+ * This is a custom listener used to receive file system changes within directories watched by {@link DirectoryWatchService}.
+ *
+ * @author Mikle Garin
+ */
+
+public interface DirectoryWatchListener
+{
+    /**
+     * Informs that file within the watched directory was created, deleted or modified.
+     * File is null if some events were lost and any file within the directory might have changed.
+     *
+     * @param directory watched directory
+     * @param file      changed file or null if any file within the directory might have changed
+     * @param kind      change kind
+     */
+    public void changed ( final File directory, final File file, final WatchEvent.Kind<?> kind );
+
+    /**
+     * Informs that watched directory cannot be watched anymore.
+     * This happens when directory is deleted, moved or becomes inaccessible.
+     *
+     * @param directory watched directory
+     */
+    public void cancelled ( final File directory );
+}
@@ -0,0 +1,394 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.alee.utils.file;
+
+import com.alee.managers.log.Log;
+import com.alee.utils.ThreadUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class provides shared file system changes notifications for directories.
+ * It uses a single {@link java.nio.file.WatchService} per file system and a single daemon dispatcher thread for all of them.
+ * <p/>
+ * Any amount of listeners can watch the same directory, directory is registered in the file system only once.
+ * Directories located on file systems which do not support watching are simply rejected so that callers can fall back to polling.
+ *
+ * @author Mikle Garin
+ * @see com.alee.utils.file.DirectoryWatchListener
+ */
+
+public final class DirectoryWatchService
+{
+    /**
+     * Dispatcher thread name.
+     */
+    public static final String DISPATCHER_THREAD_NAME = "DirectoryWatchService";
+
+    /**
+     * Maximum time in milliseconds dispatcher waits for a single watch service events.
+     */
+    private static final long POLL_TIMEOUT = 250L;
+
+    /**
+     * Watch services used for each file system.
+     */
+    private static final Map<FileSystem, WatchService> services = new HashMap<FileSystem, WatchService> ();
+
+    /**
+     * File systems which do not support watching.
+     */
+    private static final Set<FileSystem> unsupported = new HashSet<FileSystem> ();
+
+    /**
+     * Watched directories.
+     */
+    private static final Map<Path, WatchedDirectory> directories = new HashMap<Path, WatchedDirectory> ();
+
+    /**
+     * Watched directories by their watch keys.
+     */
+    private static final Map<WatchKey, WatchedDirectory> keys = new HashMap<WatchKey, WatchedDirectory> ();
+
+    /**
+     * Lock object for all watch data.
+     */
+    private static final Object lock = new Object ();
+
+    /**
+     * Dispatcher thread.
+     */
+    private static Thread dispatcher = null;
+
+    /**
+     * Starts watching specified directory and returns whether it can be watched or not.
+     *
+     * @param directory directory to watch
+     * @param listener  directory watch listener
+     * @return true if directory is watched, false if it cannot be watched
+     */
+    public static boolean watch ( final File directory, final DirectoryWatchListener listener )
+    {
+        final Path path = toPath ( directory );
+        if ( path == null )
+        {
+            return false;
+        }
+        synchronized ( lock )
+        {
+            WatchedDirectory watched = directories.get ( path );
+            if ( watched == null )
+            {
+                final WatchService service = getWatchService ( path.getFileSystem () );
+                if ( service == null )
+                {
+                    return false;
+                }
+                try
+                {
+                    final WatchKey key = path.register ( service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
+                            StandardWatchEventKinds.ENTRY_MODIFY );
+                    watched = new WatchedDirectory ( path, key );
+                    directories.put ( path, watched );
+                    keys.put ( key, watched );
+                }
+                catch ( final Throwable e )
+                {
+                    // Directory doesn't exist, it is not accessible or cannot be watched
+                    return false;
+                }
+                startDispatcher ();
+            }
+            if ( !watched.listeners.contains ( listener ) )
+            {
+                watched.listeners.add ( listener );
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Stops watching specified directory for the specified listener.
+     * Directory is unregistered from the file system once it has no more listeners.
+     *
+     * @param directory watched directory
+     * @param listener  directory watch listener
+     */
+    public static void unwatch ( final File directory, final DirectoryWatchListener listener )
+    {
+        final Path path = toPath ( directory );
+        if ( path != null )
+        {
+            synchronized ( lock )
+            {
+                final WatchedDirectory watched = directories.get ( path );
+                if ( watched != null )
+                {
+                    watched.listeners.remove ( listener );
+                    if ( watched.listeners.isEmpty () )
+                    {
+                        watched.key.cancel ();
+                        directories.remove ( path );
+                        keys.remove ( watched.key );
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether specified directory is watched or not.
+     *
+     * @param directory directory to check
+     * @return true if specified directory is watched, false otherwise
+     */
+    public static boolean isWatched ( final File directory )
+    {
+        final Path path = toPath ( directory );
+        if ( path != null )
+        {
+            synchronized ( lock )
+            {
+                return directories.containsKey ( path );
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns amount of watched directories.
+     *
+     * @return amount of watched directories
+     */
+    public static int getWatchedDirectoriesCount ()
+    {
+        synchronized ( lock )
+        {
+            return directories.size ();
+        }
+    }
+
+    /**
+     * Returns absolute path for the specified file or null if it cannot be represented as path.
+     *
+     * @param file file to process
+     * @return absolute path for the specified file or null if it cannot be represented as path
+     */
+    private static Path toPath ( final File file )
+    {
+        try
+        {
+            return file != null ? file.getAbsoluteFile ().toPath () : null;
+        }
+        catch ( final InvalidPathException e )
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Returns watch service for the specified file system or null if it doesn't support watching.
+     * Should be called within the lock.
+     *
+     * @param fileSystem file system
+     * @return watch service for the specified file system or null if it doesn't support watching
+     */
+    private static WatchService getWatchService ( final FileSystem fileSystem )
+    {
+        WatchService service = services.get ( fileSystem );
+        if ( service == null && !unsupported.contains ( fileSystem ) )
+        {
+            try
+            {
+                service = fileSystem.newWatchService ();
+                services.put ( fileSystem, service );
+            }
+            catch ( final UnsupportedOperationException e )
+            {
+                unsupported.add ( fileSystem );
+            }
+            catch ( final IOException e )
+            {
+                Log.warn ( DirectoryWatchService.class, "Unable to create watch service for " + fileSystem, e );
+                unsupported.add ( fileSystem );
+            }
+        }
+        return service;
+    }
+
+    /**
+     * Starts dispatcher thread if it is not running yet.
+     * Should be called within the lock.
+     */
+    private static void startDispatcher ()
+    {
+        if ( dispatcher == null )
+        {
+            dispatcher = new Thread ( new Runnable ()
+            {
+                @Override
+                public void run ()
+                {
+                    dispatch ();
+                }
+            }, DISPATCHER_THREAD_NAME );
+            dispatcher.setDaemon ( true );
+            dispatcher.start ();
+        }
+    }
+
+    /**
+     * Dispatcher thread main loop.
+     */
+    private static void dispatch ()
+    {
+        while ( true )
+        {
+            final List<WatchService> watchServices;
+            synchronized ( lock )
+            {
+                watchServices = new ArrayList<WatchService> ( services.values () );
+            }
+            if ( watchServices.isEmpty () )
+            {
+                ThreadUtils.sleepSafely ( POLL_TIMEOUT );
+                continue;
+            }
+            final long timeout = Math.max ( 1, POLL_TIMEOUT / Math.max ( 1, watchServices.size () ) );
+            for ( final WatchService service : watchServices )
+            {
+                try
+                {
+                    final WatchKey key = service.poll ( timeout, TimeUnit.MILLISECONDS );
+                    if ( key != null )
+                    {
+                        processKey ( key );
+                    }
+                }
+                catch ( final InterruptedException e )
+                {
+                    return;
+                }
+                catch ( final ClosedWatchServiceException e )
+                {
+                    synchronized ( lock )
+                    {
+                        services.values ().remove ( service );
+                    }
+                }
+                catch ( final Throwable e )
+                {
+                    Log.error ( DirectoryWatchService.class, e );
+                }
+            }
+        }
+    }
+
+    /**
+     * Processes events of the signalled watch key.
+     *
+     * @param key signalled watch key
+     */
+    private static void processKey ( final WatchKey key )
+    {
+        final WatchedDirectory watched;
+        synchronized ( lock )
+        {
+            watched = keys.get ( key );
+        }
+        try
+        {
+            final List<WatchEvent<?>> events = key.pollEvents ();
+            if ( watched != null )
+            {
+                final File directory = watched.path.toFile ();
+                for ( final WatchEvent<?> event : events )
+                {
+                    final WatchEvent.Kind<?> kind = event.kind ();
+                    final File file;
+                    if ( kind == StandardWatchEventKinds.OVERFLOW || !( event.context () instanceof Path ) )
+                    {
+                        file = null;
+                    }
+                    else
+                    {
+                        file = watched.path.resolve ( ( Path ) event.context () ).toFile ();
+                    }
+                    for ( final DirectoryWatchListener listener : watched.listeners )
+                    {
+                        try
+                        {
+                            listener.changed ( directory, file, kind );
+                        }
+                        catch ( final Throwable e )
+                        {
+                            Log.error ( DirectoryWatchService.class, e );
+                        }
+                    }
+                }
+            }
+        }
+        finally
+        {
+            // Key must always be reset, otherwise directory will never be reported again
+            if ( !key.reset () && watched != null )
+            {
+                // Directory is no longer accessible
+                synchronized ( lock )
+                {
+                    directories.remove ( watched.path );
+                    keys.remove ( key );
+                }
+                final File directory = watched.path.toFile ();
+                for ( final DirectoryWatchListener listener : watched.listeners )
+                {
+                    try
+                    {
+                        listener.cancelled ( directory );
+                    }
+                    catch ( final Throwable e )
+                    {
+                        Log.error ( DirectoryWatchService.class, e );
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Watched directory data.
+     */
+    private static final class WatchedDirectory
+    {
+        private final Path path;
+        private final WatchKey key;
+        private final List<DirectoryWatchListener> listeners = new CopyOnWriteArrayList<DirectoryWatchListener> ();
+
+        public WatchedDirectory ( final Path path, final WatchKey key )
+        {
+            super ();
+            this.path = path;
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,430 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.alee.utils.file;
+
+/**
+ * This class represents a single cached file record of {@link FileAttributesCache}.
+ * Basic file attributes are read all at once when record is created, other values are computed lazily on the first request and stored
+ * within the same record so that any file change invalidates all of them together.
+ *
+ * @author Mikle Garin
+ * @see com.alee.utils.file.FileAttributesCache
+ */
+
+public final class FileAttributes
+{
+    /**
+     * Lazily computed values flags.
+     */
+    public static final int DRIVE = 1;
+    public static final int COMPUTER = 1 << 1;
+    public static final int CD_DRIVE = 1 << 2;
+    public static final int DISPLAY_NAME = 1 << 3;
+    public static final int TYPE_DESCRIPTION = 1 << 4;
+    public static final int DESCRIPTION = 1 << 5;
+    public static final int DISPLAY_CREATION_DATE = 1 << 6;
+    public static final int DISPLAY_MODIFICATION_DATE = 1 << 7;
+
+    /**
+     * Absolute file path.
+     */
+    private final String path;
+
+    /**
+     * Basic file attributes.
+     */
+    private final boolean exists;
+    private final boolean file;
+    private final boolean directory;
+    private final boolean hidden;
+    private final long size;
+    private final long creationTime;
+    private final long lastModified;
+
+    /**
+     * Whether or not record is invalidated through directory watching.
+     * Records which are not watched expire after a while.
+     */
+    private final boolean watched;
+
+    /**
+     * Record creation time in nanoseconds.
+     */
+    private final long created;
+
+    /**
+     * Last record access stamp.
+     */
+    private volatile long lastAccess;
+
+    /**
+     * Flags of lazily computed values.
+     */
+    private int computed = 0;
+
+    /**
+     * Lazily computed values.
+     */
+    private boolean drive;
+    private boolean computer;
+    private boolean cdDrive;
+    private String displayName;
+    private String typeDescription;
+    private FileDescription description;
+    private String displayCreationDate;
+    private String displayModificationDate;
+
+    /**
+     * Constructs new file record.
+     *
+     * @param path         absolute file path
+     * @param exists       whether file exists or not
+     * @param file         whether file is a normal file or not
+     * @param directory    whether file is a directory or not
+     * @param hidden       whether file is hidden or not
+     * @param size         file size
+     * @param creationTime file creation time
+     * @param lastModified file modification time
+     * @param watched      whether or not record is invalidated through directory watching
+     */
+    public FileAttributes ( final String path, final boolean exists, final boolean file, final boolean directory, final boolean hidden,
+                            final long size, final long creationTime, final long lastModified, final boolean watched )
+    {
+        super ();
+        this.path = path;
+        this.exists = exists;
+        this.file = file;
+        this.directory = directory;
+        this.hidden = hidden;
+        this.size = size;
+        this.creationTime = creationTime;
+        this.lastModified = lastModified;
+        this.watched = watched;
+        this.created = System.nanoTime ();
+    }
+
+    /**
+     * Returns absolute file path.
+     *
+     * @return absolute file path
+     */
+    public String getPath ()
+    {
+        return path;
+    }
+
+    /**
+     * Returns whether file exists or not.
+     *
+     * @return true if file exists, false otherwise
+     */
+    public boolean exists ()
+    {
+        return exists;
+    }
+
+    /**
+     * Returns whether file is a normal file or not.
+     *
+     * @return true if file is a normal file, false otherwise
+     */
+    public boolean isFile ()
+    {
+        return file;
+    }
+
+    /**
+     * Returns whether file is a directory or not.
+     *
+     * @return true if file is a directory, false otherwise
+     */
+    public boolean isDirectory ()
+    {
+        return directory;
+    }
+
+    /**
+     * Returns whether file is hidden or not.
+     *
+     * @return true if file is hidden, false otherwise
+     */
+    public boolean isHidden ()
+    {
+        return hidden;
+    }
+
+    /**
+     * Returns file size.
+     *
+     * @return file size
+     */
+    public long getSize ()
+    {
+        return size;
+    }
+
+    /**
+     * Returns file creation time.
+     *
+     * @return file creation time
+     */
+    public long getCreationTime ()
+    {
+        return creationTime;
+    }
+
+    /**
+     * Returns file modification time.
+     *
+     * @return file modification time
+     */
+    public long getLastModified ()
+    {
+        return lastModified;
+    }
+
+    /**
+     * Returns whether or not record is invalidated through directory watching.
+     *
+     * @return true if record is invalidated through directory watching, false otherwise
+     */
+    public boolean isWatched ()
+    {
+        return watched;
+    }
+
+    /**
+     * Returns whether record is older than the specified time or not.
+     *
+     * @param time time in milliseconds
+     * @return true if record is older than the specified time, false otherwise
+     */
+    public boolean isOlderThan ( final long time )
+    {
+        return System.nanoTime () - created > time * 1000000L;
+    }
+
+    /**
+     * Returns last record access stamp.
+     *
+     * @return last record access stamp
+     */
+    public long getLastAccess ()
+    {
+        return lastAccess;
+    }
+
+    /**
+     * Sets last record access stamp.
+     *
+     * @param lastAccess last record access stamp
+     */
+    public void setLastAccess ( final long lastAccess )
+    {
+        this.lastAccess = lastAccess;
+    }
+
+    /**
+     * Returns whether lazily computed value under the specified flag is available or not.
+     *
+     * @param flag value flag
+     * @return true if lazily computed value under the specified flag is available, false otherwise
+     */
+    public synchronized boolean isComputed ( final int flag )
+    {
+        return ( computed & flag ) == flag;
+    }
+
+    /**
+     * Marks lazily computed value under the specified flag as available.
+     *
+     * @param flag value flag
+     */
+    private void setComputed ( final int flag )
+    {
+        computed |= flag;
+    }
+
+    /**
+     * Returns whether file points to system hard drive or not.
+     *
+     * @return true if file points to system hard drive, false otherwise
+     */
+    public synchronized boolean isDrive ()
+    {
+        return drive;
+    }
+
+    /**
+     * Sets whether file points to system hard drive or not.
+     *
+     * @param drive whether file points to system hard drive or not
+     */
+    public synchronized void setDrive ( final boolean drive )
+    {
+        this.drive = drive;
+        setComputed ( DRIVE );
+    }
+
+    /**
+     * Returns whether file points to "My computer" node or not.
+     *
+     * @return true if file points to "My computer" node, false otherwise
+     */
+    public synchronized boolean isComputer ()
+    {
+        return computer;
+    }
+
+    /**
+     * Sets whether file points to "My computer" node or not.
+     *
+     * @param computer whether file points to "My computer" node or not
+     */
+    public synchronized void setComputer ( final boolean computer )
+    {
+        this.computer = computer;
+        setComputed ( COMPUTER );
+    }
+
+    /**
+     * Returns whether file points to CD/DVD/Bluray drive or not.
+     *
+     * @return true if file points to CD/DVD/Bluray drive, false otherwise
+     */
+    public synchronized boolean isCdDrive ()
+    {
+        return cdDrive;
+    }
+
+    /**
+     * Sets whether file points to CD/DVD/Bluray drive or not.
+     *
+     * @param cdDrive whether file points to CD/DVD/Bluray drive or not
+     */
+    public synchronized void setCdDrive ( final boolean cdDrive )
+    {
+        this.cdDrive = cdDrive;
+        setComputed ( CD_DRIVE );
+    }
+
+    /**
+     * Returns file name to display.
+     *
+     * @return file name to display
+     */
+    public synchronized String getDisplayName ()
+    {
+        return displayName;
+    }
+
+    /**
+     * Sets file name to display.
+     *
+     * @param displayName file name to display
+     */
+    public synchronized void setDisplayName ( final String displayName )
+    {
+        this.displayName = displayName;
+        setComputed ( DISPLAY_NAME );
+    }
+
+    /**
+     * Returns file type description.
+     *
+     * @return file type description
+     */
+    public synchronized String getTypeDescription ()
+    {
+        return typeDescription;
+    }
+
+    /**
+     * Sets file type description.
+     *
+     * @param typeDescription file type description
+     */
+    public synchronized void setTypeDescription ( final String typeDescription )
+    {
+        this.typeDescription = typeDescription;
+        setComputed ( TYPE_DESCRIPTION );
+    }
+
+    /**
+     * Returns complete file description.
+     *
+     * @return complete file description
+     */
+    public synchronized FileDescription getDescription ()
+    {
+        return description;
+    }
+
+    /**
+     * Sets complete file description.
+     *
+     * @param description complete file description
+     */
+    public synchronized void setDescription ( final FileDescription description )
+    {
+        this.description = description;
+        setComputed ( DESCRIPTION );
+    }
+
+    /**
+     * Returns file creation date to display.
+     *
+     * @return file creation date to display
+     */
+    public synchronized String getDisplayCreationDate ()
+    {
+        return displayCreationDate;
+    }
+
+    /**
+     * Sets file creation date to display.
+     *
+     * @param displayCreationDate file creation date to display
+     */
+    public synchronized void setDisplayCreationDate ( final String displayCreationDate )
+    {
+        this.displayCreationDate = displayCreationDate;
+        setComputed ( DISPLAY_CREATION_DATE );
+    }
+
+    /**
+     * Returns file modification date to display.
+     *
+     * @return file modification date to display
+     */
+    public synchronized String getDisplayModificationDate ()
+    {
+        return displayModificationDate;
+    }
+
+    /**
+     * Sets file modification date to display.
+     *
+     * @param displayModificationDate file modification date to display
+     */
+    public synchronized void setDisplayModificationDate ( final String displayModificationDate )
+    {
+        this.displayModificationDate = displayModificationDate;
+        setComputed ( DISPLAY_MODIFICATION_DATE );
+    }
+}
@@ -0,0 +1,659 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.alee.utils.file;
+
+import com.alee.utils.SystemUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent cache of file attributes which holds a single {@link FileAttributes} record per absolute file path.
+ * <p/>
+ * All basic attributes are read within a single {@link java.nio.file.Files#readAttributes} call when record is created.
+ * Parent directory of each cached file is watched through {@link DirectoryWatchService} so that records are invalidated automatically
+ * once files change. Records of files located on file systems which do not support watching simply expire after a short time.
+ * <p/>
+ * Cache size and amount of watched directories are bounded, least recently used records and directories are dropped first.
+ * <p/>
+ * Records are indexed by their parent paths, so invalidating directory content only affects records located within it.
+ * Each record is stored only if no changes were reported for its parent directories while its attributes were read.
+ *
+ * @author Mikle Garin
+ * @see com.alee.utils.file.FileAttributes
+ * @see com.alee.utils.file.DirectoryWatchService
+ */
+
+public class FileAttributesCache implements DirectoryWatchListener
+{
+    /**
+     * Default maximum amount of cached records.
+     */
+    public static final int DEFAULT_MAX_SIZE = 10000;
+
+    /**
+     * Default maximum amount of watched directories.
+     */
+    public static final int DEFAULT_MAX_WATCHED_DIRECTORIES = 256;
+
+    /**
+     * Default time in milliseconds after which records which are not watched expire.
+     */
+    public static final long DEFAULT_UNWATCHED_TIME_TO_LIVE = 5000L;
+
+    /**
+     * Amount of directory modification stamps.
+     * Directories share stamps by their path hash, so it is a trade-off between memory and records dropped due to unrelated changes.
+     */
+    protected static final int STAMPS_COUNT = 256;
+
+    /**
+     * Cached records.
+     */
+    protected final ConcurrentHashMap<String, FileAttributes> records = new ConcurrentHashMap<String, FileAttributes> ();
+
+    /**
+     * Cached paths by their parent paths.
+     * It contains paths of all cached records and all their parent directories, so any directory content can be found without
+     * checking all records. All changes are made while holding the index lock.
+     */
+    protected final Map<String, Set<String>> childrenIndex = new HashMap<String, Set<String>> ();
+
+    /**
+     * Directory modification stamps.
+     * Stamp is incremented whenever directory change is reported and before related records are invalidated.
+     */
+    protected final AtomicLongArray stamps = new AtomicLongArray ( STAMPS_COUNT );
+
+    /**
+     * Watched directories in access order.
+     */
+    protected final LinkedHashMap<String, File> watchedDirectories = new LinkedHashMap<String, File> ( 16, 0.75f, true );
+
+    /**
+     * Whether or not cache is being trimmed at the moment.
+     */
+    protected final AtomicBoolean trimming = new AtomicBoolean ( false );
+
+    /**
+     * Record access stamps source.
+     */
+    protected final AtomicLong accessCounter = new AtomicLong ( 0 );
+
+    /**
+     * Cache statistics.
+     */
+    protected final AtomicLong hits = new AtomicLong ( 0 );
+    protected final AtomicLong misses = new AtomicLong ( 0 );
+    protected final AtomicLong invalidations = new AtomicLong ( 0 );
+
+    /**
+     * Cache settings.
+     */
+    protected volatile int maxSize;
+    protected volatile int maxWatchedDirectories;
+    protected volatile long unwatchedTimeToLive;
+    protected volatile boolean watchDirectories;
+
+    /**
+     * Constructs new file attributes cache with default settings.
+     */
+    public FileAttributesCache ()
+    {
+        this ( DEFAULT_MAX_SIZE, DEFAULT_MAX_WATCHED_DIRECTORIES, DEFAULT_UNWATCHED_TIME_TO_LIVE );
+    }
+
+    /**
+     * Constructs new file attributes cache.
+     *
+     * @param maxSize               maximum amount of cached records
+     * @param maxWatchedDirectories maximum amount of watched directories, zero disables watching
+     * @param unwatchedTimeToLive   time in milliseconds after which records which are not watched expire
+     */
+    public FileAttributesCache ( final int maxSize, final int maxWatchedDirectories, final long unwatchedTimeToLive )
+    {
+        super ();
+        this.maxSize = maxSize;
+        this.maxWatchedDirectories = maxWatchedDirectories;
+        this.unwatchedTimeToLive = unwatchedTimeToLive;
+        this.watchDirectories = maxWatchedDirectories > 0;
+    }
+
+    /**
+     * Returns maximum amount of cached records.
+     *
+     * @return maximum amount of cached records
+     */
+    public int getMaxSize ()
+    {
+        return maxSize;
+    }
+
+    /**
+     * Sets maximum amount of cached records.
+     *
+     * @param maxSize maximum amount of cached records
+     */
+    public void setMaxSize ( final int maxSize )
+    {
+        this.maxSize = maxSize;
+        trim ();
+    }
+
+    /**
+     * Returns time in milliseconds after which records which are not watched expire.
+     *
+     * @return time in milliseconds after which records which are not watched expire
+     */
+    public long getUnwatchedTimeToLive ()
+    {
+        return unwatchedTimeToLive;
+    }
+
+    /**
+     * Sets time in milliseconds after which records which are not watched expire.
+     *
+     * @param unwatchedTimeToLive time in milliseconds after which records which are not watched expire
+     */
+    public void setUnwatchedTimeToLive ( final long unwatchedTimeToLive )
+    {
+        this.unwatchedTimeToLive = unwatchedTimeToLive;
+    }
+
+    /**
+     * Returns cached record for the specified file.
+     * If there is no valid cached record it is created.
+     *
+     * @param file file to retrieve record for
+     * @return cached record for the specified file
+     */
+    public FileAttributes get ( final File file )
+    {
+        final String path = file.getAbsolutePath ();
+        final FileAttributes cached = records.get ( path );
+        if ( cached != null && ( cached.isWatched () || !cached.isOlderThan ( unwatchedTimeToLive ) ) )
+        {
+            hits.incrementAndGet ();
+            cached.setLastAccess ( accessCounter.incrementAndGet () );
+            return cached;
+        }
+        misses.incrementAndGet ();
+
+        // Watching parent directory before reading attributes to avoid missing any changes
+        final File parent = file.getAbsoluteFile ().getParentFile ();
+        final boolean watched = parent != null && watch ( parent );
+
+        // Reading all attributes at once
+        final long stamp = getStamp ( path );
+        final FileAttributes record = readAttributes ( file, path, watched );
+        record.setLastAccess ( accessCounter.incrementAndGet () );
+        records.put ( path, record );
+        index ( path );
+
+        // Change reported while attributes were read might have been missed by the record, so it cannot be cached
+        // Changes reported after this check will find and invalidate the record through the index
+        if ( getStamp ( path ) != stamp )
+        {
+            remove ( path, record );
+        }
+        else if ( records.size () > maxSize )
+        {
+            trim ();
+        }
+        return record;
+    }
+
+    /**
+     * Returns combined modification stamp of all parent directories of the specified path.
+     * It changes whenever change is reported for any of those directories.
+     *
+     * @param path absolute file path
+     * @return combined modification stamp of all parent directories of the specified path
+     */
+    protected long getStamp ( final String path )
+    {
+        long stamp = 0;
+        for ( String parent = getParentPath ( path ); parent != null; parent = getParentPath ( parent ) )
+        {
+            stamp += stamps.get ( getStampIndex ( parent ) );
+        }
+        return stamp;
+    }
+
+    /**
+     * Marks specified directory as modified.
+     * This should be done before invalidating any records related to the directory.
+     *
+     * @param path absolute directory path
+     */
+    protected void touch ( final String path )
+    {
+        stamps.incrementAndGet ( getStampIndex ( path ) );
+    }
+
+    /**
+     * Returns index of modification stamp for the specified directory path.
+     *
+     * @param path absolute directory path
+     * @return index of modification stamp for the specified directory path
+     */
+    protected int getStampIndex ( final String path )
+    {
+        final int hash = path.hashCode ();
+        return ( hash ^ hash >>> 16 ) & ( STAMPS_COUNT - 1 );
+    }
+
+    /**
+     * Returns parent path for the specified path or null if it doesn't have one.
+     *
+     * @param path absolute file path
+     * @return parent path for the specified path or null if it doesn't have one
+     */
+    protected static String getParentPath ( final String path )
+    {
+        return new File ( path ).getParent ();
+    }
+
+    /**
+     * Adds specified path and all its parent paths into the children index.
+     *
+     * @param path absolute file path
+     */
+    protected void index ( final String path )
+    {
+        synchronized ( childrenIndex )
+        {
+            String child = path;
+            String parent = getParentPath ( child );
+            while ( parent != null )
+            {
+                Set<String> children = childrenIndex.get ( parent );
+                final boolean linked = children != null;
+                if ( !linked )
+                {
+                    children = new HashSet<String> ( 4 );
+                    childrenIndex.put ( parent, children );
+                }
+                children.add ( child );
+
+                // Existing parent is already linked to all its parent paths
+                if ( linked )
+                {
+                    break;
+                }
+                child = parent;
+                parent = getParentPath ( child );
+            }
+        }
+    }
+
+    /**
+     * Removes specified path from the children index unless it is still required there.
+     * Path is required if there is a cached record for it or if there are indexed paths within it.
+     * Parent paths which are not required anymore are removed as well.
+     *
+     * @param path absolute file path
+     */
+    protected void unindex ( final String path )
+    {
+        synchronized ( childrenIndex )
+        {
+            String child = path;
+            while ( child != null && !records.containsKey ( child ) && !childrenIndex.containsKey ( child ) )
+            {
+                final String parent = getParentPath ( child );
+                final Set<String> children = parent != null ? childrenIndex.get ( parent ) : null;
+                if ( children == null )
+                {
+                    break;
+                }
+                children.remove ( child );
+                if ( !children.isEmpty () )
+                {
+                    break;
+                }
+                childrenIndex.remove ( parent );
+                child = parent;
+            }
+        }
+    }
+
+    /**
+     * Removes specified record if it is still cached.
+     *
+     * @param path   absolute file path
+     * @param record record to remove
+     * @return true if record was removed, false otherwise
+     */
+    protected boolean remove ( final String path, final FileAttributes record )
+    {
+        if ( records.remove ( path, record ) )
+        {
+            unindex ( path );
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns newly read file attributes record.
+     *
+     * @param file    file to read attributes for
+     * @param path    absolute file path
+     * @param watched whether or not record is invalidated through directory watching
+     * @return newly read file attributes record
+     */
+    protected FileAttributes readAttributes ( final File file, final String path, final boolean watched )
+    {
+        // Custom file implementations like system shell folders might override file methods so we have to use them
+        if ( file.getClass () == File.class )
+        {
+            try
+            {
+                final Path p = file.toPath ();
+                final BasicFileAttributes attributes;
+                final boolean hidden;
+                if ( SystemUtils.isWindows () )
+                {
+                    final DosFileAttributes dos = Files.readAttributes ( p, DosFileAttributes.class );
+                    attributes = dos;
+                    hidden = dos.isHidden ();
+                }
+                else
+                {
+                    attributes = Files.readAttributes ( p, BasicFileAttributes.class );
+                    hidden = file.isHidden ();
+                }
+                final boolean hasParent = file.getAbsoluteFile ().getParentFile () != null;
+                return new FileAttributes ( path, true, attributes.isRegularFile (), attributes.isDirectory (), hasParent && hidden,
+                        attributes.size (), attributes.creationTime ().toMillis (), attributes.lastModifiedTime ().toMillis (), watched );
+            }
+            catch ( final IOException e )
+            {
+                // File doesn't exist or it is not accessible
+                if ( !Files.exists ( file.toPath (), LinkOption.NOFOLLOW_LINKS ) )
+                {
+                    return new FileAttributes ( path, false, false, false, false, 0, 0, 0, watched );
+                }
+            }
+            catch ( final InvalidPathException e )
+            {
+                // Falling back to file methods
+            }
+            catch ( final UnsupportedOperationException e )
+            {
+                // Falling back to file methods
+            }
+        }
+        final boolean exists = file.exists ();
+        final long lastModified = file.lastModified ();
+        final boolean hidden = file.getAbsoluteFile ().getParentFile () != null && file.isHidden ();
+        return new FileAttributes ( path, exists, file.isFile (), file.isDirectory (), hidden, file.length (), lastModified, lastModified,
+                watched );
+    }
+
+    /**
+     * Starts watching specified directory if possible and returns whether it is watched or not.
+     *
+     * @param directory directory to watch
+     * @return true if specified directory is watched, false otherwise
+     */
+    protected boolean watch ( final File directory )
+    {
+        if ( !watchDirectories )
+        {
+            return false;
+        }
+        final String path = directory.getAbsolutePath ();
+        File eldest = null;
+        synchronized ( watchedDirectories )
+        {
+            if ( watchedDirectories.get ( path ) != null )
+            {
+                return true;
+            }
+            if ( !DirectoryWatchService.watch ( directory, this ) )
+            {
+                return false;
+            }
+            watchedDirectories.put ( path, directory );
+            if ( watchedDirectories.size () > maxWatchedDirectories )
+            {
+                final Iterator<Map.Entry<String, File>> iterator = watchedDirectories.entrySet ().iterator ();
+                eldest = iterator.next ().getValue ();
+                iterator.remove ();
+                DirectoryWatchService.unwatch ( eldest, this );
+            }
+        }
+        if ( eldest != null )
+        {
+            // Records under directory which is not watched anymore cannot be trusted
+            invalidateChildren ( eldest.getAbsolutePath () );
+        }
+        return true;
+    }
+
+    /**
+     * Removes least recently used records until cache size fits its limit.
+     */
+    protected void trim ()
+    {
+        if ( trimming.compareAndSet ( false, true ) )
+        {
+            try
+            {
+                final int size = records.size ();
+                if ( size > maxSize )
+                {
+                    // Removing a bit more than necessary to avoid trimming on each new record
+                    final int remove = size - maxSize + maxSize / 10;
+                    final List<FileAttributes> list = new ArrayList<FileAttributes> ( records.values () );
+                    Collections.sort ( list, new Comparator<FileAttributes> ()
+                    {
+                        @Override
+                        public int compare ( final FileAttributes r1, final FileAttributes r2 )
+                        {
+                            final long a1 = r1.getLastAccess ();
+                            final long a2 = r2.getLastAccess ();
+                            return a1 < a2 ? -1 : a1 == a2 ? 0 : 1;
+                        }
+                    } );
+                    for ( int i = 0; i < remove && i < list.size (); i++ )
+                    {
+                        remove ( list.get ( i ).getPath (), list.get ( i ) );
+                    }
+                }
+            }
+            finally
+            {
+                trimming.set ( false );
+            }
+        }
+    }
+
+    /**
+     * Invalidates record for the specified file path.
+     *
+     * @param path absolute file path
+     */
+    public void invalidate ( final String path )
+    {
+        final String parent = getParentPath ( path );
+        if ( parent != null )
+        {
+            touch ( parent );
+        }
+        if ( records.remove ( path ) != null )
+        {
+            invalidations.incrementAndGet ();
+            unindex ( path );
+        }
+    }
+
+    /**
+     * Invalidates records of all files located within the specified directory path.
+     * Only records located within the directory are visited.
+     *
+     * @param path absolute directory path
+     */
+    public void invalidateChildren ( final String path )
+    {
+        touch ( path );
+        synchronized ( childrenIndex )
+        {
+            final Set<String> children = childrenIndex.remove ( path );
+            if ( children != null )
+            {
+                final List<String> queue = new ArrayList<String> ( children );
+                for ( int i = 0; i < queue.size (); i++ )
+                {
+                    final String child = queue.get ( i );
+                    if ( records.remove ( child ) != null )
+                    {
+                        invalidations.incrementAndGet ();
+                    }
+                    final Set<String> grandChildren = childrenIndex.remove ( child );
+                    if ( grandChildren != null )
+                    {
+                        queue.addAll ( grandChildren );
+                    }
+                }
+                unindex ( path );
+            }
+        }
+    }
+
+    /**
+     * Clears all cached records.
+     */
+    public void clear ()
+    {
+        synchronized ( childrenIndex )
+        {
+            records.clear ();
+            childrenIndex.clear ();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void changed ( final File directory, final File file, final WatchEvent.Kind<?> kind )
+    {
+        // Directory is marked as modified before any records are invalidated
+        touch ( directory.getAbsolutePath () );
+
+        // Directory modification time changes along with its content
+        invalidate ( directory.getAbsolutePath () );
+        if ( file != null )
+        {
+            final String path = file.getAbsolutePath ();
+            invalidate ( path );
+
+            // Deleted or moved directory content becomes invalid as well
+            invalidateChildren ( path );
+        }
+        else
+        {
+            // Some events were lost
+            invalidateChildren ( directory.getAbsolutePath () );
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void cancelled ( final File directory )
+    {
+        final String path = directory.getAbsolutePath ();
+        synchronized ( watchedDirectories )
+        {
+            watchedDirectories.remove ( path );
+        }
+        touch ( path );
+        invalidate ( path );
+        invalidateChildren ( path );
+    }
+
+    /**
+     * Returns amount of cached records.
+     *
+     * @return amount of cached records
+     */
+    public int getSize ()
+    {
+        return records.size ();
+    }
+
+    /**
+     * Returns amount of watched directories.
+     *
+     * @return amount of watched directories
+     */
+    public int getWatchedDirectoriesCount ()
+    {
+        synchronized ( watchedDirectories )
+        {
+            return watchedDirectories.size ();
+        }
+    }
+
+    /**
+     * Returns amount of requests served from cache.
+     *
+     * @return amount of requests served from cache
+     */
+    public long getHits ()
+    {
+        return hits.get ();
+    }
+
+    /**
+     * Returns amount of requests which required reading file attributes.
+     *
+     * @return amount of requests which required reading file attributes
+     */
+    public long getMisses ()
+    {
+        return misses.get ();
+    }
+
+    /**
+     * Returns amount of records invalidated due to file changes.
+     *
+     * @return amount of records invalidated due to file changes
+     */
+    public long getInvalidations ()
+    {
+        return invalidations.get ();
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.alee.utils.file;
+
+import java.io.File;
+
+/**
+ * Handle of a single file tracked by {@link FileTrackingService}.
+ * It informs {@link SystemFileListener} about tracked file modification and removal.
+ * <p/>
+ * Tracker doesn't hold any threads or timers on its own, all trackers are served by the shared tracking service.
+ * Tracking delay is only used when file is located on a file system which doesn't support watching and has to be polled.
+ *
+ * @author Mikle Garin
+ * @see com.alee.utils.file.FileTrackingService
+ * @see com.alee.utils.FileUtils#watchFile(java.io.File, SystemFileListener)
+ */
+
+public final class FileTracker
+{
+    /**
+     * Tracked file.
+     */
+    private final File file;
+
+    /**
+     * System file listener.
+     */
+    private final SystemFileListener listener;
+
+    /**
+     * Delay between checks for changes in milliseconds, used only when file cannot be watched.
+     */
+    private volatile long delay;
+
+    /**
+     * Whether listener should be informed from Event Dispatch Thread or not.
+     */
+    private volatile boolean useEventDispatchThread = true;
+
+    /**
+     * Runtime variables used by tracking service.
+     * They are only accessed within the tracking service lock or from its thread.
+     */
+    volatile boolean running = false;
+    boolean watched = false;
+    long lastModified = 0;
+    long length = 0;
+    long pendingDue = Long.MAX_VALUE;
+    long nextPoll = Long.MAX_VALUE;
+
+    /**
+     * Constructs new file tracker.
+     *
+     * @param file     file to track
+     * @param listener system file listener
+     * @param delay    delay between checks for changes in milliseconds, used only when file cannot be watched
+     */
+    public FileTracker ( final File file, final SystemFileListener listener, final long delay )
+    {
+        super ();
+        this.file = file.getAbsoluteFile ();
+        this.listener = listener;
+        setDelay ( delay );
+    }
+
+    /**
+     * Returns tracked file.
+     *
+     * @return tracked file
+     */
+    public File getFile ()
+    {
+        return file;
+    }
+
+    /**
+     * Returns system file listener.
+     *
+     * @return system file listener
+     */
+    public SystemFileListener getListener ()
+    {
+        return listener;
+    }
+
+    /**
+     * Returns delay between checks for changes in milliseconds.
+     *
+     * @return delay between checks for changes in milliseconds
+     */
+    public long getDelay ()
+    {
+        return delay;
+    }
+
+    /**
+     * Sets delay between checks for changes in milliseconds.
+     * This delay is used only when tracked file cannot be watched.
+     *
+     * @param delay delay between checks for changes in milliseconds
+     * @return this tracker
+     */
+    public FileTracker setDelay ( final long delay )
+    {
+        if ( delay <= 0 )
+        {
+            throw new IllegalArgumentException ( "Invalid tracking delay: " + delay );
+        }
+        this.delay = delay;
+        return this;
+    }
+
+    /**
+     * Returns whether listener is informed from Event Dispatch Thread or not.
+     *
+     * @return true if listener is informed from Event Dispatch Thread, false otherwise
+     */
+    public boolean isUseEventDispatchThread ()
+    {
+        return useEventDispatchThread;
+    }
+
+    /**
+     * Sets whether listener should be informed from Event Dispatch Thread or not.
+     *
+     * @param useEventDispatchThread whether listener should be informed from Event Dispatch Thread or not
+     * @return this tracker
+     */
+    public FileTracker setUseEventDispatchThread ( final boolean useEventDispatchThread )
+    {
+        this.useEventDispatchThread = useEventDispatchThread;
+        return this;
+    }
+
+    /**
+     * Starts tracking file.
+     * Does nothing if file is already tracked.
+     *
+     * @return this tracker
+     */
+    public FileTracker start ()
+    {
+        FileTrackingService.track ( this );
+        return this;
+    }
+
+    /**
+     * Stops tracking file.
+     *
+     * @return this tracker
+     */
+    public FileTracker stop ()
+    {
+        FileTrackingService.untrack ( this );
+        return this;
+    }
+
+    /**
+     * Returns whether file is tracked or not.
+     *
+     * @return true if file is tracked, false otherwise
+     */
+    public boolean isRunning ()
+    {
+        return running;
+    }
+
+    /**
+     * Returns whether file changes are received from the file system or file is polled for changes.
+     *
+     * @return true if file changes are received from the file system, false if file is polled for changes
+     */
+    public boolean isWatched ()
+    {
+        return FileTrackingService.isWatched ( this );
+    }
+}
@@ -0,0 +1,539 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.alee.utils.file;
+
+import com.alee.managers.log.Log;
+
+import javax.swing.*;
+import java.io.File;
+import java.nio.file.WatchEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared service which tracks files for {@link FileTracker} handles.
+ * <p/>
+ * Parent directories of tracked files are watched through {@link DirectoryWatchService}, so there is no per-file thread or timer.
+ * File system events are debounced - tracker is checked only after its file stops changing for a short time, so a burst of writes
+ * results in a single notification. All notifications collected at once are delivered in a single batch, listeners which use
+ * Event Dispatch Thread are informed within a single EDT call.
+ * <p/>
+ * Files located on file systems which do not support watching are polled by the same service thread using tracker delay.
+ *
+ * @author Mikle Garin
+ * @see com.alee.utils.file.FileTracker
+ * @see com.alee.utils.file.DirectoryWatchService
+ */
+
+public final class FileTrackingService
+{
+    /**
+     * Tracking thread name.
+     */
+    public static final String THREAD_NAME = "FileTrackingService";
+
+    /**
+     * Time in milliseconds tracked file should stay unchanged before listeners are informed.
+     */
+    private static long debounceDelay = 100L;
+
+    /**
+     * All running trackers.
+     */
+    private static final List<FileTracker> trackers = new ArrayList<FileTracker> ();
+
+    /**
+     * Watched trackers by tracked file path.
+     */
+    private static final Map<String, List<FileTracker>> watchedFiles = new HashMap<String, List<FileTracker>> ();
+
+    /**
+     * Watched trackers by parent directory path.
+     */
+    private static final Map<String, List<FileTracker>> watchedDirectories = new HashMap<String, List<FileTracker>> ();
+
+    /**
+     * Trackers which are polled for changes.
+     */
+    private static final List<FileTracker> polled = new ArrayList<FileTracker> ();
+
+    /**
+     * Lock object for all tracking data.
+     */
+    private static final Object lock = new Object ();
+
+    /**
+     * Directory watch listener shared by all watched trackers.
+     */
+    private static final DirectoryWatchListener watchListener = new DirectoryWatchListener ()
+    {
+        @Override
+        public void changed ( final File directory, final File file, final WatchEvent.Kind<?> kind )
+        {
+            synchronized ( lock )
+            {
+                if ( file != null )
+                {
+                    final List<FileTracker> list = watchedFiles.get ( file.getAbsolutePath () );
+                    if ( list != null )
+                    {
+                        for ( final FileTracker tracker : list )
+                        {
+                            schedule ( tracker );
+                        }
+                    }
+                }
+                else
+                {
+                    // Some events were lost so all files within directory have to be checked
+                    final List<FileTracker> list = watchedDirectories.get ( directory.getAbsolutePath () );
+                    if ( list != null )
+                    {
+                        for ( final FileTracker tracker : list )
+                        {
+                            schedule ( tracker );
+                        }
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void cancelled ( final File directory )
+        {
+            synchronized ( lock )
+            {
+                // Directory cannot be watched anymore so its files have to be polled
+                final List<FileTracker> list = watchedDirectories.remove ( directory.getAbsolutePath () );
+                if ( list != null )
+                {
+                    final long now = System.nanoTime ();
+                    for ( final FileTracker tracker : list )
+                    {
+                        removeWatched ( tracker );
+                        tracker.watched = false;
+                        tracker.nextPoll = now;
+                        polled.add ( tracker );
+                    }
+                    lock.notifyAll ();
+                }
+            }
+        }
+    };
+
+    /**
+     * Tracking thread.
+     */
+    private static Thread thread = null;
+
+    /**
+     * Returns time in milliseconds tracked file should stay unchanged before listeners are informed.
+     *
+     * @return time in milliseconds tracked file should stay unchanged before listeners are informed
+     */
+    public static long getDebounceDelay ()
+    {
+        synchronized ( lock )
+        {
+            return debounceDelay;
+        }
+    }
+
+    /**
+     * Sets time in milliseconds tracked file should stay unchanged before listeners are informed.
+     *
+     * @param debounceDelay time in milliseconds tracked file should stay unchanged before listeners are informed
+     */
+    public static void setDebounceDelay ( final long debounceDelay )
+    {
+        if ( debounceDelay < 0 )
+        {
+            throw new IllegalArgumentException ( "Invalid debounce delay: " + debounceDelay );
+        }
+        synchronized ( lock )
+        {
+            FileTrackingService.debounceDelay = debounceDelay;
+        }
+    }
+
+    /**
+     * Starts tracking file for the specified tracker.
+     *
+     * @param tracker file tracker
+     */
+    static void track ( final FileTracker tracker )
+    {
+        final File file = tracker.getFile ();
+        final long lastModified = file.lastModified ();
+        final long length = file.length ();
+        synchronized ( lock )
+        {
+            if ( tracker.running )
+            {
+                return;
+            }
+            tracker.running = true;
+            tracker.lastModified = lastModified;
+            tracker.length = length;
+            tracker.pendingDue = Long.MAX_VALUE;
+            trackers.add ( tracker );
+
+            final File parent = file.getParentFile ();
+            if ( parent != null && DirectoryWatchService.watch ( parent, watchListener ) )
+            {
+                tracker.watched = true;
+                tracker.nextPoll = Long.MAX_VALUE;
+                add ( watchedFiles, file.getAbsolutePath (), tracker );
+                add ( watchedDirectories, parent.getAbsolutePath (), tracker );
+            }
+            else
+            {
+                tracker.watched = false;
+                tracker.nextPoll = System.nanoTime () + tracker.getDelay () * 1000000L;
+                polled.add ( tracker );
+            }
+
+            startThread ();
+            lock.notifyAll ();
+        }
+    }
+
+    /**
+     * Stops tracking file for the specified tracker.
+     *
+     * @param tracker file tracker
+     */
+    static void untrack ( final FileTracker tracker )
+    {
+        synchronized ( lock )
+        {
+            if ( !tracker.running )
+            {
+                return;
+            }
+            tracker.running = false;
+            trackers.remove ( tracker );
+            if ( tracker.watched )
+            {
+                removeWatched ( tracker );
+                final File parent = tracker.getFile ().getParentFile ();
+                final List<FileTracker> list = watchedDirectories.get ( parent.getAbsolutePath () );
+                if ( list != null && list.remove ( tracker ) && list.isEmpty () )
+                {
+                    watchedDirectories.remove ( parent.getAbsolutePath () );
+                    DirectoryWatchService.unwatch ( parent, watchListener );
+                }
+                tracker.watched = false;
+            }
+            else
+            {
+                polled.remove ( tracker );
+            }
+            tracker.pendingDue = Long.MAX_VALUE;
+            tracker.nextPoll = Long.MAX_VALUE;
+            lock.notifyAll ();
+        }
+    }
+
+    /**
+     * Returns whether specified tracker file is watched or not.
+     *
+     * @param tracker file tracker
+     * @return true if specified tracker file is watched, false otherwise
+     */
+    static boolean isWatched ( final FileTracker tracker )
+    {
+        synchronized ( lock )
+        {
+            return tracker.watched;
+        }
+    }
+
+    /**
+     * Adds tracker into the map under the specified key.
+     *
+     * @param map     trackers map
+     * @param key     tracker key
+     * @param tracker file tracker
+     */
+    private static void add ( final Map<String, List<FileTracker>> map, final String key, final FileTracker tracker )
+    {
+        List<FileTracker> list = map.get ( key );
+        if ( list == null )
+        {
+            list = new ArrayList<FileTracker> ( 1 );
+            map.put ( key, list );
+        }
+        list.add ( tracker );
+    }
+
+    /**
+     * Removes tracker from the watched files map.
+     * Should be called within the lock.
+     *
+     * @param tracker file tracker
+     */
+    private static void removeWatched ( final FileTracker tracker )
+    {
+        final String path = tracker.getFile ().getAbsolutePath ();
+        final List<FileTracker> list = watchedFiles.get ( path );
+        if ( list != null && list.remove ( tracker ) && list.isEmpty () )
+        {
+            watchedFiles.remove ( path );
+        }
+    }
+
+    /**
+     * Schedules tracker check after debounce delay.
+     * Should be called within the lock.
+     *
+     * @param tracker file tracker
+     */
+    private static void schedule ( final FileTracker tracker )
+    {
+        tracker.pendingDue = System.nanoTime () + debounceDelay * 1000000L;
+        lock.notifyAll ();
+    }
+
+    /**
+     * Starts tracking thread if it is not running yet.
+     * Should be called within the lock.
+     */
+    private static void startThread ()
+    {
+        if ( thread == null )
+        {
+            thread = new Thread ( new Runnable ()
+            {
+                @Override
+                public void run ()
+                {
+                    runTracking ();
+                }
+            }, THREAD_NAME );
+            thread.setDaemon ( true );
+            thread.start ();
+        }
+    }
+
+    /**
+     * Tracking thread main loop.
+     * Thread finishes once there are no more trackers left.
+     */
+    private static void runTracking ()
+    {
+        final List<FileTracker> due = new ArrayList<FileTracker> ();
+        while ( true )
+        {
+            try
+            {
+                synchronized ( lock )
+                {
+                    // Waiting for the closest pending check
+                    while ( true )
+                    {
+                        if ( trackers.isEmpty () )
+                        {
+                            thread = null;
+                            return;
+                        }
+                        final long earliest = getEarliestCheckTime ();
+                        final long now = System.nanoTime ();
+                        if ( earliest <= now )
+                        {
+                            break;
+                        }
+                        lock.wait ( earliest == Long.MAX_VALUE ? 0 : Math.max ( 1, ( earliest - now ) / 1000000L ) );
+                    }
+
+                    // Collecting trackers which have to be checked
+                    final long now = System.nanoTime ();
+                    for ( final FileTracker tracker : trackers )
+                    {
+                        if ( tracker.pendingDue <= now )
+                        {
+                            due.add ( tracker );
+                            tracker.pendingDue = Long.MAX_VALUE;
+                        }
+                        else if ( tracker.nextPoll <= now )
+                        {
+                            due.add ( tracker );
+                            tracker.nextPoll = now + tracker.getDelay () * 1000000L;
+                        }
+                    }
+                }
+
+                // Checking files outside of the lock
+                check ( due );
+            }
+            catch ( final InterruptedException e )
+            {
+                // Tracking thread should never be interrupted but we still handle it
+                synchronized ( lock )
+                {
+                    thread = null;
+                }
+                return;
+            }
+            catch ( final Throwable e )
+            {
+                Log.error ( FileTrackingService.class, e );
+            }
+            finally
+            {
+                due.clear ();
+            }
+        }
+    }
+
+    /**
+     * Returns earliest check time among all trackers or {@link Long#MAX_VALUE} if there are none.
+     * Should be called within the lock.
+     *
+     * @return earliest check time among all trackers or {@link Long#MAX_VALUE} if there are none
+     */
+    private static long getEarliestCheckTime ()
+    {
+        long earliest = Long.MAX_VALUE;
+        for ( final FileTracker tracker : trackers )
+        {
+            earliest = Math.min ( earliest, Math.min ( tracker.pendingDue, tracker.nextPoll ) );
+        }
+        return earliest;
+    }
+
+    /**
+     * Checks specified trackers files and informs their listeners about changes.
+     * File is considered modified when either its modification time or its size changes.
+     * All notifications for listeners which use Event Dispatch Thread are delivered within a single EDT call.
+     *
+     * @param due trackers to check
+     */
+    private static void check ( final List<FileTracker> due )
+    {
+        List<FileTracker> edtTrackers = null;
+        List<Boolean> edtUnbound = null;
+        for ( int i = 0; i < due.size (); i++ )
+        {
+            final FileTracker tracker = due.get ( i );
+            final File file = tracker.getFile ();
+            final boolean unbound;
+            if ( file.exists () )
+            {
+                final long lastModified = file.lastModified ();
+                final long length = file.length ();
+                if ( lastModified == tracker.lastModified && length == tracker.length )
+                {
+                    continue;
+                }
+                tracker.lastModified = lastModified;
+                tracker.length = length;
+                unbound = false;
+            }
+            else
+            {
+                // File cannot be tracked anymore
+                untrack ( tracker );
+                unbound = true;
+            }
+            if ( tracker.isUseEventDispatchThread () )
+            {
+                if ( edtTrackers == null )
+                {
+                    edtTrackers = new ArrayList<FileTracker> ( due.size () );
+                    edtUnbound = new ArrayList<Boolean> ( due.size () );
+                }
+                edtTrackers.add ( tracker );
+                edtUnbound.add ( unbound );
+            }
+            else
+            {
+                fire ( tracker, unbound );
+            }
+        }
+        if ( edtTrackers != null )
+        {
+            final List<FileTracker> batchTrackers = edtTrackers;
+            final List<Boolean> batchUnbound = edtUnbound;
+            SwingUtilities.invokeLater ( new Runnable ()
+            {
+                @Override
+                public void run ()
+                {
+                    for ( int i = 0; i < batchTrackers.size (); i++ )
+                    {
+                        fire ( batchTrackers.get ( i ), batchUnbound.get ( i ) );
+                    }
+                }
+            } );
+        }
+    }
+
+    /**
+     * Informs tracker listener about file change.
+     *
+     * @param tracker file tracker
+     * @param unbound whether file cannot be tracked anymore or it was simply modified
+     */
+    private static void fire ( final FileTracker tracker, final boolean unbound )
+    {
+        try
+        {
+            if ( unbound )
+            {
+                tracker.getListener ().unbound ( tracker.getFile () );
+            }
+            else if ( tracker.isRunning () )
+            {
+                tracker.getListener ().modified ( tracker.getFile () );
+            }
+        }
+        catch ( final Throwable e )
+        {
+            Log.error ( FileTrackingService.class, e );
+        }
+    }
+
+    /**
+     * Returns amount of tracked files.
+     *
+     * @return amount of tracked files
+     */
+    public static int getTrackedFilesCount ()
+    {
+        synchronized ( lock )
+        {
+            return trackers.size ();
+        }
+    }
+
+    /**
+     * Returns amount of tracked files which are polled for changes because they cannot be watched.
+     *
+     * @return amount of tracked files which are polled for changes
+     */
+    public static int getPolledFilesCount ()
+    {
+        synchronized ( lock )
+        {
+            return polled.size ();
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.alee.utils.reflection;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe cache of reflection metadata used by {@link com.alee.utils.ReflectUtils}.
+ * <p/>
+ * Methods, fields, constructors and field getters are cached separately for each class using structural keys - member name and
+ * parameter types - so lookups do not build any strings. Lookups that found nothing are cached as well using {@link #MISSING} value.
+ * <p/>
+ * Cached members are attached to their classes through {@link ClassValue}, so this cache doesn't prevent classes and their class loaders
+ * from being unloaded. Note that member keys strongly reference parameter types used in lookups, so argument classes from another class
+ * loader are kept reachable for as long as class whose members were looked up with them is. Use {@link #clear()} to release them.
+ *
+ * @author Mikle Garin
+ * @see com.alee.utils.ReflectUtils#getReflectionCache()
+ */
+
+public final class ReflectionCache
+{
+    /**
+     * Value cached for members which were not found.
+     */
+    public static final Object MISSING = new Object ();
+
+    /**
+     * Cached members attached to classes.
+     */
+    private final ClassValue<ClassMembers> members = new ClassValue<ClassMembers> ()
+    {
+        @Override
+        protected ClassMembers computeValue ( final Class<?> type )
+        {
+            return new ClassMembers ( generation.get () );
+        }
+    };
+
+    /**
+     * Cache generation.
+     * It is incremented on each cache clear to drop members cached earlier.
+     */
+    private final AtomicInteger generation = new AtomicInteger ( 0 );
+
+    /**
+     * Cache statistics.
+     */
+    private final AtomicLong hits = new AtomicLong ( 0 );
+    private final AtomicLong misses = new AtomicLong ( 0 );
+
+    /**
+     * Returns cached method, {@link #MISSING} if it is known that method doesn't exist or null if it wasn't cached yet.
+     *
+     * @param aClass class to look for the method in
+     * @param key    method key
+     * @return cached method, {@link #MISSING} if it is known that method doesn't exist or null if it wasn't cached yet
+     */
+    public Object getMethod ( final Class<?> aClass, final MemberKey key )
+    {
+        return count ( getMembers ( aClass ).methods.get ( key ) );
+    }
+
+    /**
+     * Caches method or {@link #MISSING} value.
+     *
+     * @param aClass class to cache method for
+     * @param key    method key
+     * @param method method or {@link #MISSING} value
+     */
+    public void putMethod ( final Class<?> aClass, final MemberKey key, final Object method )
+    {
+        getMembers ( aClass ).methods.put ( key, method );
+    }
+
+    /**
+     * Returns cached constructor, {@link #MISSING} if it is known that constructor doesn't exist or null if it wasn't cached yet.
+     *
+     * @param aClass class to look for the constructor in
+     * @param key    constructor key
+     * @return cached constructor, {@link #MISSING} if it is known that constructor doesn't exist or null if it wasn't cached yet
+     */
+    public Object getConstructor ( final Class<?> aClass, final MemberKey key )
+    {
+        return count ( getMembers ( aClass ).constructors.get ( key ) );
+    }
+
+    /**
+     * Caches constructor or {@link #MISSING} value.
+     *
+     * @param aClass      class to cache constructor for
+     * @param key         constructor key
+     * @param constructor constructor or {@link #MISSING} value
+     */
+    public void putConstructor ( final Class<?> aClass, final MemberKey key, final Object constructor )
+    {
+        getMembers ( aClass ).constructors.put ( key, constructor );
+    }
+
+    /**
+     * Returns cached field, {@link #MISSING} if it is known that field doesn't exist or null if it wasn't cached yet.
+     *
+     * @param aClass class to look for the field in
+     * @param name   field name
+     * @return cached field, {@link #MISSING} if it is known that field doesn't exist or null if it wasn't cached yet
+     */
+    public Object getField ( final Class<?> aClass, final String name )
+    {
+        return count ( getMembers ( aClass ).fields.get ( name ) );
+    }
+
+    /**
+     * Caches field or {@link #MISSING} value.
+     *
+     * @param aClass class to cache field for
+     * @param name   field name
+     * @param field  field or {@link #MISSING} value
+     */
+    public void putField ( final Class<?> aClass, final String name, final Object field )
+    {
+        getMembers ( aClass ).fields.put ( name, field );
+    }
+
+    /**
+     * Returns cached field getter, {@link #MISSING} if it is known that getter doesn't exist or null if it wasn't cached yet.
+     *
+     * @param aClass class to look for the getter in
+     * @param field  field name
+     * @return cached field getter, {@link #MISSING} if it is known that getter doesn't exist or null if it wasn't cached yet
+     */
+    public Object getGetter ( final Class<?> aClass, final String field )
+    {
+        return count ( getMembers ( aClass ).getters.get ( field ) );
+    }
+
+    /**
+     * Caches field getter or {@link #MISSING} value.
+     *
+     * @param aClass class to cache getter for
+     * @param field  field name
+     * @param getter field getter or {@link #MISSING} value
+     */
+    public void putGetter ( final Class<?> aClass, final String field, final Object getter )
+    {
+        getMembers ( aClass ).getters.put ( field, getter );
+    }
+
+    /**
+     * Returns members cached for the specified class.
+     *
+     * @param aClass class to retrieve cached members for
+     * @return members cached for the specified class
+     */
+    private ClassMembers getMembers ( final Class<?> aClass )
+    {
+        final ClassMembers classMembers = members.get ( aClass );
+        if ( classMembers.generation == generation.get () )
+        {
+            return classMembers;
+        }
+        else
+        {
+            // Members were cached before the last clear
+            members.remove ( aClass );
+            return members.get ( aClass );
+        }
+    }
+
+    /**
+     * Updates cache statistics and returns the specified cached value.
+     *
+     * @param value cached value
+     * @return the specified cached value
+     */
+    private Object count ( final Object value )
+    {
+        ( value != null ? hits : misses ).incrementAndGet ();
+        return value;
+    }
+
+    /**
+     * Drops all cached members.
+     */
+    public void clear ()
+    {
+        generation.incrementAndGet ();
+    }
+
+    /**
+     * Returns amount of lookups served from the cache.
+     *
+     * @return amount of lookups served from the cache
+     */
+    public long getHits ()
+    {
+        return hits.get ();
+    }
+
+    /**
+     * Returns amount of lookups which were not cached yet.
+     *
+     * @return amount of lookups which were not cached yet
+     */
+    public long getMisses ()
+    {
+        return misses.get ();
+    }
+
+    /**
+     * Resets cache statistics.
+     */
+    public void resetStatistics ()
+    {
+        hits.set ( 0 );
+        misses.set ( 0 );
+    }
+
+    /**
+     * Members cached for a single class.
+     */
+    private static final class ClassMembers
+    {
+        private final int generation;
+        private final Map<MemberKey, Object> methods = new ConcurrentHashMap<MemberKey, Object> ();
+        private final Map<MemberKey, Object> constructors = new ConcurrentHashMap<MemberKey, Object> ( 4 );
+        private final Map<String, Object> fields = new ConcurrentHashMap<String, Object> ();
+        private final Map<String, Object> getters = new ConcurrentHashMap<String, Object> ();
+
+        public ClassMembers ( final int generation )
+        {
+            super ();
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * Structural member key combining member name and parameter types.
+     */
+    public static final class MemberKey
+    {
+        private final String name;
+        private final Class<?>[] types;
+        private final int hash;
+
+        /**
+         * Constructs new member key.
+         * Parameter types might contain null values for null arguments.
+         *
+         * @param name  member name
+         * @param types parameter types
+         */
+        public MemberKey ( final String name, final Class<?>[] types )
+        {
+            super ();
+            this.name = name;
+            this.types = types;
+            this.hash = 31 * name.hashCode () + Arrays.hashCode ( types );
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals ( final Object obj )
+        {
+            if ( this == obj )
+            {
+                return true;
+            }
+            if ( !( obj instanceof MemberKey ) )
+            {
+                return false;
+            }
+            final MemberKey other = ( MemberKey ) obj;
+            return hash == other.hash && name.equals ( other.name ) && Arrays.equals ( types, other.types );
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode ()
+        {
+            return hash;
+        }
+    }
+}
@@ -31,9 +31,13 @@ import java.util.List;
 import java.util.Map;
 
 /**
- * This timer is a small extension for standart javax.swing.Timer. Instead of running in a single queue it creates separate Threads for
- * each timer and does not affect event-dispatching thread, until events are dispatched. This basically means that you can use any number
- * of Timer instances and you can run them alltogether without having any issues.
+ * This timer is a small extension for standart javax.swing.Timer. Instead of running in a single queue it is driven either by the shared
+ * WebTimerPulse frame clock or by a separate Thread for each timer and does not affect event-dispatching thread, until events are
+ * dispatched. This basically means that you can use any number of Timer instances and you can run them alltogether without having any
+ * issues.
+ * <p/>
+ * By default all timers are driven by the shared pulse, which coalesces Event Dispatch Thread actions of all timers due within the same
+ * frame into a single EDT call. Separate thread per timer mode is still available through {@link #setUseSharedPulse(boolean)}.
  * <p/>
  * Also this Timer implementation offers a variety of additional features and improvements which standard timer doesn't have (for example
  * you can dispatch events in a separate non-EDT thread and as a result avoid using EDT at all where it is not necessary).
@@ -59,6 +63,11 @@ public class WebTimer
      */
     public static boolean useEdtByDefault = true;
 
+    /**
+     * Whether shared pulse should be used by default instead of separate thread per timer.
+     */
+    public static boolean usePulseByDefault = true;
+
     /**
      * Timer event listeners list.
      */
@@ -156,6 +165,32 @@ public class WebTimer
      */
     protected int cyclesLimit = 0;
 
+    /**
+     * Whether timer should be driven by the shared pulse instead of a separate thread.
+     * This option should be set before starting timer to have any effect.
+     */
+    protected boolean useSharedPulse = usePulseByDefault;
+
+    /**
+     * Whether timer is currently registered within the shared pulse.
+     */
+    protected volatile boolean pulseActive = false;
+
+    /**
+     * ID of the current shared pulse run.
+     */
+    protected volatile int pulseRunId = -1;
+
+    /**
+     * Next shared pulse cycle due time in nanoseconds.
+     */
+    protected volatile long pulseDue = 0;
+
+    /**
+     * Whether shared pulse cycle is currently being dispatched or executed.
+     */
+    protected volatile boolean pulseFiring = false;
+
     /**
      * Constructs timer with specified delay.
      *
@@ -501,6 +536,30 @@ public class WebTimer
         return this;
     }
 
+    /**
+     * Returns whether timer should be driven by the shared pulse instead of a separate thread.
+     *
+     * @return true if timer should be driven by the shared pulse instead of a separate thread, false otherwise
+     */
+    public boolean isUseSharedPulse ()
+    {
+        return useSharedPulse;
+    }
+
+    /**
+     * Sets whether timer should be driven by the shared pulse instead of a separate thread.
+     * Shared pulse always uses daemon threads and non-blocking stop behavior.
+     * This option should be set before starting timer to have any effect.
+     *
+     * @param useSharedPulse whether timer should be driven by the shared pulse instead of a separate thread
+     * @return this timer
+     */
+    public WebTimer setUseSharedPulse ( final boolean useSharedPulse )
+    {
+        this.useSharedPulse = useSharedPulse;
+        return this;
+    }
+
     /**
      * Returns whether or not timer should use non-blocking stop method behavior.
      *
@@ -750,7 +809,7 @@ public class WebTimer
      */
     public synchronized boolean isRunning ()
     {
-        return exec != null && exec.isAlive ();
+        return pulseActive || exec != null && exec.isAlive ();
     }
 
     /**
@@ -768,6 +827,13 @@ public class WebTimer
         lastId = id;
         id++;
 
+        // Registering timer within the shared pulse
+        if ( useSharedPulse )
+        {
+            startPulse ( lastId );
+            return;
+        }
+
         // Starting new cycling thread
         final int currentId = lastId;
         exec = new Thread ( new Runnable ()
@@ -846,6 +912,115 @@ public class WebTimer
         exec.start ();
     }
 
+    /**
+     * Registers timer within the shared pulse.
+     *
+     * @param runId pulse run ID
+     */
+    protected void startPulse ( final int runId )
+    {
+        final long actualInitialDelay = getInitialDelay () < 0 ? getDelay () : getInitialDelay ();
+        sleepStart = System.currentTimeMillis ();
+        sleepTime = actualInitialDelay;
+        cycleCount = 0;
+        pulseDue = System.nanoTime () + actualInitialDelay * 1000000L;
+        pulseRunId = runId;
+        pulseActive = true;
+        WebTimerPulse.register ( this );
+    }
+
+    /**
+     * Performs single timer cycle on request of the shared pulse.
+     * This method is called from Event Dispatch Thread or from a background pulse thread depending on timer settings.
+     *
+     * @param runId pulse run ID this cycle was dispatched for
+     */
+    protected void performPulseCycle ( final int runId )
+    {
+        boolean fired = false;
+        try
+        {
+            if ( shouldContinuePulse ( cycleCount, runId ) )
+            {
+                // Firing events
+                fired = true;
+                if ( listeners.size () > 0 )
+                {
+                    final ActionEvent actionEvent = createActionEvent ();
+                    for ( final ActionListener listener : CollectionUtils.copy ( listeners ) )
+                    {
+                        // Non-coalesced timer checks execution stop before each listener
+                        if ( !coalesce && !shouldContinuePulse ( cycleCount, runId ) )
+                        {
+                            break;
+                        }
+                        listener.actionPerformed ( actionEvent );
+                    }
+                }
+            }
+            else
+            {
+                stopPulse ( runId );
+            }
+        }
+        finally
+        {
+            try
+            {
+                // Cycle is finished even if one of listeners has failed, otherwise it would be fired again right away
+                if ( fired )
+                {
+                    // Incrementing cycles count
+                    cycleCount++;
+
+                    // Scheduling next cycle or finishing execution
+                    if ( repeats && shouldContinuePulse ( cycleCount, runId ) )
+                    {
+                        final long currentDelay = getDelay ();
+                        sleepStart = System.currentTimeMillis ();
+                        sleepTime = currentDelay;
+                        pulseDue = System.nanoTime () + currentDelay * 1000000L;
+                    }
+                    else
+                    {
+                        stopPulse ( runId );
+                    }
+                }
+            }
+            finally
+            {
+                pulseFiring = false;
+                WebTimerPulse.wakeUp ();
+            }
+        }
+    }
+
+    /**
+     * Returns whether shared pulse run with specified ID should continue execution or not.
+     *
+     * @param cycle cycle number
+     * @param runId pulse run ID
+     * @return true if shared pulse run with specified ID should continue execution, false otherwise
+     */
+    protected boolean shouldContinuePulse ( final int cycle, final int runId )
+    {
+        return pulseActive && pulseRunId == runId && ( cyclesLimit <= 0 || cyclesLimit > cycle );
+    }
+
+    /**
+     * Unregisters timer from the shared pulse if specified run is still the current one.
+     *
+     * @param runId pulse run ID
+     */
+    protected synchronized void stopPulse ( final int runId )
+    {
+        if ( pulseRunId == runId && pulseActive )
+        {
+            pulseActive = false;
+            WebTimerPulse.unregister ( this );
+        }
+    }
+
     /**
      * Returns whether thread with specified ID should continue execution or not.
      *
@@ -884,7 +1059,12 @@ public class WebTimer
      */
     protected synchronized void stopExec ()
     {
-        if ( exec != null )
+        if ( pulseActive )
+        {
+            // Shared pulse stop is never blocking since cycle might be waiting for EDT
+            stopPulse ( pulseRunId );
+        }
+        else if ( exec != null )
         {
             // Interrupt thread
             exec.interrupt ();
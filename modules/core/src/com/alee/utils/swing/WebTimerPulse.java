@@ -0,0 +1,446 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.alee.utils.swing;
+
+import com.alee.managers.log.Log;
+import com.alee.utils.concurrent.DaemonThreadFactory;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shared frame clock which drives all WebTimer instances running in pulse mode.
+ * <p/>
+ * Instead of sleeping in a separate thread per timer, all pulse timers are registered here and checked by a single daemon thread.
+ * That thread wakes up at most once per frame, collects every timer that is due within the current frame and fans them out:
+ * timers which use Event Dispatch Thread are executed together within a single EDT call per frame, other timers are executed on a
+ * shared pool of daemon threads.
+ * <p/>
+ * Timer which is still executing its previous cycle is never collected again until that cycle finishes, so slow listeners simply
+ * delay their own timer instead of flooding EDT with queued calls.
+ *
+ * @author Mikle Garin
+ * @see com.alee.utils.swing.WebTimer
+ */
+
+public final class WebTimerPulse
+{
+    /**
+     * Pulse thread name.
+     */
+    public static final String PULSE_THREAD_NAME = "WebTimerPulse";
+
+    /**
+     * Minimum time between two frames in milliseconds.
+     * Timers which are due within half of this period are executed within the same frame.
+     */
+    private static long framePeriod = 10L;
+
+    /**
+     * Registered timers list.
+     */
+    private static final List<WebTimer> timers = new ArrayList<WebTimer> ();
+
+    /**
+     * Reusable list of timers due within the current frame.
+     * It is only accessed from the pulse thread.
+     */
+    private static final List<WebTimer> due = new ArrayList<WebTimer> ();
+
+    /**
+     * Lock object for timers list and pulse thread wakeups.
+     */
+    private static final Object lock = new Object ();
+
+    /**
+     * Pulse thread.
+     */
+    private static Thread pulse = null;
+
+    /**
+     * Executor for timers which are not using Event Dispatch Thread.
+     */
+    private static ExecutorService backgroundExecutor = null;
+
+    /**
+     * Pulse statistics.
+     */
+    private static volatile long frames = 0;
+    private static volatile long lateFrames = 0;
+    private static volatile long firedCycles = 0;
+    private static volatile long lastFrameCallbackTime = 0;
+    private static volatile long maxFrameCallbackTime = 0;
+    private static volatile long totalCallbackTime = 0;
+
+    /**
+     * Returns minimum time between two frames in milliseconds.
+     *
+     * @return minimum time between two frames in milliseconds
+     */
+    public static long getFramePeriod ()
+    {
+        return framePeriod;
+    }
+
+    /**
+     * Sets minimum time between two frames in milliseconds.
+     *
+     * @param framePeriod minimum time between two frames in milliseconds
+     */
+    public static void setFramePeriod ( final long framePeriod )
+    {
+        if ( framePeriod <= 0 )
+        {
+            throw new IllegalArgumentException ( "Invalid frame period: " + framePeriod );
+        }
+        synchronized ( lock )
+        {
+            WebTimerPulse.framePeriod = framePeriod;
+            lock.notifyAll ();
+        }
+    }
+
+    /**
+     * Registers timer within the pulse.
+     *
+     * @param timer timer to register
+     */
+    static void register ( final WebTimer timer )
+    {
+        synchronized ( lock )
+        {
+            if ( !timers.contains ( timer ) )
+            {
+                timers.add ( timer );
+            }
+            if ( pulse == null )
+            {
+                pulse = new Thread ( new Runnable ()
+                {
+                    @Override
+                    public void run ()
+                    {
+                        runPulse ();
+                    }
+                }, PULSE_THREAD_NAME );
+                pulse.setDaemon ( true );
+                pulse.start ();
+            }
+            lock.notifyAll ();
+        }
+    }
+
+    /**
+     * Unregisters timer from the pulse.
+     *
+     * @param timer timer to unregister
+     */
+    static void unregister ( final WebTimer timer )
+    {
+        synchronized ( lock )
+        {
+            timers.remove ( timer );
+        }
+    }
+
+    /**
+     * Wakes up pulse thread to recheck timers due time.
+     */
+    static void wakeUp ()
+    {
+        synchronized ( lock )
+        {
+            lock.notifyAll ();
+        }
+    }
+
+    /**
+     * Pulse thread main loop.
+     */
+    private static void runPulse ()
+    {
+        long lastFrame = System.nanoTime () - framePeriod * 1000000L;
+        while ( true )
+        {
+            try
+            {
+                final long now;
+                final long frameStart;
+                synchronized ( lock )
+                {
+                    // Waiting for the closest timer to become due but never faster than frame period allows
+                    final long period = framePeriod * 1000000L;
+                    long wakeUp;
+                    while ( true )
+                    {
+                        final long earliest = getEarliestDueTime ();
+                        final long time = System.nanoTime ();
+                        wakeUp = earliest == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max ( earliest - period / 2, lastFrame + period );
+                        if ( wakeUp <= time )
+                        {
+                            break;
+                        }
+                        final long wait = wakeUp == Long.MAX_VALUE ? 0 : Math.max ( 1, ( wakeUp - time ) / 1000000L );
+                        lock.wait ( wait );
+                    }
+
+                    // Collecting timers due within this frame
+                    now = System.nanoTime ();
+                    frameStart = wakeUp;
+                    final long limit = now + period / 2;
+                    for ( final WebTimer timer : timers )
+                    {
+                        if ( !timer.pulseFiring && timer.pulseDue <= limit )
+                        {
+                            timer.pulseFiring = true;
+                            due.add ( timer );
+                        }
+                    }
+                    if ( now - frameStart > period )
+                    {
+                        lateFrames++;
+                    }
+                }
+                lastFrame = now;
+                frames++;
+
+                // Dispatching timers
+                dispatch ();
+            }
+            catch ( final InterruptedException e )
+            {
+                // Pulse should never be interrupted but we still handle it
+                break;
+            }
+            catch ( final Throwable e )
+            {
+                Log.error ( WebTimerPulse.class, e );
+            }
+            finally
+            {
+                due.clear ();
+            }
+        }
+        synchronized ( lock )
+        {
+            pulse = null;
+        }
+    }
+
+    /**
+     * Returns earliest due time among all waiting timers or {@link Long#MAX_VALUE} if there are none.
+     * Should be called within the lock.
+     *
+     * @return earliest due time among all waiting timers or {@link Long#MAX_VALUE} if there are none
+     */
+    private static long getEarliestDueTime ()
+    {
+        long earliest = Long.MAX_VALUE;
+        for ( final WebTimer timer : timers )
+        {
+            if ( !timer.pulseFiring && timer.pulseDue < earliest )
+            {
+                earliest = timer.pulseDue;
+            }
+        }
+        return earliest;
+    }
+
+    /**
+     * Dispatches due timers.
+     * All Event Dispatch Thread timers are coalesced into a single EDT call.
+     */
+    private static void dispatch ()
+    {
+        firedCycles += due.size ();
+        List<WebTimer> edtTimers = null;
+        for ( final WebTimer timer : due )
+        {
+            final int runId = timer.pulseRunId;
+            if ( timer.isUseEventDispatchThread () )
+            {
+                if ( edtTimers == null )
+                {
+                    edtTimers = new ArrayList<WebTimer> ( due.size () );
+                }
+                edtTimers.add ( timer );
+            }
+            else
+            {
+                getBackgroundExecutor ().execute ( new Runnable ()
+                {
+                    @Override
+                    public void run ()
+                    {
+                        performPulseCycle ( timer, runId );
+                    }
+                } );
+            }
+        }
+        if ( edtTimers != null )
+        {
+            final List<WebTimer> frameTimers = edtTimers;
+            final int[] runIds = new int[ frameTimers.size () ];
+            for ( int i = 0; i < runIds.length; i++ )
+            {
+                runIds[ i ] = frameTimers.get ( i ).pulseRunId;
+            }
+            SwingUtilities.invokeLater ( new Runnable ()
+            {
+                @Override
+                public void run ()
+                {
+                    final long start = System.nanoTime ();
+                    for ( int i = 0; i < runIds.length; i++ )
+                    {
+                        performPulseCycle ( frameTimers.get ( i ), runIds[ i ] );
+                    }
+                    final long time = System.nanoTime () - start;
+                    lastFrameCallbackTime = time;
+                    maxFrameCallbackTime = Math.max ( maxFrameCallbackTime, time );
+                    totalCallbackTime += time;
+
+                    // Some timers might be due already
+                    wakeUp ();
+                }
+            } );
+        }
+    }
+
+    /**
+     * Performs single timer cycle.
+     * Exceptions thrown by timer listeners are logged here so that they never affect other timers fired along with it.
+     *
+     * @param timer timer to perform cycle for
+     * @param runId timer pulse run ID
+     */
+    private static void performPulseCycle ( final WebTimer timer, final int runId )
+    {
+        try
+        {
+            timer.performPulseCycle ( runId );
+        }
+        catch ( final Throwable e )
+        {
+            Log.error ( timer, e );
+        }
+    }
+
+    /**
+     * Returns executor for timers which are not using Event Dispatch Thread.
+     *
+     * @return executor for timers which are not using Event Dispatch Thread
+     */
+    private static ExecutorService getBackgroundExecutor ()
+    {
+        if ( backgroundExecutor == null )
+        {
+            backgroundExecutor = Executors.newCachedThreadPool ( new DaemonThreadFactory () );
+        }
+        return backgroundExecutor;
+    }
+
+    /**
+     * Returns amount of timers currently registered within the pulse.
+     *
+     * @return amount of timers currently registered within the pulse
+     */
+    public static int getActiveTimers ()
+    {
+        synchronized ( lock )
+        {
+            return timers.size ();
+        }
+    }
+
+    /**
+     * Returns amount of frames processed by the pulse.
+     *
+     * @return amount of frames processed by the pulse
+     */
+    public static long getFrames ()
+    {
+        return frames;
+    }
+
+    /**
+     * Returns amount of frames which were started later than one frame period after their planned time.
+     *
+     * @return amount of late frames
+     */
+    public static long getLateFrames ()
+    {
+        return lateFrames;
+    }
+
+    /**
+     * Returns amount of timer cycles dispatched by the pulse.
+     *
+     * @return amount of timer cycles dispatched by the pulse
+     */
+    public static long getFiredCycles ()
+    {
+        return firedCycles;
+    }
+
+    /**
+     * Returns time in nanoseconds spent on Event Dispatch Thread callbacks within the last frame.
+     *
+     * @return time in nanoseconds spent on Event Dispatch Thread callbacks within the last frame
+     */
+    public static long getLastFrameCallbackTime ()
+    {
+        return lastFrameCallbackTime;
+    }
+
+    /**
+     * Returns maximum time in nanoseconds spent on Event Dispatch Thread callbacks within a single frame.
+     *
+     * @return maximum time in nanoseconds spent on Event Dispatch Thread callbacks within a single frame
+     */
+    public static long getMaxFrameCallbackTime ()
+    {
+        return maxFrameCallbackTime;
+    }
+
+    /**
+     * Returns total time in nanoseconds spent on Event Dispatch Thread callbacks.
+     *
+     * @return total time in nanoseconds spent on Event Dispatch Thread callbacks
+     */
+    public static long getTotalCallbackTime ()
+    {
+        return totalCallbackTime;
+    }
+
+    /**
+     * Resets pulse statistics.
+     */
+    public static void resetStatistics ()
+    {
+        frames = 0;
+        lateFrames = 0;
+        firedCycles = 0;
+        lastFrameCallbackTime = 0;
+        maxFrameCallbackTime = 0;
+        totalCallbackTime = 0;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.alee.utils.xml;
+
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+import com.thoughtworks.xstream.io.StreamException;
+import com.thoughtworks.xstream.io.xml.PrettyPrintWriter;
+import com.thoughtworks.xstream.io.xml.StaxDriver;
+
+import javax.xml.stream.XMLInputFactory;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+
+/**
+ * Streaming XStream driver based on the StAX pull parser available in the Java runtime.
+ * <p/>
+ * Unlike DOM-based driver it doesn't build the whole document tree in memory before deserialization, XML is read event by event.
+ * Output is still written using pretty print writer so serialized XML looks exactly the same as it did with DOM-based driver.
+ *
+ * @author Mikle Garin
+ * @see com.alee.utils.XmlUtils#useStreamingDriver
+ */
+
+public class StreamingXmlDriver extends StaxDriver
+{
+    /**
+     * Encoding used for output streams.
+     */
+    private static final String OUTPUT_ENCODING = "UTF-8";
+
+    /**
+     * Constructs new streaming XStream driver.
+     */
+    public StreamingXmlDriver ()
+    {
+        super ();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected XMLInputFactory createInputFactory ()
+    {
+        final XMLInputFactory factory = super.createInputFactory ();
+
+        // Library XML files never use external entities so there is no need to resolve them
+        factory.setProperty ( XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false );
+
+        return factory;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public HierarchicalStreamWriter createWriter ( final Writer out )
+    {
+        return new PrettyPrintWriter ( out, getNameCoder () );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public HierarchicalStreamWriter createWriter ( final OutputStream out )
+    {
+        try
+        {
+            return createWriter ( new OutputStreamWriter ( out, OUTPUT_ENCODING ) );
+        }
+        catch ( final UnsupportedEncodingException e )
+        {
+            throw new StreamException ( e );
+        }
+    }
+}
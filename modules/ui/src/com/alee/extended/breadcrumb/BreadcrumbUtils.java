@@ -21,6 +21,7 @@ import com.alee.global.StyleConstants;
 import com.alee.utils.ColorUtils;
 import com.alee.utils.GraphicsUtils;
 import com.alee.utils.ShapeCache;
+import com.alee.utils.ShapeCacheKey;
 import com.alee.utils.swing.DataProvider;
 
 import javax.swing.*;
@@ -48,6 +49,18 @@ public final class BreadcrumbUtils
     private static final String BORDER_SHAPE = "border";
     private static final String FILL_SHAPE = "fill";
 
+    /**
+     * Reusable shape settings key.
+     * Breadcrumb shapes are only requested from Event Dispatch Thread so it is safe to share it.
+     */
+    private static final ShapeCacheKey shapeSettings = new ShapeCacheKey ();
+
+    /**
+     * Reusable shape provider.
+     * It is shared for the same reason as shape settings key and is cleared after each request to avoid holding elements.
+     */
+    private static final ShapeProvider shapeProvider = new ShapeProvider ();
+
     /**
      * Breadcrumb element background paint constants.
      */
@@ -217,14 +230,11 @@ public final class BreadcrumbUtils
     public static Shape getBorderShape ( final JComponent element, final int w, final int h, final int overlap, final int shadeWidth,
                                          final boolean ltr )
     {
-        return ShapeCache.getShape ( element, BORDER_SHAPE, new DataProvider<Shape> ()
-        {
-            @Override
-            public Shape provide ()
-            {
-                return createBorderShape ( w, h, overlap, shadeWidth, ltr );
-            }
-        }, w, h, overlap, shadeWidth, ltr );
+        final ShapeCacheKey settings = shapeSettings.clear ().add ( w ).add ( h ).add ( overlap ).add ( shadeWidth ).add ( ltr );
+        final Shape shape = ShapeCache.getShape ( element, BORDER_SHAPE,
+                shapeProvider.set ( false, null, null, w, h, overlap, shadeWidth, 0, false, ltr ), settings );
+        shapeProvider.clear ();
+        return shape;
     }
 
     /**
@@ -273,14 +283,12 @@ public final class BreadcrumbUtils
                                        final int overlap, final int shadeWidth, final int round, final boolean encloseLast,
                                        final boolean ltr )
     {
-        return ShapeCache.getShape ( element, FILL_SHAPE, new DataProvider<Shape> ()
-        {
-            @Override
-            public Shape provide ()
-            {
-                return createFillShape ( element, type, w, h, overlap, shadeWidth, round, encloseLast, ltr );
-            }
-        }, type, w, h, overlap, shadeWidth, round, encloseLast, ltr );
+        final ShapeCacheKey settings = shapeSettings.clear ().add ( type ).add ( w ).add ( h ).add ( overlap ).add ( shadeWidth )
+                .add ( round ).add ( encloseLast ).add ( ltr );
+        final Shape shape = ShapeCache.getShape ( element, FILL_SHAPE,
+                shapeProvider.set ( true, element, type, w, h, overlap, shadeWidth, round, encloseLast, ltr ), settings );
+        shapeProvider.clear ();
+        return shape;
     }
 
     /**
@@ -462,4 +470,76 @@ public final class BreadcrumbUtils
         }
         return 0 < x && x < w && 0 < y && y < h;
     }
+
+    /**
+     * Reusable breadcrumb element shape provider.
+     * It is filled with requested shape settings right before each shape request, so nothing is allocated while shape is cached.
+     */
+    private static final class ShapeProvider implements DataProvider<Shape>
+    {
+        /**
+         * Requested shape settings.
+         */
+        private boolean fillShape;
+        private JComponent element;
+        private BreadcrumbElementType type;
+        private int w;
+        private int h;
+        private int overlap;
+        private int shadeWidth;
+        private int round;
+        private boolean encloseLast;
+        private boolean ltr;
+
+        /**
+         * Fills this provider with requested shape settings.
+         *
+         * @param fillShape   whether should provide fill shape or border shape
+         * @param element     breadcrumb element
+         * @param type        element type
+         * @param w           element width
+         * @param h           element height
+         * @param overlap     breadcrumb element overlap
+         * @param shadeWidth  breadcrumb shade width
+         * @param round       breadcrumb corners rounding
+         * @param encloseLast whether last breadcrumb element should be enclosed or not
+         * @param ltr         whether element has LTR orientation or not
+         * @return this provider
+         */
+        public ShapeProvider set ( final boolean fillShape, final JComponent element, final BreadcrumbElementType type, final int w,
+                                   final int h, final int overlap, final int shadeWidth, final int round, final boolean encloseLast,
+                                   final boolean ltr )
+        {
+            this.fillShape = fillShape;
+            this.element = element;
+            this.type = type;
+            this.w = w;
+            this.h = h;
+            this.overlap = overlap;
+            this.shadeWidth = shadeWidth;
+            this.round = round;
+            this.encloseLast = encloseLast;
+            this.ltr = ltr;
+            return this;
+        }
+
+        /**
+         * Clears references to the last requested shape element.
+         */
+        public void clear ()
+        {
+            this.element = null;
+            this.type = null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Shape provide ()
+        {
+            return fillShape ? createFillShape ( element, type, w, h, overlap, shadeWidth, round, encloseLast, ltr ) :
+                    createBorderShape ( w, h, overlap, shadeWidth, ltr );
+        }
+    }
 }
\ No newline at end of file
@@ -18,6 +18,8 @@
 package com.alee.extended.list;
 
 import com.alee.global.GlobalConstants;
+import com.alee.graphics.image.DiskThumbnailCache;
+import com.alee.managers.settings.SettingsManager;
 import com.alee.utils.FileUtils;
 import com.alee.utils.ImageUtils;
 import com.alee.utils.concurrent.DaemonThreadFactory;
@@ -28,14 +30,23 @@ import java.awt.*;
 import java.io.File;
 import java.util.Map;
 import java.util.WeakHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * File list thumbnails generator.
+ * <p/>
+ * Generators are executed by a shared bounded pool of worker threads.
+ * Most recently requested thumbnails are generated first, since renderer requests them for the cells which are currently visible.
+ * Image thumbnails are read at reduced resolution and are kept within the on-disk thumbnails cache across sessions.
+ *
  * @author Mikle Garin
+ * @see com.alee.graphics.image.DiskThumbnailCache
  */
 
-public class ThumbnailGenerator implements Runnable
+public class ThumbnailGenerator implements Runnable, Comparable<ThumbnailGenerator>
 {
     /**
      * todo 1. Issues might appear on enable state change while generators are running
@@ -44,8 +55,39 @@ public class ThumbnailGenerator implements Runnable
     /**
      * Executor service for thumbnails generation.
      * It was made static to be shared by different file lists and avoid overload.
+     * Its queue orders generators by priority, so it can only be used through {@link java.util.concurrent.Executor#execute(Runnable)}.
+     */
+    protected static final ThreadPoolExecutor executorService =
+            new ThreadPoolExecutor ( getWorkersCount (), getWorkersCount (), 30L, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable> (),
+                    new DaemonThreadFactory () );
+
+    static
+    {
+        executorService.allowCoreThreadTimeOut ( true );
+    }
+
+    /**
+     * Generators sequence used to prioritize most recently requested thumbnails.
+     */
+    protected static final AtomicLong sequence = new AtomicLong ( 0 );
+
+    /**
+     * On-disk image thumbnails cache.
+     * It is lazily created within default settings directory unless specified explicitly, null value disables it.
+     */
+    protected static DiskThumbnailCache thumbnailCache = null;
+
+    /**
+     * Whether on-disk image thumbnails cache is enabled or not.
+     */
+    protected static boolean thumbnailCacheEnabled = true;
+
+    /**
+     * Generation statistics.
      */
-    protected static final ExecutorService executorService = Executors.newSingleThreadExecutor ( new DaemonThreadFactory () );
+    protected static final AtomicLong generatedThumbnails = new AtomicLong ( 0 );
+    protected static final AtomicLong generationTime = new AtomicLong ( 0 );
+    protected static volatile long statisticsStart = System.nanoTime ();
 
     /**
      * Map containing references to running thumbnail generators.
@@ -73,10 +115,20 @@ public class ThumbnailGenerator implements Runnable
      */
     private final boolean disabled;
 
+    /**
+     * Generator priority, generators with greater priority are executed first.
+     */
+    private volatile long priority;
+
+    /**
+     * Whether generation was started or not.
+     */
+    private volatile boolean started;
+
     /**
      * Whether generation was aborted or not.
      */
-    private boolean aborted;
+    private volatile boolean aborted;
 
     /**
      * Constructs thumbnail generator for the specified file element.
@@ -91,6 +143,8 @@ public class ThumbnailGenerator implements Runnable
         this.list = list;
         this.element = element;
         this.disabled = disabled;
+        this.priority = sequence.incrementAndGet ();
+        this.started = false;
         this.aborted = false;
     }
 
@@ -143,12 +197,23 @@ public class ThumbnailGenerator implements Runnable
         this.aborted = true;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int compareTo ( final ThumbnailGenerator generator )
+    {
+        return priority > generator.priority ? -1 : priority == generator.priority ? 0 : 1;
+    }
+
     /**
      * Starts thumbnail generation.
      */
     @Override
     public void run ()
     {
+        started = true;
+
         // Process abort check here
         if ( aborted )
         {
@@ -157,7 +222,10 @@ public class ThumbnailGenerator implements Runnable
         }
 
         // Creating thumbnail
+        final long start = System.nanoTime ();
         createThumbnail ( element.getFile (), list.isGenerateThumbnails () );
+        generationTime.addAndGet ( System.nanoTime () - start );
+        generatedThumbnails.incrementAndGet ();
 
         // Process abort check here
         if ( aborted )
@@ -248,8 +316,7 @@ public class ThumbnailGenerator implements Runnable
         {
             // If thumbnail was already specified we should re-use it
             // It will save us a lot of time if we simply need to generate disabled state in addition to enabled one
-            final ImageIcon thumb = element.getEnabledThumbnail () != null ? element.getEnabledThumbnail () :
-                    ImageUtils.createThumbnailIcon ( file.getAbsolutePath (), WebFileListCellRenderer.thumbSize );
+            final ImageIcon thumb = element.getEnabledThumbnail () != null ? element.getEnabledThumbnail () : createImageThumbnail ( file );
             if ( thumb != null )
             {
                 // Applying standard image thumbnail
@@ -268,6 +335,25 @@ public class ThumbnailGenerator implements Runnable
         }
     }
 
+    private ImageIcon createImageThumbnail ( final File file )
+    {
+        // Trying to retrieve previously generated thumbnail first
+        final DiskThumbnailCache cache = getThumbnailCache ();
+        final ImageIcon cached = cache != null ? cache.get ( file, WebFileListCellRenderer.thumbSize ) : null;
+        if ( cached != null )
+        {
+            return cached;
+        }
+
+        // Generating and caching new thumbnail
+        final ImageIcon thumb = ImageUtils.createThumbnailIcon ( file.getAbsolutePath (), WebFileListCellRenderer.thumbSize );
+        if ( cache != null && thumb != null && !aborted )
+        {
+            cache.put ( file, WebFileListCellRenderer.thumbSize, thumb );
+        }
+        return thumb;
+    }
+
     private void applyThumbnail ( final ImageIcon thumb )
     {
         // Process abort check here
@@ -380,7 +466,30 @@ public class ThumbnailGenerator implements Runnable
         {
             final ThumbnailGenerator generator = new ThumbnailGenerator ( list, element, disabled );
             generators.put ( element, generator );
-            executorService.submit ( generator );
+            executorService.execute ( generator );
+        }
+    }
+
+    /**
+     * Moves queued thumbnail generation for the specified element to the head of the queue.
+     * This should be called whenever element is displayed again while its thumbnail is still waiting to be generated.
+     *
+     * @param element element to prioritize thumbnail generation for
+     */
+    public static void prioritizeThumbnailLoad ( final FileElement element )
+    {
+        synchronized ( generatorsLock )
+        {
+            final ThumbnailGenerator generator = generators.get ( element );
+            if ( generator != null && !generator.started && !generator.aborted && generator.priority != sequence.get () )
+            {
+                // Queue has to be updated since priority is only taken into account on insertion
+                if ( executorService.remove ( generator ) )
+                {
+                    generator.priority = sequence.incrementAndGet ();
+                    executorService.execute ( generator );
+                }
+            }
         }
     }
 
@@ -410,4 +519,107 @@ public class ThumbnailGenerator implements Runnable
             }
         }
     }
+
+    /**
+     * Returns amount of thumbnails generation worker threads.
+     *
+     * @return amount of thumbnails generation worker threads
+     */
+    public static int getWorkersCount ()
+    {
+        return Math.max ( 1, Math.min ( 4, Runtime.getRuntime ().availableProcessors () ) );
+    }
+
+    /**
+     * Returns amount of generators waiting in queue.
+     *
+     * @return amount of generators waiting in queue
+     */
+    public static int getQueueSize ()
+    {
+        return executorService.getQueue ().size ();
+    }
+
+    /**
+     * Returns on-disk image thumbnails cache or null if it is disabled.
+     *
+     * @return on-disk image thumbnails cache or null if it is disabled
+     */
+    public static synchronized DiskThumbnailCache getThumbnailCache ()
+    {
+        if ( thumbnailCache == null && thumbnailCacheEnabled )
+        {
+            thumbnailCache = new DiskThumbnailCache ( new File ( SettingsManager.getDefaultSettingsDir (), "thumbnails" ) );
+        }
+        return thumbnailCache;
+    }
+
+    /**
+     * Sets on-disk image thumbnails cache.
+     * Specifying null disables on-disk thumbnails caching.
+     *
+     * @param cache new on-disk image thumbnails cache
+     */
+    public static synchronized void setThumbnailCache ( final DiskThumbnailCache cache )
+    {
+        thumbnailCache = cache;
+        thumbnailCacheEnabled = cache != null;
+    }
+
+    /**
+     * Returns amount of generated thumbnails.
+     *
+     * @return amount of generated thumbnails
+     */
+    public static long getGeneratedThumbnails ()
+    {
+        return generatedThumbnails.get ();
+    }
+
+    /**
+     * Returns total time in nanoseconds spent by all workers on thumbnails generation.
+     *
+     * @return total time in nanoseconds spent by all workers on thumbnails generation
+     */
+    public static long getGenerationTime ()
+    {
+        return generationTime.get ();
+    }
+
+    /**
+     * Returns amount of thumbnails generated per second since statistics were reset.
+     *
+     * @return amount of thumbnails generated per second since statistics were reset
+     */
+    public static double getThroughput ()
+    {
+        final long time = System.nanoTime () - statisticsStart;
+        return time > 0 ? generatedThumbnails.get () * 1000000000d / time : 0d;
+    }
+
+    /**
+     * Returns ratio of image thumbnails found within the on-disk cache to all requested image thumbnails.
+     *
+     * @return ratio of image thumbnails found within the on-disk cache to all requested image thumbnails
+     */
+    public static float getCacheHitRate ()
+    {
+        final DiskThumbnailCache cache = thumbnailCache;
+        return cache != null ? cache.getHitRate () : 0f;
+    }
+
+    /**
+     * Resets generation statistics along with on-disk cache statistics.
+     */
+    public static void resetStatistics ()
+    {
+        generatedThumbnails.set ( 0 );
+        generationTime.set ( 0 );
+        statisticsStart = System.nanoTime ();
+        final DiskThumbnailCache cache = thumbnailCache;
+        if ( cache != null )
+        {
+            cache.resetStatistics ();
+        }
+    }
 }
\ No newline at end of file
@@ -249,13 +249,21 @@ public class WebFileListCellRenderer extends WebListCellRenderer
         if ( iconLabel.isEnabled () )
         {
             // Thumbnail loading
+            // Generated thumbnail stays until generation is aborted, so it is only queued when missing
+            final boolean queued;
             synchronized ( element.getLock () )
             {
-                if ( !element.isThumbnailQueued () && !element.isDisabledThumbnailQueued () )
+                queued = element.isThumbnailQueued () || element.isDisabledThumbnailQueued ();
+                if ( !queued && element.getEnabledThumbnail () == null )
                 {
                     ThumbnailGenerator.queueThumbnailLoad ( fileList, element, false );
                 }
             }
+            if ( queued && element.getEnabledThumbnail () == null )
+            {
+                // Displayed cells should be processed before those which were scrolled away
+                ThumbnailGenerator.prioritizeThumbnailLoad ( element );
+            }
 
             // Image thumbnail
             final ImageIcon thumbnail = element.getEnabledThumbnail ();
@@ -270,13 +278,20 @@ public class WebFileListCellRenderer extends WebListCellRenderer
         else
         {
             // Disabled thumbnail loading
+            final boolean queued;
             synchronized ( element.getLock () )
             {
-                if ( !element.isDisabledThumbnailQueued () )
+                queued = element.isDisabledThumbnailQueued ();
+                if ( !queued && element.getDisabledThumbnail () == null )
                 {
                     ThumbnailGenerator.queueThumbnailLoad ( fileList, element, true );
                 }
             }
+            if ( queued && element.getDisabledThumbnail () == null )
+            {
+                // Displayed cells should be processed before those which were scrolled away
+                ThumbnailGenerator.prioritizeThumbnailLoad ( element );
+            }
 
             // Image disabled thumbnail
             iconLabel.setDisabledIcon ( element.getDisabledThumbnail () );
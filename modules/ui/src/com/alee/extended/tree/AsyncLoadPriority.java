@@ -0,0 +1,46 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.alee.extended.tree;
+
+/**
+ * This enumeration represents asynchronous tree childs load priorities.
+ * Loads with higher priority are always started before loads with lower priority, loads with equal priority are started in FIFO order.
+ * Priorities are listed from the highest to the lowest one.
+ *
+ * @author Mikle Garin
+ * @see com.alee.extended.tree.AsyncTreeQueue
+ */
+
+public enum AsyncLoadPriority
+{
+    /**
+     * Load of expanded node visible within the tree.
+     * Usually caused by user expanding that node.
+     */
+    expansion,
+
+    /**
+     * Load of node visible within the tree.
+     */
+    visible,
+
+    /**
+     * Load of node which is not visible within the tree.
+     * Usually caused by programmatic path expansion or childs prefetch.
+     */
+    prefetch
+}
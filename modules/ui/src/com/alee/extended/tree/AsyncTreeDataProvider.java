@@ -44,6 +44,7 @@ public interface AsyncTreeDataProvider<E extends AsyncUniqueNode>
      * Starts loading child nodes for the specified asynchronous tree node.
      * When you finish loading childs for the specified node or you failed to load them, simply inform the listener about that.
      * This request uses a separate thread and might take a lot of time to process without having any UI issues.
+     * In case there are a lot of childs you can also deliver them in batches to display them progressively as they get loaded.
      *
      * @param node     parent node
      * @param listener childs loading progress listener
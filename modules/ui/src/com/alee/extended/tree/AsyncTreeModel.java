@@ -19,16 +19,24 @@ package com.alee.extended.tree;
 
 import com.alee.laf.tree.TreeState;
 import com.alee.laf.tree.WebTreeModel;
+import com.alee.managers.log.Log;
 import com.alee.utils.CollectionUtils;
 import com.alee.utils.MapUtils;
 import com.alee.utils.SwingUtils;
 import com.alee.utils.collection.DoubleMap;
 import com.alee.utils.compare.Filter;
+import com.alee.utils.concurrent.ConcurrentUtils;
+import com.alee.utils.concurrent.ParallelSort;
 
 import javax.swing.*;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeExpansionListener;
 import javax.swing.tree.MutableTreeNode;
 import javax.swing.tree.TreeNode;
+import javax.swing.tree.TreePath;
+import java.awt.*;
 import java.util.*;
+import java.util.List;
 
 /**
  * Special model for asynchronous tree that provides asynchronous data loading.
@@ -100,17 +108,53 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
      */
     protected final Map<String, List<E>> rawNodeChildsCache = new HashMap<String, List<E>> ();
 
+    /**
+     * Cache for sorted raw childs (parent ID -> list of raw child nodes sorted with parent node childs comparator).
+     * Unlike actual node childs this list also contains childs which are not accepted by filter.
+     * It is used to update node childs on filter changes without re-sorting them.
+     */
+    protected final Map<String, List<E>> sortedNodeChildsCache = new HashMap<String, List<E>> ();
+
+    /**
+     * Current asynchronous childs loads (parent ID -> childs load).
+     * Batches delivered by loads which are no longer current are discarded, so they never get into the caches of reloaded nodes.
+     */
+    protected final Map<String, ChildsLoad> childsLoads = new HashMap<String, ChildsLoad> ();
+
     /**
      * Direct nodes cache (node ID -> node).
      * Used for quick node search within the tree.
      */
     protected final DoubleMap<String, E> nodeById = new DoubleMap<String, E> ();
 
+    /**
+     * Tree structure revision.
+     * It is incremented on any raw childs or sorting change and used to check whether childs sorted outside of the cache lock are
+     * still up-to-date.
+     */
+    protected int structureRevision = 0;
+
+    /**
+     * Background childs sorting passes (parent ID -> sorting pass ID).
+     * Only the last requested sorting pass result is applied to the node.
+     */
+    protected final Map<String, Integer> sortingPasses = new HashMap<String, Integer> ();
+
+    /**
+     * Last background childs sorting pass ID.
+     */
+    protected int lastSortingPass = 0;
+
     /**
      * Lock object for busy state changes.
      */
     protected final Object busyLock = new Object ();
 
+    /**
+     * Maximum amount of loaded childs inserted into the tree within a single EDT call.
+     */
+    protected int insertBatchSize = 1000;
+
     /**
      * Constructs default asynchronous tree model using custom data provider.
      *
@@ -122,6 +166,26 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
         super ( null );
         this.tree = tree;
         this.dataProvider = dataProvider;
+
+        // Cancelling pending loads which are no longer needed
+        tree.addTreeExpansionListener ( new TreeExpansionListener ()
+        {
+            @Override
+            public void treeExpanded ( final TreeExpansionEvent event )
+            {
+                // Nothing to do here
+            }
+
+            @Override
+            @SuppressWarnings ( "unchecked" )
+            public void treeCollapsed ( final TreeExpansionEvent event )
+            {
+                if ( tree.getModel () == AsyncTreeModel.this )
+                {
+                    cancelChildsLoad ( ( E ) event.getPath ().getLastPathComponent () );
+                }
+            }
+        } );
     }
 
     //    /**
@@ -280,7 +344,17 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
         tree.cancelEditing ();
 
         // Cleaning up nodes cache
-        clearNodeChildsCache ( ( E ) node, false );
+        final E parent = ( E ) node;
+        clearNodeChildsCache ( parent, false );
+
+        // Releasing node from the abandoned childs load, otherwise its childs won't be loaded again
+        synchronized ( busyLock )
+        {
+            if ( parent.isLoading () )
+            {
+                parent.setState ( AsyncNodeState.waiting );
+            }
+        }
 
         // Forcing childs reload
         super.reload ( node );
@@ -296,6 +370,8 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
     {
         synchronized ( cacheLock )
         {
+            structureRevision++;
+
             // Clears node cache
             if ( clearNode )
             {
@@ -307,6 +383,14 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
 
             // Clears node raw childs cache
             final List<E> children = rawNodeChildsCache.remove ( node.getId () );
+            sortedNodeChildsCache.remove ( node.getId () );
+
+            // Abandons node childs load
+            final ChildsLoad load = childsLoads.remove ( node.getId () );
+            if ( load != null )
+            {
+                load.cancel ();
+            }
 
             // Clears chld nodes cache
             if ( children != null )
@@ -359,6 +443,7 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
     {
         synchronized ( cacheLock )
         {
+            structureRevision++;
             nodeById.put ( node.getId (), node );
         }
     }
@@ -372,6 +457,7 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
     {
         synchronized ( cacheLock )
         {
+            structureRevision++;
             for ( final E node : nodes )
             {
                 nodeById.put ( node.getId (), node );
@@ -429,9 +515,17 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
         // Loading node childs
         if ( asyncLoading )
         {
+            // Progressive childs insertion
+            // It replaces any previous load of the same node, so batches of that load will be discarded
+            final ChildsLoad load = new ChildsLoad ( parent );
+            synchronized ( cacheLock )
+            {
+                childsLoads.put ( parent.getId (), load );
+            }
+
             // Executing childs load in a separate thread to avoid locking EDT
             // This queue will also take care of amount of threads to execute async trees requests
-            AsyncTreeQueue.execute ( tree, new Runnable ()
+            AsyncTreeQueue.execute ( tree, parent.getId (), getLoadPriority ( parent ), new Runnable ()
             {
                 @Override
                 public void run ()
@@ -440,57 +534,35 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
                     dataProvider.loadChilds ( parent, new ChildsListener<E> ()
                     {
                         @Override
-                        public void childsLoadCompleted ( final List<E> childs )
+                        public void childsBatchLoaded ( final List<E> childs )
                         {
-                            // Caching raw childs
-                            synchronized ( cacheLock )
-                            {
-                                rawNodeChildsCache.put ( parent.getId (), childs );
-                                cacheNodesById ( childs );
-                            }
-
-                            // Filtering and sorting raw childs
-                            final List<E> realChilds = filterAndSort ( parent, childs );
-
-                            // Updating cache
-                            synchronized ( cacheLock )
-                            {
-                                nodeCached.put ( parent.getId (), true );
-                            }
-
-                            // Performing UI updates and event notification in EDT
-                            SwingUtils.invokeLater ( new Runnable ()
-                            {
-                                @Override
-                                public void run ()
-                                {
-                                    // Checking if any nodes loaded
-                                    if ( realChilds != null && realChilds.size () > 0 )
-                                    {
-                                        // Inserting loaded nodes
-                                        insertNodesIntoImpl ( realChilds, parent, 0 );
-                                    }
-
-                                    // Releasing node busy state
-                                    synchronized ( busyLock )
-                                    {
-                                        parent.setState ( AsyncNodeState.loaded );
-                                        nodeChanged ( parent );
-                                    }
+                            load.addBatch ( childs, false );
+                        }
 
-                                    // Firing load completed event
-                                    fireChildsLoadCompleted ( parent, realChilds );
-                                }
-                            } );
+                        @Override
+                        public void childsLoadCompleted ( final List<E> childs )
+                        {
+                            load.addBatch ( childs, true );
                         }
 
                         @Override
                         public void childsLoadFailed ( final Throwable cause )
                         {
-                            // Caching childs
+                            // Dropping childs waiting for insertion
+                            load.cancel ();
+
+                            // Caching childs, already inserted batches are kept
                             synchronized ( cacheLock )
                             {
-                                rawNodeChildsCache.put ( parent.getId (), new ArrayList<E> ( 0 ) );
+                                if ( !load.finish () )
+                                {
+                                    // Node was reloaded meanwhile
+                                    return;
+                                }
+                                if ( !rawNodeChildsCache.containsKey ( parent.getId () ) )
+                                {
+                                    rawNodeChildsCache.put ( parent.getId (), new ArrayList<E> ( 0 ) );
+                                }
                                 nodeCached.put ( parent.getId (), true );
                             }
 
@@ -520,16 +592,33 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
         }
         else
         {
+            // Childs delivered in batches
+            final List<E> batches = new ArrayList<E> ();
+
             // Loading childs
             dataProvider.loadChilds ( parent, new ChildsListener<E> ()
             {
                 @Override
-                public void childsLoadCompleted ( final List<E> childs )
+                public void childsBatchLoaded ( final List<E> childs )
                 {
+                    batches.addAll ( childs );
+                }
+
+                @Override
+                public void childsLoadCompleted ( List<E> childs )
+                {
+                    // Combining childs with previously loaded batches
+                    if ( batches.size () > 0 )
+                    {
+                        batches.addAll ( childs );
+                        childs = batches;
+                    }
+
                     // Caching raw childs
                     synchronized ( cacheLock )
                     {
                         rawNodeChildsCache.put ( parent.getId (), childs );
+                        sortedNodeChildsCache.remove ( parent.getId () );
                         cacheNodesById ( childs );
                     }
 
@@ -586,6 +675,54 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
         }
     }
 
+    /**
+     * Returns load priority for the specified node.
+     * Expanded nodes visible within the tree are loaded first, then other visible nodes and then the rest of them.
+     *
+     * @param node node to load childs for
+     * @return load priority for the specified node
+     */
+    protected AsyncLoadPriority getLoadPriority ( final E node )
+    {
+        final TreePath path = tree.getPathForNode ( node );
+        final Rectangle bounds = tree.getPathBounds ( path );
+        if ( bounds != null && tree.getVisibleRect ().intersects ( bounds ) )
+        {
+            return tree.isExpanded ( path ) ? AsyncLoadPriority.expansion : AsyncLoadPriority.visible;
+        }
+        else
+        {
+            return AsyncLoadPriority.prefetch;
+        }
+    }
+
+    /**
+     * Cancels pending childs loads of the specified node and all of its loaded child nodes.
+     * Cancelled nodes are returned into waiting state so their childs will be loaded again when requested.
+     *
+     * @param node node to cancel loads for
+     */
+    @SuppressWarnings ( "unchecked" )
+    protected void cancelChildsLoad ( final E node )
+    {
+        if ( node.isLoading () && AsyncTreeQueue.cancel ( tree, node.getId () ) )
+        {
+            synchronized ( cacheLock )
+            {
+                childsLoads.remove ( node.getId () );
+            }
+            synchronized ( busyLock )
+            {
+                node.setState ( AsyncNodeState.waiting );
+                nodeChanged ( node );
+            }
+        }
+        for ( int i = 0; i < node.getChildCount (); i++ )
+        {
+            cancelChildsLoad ( ( E ) node.getChildAt ( i ) );
+        }
+    }
+
     /**
      * Sets child nodes for the specified node.
      * This method might be used to manually change tree node childs without causing any structure corruptions.
@@ -613,6 +750,7 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
         synchronized ( cacheLock )
         {
             rawNodeChildsCache.put ( parent.getId (), childs );
+            sortedNodeChildsCache.remove ( parent.getId () );
             cacheNodesById ( childs );
         }
 
@@ -680,6 +818,7 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
                 rawNodeChildsCache.put ( parent.getId (), cachedChilds );
             }
             cachedChilds.addAll ( childs );
+            sortedNodeChildsCache.remove ( parent.getId () );
             cacheNodesById ( childs );
         }
 
@@ -687,11 +826,8 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
         // That might be required in case nodes were moved inside of the tree
         clearNodeChildsCache ( childs, false );
 
-        // Inserting nodes
-        insertNodesIntoImpl ( childs, parent, parent.getChildCount () );
-
-        // Updating parent node sorting and filtering
-        updateSortingAndFiltering ( parent );
+        // Inserting accepted nodes at their sorted positions
+        insertChildsImpl ( filter ( parent, childs ), parent );
     }
 
     /**
@@ -725,8 +861,16 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
             {
                 childs.remove ( childNode );
             }
+            final List<E> sorted = sortedNodeChildsCache.get ( parentNode.getId () );
+            if ( sorted != null )
+            {
+                sorted.remove ( childNode );
+            }
         }
 
+        // Cancelling pending loads
+        cancelChildsLoad ( childNode );
+
         // Clearing node cache
         clearNodeChildsCache ( childNode, true );
 
@@ -734,10 +878,8 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
         childNode.removeAllChildren ();
 
         // Removing node from parent
+        // Other childs order and accept states are not affected by this
         super.removeNodeFromParent ( node );
-
-        // Updating parent node sorting and filtering
-        updateSortingAndFiltering ( parentNode );
     }
 
     // todo Implement when those methods will be separate from single one
@@ -782,16 +924,14 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
             childs.add ( index, childNode );
             cacheNodeById ( childNode );
         }
+        addSortedChild ( childNode, parentNode );
 
         // Clearing node cache
         // That might be required in case nodes were moved inside of the tree
         clearNodeChildsCache ( childNode, false );
 
-        // Inserting node
-        insertNodeIntoImpl ( childNode, parentNode, index );
-
-        // Updating parent node sorting and filtering
-        updateSortingAndFiltering ( parentNode );
+        // Inserting node at its sorted position if it is accepted
+        insertChildsImpl ( filter ( parentNode, Collections.singletonList ( childNode ) ), parentNode );
     }
 
     /**
@@ -820,6 +960,7 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
                 rawNodeChildsCache.put ( parent.getId (), childs );
             }
             childs.addAll ( index, children );
+            sortedNodeChildsCache.remove ( parent.getId () );
             cacheNodesById ( children );
         }
 
@@ -827,11 +968,8 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
         // That might be required in case nodes were moved inside of the tree
         clearNodeChildsCache ( children, false );
 
-        // Performing actual nodes insertion
-        insertNodesIntoImpl ( children, parent, index );
-
-        // Updating parent node sorting and filtering
-        updateSortingAndFiltering ( parent );
+        // Inserting accepted nodes at their sorted positions
+        insertChildsImpl ( filter ( parent, children ), parent );
     }
 
     /**
@@ -863,6 +1001,7 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
             {
                 childs.add ( index, children[ i ] );
             }
+            sortedNodeChildsCache.remove ( parent.getId () );
             cacheNodesById ( Arrays.asList ( children ) );
         }
 
@@ -870,11 +1009,8 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
         // That might be required in case nodes were moved inside of the tree
         clearNodeChildsCache ( children, false );
 
-        // Inserting nodes
-        insertNodesIntoImpl ( children, parent, index );
-
-        // Updating parent node sorting and filtering
-        updateSortingAndFiltering ( parent );
+        // Inserting accepted nodes at their sorted positions
+        insertChildsImpl ( filter ( parent, Arrays.asList ( children ) ), parent );
     }
 
     /**
@@ -892,6 +1028,95 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
         registerObserver ( child );
     }
 
+    /**
+     * Merges sorted batch of child nodes into already inserted childs of the parent node.
+     * In case there is no comparator for the parent node batch is simply appended to existing childs.
+     *
+     * @param children sorted batch of new child nodes
+     * @param parent   parent node
+     */
+    protected void insertNodesBatchImpl ( final List<E> children, final E parent )
+    {
+        // Resolving inserted nodes positions
+        final Comparator<E> comparator = dataProvider.getChildsComparator ( parent );
+        final int[] indices;
+        if ( comparator != null )
+        {
+            indices = getSortedIndices ( children, parent, comparator );
+        }
+        else
+        {
+            final int count = parent.getChildCount ();
+            indices = new int[ children.size () ];
+            for ( int j = 0; j < indices.length; j++ )
+            {
+                indices[ j ] = count + j;
+            }
+        }
+
+        // Inserting all nodes with a single childs shift
+        parent.insertAll ( children, indices );
+        nodesWereInserted ( parent, indices );
+
+        // Adding image observers
+        registerObservers ( children );
+    }
+
+    /**
+     * Returns indices at which sorted child nodes should be inserted into parent node childs sorted with the same comparator.
+     * New nodes are placed after existing equal ones. Large amounts of nodes are merged with existing childs in a single pass,
+     * otherwise each node position is found using binary search.
+     *
+     * @param children   sorted child nodes
+     * @param parent     parent node
+     * @param comparator childs comparator
+     * @return ascending indices of inserted nodes within the resulting childs list
+     */
+    @SuppressWarnings ( "unchecked" )
+    protected int[] getSortedIndices ( final List<E> children, final E parent, final Comparator<E> comparator )
+    {
+        final int count = parent.getChildCount ();
+        final int size = children.size ();
+        final int[] indices = new int[ size ];
+        if ( ( long ) size * ( 32 - Integer.numberOfLeadingZeros ( count ) ) > count )
+        {
+            // Merging with existing childs
+            int position = 0;
+            for ( int j = 0; j < size; j++ )
+            {
+                final E child = children.get ( j );
+                while ( position < count && comparator.compare ( child, ( E ) parent.getChildAt ( position ) ) >= 0 )
+                {
+                    position++;
+                }
+                indices[ j ] = position + j;
+            }
+        }
+        else
+        {
+            // Searching for each node position
+            for ( int j = 0; j < size; j++ )
+            {
+                int low = 0;
+                int high = count;
+                while ( low < high )
+                {
+                    final int middle = ( low + high ) >>> 1;
+                    if ( comparator.compare ( children.get ( j ), ( E ) parent.getChildAt ( middle ) ) < 0 )
+                    {
+                        high = middle;
+                    }
+                    else
+                    {
+                        low = middle + 1;
+                    }
+                }
+                indices[ j ] = low + j;
+            }
+        }
+        return indices;
+    }
+
     /**
      * Inserts a list of child nodes into parent node.
      *
@@ -952,37 +1177,104 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
         // We don't need to update root sorting as there is always one root in the tree
         if ( parentNode != null )
         {
-            // Process this action only if node childs are already loaded and cached
-            if ( parentNode.isLoaded () && rawNodeChildsCache.containsKey ( parentNode.getId () ) )
+            performWhenLoaded ( parentNode, new Runnable ()
             {
-                // Childs are already loaded, simply updating their sorting and filtering
-                performSortingAndFiltering ( parentNode, recursively );
-            }
-            else if ( parentNode.isLoading () )
+                @Override
+                public void run ()
+                {
+                    performSortingAndFiltering ( parentNode, recursively );
+                }
+            } );
+        }
+    }
+
+    /**
+     * Updates filtering for all loaded nodes.
+     * Unlike {@link #updateSortingAndFiltering()} this method doesn't re-sort childs, it only removes childs which are not accepted by
+     * filter anymore and inserts newly accepted ones at their sorted positions.
+     */
+    public void updateFiltering ()
+    {
+        updateFiltering ( getRoot (), true );
+    }
+
+    /**
+     * Updates filtering for the specified node childs.
+     *
+     * @param parentNode node which childs filtering should be updated
+     */
+    public void updateFiltering ( final E parentNode )
+    {
+        updateFiltering ( parentNode, false );
+    }
+
+    /**
+     * Updates filtering for the specified node childs.
+     *
+     * @param parentNode  node which childs filtering should be updated
+     * @param recursively whether should update the whole childs structure recursively or not
+     */
+    public void updateFiltering ( final E parentNode, final boolean recursively )
+    {
+        if ( parentNode != null )
+        {
+            performWhenLoaded ( parentNode, new Runnable ()
             {
-                // Childs are being loaded, wait until the operation finishes
-                addAsyncTreeModelListener ( new AsyncTreeModelAdapter ()
+                @Override
+                public void run ()
                 {
-                    @Override
-                    public void childsLoadCompleted ( final AsyncUniqueNode parent, final List childs )
+                    if ( recursively )
                     {
-                        if ( parentNode.getId ().equals ( parent.getId () ) )
-                        {
-                            removeAsyncTreeModelListener ( this );
-                            performSortingAndFiltering ( parentNode, recursively );
-                        }
+                        performFilteringRecursivelyImpl ( parentNode );
+                    }
+                    else
+                    {
+                        performFilteringImpl ( parentNode );
                     }
+                }
+            } );
+        }
+    }
 
-                    @Override
-                    public void childsLoadFailed ( final AsyncUniqueNode parent, final Throwable cause )
+    /**
+     * Performs specified action when node childs are loaded.
+     * Action is performed immediately if node childs are already loaded and cached.
+     *
+     * @param parentNode node which childs should be loaded
+     * @param action     action to perform
+     */
+    protected void performWhenLoaded ( final E parentNode, final Runnable action )
+    {
+        // Process this action only if node childs are already loaded and cached
+        if ( parentNode.isLoaded () && rawNodeChildsCache.containsKey ( parentNode.getId () ) )
+        {
+            // Childs are already loaded, simply performing action
+            action.run ();
+        }
+        else if ( parentNode.isLoading () )
+        {
+            // Childs are being loaded, wait until the operation finishes
+            addAsyncTreeModelListener ( new AsyncTreeModelAdapter ()
+            {
+                @Override
+                public void childsLoadCompleted ( final AsyncUniqueNode parent, final List childs )
+                {
+                    if ( parentNode.getId ().equals ( parent.getId () ) )
                     {
-                        if ( parentNode.getId ().equals ( parent.getId () ) )
-                        {
-                            removeAsyncTreeModelListener ( this );
-                        }
+                        removeAsyncTreeModelListener ( this );
+                        action.run ();
                     }
-                } );
-            }
+                }
+
+                @Override
+                public void childsLoadFailed ( final AsyncUniqueNode parent, final Throwable cause )
+                {
+                    if ( parentNode.getId ().equals ( parent.getId () ) )
+                    {
+                        removeAsyncTreeModelListener ( this );
+                    }
+                }
+            } );
         }
     }
 
@@ -1006,7 +1298,7 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
         }
         else
         {
-            performSortingAndFilteringImpl ( parentNode );
+            performSortingAndFilteringImpl ( parentNode, true );
         }
         nodeStructureChanged ( parentNode );
 
@@ -1015,25 +1307,39 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
     }
 
     /**
-     * Updates node childs using current comparator and filter.
+     * Updates node childs recursively using current comparator and filter.
+     * Deeper childs are updated first since filter might consider childs when accepting their parent.
      *
      * @param parentNode node to update
      */
     protected void performSortingAndFilteringRecursivelyImpl ( final E parentNode )
     {
-        performSortingAndFilteringImpl ( parentNode );
-        for ( int i = 0; i < parentNode.getChildCount (); i++ )
+        final List<E> childs = rawNodeChildsCache.get ( parentNode.getId () );
+        if ( childs != null )
         {
-            performSortingAndFilteringRecursivelyImpl ( ( E ) parentNode.getChildAt ( i ) );
+            for ( final E child : childs )
+            {
+                if ( child.isLoaded () )
+                {
+                    performSortingAndFilteringRecursivelyImpl ( child );
+                }
+                else if ( child.isLoading () )
+                {
+                    updateSortingAndFiltering ( child, true );
+                }
+            }
+            performSortingAndFilteringImpl ( parentNode, true );
         }
     }
 
     /**
-     * Updates node childs recursively using current comparator and filter.
+     * Updates node childs using current comparator and filter.
+     * Large amounts of childs are sorted in background and replaced once sorting is finished.
      *
      * @param parentNode node to update
+     * @param background whether large amounts of childs can be sorted in background or not
      */
-    protected void performSortingAndFilteringImpl ( final E parentNode )
+    protected void performSortingAndFilteringImpl ( final E parentNode, final boolean background )
     {
         // Retrieving raw childs
         final List<E> childs = rawNodeChildsCache.get ( parentNode.getId () );
@@ -1041,57 +1347,412 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
         // Process this action only if node childs are already loaded and cached
         if ( childs != null )
         {
-            // Removing old children
-            parentNode.removeAllChildren ();
+            // Dropping outdated sorted childs
+            synchronized ( cacheLock )
+            {
+                structureRevision++;
+                sortedNodeChildsCache.remove ( parentNode.getId () );
+            }
 
-            // Filtering and sorting raw childs
-            final List<E> realChilds = filterAndSort ( parentNode, childs );
+            final Comparator<E> comparator = dataProvider.getChildsComparator ( parentNode );
+            if ( background && comparator != null && ParallelSort.isParallel ( childs.size () ) )
+            {
+                // Sorting large amount of childs in background
+                sortInBackground ( parentNode, childs, comparator );
+            }
+            else
+            {
+                // Replacing old childs with filtered and sorted raw childs
+                sortingPasses.remove ( parentNode.getId () );
+                parentNode.setChilds ( filter ( parentNode, getSortedChilds ( parentNode ) ) );
+            }
+        }
+    }
+
+    /**
+     * Sorts specified node raw childs on a fork-join pool and replaces node childs with filtered sorted childs in EDT afterwards.
+     * Sorting result is dropped if another sorting was requested for the same node meanwhile.
+     *
+     * @param parentNode node to update
+     * @param childs     raw node childs
+     * @param comparator childs comparator
+     */
+    protected void sortInBackground ( final E parentNode, final List<E> childs, final Comparator<E> comparator )
+    {
+        final Integer pass = ++lastSortingPass;
+        sortingPasses.put ( parentNode.getId (), pass );
+        final int revision;
+        synchronized ( cacheLock )
+        {
+            revision = structureRevision;
+        }
+        final List<E> sorted = new ArrayList<E> ( childs );
+        ConcurrentUtils.getForkJoinPool ().execute ( new Runnable ()
+        {
+            @Override
+            public void run ()
+            {
+                List<E> result;
+                try
+                {
+                    ParallelSort.sort ( sorted, comparator );
+                    result = sorted;
+                }
+                catch ( final Throwable e )
+                {
+                    Log.error ( AsyncTreeModel.this, e );
+                    result = null;
+                }
+                final List<E> childs = result;
+                SwingUtils.invokeLater ( new Runnable ()
+                {
+                    @Override
+                    public void run ()
+                    {
+                        applySortedChilds ( parentNode, pass, revision, childs );
+                    }
+                } );
+            }
+        } );
+    }
+
+    /**
+     * Replaces node childs with filtered childs sorted in background.
+     * If tree structure was modified during sorting or sorting failed node childs are simply sorted once again right away.
+     *
+     * @param parentNode node to update
+     * @param pass       sorting pass ID
+     * @param revision   tree structure revision sorting was started at
+     * @param sorted     sorted raw childs or null if sorting failed
+     */
+    protected void applySortedChilds ( final E parentNode, final Integer pass, final int revision, final List<E> sorted )
+    {
+        // Skipping outdated sorting results
+        if ( !pass.equals ( sortingPasses.get ( parentNode.getId () ) ) )
+        {
+            return;
+        }
+        sortingPasses.remove ( parentNode.getId () );
+
+        // Node is being reloaded so its childs will be sorted anyway
+        if ( !parentNode.isLoaded () )
+        {
+            return;
+        }
+
+        // Saving tree state to restore it right after childs update
+        final TreeState treeState = tree.getTreeState ();
 
-            // Inserting new childs
-            for ( final E child : realChilds )
+        // Replacing node childs
+        final boolean upToDate;
+        synchronized ( cacheLock )
+        {
+            upToDate = sorted != null && revision == structureRevision;
+            if ( upToDate )
             {
-                parentNode.add ( child );
+                sortedNodeChildsCache.put ( parentNode.getId (), sorted );
             }
         }
+        if ( upToDate )
+        {
+            parentNode.setChilds ( filter ( parentNode, getSortedChilds ( parentNode ) ) );
+        }
+        else
+        {
+            performSortingAndFilteringImpl ( parentNode, false );
+        }
+        nodeStructureChanged ( parentNode );
+
+        // Restoring tree state including all selections and expansions
+        tree.setTreeState ( treeState );
     }
 
     /**
-     * Performs raw childs filtering and sorting before they can be passed into real tree and returns list of filtered and sorted childs.
+     * Updates node childs filtering recursively.
+     * Deeper childs are updated first since filter might consider childs when accepting their parent.
      *
-     * @param childs childs to filter and sort
-     * @return list of filtered and sorted childs
+     * @param parentNode node to update
      */
-    protected List<E> filterAndSort ( final E parentNode, List<E> childs )
+    protected void performFilteringRecursivelyImpl ( final E parentNode )
     {
-        // Simply return an empty array if there is no childs
-        if ( childs == null || childs.size () == 0 )
+        final List<E> childs = rawNodeChildsCache.get ( parentNode.getId () );
+        if ( childs != null )
         {
-            return new ArrayList<E> ( 0 );
+            for ( final E child : childs )
+            {
+                if ( child.isLoaded () )
+                {
+                    performFilteringRecursivelyImpl ( child );
+                }
+                else if ( child.isLoading () )
+                {
+                    updateFiltering ( child, true );
+                }
+            }
+            performFilteringImpl ( parentNode );
         }
+    }
 
-        // Filter and sort childs
-        final Filter<E> filter = dataProvider.getChildsFilter ( parentNode );
+    /**
+     * Updates node childs filtering.
+     * Sorted raw childs are checked in a single pass and only childs which accept state has changed are removed or inserted,
+     * so childs are never re-sorted on filter changes.
+     *
+     * @param parentNode node to update
+     */
+    protected void performFilteringImpl ( final E parentNode )
+    {
+        // Childs sorted in background will be filtered once sorting is finished
+        if ( sortingPasses.containsKey ( parentNode.getId () ) )
+        {
+            return;
+        }
+
+        // Process this action only if node childs are already loaded and cached
+        final List<E> sorted = getSortedChilds ( parentNode );
+        if ( sorted != null )
+        {
+            // Collecting childs which accept state has changed
+            // Child is currently accepted only if it is placed within its parent
+            // Accepted childs are placed in the same order as sorted raw childs, so their indices are simply counted
+            final Filter<E> filter = dataProvider.getChildsFilter ( parentNode );
+            final List<Integer> removedIndices = new ArrayList<Integer> ();
+            final List<E> removed = new ArrayList<E> ();
+            final List<Integer> insertedIndices = new ArrayList<Integer> ();
+            final List<E> inserted = new ArrayList<E> ();
+            final int count = parentNode.getChildCount ();
+            int oldIndex = 0;
+            int newIndex = 0;
+            for ( final E child : sorted )
+            {
+                final boolean visible = child.getParent () == parentNode;
+                if ( visible && ( oldIndex >= count || parentNode.getChildAt ( oldIndex ) != child ) )
+                {
+                    // Childs order doesn't match sorted raw childs, simply replacing all childs
+                    // Tree state is restored afterwards since structure change collapses all expanded childs
+                    final TreeState treeState = tree.getTreeState ();
+                    parentNode.setChilds ( filter ( parentNode, sorted ) );
+                    nodeStructureChanged ( parentNode );
+                    tree.setTreeState ( treeState );
+                    return;
+                }
+                final boolean accepted = filter == null || filter.accept ( child );
+                if ( visible )
+                {
+                    if ( accepted )
+                    {
+                        newIndex++;
+                    }
+                    else
+                    {
+                        removedIndices.add ( oldIndex );
+                        removed.add ( child );
+                    }
+                    oldIndex++;
+                }
+                else if ( accepted )
+                {
+                    insertedIndices.add ( newIndex );
+                    inserted.add ( child );
+                    newIndex++;
+                }
+            }
+
+            // Removing rejected childs with a single childs shift
+            if ( removed.size () > 0 )
+            {
+                final int[] indices = CollectionUtils.toArray ( removedIndices );
+                parentNode.removeAll ( indices );
+                nodesWereRemoved ( parentNode, indices, removed.toArray () );
+            }
+
+            // Inserting accepted childs with a single childs shift
+            if ( inserted.size () > 0 )
+            {
+                final int[] indices = CollectionUtils.toArray ( insertedIndices );
+                parentNode.insertAll ( inserted, indices );
+                nodesWereInserted ( parentNode, indices );
+                registerObservers ( inserted );
+            }
+        }
+    }
+
+    /**
+     * Returns raw childs of the specified node sorted with its childs comparator.
+     * Sorted childs include childs which are not accepted by filter, so filter changes never require childs re-sorting.
+     * Sorted childs are cached until node raw childs are changed in bulk or sorting is updated.
+     *
+     * @param parentNode parent node
+     * @return raw childs of the specified node sorted with its childs comparator or null if node childs are not loaded
+     */
+    protected List<E> getSortedChilds ( final E parentNode )
+    {
         final Comparator<E> comparator = dataProvider.getChildsComparator ( parentNode );
-        if ( filter != null )
+        while ( true )
         {
-            final List<E> filtered = CollectionUtils.filter ( childs, filter );
-            if ( comparator != null )
+            // Raw childs are copied under the lock and sorted outside of it
+            // This way sorting large amount of childs doesn't block other threads working with the cache
+            final List<E> sorted;
+            final int revision;
+            synchronized ( cacheLock )
+            {
+                final List<E> childs = rawNodeChildsCache.get ( parentNode.getId () );
+                if ( childs == null || comparator == null )
+                {
+                    return childs;
+                }
+                final List<E> cached = sortedNodeChildsCache.get ( parentNode.getId () );
+                if ( cached != null )
+                {
+                    return cached;
+                }
+                sorted = CollectionUtils.copy ( childs );
+                revision = structureRevision;
+            }
+            ParallelSort.sort ( sorted, comparator );
+
+            // Sorted childs are only used if tree structure wasn't changed while they were sorted, otherwise they are sorted again
+            synchronized ( cacheLock )
             {
-                Collections.sort ( filtered, comparator );
+                if ( revision == structureRevision )
+                {
+                    sortedNodeChildsCache.put ( parentNode.getId (), sorted );
+                    return sorted;
+                }
             }
-            return filtered;
         }
-        else
+    }
+
+    /**
+     * Places child node into cached sorted raw childs of the parent node if they are cached.
+     * New node is placed after existing equal ones, the same way it is placed among parent node childs.
+     *
+     * @param child  new child node
+     * @param parent parent node
+     */
+    protected void addSortedChild ( final E child, final E parent )
+    {
+        final Comparator<E> comparator = dataProvider.getChildsComparator ( parent );
+        synchronized ( cacheLock )
         {
+            final List<E> sorted = sortedNodeChildsCache.get ( parent.getId () );
+            if ( sorted != null )
+            {
+                if ( comparator != null )
+                {
+                    int low = 0;
+                    int high = sorted.size ();
+                    while ( low < high )
+                    {
+                        final int middle = ( low + high ) >>> 1;
+                        if ( comparator.compare ( child, sorted.get ( middle ) ) < 0 )
+                        {
+                            high = middle;
+                        }
+                        else
+                        {
+                            low = middle + 1;
+                        }
+                    }
+                    sorted.add ( low, child );
+                }
+                else
+                {
+                    sortedNodeChildsCache.remove ( parent.getId () );
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts accepted child nodes into parent node at their sorted positions.
+     * If there is no comparator for the parent node child nodes are placed according to raw childs order.
+     * Nodes must be already added into raw childs cache.
+     *
+     * @param children accepted child nodes
+     * @param parent   parent node
+     */
+    protected void insertChildsImpl ( final List<E> children, final E parent )
+    {
+        if ( children.size () > 0 )
+        {
+            final Comparator<E> comparator = dataProvider.getChildsComparator ( parent );
             if ( comparator != null )
             {
-                childs = CollectionUtils.copy ( childs );
-                Collections.sort ( childs, comparator );
+                // Inserting nodes using binary search
+                final List<E> sorted = new ArrayList<E> ( children );
+                ParallelSort.sort ( sorted, comparator );
+                insertNodesBatchImpl ( sorted, parent );
+            }
+            else
+            {
+                // Resolving positions according to raw childs order
+                final Set<E> inserted = Collections.newSetFromMap ( new IdentityHashMap<E, Boolean> ( children.size () ) );
+                inserted.addAll ( children );
+                final List<E> ordered = new ArrayList<E> ( children.size () );
+                final int[] indices = new int[ children.size () ];
+                int index = 0;
+                for ( final E child : rawNodeChildsCache.get ( parent.getId () ) )
+                {
+                    if ( inserted.contains ( child ) )
+                    {
+                        indices[ ordered.size () ] = index++;
+                        ordered.add ( child );
+                    }
+                    else if ( child.getParent () == parent )
+                    {
+                        index++;
+                    }
+                }
+
+                // Inserting all nodes with a single childs shift
+                final int[] positions = ordered.size () < indices.length ? Arrays.copyOf ( indices, ordered.size () ) : indices;
+                parent.insertAll ( ordered, positions );
+                nodesWereInserted ( parent, positions );
+
+                // Adding image observers
+                registerObservers ( ordered );
             }
-            return childs;
         }
     }
 
+    /**
+     * Returns list of raw childs accepted by the parent node childs filter.
+     *
+     * @param parentNode parent node
+     * @param childs     raw childs
+     * @return list of raw childs accepted by the parent node childs filter
+     */
+    protected List<E> filter ( final E parentNode, final List<E> childs )
+    {
+        final Filter<E> filter = dataProvider.getChildsFilter ( parentNode );
+        return filter != null ? CollectionUtils.filter ( childs, filter ) : CollectionUtils.copy ( childs );
+    }
+
+    /**
+     * Performs raw childs filtering and sorting before they can be passed into real tree and returns list of filtered and sorted childs.
+     *
+     * @param childs childs to filter and sort
+     * @return list of filtered and sorted childs
+     */
+    protected List<E> filterAndSort ( final E parentNode, final List<E> childs )
+    {
+        // Simply return an empty array if there is no childs
+        if ( childs == null || childs.size () == 0 )
+        {
+            return new ArrayList<E> ( 0 );
+        }
+
+        // Filter and sort childs
+        final List<E> filtered = filter ( parentNode, childs );
+        final Comparator<E> comparator = dataProvider.getChildsComparator ( parentNode );
+        if ( comparator != null )
+        {
+            ParallelSort.sort ( filtered, comparator );
+        }
+        return filtered;
+    }
+
     /**
      * Looks for the node with the specified ID in the tree model and returns it or null if it was not found.
      *
@@ -1247,4 +1908,230 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E>
             listener.childsLoadFailed ( parent, cause );
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Progressive childs load of a single node.
+     * Loaded batches are filtered and sorted in the loading thread and then merged into the node within EDT calls, each call inserts a
+     * limited amount of childs and schedules the next one, so EDT is never blocked by a single huge insertion.
+     */
+    protected class ChildsLoad
+    {
+        /**
+         * Node which childs are loaded.
+         */
+        protected final E parent;
+
+        /**
+         * Filtered and sorted childs waiting for insertion.
+         */
+        protected final LinkedList<E> pending = new LinkedList<E> ();
+
+        /**
+         * All filtered childs passed into insertion so far.
+         */
+        protected final List<E> loaded = new ArrayList<E> ();
+
+        /**
+         * Whether any batch was received or not.
+         * It is only accessed from the loading thread.
+         */
+        protected boolean received = false;
+
+        /**
+         * Whether last batch was received or not.
+         */
+        protected boolean completed = false;
+
+        /**
+         * Whether insertion call is scheduled or not.
+         */
+        protected boolean scheduled = false;
+
+        /**
+         * Whether this load was cancelled or not.
+         */
+        protected boolean cancelled = false;
+
+        /**
+         * Constructs new progressive childs load.
+         *
+         * @param parent node which childs are loaded
+         */
+        public ChildsLoad ( final E parent )
+        {
+            super ();
+            this.parent = parent;
+        }
+
+        /**
+         * Adds loaded batch of childs.
+         *
+         * @param childs loaded batch of childs
+         * @param last   whether this is the last batch or not
+         */
+        public void addBatch ( final List<E> childs, final boolean last )
+        {
+            // Caching raw childs
+            synchronized ( cacheLock )
+            {
+                if ( !isCurrent () )
+                {
+                    // Node was reloaded meanwhile, its caches must not be seeded with this load childs
+                    cancel ();
+                    return;
+                }
+                final List<E> raw = rawNodeChildsCache.get ( parent.getId () );
+                if ( received && raw != null )
+                {
+                    raw.addAll ( childs );
+                }
+                else
+                {
+                    rawNodeChildsCache.put ( parent.getId (), new ArrayList<E> ( childs ) );
+                }
+                received = true;
+                sortedNodeChildsCache.remove ( parent.getId () );
+                cacheNodesById ( childs );
+            }
+
+            // Filtering and sorting raw childs
+            final List<E> realChilds = filterAndSort ( parent, childs );
+
+            // Updating cache
+            synchronized ( cacheLock )
+            {
+                nodeCached.put ( parent.getId (), true );
+            }
+
+            // Scheduling insertion
+            synchronized ( this )
+            {
+                pending.addAll ( realChilds );
+                loaded.addAll ( realChilds );
+                completed = last;
+                if ( !scheduled )
+                {
+                    scheduled = true;
+                    SwingUtils.invokeLater ( new Runnable ()
+                    {
+                        @Override
+                        public void run ()
+                        {
+                            insertPending ();
+                        }
+                    } );
+                }
+            }
+        }
+
+        /**
+         * Returns whether this is the current load of the parent node childs or not.
+         * This method should be called within the cache lock.
+         *
+         * @return true if this is the current load of the parent node childs, false otherwise
+         */
+        protected boolean isCurrent ()
+        {
+            return childsLoads.get ( parent.getId () ) == this;
+        }
+
+        /**
+         * Unregisters this load if it is still the current one.
+         * This method should be called within the cache lock.
+         *
+         * @return true if this load was the current one, false otherwise
+         */
+        protected boolean finish ()
+        {
+            if ( isCurrent () )
+            {
+                childsLoads.remove ( parent.getId () );
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Cancels insertion of childs which are not yet inserted.
+         */
+        public synchronized void cancel ()
+        {
+            cancelled = true;
+            pending.clear ();
+        }
+
+        /**
+         * Inserts next part of pending childs.
+         * Finishes load once all childs are inserted and the last batch is received.
+         */
+        protected void insertPending ()
+        {
+            final List<E> part;
+            final boolean finished;
+            final boolean hasMore;
+            synchronized ( this )
+            {
+                if ( cancelled )
+                {
+                    scheduled = false;
+                    return;
+                }
+                final int amount = Math.min ( pending.size (), insertBatchSize );
+                part = new ArrayList<E> ( amount );
+                for ( int i = 0; i < amount; i++ )
+                {
+                    part.add ( pending.removeFirst () );
+                }
+                hasMore = !pending.isEmpty ();
+                finished = completed && !hasMore;
+                scheduled = hasMore;
+            }
+
+            // Inserting sorted part of childs
+            if ( part.size () > 0 )
+            {
+                final Comparator<E> comparator = dataProvider.getChildsComparator ( parent );
+                if ( comparator != null )
+                {
+                    Collections.sort ( part, comparator );
+                }
+                insertNodesBatchImpl ( part, parent );
+            }
+
+            if ( hasMore )
+            {
+                // Leaving EDT for other events before inserting next part
+                SwingUtilities.invokeLater ( new Runnable ()
+                {
+                    @Override
+                    public void run ()
+                    {
+                        insertPending ();
+                    }
+                } );
+            }
+            else if ( finished )
+            {
+                // Unregistering finished load
+                synchronized ( cacheLock )
+                {
+                    if ( !finish () )
+                    {
+                        // Node was reloaded meanwhile
+                        return;
+                    }
+                }
+
+                // Releasing node busy state
+                synchronized ( busyLock )
+                {
+                    parent.setState ( AsyncNodeState.loaded );
+                    nodeChanged ( parent );
+                }
+
+                // Firing load completed event
+                fireChildsLoadCompleted ( parent, loaded );
+            }
+        }
+    }
+}
@@ -17,15 +17,23 @@
 
 package com.alee.extended.tree;
 
+import com.alee.managers.log.Log;
 import com.alee.utils.concurrent.DaemonThreadFactory;
 
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Asynchronous tree childs loading queue.
+ * <p/>
+ * All queues share a single scheduler with global threads budget.
+ * Scheduled tasks are started according to their {@link com.alee.extended.tree.AsyncLoadPriority} and then in FIFO order.
+ * Each queue keeps its own ordered pending tasks and only the first task of each queue which is able to start more tasks is kept
+ * in the shared ready set, so starting next task never scans through tasks of queues which reached their threads limit.
+ * Tasks bound to a node are coalesced, so scheduling another load of the same node while previous one is still pending only raises
+ * pending task priority if needed. Pending tasks can be cancelled, for example when node gets collapsed or removed.
  *
  * @author Mikle Garin
  */
@@ -40,23 +48,95 @@ public final class AsyncTreeQueue
 
     /**
      * Whether to use threads mount limit for each separate asynchronous tree or for all existing asynchronous trees.
+     * In case this is set to true each tree is limited by its own threads amount and all trees together are limited by global threads
+     * amount, otherwise all trees together are limited by {@link #threadsAmount}.
      */
     public static boolean separateLimitForEachTree = true;
 
+    /**
+     * Maximum threads amount to run all asynchronous trees requests in when each tree has its own limit.
+     * Zero disables global threads limit.
+     */
+    private static int globalThreadsAmount = Math.max ( threadsAmount, Runtime.getRuntime ().availableProcessors () );
+
     /**
      * Currently cached queues list.
      */
     private static final Map<WebAsyncTree, AsyncTreeQueue> queues = new WeakHashMap<WebAsyncTree, AsyncTreeQueue> ();
 
     /**
-     * Lock for ExecutorService calls synchronization.
+     * Lock for scheduler calls synchronization.
+     */
+    private static final Object lock = new Object ();
+
+    /**
+     * First pending tasks of queues which can start more tasks ordered by priority and scheduling order.
+     * Queues which reached their threads limit are blocked and don't have their tasks here until one of their running tasks finishes.
+     */
+    private static final TreeSet<Task> ready = new TreeSet<Task> ();
+
+    /**
+     * Amount of pending tasks of all queues.
+     */
+    private static int pending = 0;
+
+    /**
+     * Value of {@link #separateLimitForEachTree} queues ready state was last updated for.
+     */
+    private static boolean separateLimit = separateLimitForEachTree;
+
+    /**
+     * Amount of currently running tasks of all queues.
+     */
+    private static int running = 0;
+
+    /**
+     * Tasks scheduling counter used to keep FIFO order among tasks with equal priority.
+     */
+    private static long sequence = 0;
+
+    /**
+     * ExecutorService running started tasks.
+     * Amount of simultaneously running tasks is limited by the scheduler itself.
+     */
+    private static ExecutorService executorService = null;
+
+    /**
+     * Maximum threads amount for this queue.
+     */
+    private int maximumThreadsAmount = threadsAmount;
+
+    /**
+     * Whether this queue was shut down or not.
+     */
+    private boolean shutdown = false;
+
+    /**
+     * Pending tasks of this queue ordered by priority and scheduling order.
+     */
+    private final TreeSet<Task> queued = new TreeSet<Task> ();
+
+    /**
+     * First pending task of this queue added into ready tasks set, null if this queue is blocked or has no pending tasks.
+     */
+    private Task readyTask = null;
+
+    /**
+     * Pending tasks of this queue bound to nodes mapped by node IDs.
      */
-    private final Object lock = new Object ();
+    private final Map<String, Task> pendingByNode = new HashMap<String, Task> ();
 
     /**
-     * ExecutorService to limit simultaneously running threads.
+     * Queue statistics.
      */
-    private ExecutorService executorService = Executors.newFixedThreadPool ( threadsAmount, new DaemonThreadFactory () );
+    private int pendingTasks = 0;
+    private int runningTasks = 0;
+    private long startedTasks = 0;
+    private long coalescedTasks = 0;
+    private long cancelledTasks = 0;
+    private long lastWaitTime = 0;
+    private long maxWaitTime = 0;
+    private long totalWaitTime = 0;
 
     /**
      * Sets maximum threads amount for the specified asynchronous tree.
@@ -69,6 +149,33 @@ public final class AsyncTreeQueue
         getInstance ( asyncTree ).setMaximumThreadsAmount ( amount );
     }
 
+    /**
+     * Returns maximum threads amount to run all asynchronous trees requests in when each tree has its own limit.
+     *
+     * @return maximum threads amount to run all asynchronous trees requests in when each tree has its own limit
+     */
+    public static int getGlobalThreadsAmount ()
+    {
+        synchronized ( lock )
+        {
+            return globalThreadsAmount;
+        }
+    }
+
+    /**
+     * Sets maximum threads amount to run all asynchronous trees requests in when each tree has its own limit.
+     *
+     * @param amount maximum threads amount, zero to disable global threads limit
+     */
+    public static void setGlobalThreadsAmount ( final int amount )
+    {
+        synchronized ( lock )
+        {
+            globalThreadsAmount = amount;
+            dispatch ();
+        }
+    }
+
     /**
      * Executes runnable using queue for the specified asynchronous tree.
      *
@@ -81,56 +188,77 @@ public final class AsyncTreeQueue
     }
 
     /**
-     * Returns an instance of queue for the specified asynchronous tree.
-     * This method might return the same queue for all trees depending on "separateLimitForEachTree" variable value.
+     * Executes node-bound runnable using queue for the specified asynchronous tree.
+     * If there is a pending task for the same node already it is returned instead and specified runnable is discarded.
      *
      * @param asyncTree asynchronous tree to process
-     * @return an instance of queue for the specified asynchronous tree
+     * @param nodeId    ID of the node this task is bound to
+     * @param priority  task priority
+     * @param runnable  runnable to execute
+     * @return scheduled task
      */
-    public static AsyncTreeQueue getInstance ( final WebAsyncTree asyncTree )
+    public static Task execute ( final WebAsyncTree<?> asyncTree, final String nodeId, final AsyncLoadPriority priority,
+                                 final Runnable runnable )
     {
-        if ( separateLimitForEachTree )
-        {
-            return getInstanceImpl ( asyncTree );
-        }
-        else
-        {
-            return getInstanceImpl ( null );
-        }
+        return getInstance ( asyncTree ).execute ( nodeId, priority, runnable );
+    }
+
+    /**
+     * Cancels pending task bound to the specified node.
+     *
+     * @param asyncTree asynchronous tree to process
+     * @param nodeId    ID of the node task is bound to
+     * @return true if pending task was cancelled, false if there was no pending task for that node
+     */
+    public static boolean cancel ( final WebAsyncTree<?> asyncTree, final String nodeId )
+    {
+        return getInstance ( asyncTree ).cancel ( nodeId );
     }
 
     /**
      * Returns an instance of queue for the specified asynchronous tree.
+     * Each tree has its own queue which holds its limit and statistics, but all queues share the same scheduler.
      *
      * @param asyncTree asynchronous tree to process
      * @return an instance of queue for the specified asynchronous tree
      */
-    private static AsyncTreeQueue getInstanceImpl ( final WebAsyncTree asyncTree )
+    public static AsyncTreeQueue getInstance ( final WebAsyncTree asyncTree )
     {
-        AsyncTreeQueue queue = queues.get ( asyncTree );
-        if ( queue == null )
+        synchronized ( lock )
         {
-            // Shutting down all tree-specific queues since the queue generation rule has changed
-            if ( asyncTree == null )
+            AsyncTreeQueue queue = queues.get ( asyncTree );
+            if ( queue == null )
             {
-                shutdownAllQueues ();
+                queue = new AsyncTreeQueue ();
+                queues.put ( asyncTree, queue );
             }
+            return queue;
+        }
+    }
 
-            // Creating new queue
-            queue = new AsyncTreeQueue ();
-            queues.put ( asyncTree, queue );
+    /**
+     * Returns amount of pending tasks of all queues.
+     *
+     * @return amount of pending tasks of all queues
+     */
+    public static int getTotalPendingTasks ()
+    {
+        synchronized ( lock )
+        {
+            return pending;
         }
-        return queue;
     }
 
     /**
-     * Forces all queues to shutdown.
+     * Returns amount of running tasks of all queues.
+     *
+     * @return amount of running tasks of all queues
      */
-    private static void shutdownAllQueues ()
+    public static int getTotalRunningTasks ()
     {
-        for ( final Map.Entry<WebAsyncTree, AsyncTreeQueue> queueEntry : queues.entrySet () )
+        synchronized ( lock )
         {
-            queueEntry.getValue ().shutdown ();
+            return running;
         }
     }
 
@@ -145,58 +273,519 @@ public final class AsyncTreeQueue
     /**
      * Sets maximum threads amount for this queue.
      *
-     * @param amount maximum threads amount for this queue
+     * @param amount maximum threads amount for this queue, zero to disable this queue limit
      */
     public void setMaximumThreadsAmount ( final int amount )
     {
         synchronized ( lock )
         {
-            if ( executorService != null )
+            maximumThreadsAmount = amount;
+            updateReadyState ();
+            dispatch ();
+        }
+    }
+
+    /**
+     * Shutdowns this queue.
+     * Already scheduled tasks will still be executed, but no new tasks will be accepted.
+     */
+    public void shutdown ()
+    {
+        synchronized ( lock )
+        {
+            shutdown = true;
+        }
+    }
+
+    /**
+     * Executes runnable using this queue.
+     *
+     * @param runnable runnable to execute
+     */
+    public void execute ( final Runnable runnable )
+    {
+        execute ( null, AsyncLoadPriority.expansion, runnable );
+    }
+
+    /**
+     * Executes node-bound runnable using this queue.
+     * If there is a pending task for the same node already it is returned instead and specified runnable is discarded.
+     *
+     * @param nodeId   ID of the node this task is bound to, null if task is not bound to any node
+     * @param priority task priority
+     * @param runnable runnable to execute
+     * @return scheduled task
+     */
+    public Task execute ( final String nodeId, final AsyncLoadPriority priority, final Runnable runnable )
+    {
+        synchronized ( lock )
+        {
+            if ( shutdown )
             {
-                executorService.shutdown ();
+                throw new RejectedExecutionException ( "Queue is shut down" );
             }
-            if ( amount > 0 )
+
+            // Coalescing with pending load of the same node
+            if ( nodeId != null )
             {
-                executorService = Executors.newFixedThreadPool ( amount, new DaemonThreadFactory () );
+                final Task existing = pendingByNode.get ( nodeId );
+                if ( existing != null )
+                {
+                    coalescedTasks++;
+                    if ( priority.ordinal () < existing.priority.ordinal () )
+                    {
+                        // Task must be removed from ordered sets before its priority is changed
+                        removeTask ( existing );
+                        existing.priority = priority;
+                        addTask ( existing );
+                        dispatch ();
+                    }
+                    return existing;
+                }
             }
-            else
+
+            // Scheduling new task
+            final Task task = new Task ( this, nodeId, priority, runnable, sequence++ );
+            if ( nodeId != null )
             {
-                executorService = null;
+                pendingByNode.put ( nodeId, task );
             }
+            addTask ( task );
+            pending++;
+            pendingTasks++;
+            dispatch ();
+            return task;
         }
     }
 
     /**
-     * Shutdowns this queue.
+     * Cancels pending task bound to the specified node.
+     *
+     * @param nodeId ID of the node task is bound to
+     * @return true if pending task was cancelled, false if there was no pending task for that node
      */
-    public void shutdown ()
+    public boolean cancel ( final String nodeId )
+    {
+        synchronized ( lock )
+        {
+            final Task task = pendingByNode.get ( nodeId );
+            return task != null && task.cancel ();
+        }
+    }
+
+    /**
+     * Returns amount of pending tasks of this queue.
+     *
+     * @return amount of pending tasks of this queue
+     */
+    public int getQueueDepth ()
+    {
+        synchronized ( lock )
+        {
+            return pendingTasks;
+        }
+    }
+
+    /**
+     * Returns amount of running tasks of this queue.
+     *
+     * @return amount of running tasks of this queue
+     */
+    public int getRunningTasks ()
+    {
+        synchronized ( lock )
+        {
+            return runningTasks;
+        }
+    }
+
+    /**
+     * Returns amount of tasks of this queue started so far.
+     *
+     * @return amount of tasks of this queue started so far
+     */
+    public long getStartedTasks ()
     {
         synchronized ( lock )
         {
-            if ( executorService != null )
+            return startedTasks;
+        }
+    }
+
+    /**
+     * Returns amount of tasks of this queue coalesced with already pending tasks.
+     *
+     * @return amount of tasks of this queue coalesced with already pending tasks
+     */
+    public long getCoalescedTasks ()
+    {
+        synchronized ( lock )
+        {
+            return coalescedTasks;
+        }
+    }
+
+    /**
+     * Returns amount of cancelled tasks of this queue.
+     *
+     * @return amount of cancelled tasks of this queue
+     */
+    public long getCancelledTasks ()
+    {
+        synchronized ( lock )
+        {
+            return cancelledTasks;
+        }
+    }
+
+    /**
+     * Returns time in nanoseconds the last started task of this queue spent waiting.
+     *
+     * @return time in nanoseconds the last started task of this queue spent waiting
+     */
+    public long getLastWaitTime ()
+    {
+        synchronized ( lock )
+        {
+            return lastWaitTime;
+        }
+    }
+
+    /**
+     * Returns maximum time in nanoseconds a task of this queue spent waiting.
+     *
+     * @return maximum time in nanoseconds a task of this queue spent waiting
+     */
+    public long getMaxWaitTime ()
+    {
+        synchronized ( lock )
+        {
+            return maxWaitTime;
+        }
+    }
+
+    /**
+     * Returns average time in nanoseconds tasks of this queue spent waiting.
+     *
+     * @return average time in nanoseconds tasks of this queue spent waiting
+     */
+    public long getAverageWaitTime ()
+    {
+        synchronized ( lock )
+        {
+            return startedTasks > 0 ? totalWaitTime / startedTasks : 0;
+        }
+    }
+
+    /**
+     * Resets queue statistics.
+     */
+    public void resetStatistics ()
+    {
+        synchronized ( lock )
+        {
+            startedTasks = 0;
+            coalescedTasks = 0;
+            cancelledTasks = 0;
+            lastWaitTime = 0;
+            maxWaitTime = 0;
+            totalWaitTime = 0;
+        }
+    }
+
+    /**
+     * Returns whether this queue can start one more task or not.
+     * Should be called within the lock.
+     *
+     * @return true if this queue can start one more task, false otherwise
+     */
+    private boolean canStart ()
+    {
+        return !separateLimitForEachTree || maximumThreadsAmount <= 0 || runningTasks < maximumThreadsAmount;
+    }
+
+    /**
+     * Adds pending task into this queue.
+     * Should be called within the lock.
+     *
+     * @param task task to add
+     */
+    private void addTask ( final Task task )
+    {
+        queued.add ( task );
+        updateReadyState ();
+    }
+
+    /**
+     * Removes pending task from this queue.
+     * Should be called within the lock.
+     *
+     * @param task task to remove
+     */
+    private void removeTask ( final Task task )
+    {
+        if ( readyTask == task )
+        {
+            ready.remove ( task );
+            readyTask = null;
+        }
+        queued.remove ( task );
+        updateReadyState ();
+    }
+
+    /**
+     * Updates first pending task of this queue within the ready tasks set according to this queue state.
+     * Should be called within the lock whenever pending tasks or threads limit of this queue change.
+     */
+    private void updateReadyState ()
+    {
+        final Task first = !queued.isEmpty () && canStart () ? queued.first () : null;
+        if ( readyTask != first )
+        {
+            if ( readyTask != null )
             {
-                executorService.shutdown ();
+                ready.remove ( readyTask );
+            }
+            readyTask = first;
+            if ( first != null )
+            {
+                ready.add ( first );
             }
         }
     }
 
     /**
-     * Executes runnable using this queue.
+     * Starts pending tasks while threads budget allows.
+     * Should be called within the lock.
+     */
+    private static void dispatch ()
+    {
+        // Limit mode affects all queues, so their ready state is updated once it changes
+        if ( separateLimit != separateLimitForEachTree )
+        {
+            separateLimit = separateLimitForEachTree;
+            for ( final AsyncTreeQueue queue : queues.values () )
+            {
+                queue.updateReadyState ();
+            }
+        }
+
+        final int limit = separateLimitForEachTree ? globalThreadsAmount : threadsAmount;
+        while ( ( limit <= 0 || running < limit ) && !ready.isEmpty () )
+        {
+            final Task task = ready.pollFirst ();
+            final AsyncTreeQueue queue = task.queue;
+            queue.readyTask = null;
+            queue.queued.remove ( task );
+            start ( task );
+            queue.updateReadyState ();
+        }
+    }
+
+    /**
+     * Starts specified task.
+     * Should be called within the lock.
      *
-     * @param runnable runnable to execute
+     * @param task task to start
      */
-    public void execute ( final Runnable runnable )
+    private static void start ( final Task task )
     {
-        synchronized ( lock )
+        final AsyncTreeQueue queue = task.queue;
+        if ( task.nodeId != null )
+        {
+            queue.pendingByNode.remove ( task.nodeId );
+        }
+        task.started = true;
+        running++;
+        pending--;
+        queue.pendingTasks--;
+        queue.runningTasks++;
+        queue.startedTasks++;
+        final long wait = System.nanoTime () - task.scheduled;
+        queue.lastWaitTime = wait;
+        queue.maxWaitTime = Math.max ( queue.maxWaitTime, wait );
+        queue.totalWaitTime += wait;
+
+        if ( executorService == null )
+        {
+            executorService = Executors.newCachedThreadPool ( new DaemonThreadFactory () );
+        }
+        executorService.execute ( new Runnable ()
+        {
+            @Override
+            public void run ()
+            {
+                try
+                {
+                    task.runnable.run ();
+                }
+                catch ( final Throwable e )
+                {
+                    Log.error ( AsyncTreeQueue.class, e );
+                }
+                finally
+                {
+                    synchronized ( lock )
+                    {
+                        running--;
+                        queue.runningTasks--;
+                        queue.updateReadyState ();
+                        dispatch ();
+                    }
+                }
+            }
+        } );
+    }
+
+    /**
+     * Scheduled task.
+     */
+    public static final class Task implements Comparable<Task>
+    {
+        /**
+         * Queue this task belongs to.
+         */
+        private final AsyncTreeQueue queue;
+
+        /**
+         * ID of the node this task is bound to.
+         */
+        private final String nodeId;
+
+        /**
+         * Task priority.
+         */
+        private AsyncLoadPriority priority;
+
+        /**
+         * Task runnable.
+         */
+        private final Runnable runnable;
+
+        /**
+         * Scheduling order.
+         */
+        private final long order;
+
+        /**
+         * Scheduling time.
+         */
+        private final long scheduled;
+
+        /**
+         * Whether task was started or not.
+         */
+        private boolean started = false;
+
+        /**
+         * Whether task was cancelled or not.
+         */
+        private boolean cancelled = false;
+
+        /**
+         * Constructs new task.
+         *
+         * @param queue    queue this task belongs to
+         * @param nodeId   ID of the node this task is bound to
+         * @param priority task priority
+         * @param runnable task runnable
+         * @param order    scheduling order
+         */
+        private Task ( final AsyncTreeQueue queue, final String nodeId, final AsyncLoadPriority priority, final Runnable runnable,
+                       final long order )
         {
-            if ( executorService != null )
+            super ();
+            this.queue = queue;
+            this.nodeId = nodeId;
+            this.priority = priority;
+            this.runnable = runnable;
+            this.order = order;
+            this.scheduled = System.nanoTime ();
+        }
+
+        /**
+         * Returns ID of the node this task is bound to.
+         *
+         * @return ID of the node this task is bound to
+         */
+        public String getNodeId ()
+        {
+            return nodeId;
+        }
+
+        /**
+         * Returns task priority.
+         *
+         * @return task priority
+         */
+        public AsyncLoadPriority getPriority ()
+        {
+            synchronized ( lock )
             {
-                executorService.execute ( runnable );
+                return priority;
             }
-            else
+        }
+
+        /**
+         * Returns whether task was started or not.
+         *
+         * @return true if task was started, false otherwise
+         */
+        public boolean isStarted ()
+        {
+            synchronized ( lock )
+            {
+                return started;
+            }
+        }
+
+        /**
+         * Returns whether task was cancelled or not.
+         *
+         * @return true if task was cancelled, false otherwise
+         */
+        public boolean isCancelled ()
+        {
+            synchronized ( lock )
             {
-                new Thread ( runnable, "AsyncTreeQueue" ).start ();
+                return cancelled;
             }
         }
+
+        /**
+         * Cancels this task unless it is already started.
+         *
+         * @return true if task was cancelled, false if it is already started or cancelled
+         */
+        public boolean cancel ()
+        {
+            synchronized ( lock )
+            {
+                if ( started || cancelled )
+                {
+                    return false;
+                }
+                cancelled = true;
+                queue.removeTask ( this );
+                if ( nodeId != null )
+                {
+                    queue.pendingByNode.remove ( nodeId );
+                }
+                pending--;
+                queue.pendingTasks--;
+                queue.cancelledTasks++;
+                return true;
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int compareTo ( final Task task )
+        {
+            final int byPriority = priority.compareTo ( task.priority );
+            return byPriority != 0 ? byPriority : order < task.order ? -1 : order > task.order ? 1 : 0;
+        }
     }
-}
\ No newline at end of file
+}
@@ -27,6 +27,15 @@ import java.util.List;
 
 public interface ChildsListener<E extends AsyncUniqueNode>
 {
+    /**
+     * Informs model that another batch of childs was loaded while loading still continues.
+     * Batches are filtered, sorted and inserted into the tree progressively as they arrive.
+     * {@link #childsLoadCompleted(java.util.List)} must still be called once loading is finished with the last batch or an empty list.
+     *
+     * @param childs batch of loaded childs
+     */
+    public void childsBatchLoaded ( List<E> childs );
+
     /**
      * Informs model that childs were loaded successfully.
      *
@@ -26,6 +26,7 @@ import com.alee.utils.MapUtils;
 import com.alee.utils.SwingUtils;
 import com.alee.utils.collection.DoubleMap;
 import com.alee.utils.compare.Filter;
+import com.alee.utils.concurrent.ParallelSort;
 
 import javax.swing.tree.MutableTreeNode;
 import javax.swing.tree.TreeNode;
@@ -73,12 +74,26 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E>
      */
     protected final Map<String, List<E>> rawNodeChildsCache = new HashMap<String, List<E>> ();
 
+    /**
+     * Cache for sorted raw childs (parent ID -> list of raw child nodes sorted with parent node childs comparator).
+     * Unlike actual node childs this list also contains childs which are not accepted by filter.
+     * It is used to update node childs on filter changes without re-sorting them.
+     */
+    protected final Map<String, List<E>> sortedNodeChildsCache = new HashMap<String, List<E>> ();
+
     /**
      * Direct nodes cache (node ID -> node).
      * Used for quick node search within the tree.
      */
     protected final DoubleMap<String, E> nodeById = new DoubleMap<String, E> ();
 
+    /**
+     * Tree structure revision.
+     * It is incremented on any raw childs or sorting change and used to check whether childs sorted outside of the cache lock are
+     * still up-to-date.
+     */
+    protected int structureRevision = 0;
+
     /**
      * Constructs default ex tree model using custom data provider.
      *
@@ -237,6 +252,8 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E>
     {
         synchronized ( cacheLock )
         {
+            structureRevision++;
+
             // Clears node cache
             if ( clearNode )
             {
@@ -248,6 +265,7 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E>
 
             // Clears node raw childs cache
             final List<E> children = rawNodeChildsCache.remove ( node.getId () );
+            sortedNodeChildsCache.remove ( node.getId () );
 
             // Clears chld nodes cache
             if ( children != null )
@@ -300,6 +318,7 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E>
     {
         synchronized ( cacheLock )
         {
+            structureRevision++;
             nodeById.put ( node.getId (), node );
         }
     }
@@ -313,6 +332,7 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E>
     {
         synchronized ( cacheLock )
         {
+            structureRevision++;
             for ( final E node : nodes )
             {
                 nodeById.put ( node.getId (), node );
@@ -337,6 +357,7 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E>
         synchronized ( cacheLock )
         {
             rawNodeChildsCache.put ( parent.getId (), childs );
+            sortedNodeChildsCache.remove ( parent.getId () );
             cacheNodesById ( childs );
         }
 
@@ -373,6 +394,7 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E>
         synchronized ( cacheLock )
         {
             rawNodeChildsCache.put ( parent.getId (), childs );
+            sortedNodeChildsCache.remove ( parent.getId () );
             cacheNodesById ( childs );
         }
 
@@ -424,6 +446,7 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E>
                 rawNodeChildsCache.put ( parent.getId (), cachedChilds );
             }
             cachedChilds.addAll ( childs );
+            sortedNodeChildsCache.remove ( parent.getId () );
             cacheNodesById ( childs );
         }
 
@@ -431,11 +454,8 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E>
         // That might be required in case nodes were moved inside of the tree
         clearNodeChildsCache ( childs, false );
 
-        // Inserting nodes
-        insertNodesIntoImpl ( childs, parent, parent.getChildCount () );
-
-        // Updating parent node sorting and filtering
-        updateSortingAndFiltering ( parent );
+        // Inserting accepted nodes at their sorted positions
+        insertChildsImpl ( filter ( parent, childs ), parent );
     }
 
     /**
@@ -469,6 +489,11 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E>
             {
                 childs.remove ( childNode );
             }
+            final List<E> sorted = sortedNodeChildsCache.get ( parentNode.getId () );
+            if ( sorted != null )
+            {
+                sorted.remove ( childNode );
+            }
         }
 
         // Clearing node cache
@@ -478,10 +503,8 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E>
         childNode.removeAllChildren ();
 
         // Removing node from parent
+        // Other childs order and accept states are not affected by this
         super.removeNodeFromParent ( node );
-
-        // Updating parent node sorting and filtering
-        updateSortingAndFiltering ( parentNode );
     }
 
     // todo Implement when those methods will be separate from single one
@@ -520,16 +543,14 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E>
             childs.add ( index, childNode );
             cacheNodeById ( childNode );
         }
+        addSortedChild ( childNode, parentNode );
 
         // Clearing node cache
         // That might be required in case nodes were moved inside of the tree
         clearNodeChildsCache ( childNode, false );
 
-        // Inserting node
-        insertNodeIntoImpl ( childNode, parentNode, index );
-
-        // Updating parent node sorting and filtering
-        updateSortingAndFiltering ( parentNode );
+        // Inserting node at its sorted position if it is accepted
+        insertChildsImpl ( filter ( parentNode, Collections.singletonList ( childNode ) ), parentNode );
     }
 
     /**
@@ -552,6 +573,7 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E>
                 rawNodeChildsCache.put ( parent.getId (), childs );
             }
             childs.addAll ( index, children );
+            sortedNodeChildsCache.remove ( parent.getId () );
             cacheNodesById ( children );
         }
 
@@ -559,11 +581,8 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E>
         // That might be required in case nodes were moved inside of the tree
         clearNodeChildsCache ( children, false );
 
-        // Performing actual nodes insertion
-        insertNodesIntoImpl ( children, parent, index );
-
-        // Updating parent node sorting and filtering
-        updateSortingAndFiltering ( parent );
+        // Inserting accepted nodes at their sorted positions
+        insertChildsImpl ( filter ( parent, children ), parent );
     }
 
     /**
@@ -589,6 +608,7 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E>
             {
                 childs.add ( index, children[ i ] );
             }
+            sortedNodeChildsCache.remove ( parent.getId () );
             cacheNodesById ( Arrays.asList ( children ) );
         }
 
@@ -596,11 +616,8 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E>
         // That might be required in case nodes were moved inside of the tree
         clearNodeChildsCache ( children, false );
 
-        // Inserting nodes
-        insertNodesIntoImpl ( children, parent, index );
-
-        // Updating parent node sorting and filtering
-        updateSortingAndFiltering ( parent );
+        // Inserting accepted nodes at their sorted positions
+        insertChildsImpl ( filter ( parent, Arrays.asList ( children ) ), parent );
     }
 
     /**
@@ -702,21 +719,27 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E>
     }
 
     /**
-     * Updates node childs using current comparator and filter.
+     * Updates node childs recursively using current comparator and filter.
+     * Deeper childs are updated first since filter might consider childs when accepting their parent.
      *
      * @param parentNode node to update
      */
     protected void performSortingAndFilteringRecursivelyImpl ( final E parentNode )
     {
-        performSortingAndFilteringImpl ( parentNode );
-        for ( int i = 0; i < parentNode.getChildCount (); i++ )
+        final List<E> childs = rawNodeChildsCache.get ( parentNode.getId () );
+        if ( childs != null )
         {
-            performSortingAndFilteringRecursivelyImpl ( ( E ) parentNode.getChildAt ( i ) );
+            for ( final E child : childs )
+            {
+                performSortingAndFilteringRecursivelyImpl ( child );
+            }
+            performSortingAndFilteringImpl ( parentNode );
         }
     }
 
     /**
-     * Updates node childs recursively using current comparator and filter.
+     * Updates node childs using current comparator and filter.
+     * Large amounts of childs are sorted on a fork-join pool.
      *
      * @param parentNode node to update
      */
@@ -728,55 +751,383 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E>
         // Process this action only if node childs are already loaded and cached
         if ( childs != null )
         {
-            // Removing old children
-            parentNode.removeAllChildren ();
+            // Dropping outdated sorted childs
+            synchronized ( cacheLock )
+            {
+                structureRevision++;
+                sortedNodeChildsCache.remove ( parentNode.getId () );
+            }
+
+            // Replacing old childs with filtered and sorted raw childs
+            parentNode.setChilds ( filter ( parentNode, getSortedChilds ( parentNode ) ) );
+        }
+    }
+
+    /**
+     * Updates filtering for all nodes.
+     * Unlike {@link #updateSortingAndFiltering()} this method doesn't re-sort childs, it only removes childs which are not accepted by
+     * filter anymore and inserts newly accepted ones at their sorted positions.
+     */
+    public void updateFiltering ()
+    {
+        updateFiltering ( getRoot (), true );
+    }
 
-            // Filtering and sorting raw childs
-            final List<E> realChilds = filterAndSort ( parentNode, childs );
+    /**
+     * Updates filtering for the specified node childs.
+     *
+     * @param parentNode node which childs filtering should be updated
+     */
+    public void updateFiltering ( final E parentNode )
+    {
+        updateFiltering ( parentNode, false );
+    }
+
+    /**
+     * Updates filtering for the specified node childs.
+     *
+     * @param parentNode  node which childs filtering should be updated
+     * @param recursively whether should update the whole childs structure recursively or not
+     */
+    public void updateFiltering ( final E parentNode, final boolean recursively )
+    {
+        if ( parentNode != null )
+        {
+            if ( recursively )
+            {
+                performFilteringRecursivelyImpl ( parentNode );
+            }
+            else
+            {
+                performFilteringImpl ( parentNode );
+            }
+        }
+    }
 
-            // Inserting new childs
-            for ( final E child : realChilds )
+    /**
+     * Updates node childs filtering recursively.
+     * Deeper childs are updated first since filter might consider childs when accepting their parent.
+     *
+     * @param parentNode node to update
+     */
+    protected void performFilteringRecursivelyImpl ( final E parentNode )
+    {
+        final List<E> childs = rawNodeChildsCache.get ( parentNode.getId () );
+        if ( childs != null )
+        {
+            for ( final E child : childs )
             {
-                parentNode.add ( child );
+                performFilteringRecursivelyImpl ( child );
             }
+            performFilteringImpl ( parentNode );
         }
     }
 
     /**
-     * Performs raw childs filtering and sorting before they can be passed into real tree and returns list of filtered and sorted childs.
+     * Updates node childs filtering.
+     * Sorted raw childs are checked in a single pass and only childs which accept state has changed are removed or inserted,
+     * so childs are never re-sorted on filter changes.
      *
-     * @param childs childs to filter and sort
-     * @return list of filtered and sorted childs
+     * @param parentNode node to update
      */
-    protected List<E> filterAndSort ( final E parentNode, List<E> childs )
+    protected void performFilteringImpl ( final E parentNode )
     {
-        // Simply return an empty array if there is no childs
-        if ( childs == null || childs.size () == 0 )
+        // Process this action only if node childs are already loaded and cached
+        final List<E> sorted = getSortedChilds ( parentNode );
+        if ( sorted != null )
         {
-            return new ArrayList<E> ( 0 );
+            // Collecting childs which accept state has changed
+            // Child is currently accepted only if it is placed within its parent
+            // Accepted childs are placed in the same order as sorted raw childs, so their indices are simply counted
+            final Filter<E> filter = dataProvider.getChildsFilter ( parentNode );
+            final List<Integer> removedIndices = new ArrayList<Integer> ();
+            final List<E> removed = new ArrayList<E> ();
+            final List<Integer> insertedIndices = new ArrayList<Integer> ();
+            final List<E> inserted = new ArrayList<E> ();
+            final int count = parentNode.getChildCount ();
+            int oldIndex = 0;
+            int newIndex = 0;
+            for ( final E child : sorted )
+            {
+                final boolean visible = child.getParent () == parentNode;
+                if ( visible && ( oldIndex >= count || parentNode.getChildAt ( oldIndex ) != child ) )
+                {
+                    // Childs order doesn't match sorted raw childs, simply replacing all childs
+                    // Tree state is restored afterwards since structure change collapses all expanded childs
+                    final TreeState treeState = tree.getTreeState ();
+                    parentNode.setChilds ( filter ( parentNode, sorted ) );
+                    nodeStructureChanged ( parentNode );
+                    tree.setTreeState ( treeState );
+                    return;
+                }
+                final boolean accepted = filter == null || filter.accept ( child );
+                if ( visible )
+                {
+                    if ( accepted )
+                    {
+                        newIndex++;
+                    }
+                    else
+                    {
+                        removedIndices.add ( oldIndex );
+                        removed.add ( child );
+                    }
+                    oldIndex++;
+                }
+                else if ( accepted )
+                {
+                    insertedIndices.add ( newIndex );
+                    inserted.add ( child );
+                    newIndex++;
+                }
+            }
+
+            // Removing rejected childs with a single childs shift
+            if ( removed.size () > 0 )
+            {
+                final int[] indices = CollectionUtils.toArray ( removedIndices );
+                parentNode.removeAll ( indices );
+                nodesWereRemoved ( parentNode, indices, removed.toArray () );
+            }
+
+            // Inserting accepted childs with a single childs shift
+            if ( inserted.size () > 0 )
+            {
+                final int[] indices = CollectionUtils.toArray ( insertedIndices );
+                parentNode.insertAll ( inserted, indices );
+                nodesWereInserted ( parentNode, indices );
+            }
         }
+    }
 
-        // Filter and sort childs
-        final Filter<E> filter = dataProvider.getChildsFilter ( parentNode );
+    /**
+     * Returns raw childs of the specified node sorted with its childs comparator.
+     * Sorted childs include childs which are not accepted by filter, so filter changes never require childs re-sorting.
+     * Sorted childs are cached until node raw childs are changed in bulk or sorting is updated.
+     *
+     * @param parentNode parent node
+     * @return raw childs of the specified node sorted with its childs comparator or null if node childs are not loaded
+     */
+    protected List<E> getSortedChilds ( final E parentNode )
+    {
         final Comparator<E> comparator = dataProvider.getChildsComparator ( parentNode );
-        if ( filter != null )
+        while ( true )
         {
-            final List<E> filtered = CollectionUtils.filter ( childs, filter );
+            // Raw childs are copied under the lock and sorted outside of it
+            // This way sorting large amount of childs doesn't block other threads working with the cache
+            final List<E> sorted;
+            final int revision;
+            synchronized ( cacheLock )
+            {
+                final List<E> childs = rawNodeChildsCache.get ( parentNode.getId () );
+                if ( childs == null || comparator == null )
+                {
+                    return childs;
+                }
+                final List<E> cached = sortedNodeChildsCache.get ( parentNode.getId () );
+                if ( cached != null )
+                {
+                    return cached;
+                }
+                sorted = CollectionUtils.copy ( childs );
+                revision = structureRevision;
+            }
+            ParallelSort.sort ( sorted, comparator );
+
+            // Sorted childs are only used if tree structure wasn't changed while they were sorted, otherwise they are sorted again
+            synchronized ( cacheLock )
+            {
+                if ( revision == structureRevision )
+                {
+                    sortedNodeChildsCache.put ( parentNode.getId (), sorted );
+                    return sorted;
+                }
+            }
+        }
+    }
+
+    /**
+     * Places child node into cached sorted raw childs of the parent node if they are cached.
+     * New node is placed after existing equal ones, the same way it is placed among parent node childs.
+     *
+     * @param child  new child node
+     * @param parent parent node
+     */
+    protected void addSortedChild ( final E child, final E parent )
+    {
+        final Comparator<E> comparator = dataProvider.getChildsComparator ( parent );
+        synchronized ( cacheLock )
+        {
+            final List<E> sorted = sortedNodeChildsCache.get ( parent.getId () );
+            if ( sorted != null )
+            {
+                if ( comparator != null )
+                {
+                    int low = 0;
+                    int high = sorted.size ();
+                    while ( low < high )
+                    {
+                        final int middle = ( low + high ) >>> 1;
+                        if ( comparator.compare ( child, sorted.get ( middle ) ) < 0 )
+                        {
+                            high = middle;
+                        }
+                        else
+                        {
+                            low = middle + 1;
+                        }
+                    }
+                    sorted.add ( low, child );
+                }
+                else
+                {
+                    sortedNodeChildsCache.remove ( parent.getId () );
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts accepted child nodes into parent node at their sorted positions.
+     * If there is no comparator for the parent node child nodes are placed according to raw childs order.
+     * Nodes must be already added into raw childs cache.
+     *
+     * @param children accepted child nodes
+     * @param parent   parent node
+     */
+    protected void insertChildsImpl ( final List<E> children, final E parent )
+    {
+        if ( children.size () > 0 )
+        {
+            final List<E> ordered;
+            final int[] indices;
+            final Comparator<E> comparator = dataProvider.getChildsComparator ( parent );
             if ( comparator != null )
             {
-                Collections.sort ( filtered, comparator );
+                // Resolving sorted positions
+                ordered = new ArrayList<E> ( children );
+                ParallelSort.sort ( ordered, comparator );
+                indices = getSortedIndices ( ordered, parent, comparator );
+            }
+            else
+            {
+                // Resolving positions according to raw childs order
+                final Set<E> inserted = Collections.newSetFromMap ( new IdentityHashMap<E, Boolean> ( children.size () ) );
+                inserted.addAll ( children );
+                ordered = new ArrayList<E> ( children.size () );
+                final int[] positions = new int[ children.size () ];
+                int index = 0;
+                for ( final E child : rawNodeChildsCache.get ( parent.getId () ) )
+                {
+                    if ( inserted.contains ( child ) )
+                    {
+                        positions[ ordered.size () ] = index++;
+                        ordered.add ( child );
+                    }
+                    else if ( child.getParent () == parent )
+                    {
+                        index++;
+                    }
+                }
+                indices = ordered.size () < positions.length ? Arrays.copyOf ( positions, ordered.size () ) : positions;
+            }
+
+            // Inserting all nodes with a single childs shift
+            parent.insertAll ( ordered, indices );
+            nodesWereInserted ( parent, indices );
+        }
+    }
+
+    /**
+     * Returns indices at which sorted child nodes should be inserted into parent node childs sorted with the same comparator.
+     * New nodes are placed after existing equal ones. Large amounts of nodes are merged with existing childs in a single pass,
+     * otherwise each node position is found using binary search.
+     *
+     * @param children   sorted child nodes
+     * @param parent     parent node
+     * @param comparator childs comparator
+     * @return ascending indices of inserted nodes within the resulting childs list
+     */
+    @SuppressWarnings ( "unchecked" )
+    protected int[] getSortedIndices ( final List<E> children, final E parent, final Comparator<E> comparator )
+    {
+        final int count = parent.getChildCount ();
+        final int size = children.size ();
+        final int[] indices = new int[ size ];
+        if ( ( long ) size * ( 32 - Integer.numberOfLeadingZeros ( count ) ) > count )
+        {
+            // Merging with existing childs
+            int position = 0;
+            for ( int j = 0; j < size; j++ )
+            {
+                final E child = children.get ( j );
+                while ( position < count && comparator.compare ( child, ( E ) parent.getChildAt ( position ) ) >= 0 )
+                {
+                    position++;
+                }
+                indices[ j ] = position + j;
             }
-            return filtered;
         }
         else
         {
-            if ( comparator != null )
+            // Searching for each node position
+            for ( int j = 0; j < size; j++ )
             {
-                childs = CollectionUtils.copy ( childs );
-                Collections.sort ( childs, comparator );
+                int low = 0;
+                int high = count;
+                while ( low < high )
+                {
+                    final int middle = ( low + high ) >>> 1;
+                    if ( comparator.compare ( children.get ( j ), ( E ) parent.getChildAt ( middle ) ) < 0 )
+                    {
+                        high = middle;
+                    }
+                    else
+                    {
+                        low = middle + 1;
+                    }
+                }
+                indices[ j ] = low + j;
             }
-            return childs;
         }
+        return indices;
+    }
+
+    /**
+     * Returns list of raw childs accepted by the parent node childs filter.
+     *
+     * @param parentNode parent node
+     * @param childs     raw childs
+     * @return list of raw childs accepted by the parent node childs filter
+     */
+    protected List<E> filter ( final E parentNode, final List<E> childs )
+    {
+        final Filter<E> filter = dataProvider.getChildsFilter ( parentNode );
+        return filter != null ? CollectionUtils.filter ( childs, filter ) : CollectionUtils.copy ( childs );
+    }
+
+    /**
+     * Performs raw childs filtering and sorting before they can be passed into real tree and returns list of filtered and sorted childs.
+     *
+     * @param childs childs to filter and sort
+     * @return list of filtered and sorted childs
+     */
+    protected List<E> filterAndSort ( final E parentNode, final List<E> childs )
+    {
+        // Simply return an empty array if there is no childs
+        if ( childs == null || childs.size () == 0 )
+        {
+            return new ArrayList<E> ( 0 );
+        }
+
+        // Filter and sort childs
+        final List<E> filtered = filter ( parentNode, childs );
+        final Comparator<E> comparator = dataProvider.getChildsComparator ( parentNode );
+        if ( comparator != null )
+        {
+            ParallelSort.sort ( filtered, comparator );
+        }
+        return filtered;
     }
 
     /**
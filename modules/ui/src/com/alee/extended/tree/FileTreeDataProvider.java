@@ -22,6 +22,10 @@ import com.alee.utils.FileUtils;
 import com.alee.utils.compare.Filter;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -38,6 +42,12 @@ public class FileTreeDataProvider extends AbstractAsyncTreeDataProvider<FileTree
      */
     protected List<File> rootFiles;
 
+    /**
+     * Amount of file nodes delivered within a single childs batch.
+     * Directory childs are read through directory stream and delivered in batches of this size.
+     */
+    protected int batchSize = 1000;
+
     /**
      * Constructs file tree data provider with the specified files as root.
      *
@@ -109,7 +119,14 @@ public class FileTreeDataProvider extends AbstractAsyncTreeDataProvider<FileTree
     {
         try
         {
-            listener.childsLoadCompleted ( parent.getFile () == null ? getRootChilds () : getFileChilds ( parent ) );
+            if ( parent.getFile () == null )
+            {
+                listener.childsLoadCompleted ( getRootChilds () );
+            }
+            else
+            {
+                loadFileChilds ( parent, listener );
+            }
         }
         catch ( final Throwable cause )
         {
@@ -132,6 +149,52 @@ public class FileTreeDataProvider extends AbstractAsyncTreeDataProvider<FileTree
         return childs;
     }
 
+    /**
+     * Reads child nodes for specified node using directory stream and delivers them in batches.
+     * Unreadable directories are considered to be empty, just like in {@link #getFileChilds(FileTreeNode)}.
+     *
+     * @param node     parent node
+     * @param listener childs loading progress listener
+     */
+    protected void loadFileChilds ( final FileTreeNode node, final ChildsListener<FileTreeNode> listener )
+    {
+        final DirectoryStream<Path> stream;
+        try
+        {
+            stream = Files.newDirectoryStream ( node.getFile ().toPath () );
+        }
+        catch ( final IOException e )
+        {
+            listener.childsLoadCompleted ( new ArrayList<FileTreeNode> ( 0 ) );
+            return;
+        }
+        try
+        {
+            List<FileTreeNode> batch = new ArrayList<FileTreeNode> ();
+            for ( final Path path : stream )
+            {
+                batch.add ( new FileTreeNode ( path.toFile () ) );
+                if ( batch.size () >= batchSize )
+                {
+                    listener.childsBatchLoaded ( batch );
+                    batch = new ArrayList<FileTreeNode> ();
+                }
+            }
+            listener.childsLoadCompleted ( batch );
+        }
+        finally
+        {
+            try
+            {
+                stream.close ();
+            }
+            catch ( final IOException e )
+            {
+                // Nothing to do here
+            }
+        }
+    }
+
     /**
      * Returns child nodes for specified node.
      *
@@ -156,6 +219,26 @@ public class FileTreeDataProvider extends AbstractAsyncTreeDataProvider<FileTree
         }
     }
 
+    /**
+     * Returns amount of file nodes delivered within a single childs batch.
+     *
+     * @return amount of file nodes delivered within a single childs batch
+     */
+    public int getBatchSize ()
+    {
+        return batchSize;
+    }
+
+    /**
+     * Sets amount of file nodes delivered within a single childs batch.
+     *
+     * @param batchSize amount of file nodes delivered within a single childs batch
+     */
+    public void setBatchSize ( final int batchSize )
+    {
+        this.batchSize = Math.max ( 1, batchSize );
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -22,9 +22,7 @@ import com.alee.utils.compare.Filter;
 import com.alee.utils.text.DefaultTextProvider;
 import com.alee.utils.text.TextProvider;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.StringTokenizer;
+import java.util.*;
 
 /**
  * Special smart tree filter that doesn't filter out parent nodes which has childs that are accepted by filter.
@@ -50,6 +48,18 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements Filter<E
      */
     protected Map<String, Boolean> acceptStatesCache = new HashMap<String, Boolean> ();
 
+    /**
+     * Search request for which accept states are cached.
+     * Whenever search request changes only those cached states which might have changed are dropped.
+     */
+    protected String cachedSearchRequest = null;
+
+    /**
+     * IDs of nodes which accept states were cached before their childs were loaded.
+     * These states are always dropped when search request changes since childs loaded later might change them.
+     */
+    protected Set<String> unloadedNodes = new HashSet<String> ();
+
     /**
      * Whether should match case or not.
      */
@@ -109,6 +119,7 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements Filter<E
     public void setTextProvider ( final TextProvider<E> textProvider )
     {
         this.textProvider = textProvider != null ? textProvider : new DefaultTextProvider ();
+        clearCache ();
     }
 
     /**
@@ -128,7 +139,11 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements Filter<E
      */
     public void setMatchCase ( final boolean matchCase )
     {
-        this.matchCase = matchCase;
+        if ( this.matchCase != matchCase )
+        {
+            this.matchCase = matchCase;
+            clearCache ();
+        }
     }
 
     /**
@@ -148,7 +163,11 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements Filter<E
      */
     public void setUseSpaceAsSeparator ( final boolean useSpaceAsSeparator )
     {
-        this.useSpaceAsSeparator = useSpaceAsSeparator;
+        if ( this.useSpaceAsSeparator != useSpaceAsSeparator )
+        {
+            this.useSpaceAsSeparator = useSpaceAsSeparator;
+            clearCache ();
+        }
     }
 
     /**
@@ -168,7 +187,11 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements Filter<E
      */
     public void setSearchFromStart ( final boolean searchFromStart )
     {
-        this.searchFromStart = searchFromStart;
+        if ( this.searchFromStart != searchFromStart )
+        {
+            this.searchFromStart = searchFromStart;
+            clearCache ();
+        }
     }
 
     /**
@@ -183,6 +206,8 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements Filter<E
 
     /**
      * Sets search request text.
+     * Cached accept states are kept whenever they are still valid for the new request.
+     * For example when request is extended nodes which didn't match the old request will not match the new one either.
      *
      * @param searchText search request text
      */
@@ -197,6 +222,8 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements Filter<E
     public void clearCache ()
     {
         acceptStatesCache.clear ();
+        unloadedNodes.clear ();
+        cachedSearchRequest = null;
     }
 
     /**
@@ -213,6 +240,7 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements Filter<E
     public void clearCache ( final String nodeId )
     {
         acceptStatesCache.remove ( nodeId );
+        unloadedNodes.remove ( nodeId );
     }
 
     /**
@@ -225,7 +253,12 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements Filter<E
         {
             // Structured nodes filtering
             final String searchRequest = matchCase ? searchText : searchText.toLowerCase ();
-            return searchRequest.equals ( "" ) || acceptIncludingChilds ( node, searchRequest );
+            if ( searchRequest.equals ( "" ) )
+            {
+                return true;
+            }
+            updateCache ( searchRequest );
+            return acceptIncludingChilds ( node, searchRequest );
         }
         else
         {
@@ -233,6 +266,48 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements Filter<E
         }
     }
 
+    /**
+     * Drops cached accept states which might be different for the specified search request.
+     * Narrowed request can only reject previously accepted nodes and widened request can only accept previously rejected nodes,
+     * so only the states that might change are dropped in those cases. States of nodes which childs were not loaded yet are always
+     * dropped.
+     *
+     * @param searchRequest search request text
+     */
+    protected void updateCache ( final String searchRequest )
+    {
+        if ( !searchRequest.equals ( cachedSearchRequest ) )
+        {
+            if ( cachedSearchRequest != null && !useSpaceAsSeparator )
+            {
+                final boolean narrowed = accept ( searchRequest, cachedSearchRequest, searchFromStart );
+                final boolean widened = accept ( cachedSearchRequest, searchRequest, searchFromStart );
+                if ( narrowed || widened )
+                {
+                    final Iterator<Map.Entry<String, Boolean>> iterator = acceptStatesCache.entrySet ().iterator ();
+                    while ( iterator.hasNext () )
+                    {
+                        final Map.Entry<String, Boolean> entry = iterator.next ();
+                        if ( entry.getValue () == narrowed || unloadedNodes.contains ( entry.getKey () ) )
+                        {
+                            iterator.remove ();
+                        }
+                    }
+                }
+                else
+                {
+                    acceptStatesCache.clear ();
+                }
+            }
+            else
+            {
+                acceptStatesCache.clear ();
+            }
+            unloadedNodes.clear ();
+            cachedSearchRequest = searchRequest;
+        }
+    }
+
     /**
      * Returns whether the specified node or any of its childs match the filter or not.
      *
@@ -271,6 +346,10 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements Filter<E
         {
             accept = acceptNodeImpl ( node, searchRequest );
             acceptStatesCache.put ( node.getId (), accept );
+            if ( node instanceof AsyncUniqueNode && !( ( AsyncUniqueNode ) node ).isLoaded () )
+            {
+                unloadedNodes.add ( node.getId () );
+            }
         }
         return accept;
     }
@@ -244,7 +244,7 @@ public class WebAsyncTree<E extends AsyncUniqueNode> extends WebTree<E> implemen
         if ( dataProvider instanceof AbstractAsyncTreeDataProvider )
         {
             ( ( AbstractAsyncTreeDataProvider ) dataProvider ).setChildsFilter ( filter );
-            updateSortingAndFiltering ();
+            updateFiltering ();
         }
 
         firePropertyChange ( TREE_FILTER_PROPERTY, oldFilter, filter );
@@ -274,6 +274,23 @@ public class WebAsyncTree<E extends AsyncUniqueNode> extends WebTree<E> implemen
         getAsyncModel ().updateSortingAndFiltering ( node );
     }
 
+    /**
+     * Updates nodes filtering for all loaded nodes.
+     * Nodes sorting is preserved, only nodes which accept state has changed are removed or inserted.
+     */
+    public void updateFiltering ()
+    {
+        getAsyncModel ().updateFiltering ();
+    }
+
+    /**
+     * Updates filtering for the specified node childs.
+     */
+    public void updateFiltering ( final E node )
+    {
+        getAsyncModel ().updateFiltering ( node );
+    }
+
     /**
      * Sets the TreeModel that will provide the data.
      * This method also adds async tree model listener in the provided model.
@@ -179,7 +179,7 @@ public class WebExCheckBoxTree<E extends UniqueNode> extends WebCheckBoxTree<E>
         if ( dataProvider instanceof AbstractExTreeDataProvider )
         {
             ( ( AbstractExTreeDataProvider ) dataProvider ).setChildsFilter ( filter );
-            updateSortingAndFiltering ();
+            updateFiltering ();
         }
 
         firePropertyChange ( TREE_FILTER_PROPERTY, oldFilter, filter );
@@ -209,6 +209,23 @@ public class WebExCheckBoxTree<E extends UniqueNode> extends WebCheckBoxTree<E>
         getExModel ().updateSortingAndFiltering ( node );
     }
 
+    /**
+     * Updates nodes filtering for all loaded nodes.
+     * Nodes sorting is preserved, only nodes which accept state has changed are removed or inserted.
+     */
+    public void updateFiltering ()
+    {
+        getExModel ().updateFiltering ();
+    }
+
+    /**
+     * Updates filtering for the specified node childs.
+     */
+    public void updateFiltering ( final E node )
+    {
+        getExModel ().updateFiltering ( node );
+    }
+
     /**
      * Returns ex tree model.
      *
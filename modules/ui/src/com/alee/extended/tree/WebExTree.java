@@ -182,7 +182,7 @@ public class WebExTree<E extends UniqueNode> extends WebTree<E>
         if ( dataProvider instanceof AbstractExTreeDataProvider )
         {
             ( ( AbstractExTreeDataProvider ) dataProvider ).setChildsFilter ( filter );
-            updateSortingAndFiltering ();
+            updateFiltering ();
         }
 
         firePropertyChange ( TREE_FILTER_PROPERTY, oldFilter, filter );
@@ -212,6 +212,23 @@ public class WebExTree<E extends UniqueNode> extends WebTree<E>
         getExModel ().updateSortingAndFiltering ( node );
     }
 
+    /**
+     * Updates nodes filtering for all loaded nodes.
+     * Nodes sorting is preserved, only nodes which accept state has changed are removed or inserted.
+     */
+    public void updateFiltering ()
+    {
+        getExModel ().updateFiltering ();
+    }
+
+    /**
+     * Updates filtering for the specified node childs.
+     */
+    public void updateFiltering ( final E node )
+    {
+        getExModel ().updateFiltering ( node );
+    }
+
     /**
      * Returns ex tree model.
      *
@@ -507,11 +507,9 @@ public class WebTreeFilterField<E extends UniqueNode> extends WebTextField
             {
                 // todo Restore/expand behavior
 
-                // Cleaning up filter cache
-                filter.clearCache ();
-
                 // Updating tree filtering
-                ( ( WebAsyncTree ) tree ).updateSortingAndFiltering ();
+                // Filter drops cached accept states which might have changed on its own
+                ( ( WebAsyncTree ) tree ).updateFiltering ();
             }
             else if ( tree instanceof WebExTree )
             {
@@ -525,11 +523,9 @@ public class WebTreeFilterField<E extends UniqueNode> extends WebTextField
                     }
                 }
 
-                // Cleaning up filter cache
-                filter.clearCache ();
-
                 // Updating tree filtering
-                ( ( WebExTree ) tree ).updateSortingAndFiltering ();
+                // Filter drops cached accept states which might have changed on its own
+                ( ( WebExTree ) tree ).updateFiltering ();
 
                 // Restore tree state or expand tree
                 if ( defaultTreeStateBehavior )
@@ -561,6 +557,7 @@ public class WebTreeFilterField<E extends UniqueNode> extends WebTextField
      *
      * @param node node that should be re-checked
      */
+    @SuppressWarnings ( "unchecked" )
     public void updateNodeAcceptance ( final E node )
     {
         // Updating tree filtering
@@ -573,7 +570,7 @@ public class WebTreeFilterField<E extends UniqueNode> extends WebTextField
                 filter.clearCache ( node );
 
                 // Updating tree node filtering
-                ( ( WebAsyncTree ) tree ).updateSortingAndFiltering ( ( AsyncUniqueNode ) node.getParent () );
+                ( ( WebAsyncTree<AsyncUniqueNode> ) tree ).updateFiltering ( ( AsyncUniqueNode ) node.getParent () );
             }
             else if ( tree instanceof WebExTree )
             {
@@ -581,7 +578,7 @@ public class WebTreeFilterField<E extends UniqueNode> extends WebTextField
                 filter.clearCache ( node );
 
                 // Updating tree node filtering
-                ( ( WebExTree ) tree ).updateSortingAndFiltering ( node.getParent () );
+                ( ( WebExTree<E> ) tree ).updateFiltering ( ( E ) node.getParent () );
             }
         }
     }
@@ -0,0 +1,246 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.alee.laf.tree;
+
+import java.util.Arrays;
+
+/**
+ * Immutable sorted list of selected tree rows stored as ranges of adjacent rows.
+ * It allows to find selected rows within any row interval using binary search instead of iterating through the whole selection.
+ *
+ * @author Mikle Garin
+ * @see com.alee.laf.tree.WebTreeUI
+ */
+
+public final class TreeSelectionRanges
+{
+    /**
+     * Empty selection ranges.
+     */
+    public static final TreeSelectionRanges EMPTY = new TreeSelectionRanges ( new int[ 0 ], new int[ 0 ], 0, 0 );
+
+    /**
+     * First rows of the ranges in ascending order.
+     */
+    private final int[] starts;
+
+    /**
+     * Last rows of the ranges, inclusive.
+     */
+    private final int[] ends;
+
+    /**
+     * Amount of ranges.
+     */
+    private final int size;
+
+    /**
+     * Total amount of selected rows.
+     */
+    private final int rowCount;
+
+    /**
+     * Constructs new selection ranges.
+     *
+     * @param starts   first rows of the ranges
+     * @param ends     last rows of the ranges
+     * @param size     amount of ranges
+     * @param rowCount total amount of selected rows
+     */
+    private TreeSelectionRanges ( final int[] starts, final int[] ends, final int size, final int rowCount )
+    {
+        super ();
+        this.starts = starts;
+        this.ends = ends;
+        this.size = size;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Returns selection ranges for the specified selected rows.
+     * Rows might be unsorted and might contain negative values for paths which are not visible, those are ignored.
+     * Specified array is sorted in place.
+     *
+     * @param rows selected rows
+     * @return selection ranges for the specified selected rows
+     */
+    public static TreeSelectionRanges create ( final int[] rows )
+    {
+        if ( rows == null || rows.length == 0 )
+        {
+            return EMPTY;
+        }
+        Arrays.sort ( rows );
+
+        // Counting ranges first to allocate exact arrays
+        int size = 0;
+        int last = -2;
+        for ( final int row : rows )
+        {
+            if ( row >= 0 && row != last )
+            {
+                if ( row != last + 1 )
+                {
+                    size++;
+                }
+                last = row;
+            }
+        }
+        if ( size == 0 )
+        {
+            return EMPTY;
+        }
+
+        // Collecting ranges
+        final int[] starts = new int[ size ];
+        final int[] ends = new int[ size ];
+        int index = -1;
+        int rowCount = 0;
+        last = -2;
+        for ( final int row : rows )
+        {
+            if ( row >= 0 && row != last )
+            {
+                if ( row != last + 1 )
+                {
+                    index++;
+                    starts[ index ] = row;
+                }
+                ends[ index ] = row;
+                rowCount++;
+                last = row;
+            }
+        }
+        return new TreeSelectionRanges ( starts, ends, size, rowCount );
+    }
+
+    /**
+     * Returns amount of ranges.
+     *
+     * @return amount of ranges
+     */
+    public int getSize ()
+    {
+        return size;
+    }
+
+    /**
+     * Returns whether there are no selected rows or not.
+     *
+     * @return true if there are no selected rows, false otherwise
+     */
+    public boolean isEmpty ()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Returns total amount of selected rows.
+     *
+     * @return total amount of selected rows
+     */
+    public int getRowCount ()
+    {
+        return rowCount;
+    }
+
+    /**
+     * Returns first row of the range at the specified index.
+     *
+     * @param index range index
+     * @return first row of the range at the specified index
+     */
+    public int getStart ( final int index )
+    {
+        return starts[ index ];
+    }
+
+    /**
+     * Returns last row of the range at the specified index, inclusive.
+     *
+     * @param index range index
+     * @return last row of the range at the specified index
+     */
+    public int getEnd ( final int index )
+    {
+        return ends[ index ];
+    }
+
+    /**
+     * Returns index of the first range which ends at or after the specified row.
+     * Returns amount of ranges if there is no such range.
+     *
+     * @param row row index
+     * @return index of the first range which ends at or after the specified row
+     */
+    public int indexAfter ( final int row )
+    {
+        int low = 0;
+        int high = size;
+        while ( low < high )
+        {
+            final int mid = ( low + high ) >>> 1;
+            if ( ends[ mid ] < row )
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns index of the range containing the specified row or -1 if that row is not selected.
+     *
+     * @param row row index
+     * @return index of the range containing the specified row or -1 if that row is not selected
+     */
+    public int indexOf ( final int row )
+    {
+        final int index = indexAfter ( row );
+        return index < size && starts[ index ] <= row ? index : -1;
+    }
+
+    /**
+     * Returns whether the specified row is selected or not.
+     *
+     * @param row row index
+     * @return true if the specified row is selected, false otherwise
+     */
+    public boolean contains ( final int row )
+    {
+        return indexOf ( row ) != -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString ()
+    {
+        final StringBuilder sb = new StringBuilder ( "[" );
+        for ( int i = 0; i < size; i++ )
+        {
+            sb.append ( i > 0 ? ", " : "" ).append ( starts[ i ] ).append ( "-" ).append ( ends[ i ] );
+        }
+        return sb.append ( "]" ).toString ();
+    }
+}
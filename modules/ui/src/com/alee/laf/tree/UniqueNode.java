@@ -21,8 +21,13 @@ import com.alee.utils.ReflectUtils;
 import com.alee.utils.TextUtils;
 
 import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.MutableTreeNode;
+import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Vector;
 
 /**
  * This class provides a custom node with a specific ID.
@@ -127,6 +132,87 @@ public class UniqueNode extends DefaultMutableTreeNode implements Serializable
         return new TreePath ( getPath () );
     }
 
+    /**
+     * Inserts specified child nodes at the specified indices in a single pass.
+     * Indices must be ascending and point at inserted nodes positions within the resulting childs list.
+     * Unlike separate inserts this method shifts existing childs only once, which matters for nodes with a lot of childs.
+     *
+     * @param nodes   child nodes to insert
+     * @param indices inserted nodes indices within the resulting childs list
+     */
+    public void insertAll ( final List<? extends MutableTreeNode> nodes, final int[] indices )
+    {
+        if ( nodes.size () != indices.length )
+        {
+            throw new IllegalArgumentException ( "Nodes and indices amounts do not match" );
+        }
+        for ( final MutableTreeNode node : nodes )
+        {
+            node.removeFromParent ();
+            node.setParent ( this );
+        }
+        getChildsVector ().insertAll ( nodes.toArray (), indices );
+    }
+
+    /**
+     * Removes child nodes at the specified indices in a single pass.
+     * Indices must be ascending and point at removed nodes positions within the current childs list.
+     *
+     * @param indices removed nodes indices
+     */
+    public void removeAll ( final int[] indices )
+    {
+        if ( indices.length > 0 )
+        {
+            final ChildsVector childs = getChildsVector ();
+            for ( final int index : indices )
+            {
+                ( ( MutableTreeNode ) childs.get ( index ) ).setParent ( null );
+            }
+            childs.removeAll ( indices );
+        }
+    }
+
+    /**
+     * Replaces all child nodes with the specified ones at once.
+     * Unlike removing and adding childs separately this method doesn't shift childs at all.
+     *
+     * @param nodes new child nodes
+     */
+    public void setChilds ( final List<? extends MutableTreeNode> nodes )
+    {
+        if ( children != null )
+        {
+            for ( final Object child : children )
+            {
+                ( ( MutableTreeNode ) child ).setParent ( null );
+            }
+        }
+        for ( final MutableTreeNode node : nodes )
+        {
+            if ( node.getParent () != null )
+            {
+                node.removeFromParent ();
+            }
+            node.setParent ( this );
+        }
+        children = new ChildsVector ( nodes );
+    }
+
+    /**
+     * Returns childs vector which supports bulk operations.
+     *
+     * @return childs vector which supports bulk operations
+     */
+    protected ChildsVector getChildsVector ()
+    {
+        if ( !( children instanceof ChildsVector ) )
+        {
+            children = children != null ? new ChildsVector ( children ) : new ChildsVector ();
+        }
+        return ( ChildsVector ) children;
+    }
+
     /**
      * Returns text node representation.
      *
@@ -137,4 +223,89 @@ public class UniqueNode extends DefaultMutableTreeNode implements Serializable
     {
         return userObject != null && userObject != this ? userObject.toString () : ReflectUtils.getClassName ( this.getClass () );
     }
-}
\ No newline at end of file
+
+    /**
+     * Childs vector which allows inserting and removing multiple nodes with a single elements shift.
+     */
+    protected static class ChildsVector extends Vector<TreeNode>
+    {
+        /**
+         * Serialization version.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructs new empty childs vector.
+         */
+        public ChildsVector ()
+        {
+            super ();
+        }
+
+        /**
+         * Constructs new childs vector with the specified childs.
+         *
+         * @param childs initial childs
+         */
+        public ChildsVector ( final Collection<? extends TreeNode> childs )
+        {
+            super ( childs );
+        }
+
+        /**
+         * Inserts specified nodes at the specified indices.
+         * Existing elements are shifted starting from the end, so each of them is moved only once.
+         *
+         * @param nodes   nodes to insert
+         * @param indices ascending nodes indices within the resulting vector
+         */
+        public synchronized void insertAll ( final Object[] nodes, final int[] indices )
+        {
+            final int count = elementCount;
+            ensureCapacity ( count + nodes.length );
+            int end = count;
+            for ( int j = nodes.length - 1; j >= 0; j-- )
+            {
+                final int from = indices[ j ] - j;
+                if ( from < 0 || from > end )
+                {
+                    throw new IllegalArgumentException ( "Invalid insertion index: " + indices[ j ] );
+                }
+                System.arraycopy ( elementData, from, elementData, from + j + 1, end - from );
+                elementData[ indices[ j ] ] = nodes[ j ];
+                end = from;
+            }
+            elementCount = count + nodes.length;
+            modCount++;
+        }
+
+        /**
+         * Removes elements at the specified indices.
+         * Remaining elements are compacted in a single pass, so each of them is moved only once.
+         *
+         * @param indices ascending indices of removed elements
+         */
+        public synchronized void removeAll ( final int[] indices )
+        {
+            final int count = elementCount;
+            int to = indices[ 0 ];
+            for ( int j = 0; j < indices.length; j++ )
+            {
+                if ( indices[ j ] < 0 || indices[ j ] >= count || j > 0 && indices[ j ] <= indices[ j - 1 ] )
+                {
+                    throw new IllegalArgumentException ( "Invalid removal index: " + indices[ j ] );
+                }
+                final int from = indices[ j ] + 1;
+                final int end = j < indices.length - 1 ? indices[ j + 1 ] : count;
+                System.arraycopy ( elementData, from, elementData, to, end - from );
+                to += end - from;
+            }
+            for ( int i = to; i < count; i++ )
+            {
+                elementData[ i ] = null;
+            }
+            elementCount = to;
+            modCount++;
+        }
+    }
+}
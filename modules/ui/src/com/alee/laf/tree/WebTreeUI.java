@@ -25,10 +25,7 @@ import com.alee.utils.*;
 import com.alee.utils.ninepatch.NinePatchIcon;
 
 import javax.swing.*;
-import javax.swing.event.TreeExpansionEvent;
-import javax.swing.event.TreeExpansionListener;
-import javax.swing.event.TreeSelectionEvent;
-import javax.swing.event.TreeSelectionListener;
+import javax.swing.event.*;
 import javax.swing.plaf.ComponentUI;
 import javax.swing.plaf.basic.BasicTreeUI;
 import javax.swing.tree.*;
@@ -98,6 +95,8 @@ public class WebTreeUI extends BasicTreeUI
     protected PropertyChangeListener dropLocationChangeListener;
     protected TreeSelectionListener treeSelectionListener;
     protected TreeExpansionListener treeExpansionListener;
+    protected PropertyChangeListener selectionCacheListener;
+    protected TreeModelListener selectionCacheModelListener;
     protected MouseAdapter mouseAdapter;
 
     /**
@@ -110,6 +109,13 @@ public class WebTreeUI extends BasicTreeUI
     protected boolean leftToRight = true;
     protected TreePath draggablePath = null;
 
+    /**
+     * Cached selected rows ranges and lazily calculated horizontal bounds of each range.
+     * Both are reset whenever selection changes or tree rows are moved around.
+     */
+    protected TreeSelectionRanges selectionRanges = null;
+    protected int[] selectionRangesX = null;
+
     /**
      * Returns an instance of the WebTreeUI for the specified component.
      * This tricky method is used by UIManager to create component UIs when needed.
@@ -198,7 +204,9 @@ public class WebTreeUI extends BasicTreeUI
             public void valueChanged ( final TreeSelectionEvent e )
             {
                 // Optimized selection repaint
-                repaintSelection ();
+                final TreeSelectionRanges previous = selectionRanges;
+                invalidateSelectionCache ();
+                repaintSelection ( previous );
 
                 // Tree expansion on selection
                 if ( autoExpandSelectedNode && tree.getSelectionCount () > 0 )
@@ -215,17 +223,82 @@ public class WebTreeUI extends BasicTreeUI
             @Override
             public void treeExpanded ( final TreeExpansionEvent event )
             {
+                invalidateSelectionCache ();
                 repaintSelection ();
             }
 
             @Override
             public void treeCollapsed ( final TreeExpansionEvent event )
             {
+                invalidateSelectionCache ();
                 repaintSelection ();
             }
         };
         tree.addTreeExpansionListener ( treeExpansionListener );
 
+        // Model listener resetting cached selection ranges since rows might move
+        selectionCacheModelListener = new TreeModelListener ()
+        {
+            @Override
+            public void treeNodesChanged ( final TreeModelEvent e )
+            {
+                invalidateSelectionCache ();
+            }
+
+            @Override
+            public void treeNodesInserted ( final TreeModelEvent e )
+            {
+                invalidateSelectionCache ();
+            }
+
+            @Override
+            public void treeNodesRemoved ( final TreeModelEvent e )
+            {
+                invalidateSelectionCache ();
+            }
+
+            @Override
+            public void treeStructureChanged ( final TreeModelEvent e )
+            {
+                invalidateSelectionCache ();
+            }
+        };
+        if ( tree.getModel () != null )
+        {
+            tree.getModel ().addTreeModelListener ( selectionCacheModelListener );
+        }
+
+        // Properties listener resetting cached selection ranges when rows layout changes
+        selectionCacheListener = new PropertyChangeListener ()
+        {
+            @Override
+            public void propertyChange ( final PropertyChangeEvent evt )
+            {
+                final String property = evt.getPropertyName ();
+                if ( JTree.TREE_MODEL_PROPERTY.equals ( property ) )
+                {
+                    final TreeModel oldModel = ( TreeModel ) evt.getOldValue ();
+                    if ( oldModel != null )
+                    {
+                        oldModel.removeTreeModelListener ( selectionCacheModelListener );
+                    }
+                    final TreeModel newModel = ( TreeModel ) evt.getNewValue ();
+                    if ( newModel != null )
+                    {
+                        newModel.addTreeModelListener ( selectionCacheModelListener );
+                    }
+                    invalidateSelectionCache ();
+                }
+                else if ( JTree.ROOT_VISIBLE_PROPERTY.equals ( property ) || JTree.SELECTION_MODEL_PROPERTY.equals ( property ) ||
+                        JTree.CELL_RENDERER_PROPERTY.equals ( property ) || JTree.ROW_HEIGHT_PROPERTY.equals ( property ) ||
+                        JTree.LARGE_MODEL_PROPERTY.equals ( property ) || WebLookAndFeel.FONT_PROPERTY.equals ( property ) )
+                {
+                    invalidateSelectionCache ();
+                }
+            }
+        };
+        tree.addPropertyChangeListener ( selectionCacheListener );
+
         // Mouse events adapter
         mouseAdapter = new MouseAdapter ()
         {
@@ -532,6 +605,12 @@ public class WebTreeUI extends BasicTreeUI
         tree.removePropertyChangeListener ( WebLookAndFeel.DROP_LOCATION, dropLocationChangeListener );
         tree.removeTreeSelectionListener ( treeSelectionListener );
         tree.removeTreeExpansionListener ( treeExpansionListener );
+        tree.removePropertyChangeListener ( selectionCacheListener );
+        if ( tree.getModel () != null )
+        {
+            tree.getModel ().removeTreeModelListener ( selectionCacheModelListener );
+        }
+        invalidateSelectionCache ();
         tree.removeMouseListener ( mouseAdapter );
         tree.removeMouseMotionListener ( mouseAdapter );
 
@@ -1124,20 +1203,89 @@ public class WebTreeUI extends BasicTreeUI
     }
 
     /**
-     * Repaints all rectangles containing tree selections.
+     * Repaints visible parts of tree selections.
      * This method is optimized to repaint only those area which are actually has selection in them.
      */
     protected void repaintSelection ()
     {
-        if ( tree.getSelectionCount () > 0 )
+        repaintSelection ( null );
+    }
+
+    /**
+     * Repaints visible parts of current and previous tree selections.
+     * Only rows which are visible within the tree viewport are taken into account.
+     *
+     * @param previous previous selection ranges, might be null
+     */
+    protected void repaintSelection ( final TreeSelectionRanges previous )
+    {
+        final Rectangle visible = tree.getVisibleRect ();
+        if ( visible.width > 0 && visible.height > 0 )
         {
-            for ( final Rectangle rect : getSelectionRects () )
+            if ( previous != null )
+            {
+                repaintSelection ( previous, visible );
+            }
+            if ( tree.getSelectionCount () > 0 )
             {
-                tree.repaint ( rect );
+                repaintSelection ( getSelectionRanges (), visible );
             }
         }
     }
 
+    /**
+     * Repaints parts of the specified selection ranges which intersect the specified area.
+     * Adjacent selected rows are repainted as a single rectangle spanning across the whole area width.
+     *
+     * @param ranges selection ranges
+     * @param area   area to repaint selection within
+     */
+    protected void repaintSelection ( final TreeSelectionRanges ranges, final Rectangle area )
+    {
+        if ( !ranges.isEmpty () )
+        {
+            final int firstRow = tree.getClosestRowForLocation ( area.x, area.y );
+            final int lastRow = tree.getClosestRowForLocation ( area.x, area.y + area.height - 1 );
+            if ( firstRow != -1 && lastRow != -1 )
+            {
+                for ( int i = ranges.indexAfter ( firstRow ); i < ranges.getSize () && ranges.getStart ( i ) <= lastRow; i++ )
+                {
+                    final Rectangle top = tree.getRowBounds ( Math.max ( ranges.getStart ( i ), firstRow ) );
+                    final Rectangle bottom = tree.getRowBounds ( Math.min ( ranges.getEnd ( i ), lastRow ) );
+                    if ( top != null && bottom != null )
+                    {
+                        tree.repaint ( area.x, top.y, area.width, bottom.y + bottom.height - top.y );
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns sorted ranges of selected rows.
+     * Ranges are cached until selection changes or tree rows are moved.
+     *
+     * @return sorted ranges of selected rows
+     */
+    protected TreeSelectionRanges getSelectionRanges ()
+    {
+        if ( selectionRanges == null )
+        {
+            selectionRanges = TreeSelectionRanges.create ( tree.getSelectionRows () );
+            selectionRangesX = null;
+        }
+        return selectionRanges;
+    }
+
+    /**
+     * Resets cached selection ranges.
+     */
+    protected void invalidateSelectionCache ()
+    {
+        selectionRanges = null;
+        selectionRangesX = null;
+    }
+
     /**
      * Returns list of tree selections bounds.
      * This method takes selection style into account.
@@ -1145,6 +1293,21 @@ public class WebTreeUI extends BasicTreeUI
      * @return list of tree selections bounds
      */
     protected List<Rectangle> getSelectionRects ()
+    {
+        return getSelectionRects ( null );
+    }
+
+    /**
+     * Returns list of bounds of tree selections which intersect the specified area.
+     * This method takes selection style into account.
+     * <p/>
+     * Only selected rows within the area are visited, each group of adjacent selected rows is represented by a single rectangle which
+     * bounds are calculated from its first and last rows.
+     *
+     * @param area area to retrieve selections for or null to retrieve all of them
+     * @return list of bounds of tree selections which intersect the specified area
+     */
+    protected List<Rectangle> getSelectionRects ( final Rectangle area )
     {
         // Return empty selection rects when custom selection painting is disabled
         if ( selectionStyle == TreeSelectionStyle.none )
@@ -1153,61 +1316,122 @@ public class WebTreeUI extends BasicTreeUI
         }
 
         // Checking that selection exists
-        final int[] rows = tree.getSelectionRows ();
-        if ( rows == null || rows.length == 0 )
+        final TreeSelectionRanges ranges = getSelectionRanges ();
+        if ( ranges.isEmpty () )
         {
             return Collections.emptyList ();
         }
 
-        // Sorting selected rows
-        Arrays.sort ( rows );
+        // Determining rows within the area
+        final int firstRow;
+        final int lastRow;
+        if ( area != null )
+        {
+            firstRow = tree.getClosestRowForLocation ( area.x, area.y );
+            lastRow = tree.getClosestRowForLocation ( area.x, area.y + area.height - 1 );
+            if ( firstRow == -1 || lastRow == -1 )
+            {
+                return Collections.emptyList ();
+            }
+        }
+        else
+        {
+            firstRow = 0;
+            lastRow = tree.getRowCount () - 1;
+        }
 
         // Calculating selection rects
-        final List<Rectangle> selections = new ArrayList<Rectangle> ( tree.getSelectionCount () );
-        final Insets insets = tree.getInsets ();
-        Rectangle maxRect = null;
-        int lastRow = -1;
-        for ( final int row : rows )
+        final List<Rectangle> selections = new ArrayList<Rectangle> ();
+        for ( int i = ranges.indexAfter ( firstRow ); i < ranges.getSize () && ranges.getStart ( i ) <= lastRow; i++ )
         {
             if ( selectionStyle == TreeSelectionStyle.single )
             {
-                // Required bounds
-                selections.add ( tree.getRowBounds ( row ) );
+                // Separate bounds for each row within the area
+                final int end = Math.min ( ranges.getEnd ( i ), lastRow );
+                for ( int row = Math.max ( ranges.getStart ( i ), firstRow ); row <= end; row++ )
+                {
+                    final Rectangle b = tree.getRowBounds ( row );
+                    if ( b != null )
+                    {
+                        selections.add ( b );
+                    }
+                }
             }
             else
             {
-                if ( lastRow != -1 && lastRow + 1 != row )
+                // Single bounds for the whole group
+                final Rectangle b = getSelectionGroupBounds ( ranges, i );
+                if ( b != null )
                 {
-                    // Save determined group
-                    selections.add ( maxRect );
-
-                    // Reset counting
-                    maxRect = null;
-                    lastRow = -1;
+                    selections.add ( b );
                 }
-                if ( lastRow == -1 || lastRow + 1 == row )
+            }
+        }
+        return selections;
+    }
+
+    /**
+     * Returns bounds of the group of adjacent selected rows.
+     * Vertical bounds are taken from the first and last rows of the group, horizontal bounds depend on selection style.
+     *
+     * @param ranges selection ranges
+     * @param index  group index
+     * @return bounds of the group of adjacent selected rows
+     */
+    protected Rectangle getSelectionGroupBounds ( final TreeSelectionRanges ranges, final int index )
+    {
+        final int start = ranges.getStart ( index );
+        final int end = ranges.getEnd ( index );
+        final Rectangle b = tree.getRowBounds ( start );
+        final Rectangle last = start == end ? b : tree.getRowBounds ( end );
+        if ( b == null || last == null )
+        {
+            return null;
+        }
+        b.height = last.y + last.height - b.y;
+        if ( isFullLineSelection () )
+        {
+            final Insets insets = tree.getInsets ();
+            b.x = insets.left;
+            b.width = tree.getWidth () - insets.left - insets.right;
+        }
+        else if ( start != end )
+        {
+            // Rows might have different widths so group horizontal bounds are calculated once and cached
+            final boolean cached = ranges == selectionRanges;
+            if ( cached && selectionRangesX == null )
+            {
+                selectionRangesX = new int[ ranges.getSize () * 2 ];
+                Arrays.fill ( selectionRangesX, Integer.MIN_VALUE );
+            }
+            if ( !cached || selectionRangesX[ index * 2 ] == Integer.MIN_VALUE )
+            {
+                int minX = Integer.MAX_VALUE;
+                int maxX = Integer.MIN_VALUE;
+                final Insets insets = tree.getInsets ();
+                final Rectangle rb = new Rectangle ();
+                for ( int row = start; row <= end; row++ )
                 {
-                    // Required bounds
-                    final Rectangle b = tree.getRowBounds ( row );
-                    if ( isFullLineSelection () )
+                    if ( treeState.getBounds ( treeState.getPathForRow ( row ), rb ) != null )
                     {
-                        b.x = insets.left;
-                        b.width = tree.getWidth () - insets.left - insets.right;
+                        final int x = leftToRight ? rb.x + insets.left : tree.getWidth () - ( rb.x + rb.width ) - insets.right;
+                        minX = Math.min ( minX, x );
+                        maxX = Math.max ( maxX, x + rb.width );
                     }
-
-                    // Increase rect
-                    maxRect = lastRow == -1 ? b : GeometryUtils.getContainingRect ( maxRect, b );
-
-                    // Remember last row
-                    lastRow = row;
                 }
+                if ( !cached )
+                {
+                    b.x = minX;
+                    b.width = maxX - minX;
+                    return b;
+                }
+                selectionRangesX[ index * 2 ] = minX;
+                selectionRangesX[ index * 2 + 1 ] = maxX;
             }
+            b.x = selectionRangesX[ index * 2 ];
+            b.width = selectionRangesX[ index * 2 + 1 ] - b.x;
         }
-        if ( maxRect != null )
-        {
-            selections.add ( maxRect );
-        }
-        return selections;
+        return b;
     }
 
     /**
@@ -1266,8 +1490,9 @@ public class WebTreeUI extends BasicTreeUI
     {
         if ( tree.getSelectionCount () > 0 )
         {
-            // Draw final selections
-            final List<Rectangle> selections = getSelectionRects ();
+            // Only selections intersecting the clip are painted
+            final Rectangle clip = g2d.getClipBounds ();
+            final List<Rectangle> selections = getSelectionRects ( clip );
             for ( final Rectangle rect : selections )
             {
                 // Bounds fix
@@ -1276,6 +1501,24 @@ public class WebTreeUI extends BasicTreeUI
                 rect.width -= selectionShadeWidth * 2 + ( selectionBorderColor != null ? 1 : 0 );
                 rect.height -= selectionShadeWidth * 2 + ( selectionBorderColor != null ? 1 : 0 );
 
+                // Cutting off long group parts which are far outside of the clip
+                // Gradient background depends on the whole group height so it is only done for plain background
+                if ( clip != null && !webColoredSelection )
+                {
+                    final int margin = selectionShadeWidth * 2 + selectionRound * 2 + 2;
+                    final int top = clip.y - margin;
+                    if ( rect.y < top )
+                    {
+                        rect.height -= top - rect.y;
+                        rect.y = top;
+                    }
+                    final int bottom = clip.y + clip.height + margin;
+                    if ( rect.y + rect.height > bottom )
+                    {
+                        rect.height = bottom - rect.y;
+                    }
+                }
+
                 // Painting selection
                 LafUtils.drawCustomWebBorder ( g2d, tree,
                         new RoundRectangle2D.Double ( rect.x, rect.y, rect.width, rect.height, selectionRound * 2, selectionRound * 2 ),
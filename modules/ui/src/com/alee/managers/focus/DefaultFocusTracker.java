@@ -232,6 +232,9 @@ public abstract class DefaultFocusTracker implements FocusTracker
             customChildren = new ArrayList<WeakReference<Component>> ( 1 );
         }
         customChildren.add ( new WeakReference<Component> ( customChild ) );
+
+        // Tracker might now be involved in focus changes outside of the tracked component
+        FocusManager.trackerScopeChanged ( this );
     }
 
     /**
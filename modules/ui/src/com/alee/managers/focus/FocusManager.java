@@ -47,6 +47,25 @@ public class FocusManager
      */
     protected static final Map<Component, Map<FocusTracker, Boolean>> trackers = new WeakHashMap<Component, Map<FocusTracker, Boolean>> ();
 
+    /**
+     * Components which have trackers that might be involved in focus changes outside of the component hierarchy.
+     * Such trackers are checked on each focus change when ancestor dispatch is enabled.
+     */
+    protected static final Map<Component, Boolean> unscopedComponents = new WeakHashMap<Component, Boolean> ();
+
+    /**
+     * Whether trackers should be looked up only on ancestors of old and new focus owners or not.
+     * Disabling it will force manager to check every registered tracker on each focus change.
+     */
+    protected static boolean ancestorDispatch = true;
+
+    /**
+     * Dispatch statistics.
+     */
+    protected static volatile long focusChanges = 0;
+    protected static volatile long evaluatedTrackers = 0;
+    protected static volatile int lastEvaluatedTrackers = 0;
+
     /**
      * Global focus listeners lock.
      */
@@ -127,52 +146,124 @@ public class FocusManager
                         Log.debug ( this, "Focus changed: " + oldName + " --> " + newName );
                     }
 
-                    // Checking all added trackers
-                    // Iterating through registered components
-                    for ( final Map.Entry<Component, Map<FocusTracker, Boolean>> entry : getTrackersCopy ().entrySet () )
+                    // Informing trackers
+                    fireTrackersFocusChanged ( oldFocus, newFocus );
+                }
+            } );
+        }
+    }
+
+    /**
+     * Informs trackers involved in the focus change.
+     *
+     * @param oldFocus previously focused component
+     * @param newFocus currently focused component
+     */
+    protected static void fireTrackersFocusChanged ( final Component oldFocus, final Component newFocus )
+    {
+        // Collecting trackers which might be involved in this focus change
+        final List<Component> components = new ArrayList<Component> ();
+        final List<FocusTracker> focusTrackers = new ArrayList<FocusTracker> ();
+        final List<Boolean> states = new ArrayList<Boolean> ();
+        synchronized ( trackersLock )
+        {
+            if ( ancestorDispatch )
+            {
+                // Only trackers registered on the old and new focus owners ancestors and unscoped trackers are checked
+                final Set<Component> candidates = Collections.newSetFromMap ( new IdentityHashMap<Component, Boolean> () );
+                for ( Component ancestor = oldFocus; ancestor != null; ancestor = ancestor.getParent () )
+                {
+                    candidates.add ( ancestor );
+                }
+                for ( Component ancestor = newFocus; ancestor != null; ancestor = ancestor.getParent () )
+                {
+                    candidates.add ( ancestor );
+                }
+                candidates.addAll ( unscopedComponents.keySet () );
+                for ( final Component candidate : candidates )
+                {
+                    final Map<FocusTracker, Boolean> componentTrackers = trackers.get ( candidate );
+                    if ( componentTrackers != null )
+                    {
+                        collectTrackers ( candidate, componentTrackers, components, focusTrackers, states );
+                    }
+                }
+            }
+            else
+            {
+                // All trackers are checked
+                for ( final Map.Entry<Component, Map<FocusTracker, Boolean>> entry : trackers.entrySet () )
+                {
+                    if ( entry.getKey () != null )
+                    {
+                        collectTrackers ( entry.getKey (), entry.getValue (), components, focusTrackers, states );
+                    }
+                }
+            }
+        }
+
+        // Checking collected trackers
+        for ( int i = 0; i < focusTrackers.size (); i++ )
+        {
+            final Component tracked = components.get ( i );
+            final FocusTracker focusTracker = focusTrackers.get ( i );
+
+            // Checking whether or not component is related to this focus change
+            final boolean isOldFocused = focusTracker.isInvolved ( oldFocus, tracked );
+            final boolean isNewFocused = focusTracker.isInvolved ( newFocus, tracked );
+
+            // Informing object only if it is involved in changes
+            if ( isOldFocused || isNewFocused )
+            {
+                // Informing about focus changes if needed
+                final Boolean trackerStateCache = states.get ( i );
+                if ( trackerStateCache == null || trackerStateCache != isNewFocused )
+                {
+                    // Informing tracker about focus change
+                    focusTracker.focusChanged ( isNewFocused );
+
+                    // Caching focus state
+                    synchronized ( trackersLock )
                     {
-                        // Retrieving tracked component
-                        final Component tracked = entry.getKey ();
-                        if ( tracked != null )
+                        final Map<FocusTracker, Boolean> ct = trackers.get ( tracked );
+                        if ( ct != null && ct.containsKey ( focusTracker ) )
                         {
-                            // Iterating through registered component trackers
-                            for ( final Map.Entry<FocusTracker, Boolean> innerEntry : entry.getValue ().entrySet () )
-                            {
-                                // Skip if tracker is disabled
-                                final FocusTracker focusTracker = innerEntry.getKey ();
-                                if ( focusTracker.isTrackingEnabled () )
-                                {
-                                    // Checking whether or not component is related to this focus change
-                                    final boolean isOldFocused = focusTracker.isInvolved ( oldFocus, tracked );
-                                    final boolean isNewFocused = focusTracker.isInvolved ( newFocus, tracked );
-
-                                    // Informing object only if it is involved in changes
-                                    if ( isOldFocused || isNewFocused )
-                                    {
-                                        // Informing about focus changes if needed
-                                        final Boolean trackerStateCache = innerEntry.getValue ();
-                                        if ( trackerStateCache == null || trackerStateCache != isNewFocused )
-                                        {
-                                            // Informing tracker about focus change
-                                            focusTracker.focusChanged ( isNewFocused );
-
-                                            // Caching focus state
-                                            synchronized ( trackersLock )
-                                            {
-                                                final Map<FocusTracker, Boolean> ct = trackers.get ( tracked );
-                                                if ( ct != null && ct.containsKey ( focusTracker ) )
-                                                {
-                                                    ct.put ( focusTracker, isNewFocused );
-                                                }
-                                            }
-                                        }
-                                    }
-                                }
-                            }
+                            ct.put ( focusTracker, isNewFocused );
                         }
                     }
                 }
-            } );
+            }
+        }
+
+        // Updating statistics
+        focusChanges++;
+        evaluatedTrackers += focusTrackers.size ();
+        lastEvaluatedTrackers = focusTrackers.size ();
+    }
+
+    /**
+     * Collects enabled trackers registered for the specified component.
+     *
+     * @param component         tracked component
+     * @param componentTrackers trackers registered for the component
+     * @param components        collected tracked components
+     * @param focusTrackers     collected trackers
+     * @param states            collected trackers focus states
+     */
+    protected static void collectTrackers ( final Component component, final Map<FocusTracker, Boolean> componentTrackers,
+                                            final List<Component> components, final List<FocusTracker> focusTrackers,
+                                            final List<Boolean> states )
+    {
+        for ( final Map.Entry<FocusTracker, Boolean> entry : componentTrackers.entrySet () )
+        {
+            // Skip if tracker is disabled
+            final FocusTracker focusTracker = entry.getKey ();
+            if ( focusTracker != null && focusTracker.isTrackingEnabled () )
+            {
+                components.add ( component );
+                focusTrackers.add ( focusTracker );
+                states.add ( entry.getValue () );
+            }
         }
     }
 
@@ -287,6 +378,59 @@ public class FocusManager
                 trackers.put ( component, componentTrackers );
             }
             componentTrackers.put ( focusTracker, focusTracker.isInvolved ( getFocusOwner (), component ) );
+            if ( !isScoped ( focusTracker ) )
+            {
+                unscopedComponents.put ( component, true );
+            }
+        }
+    }
+
+    /**
+     * Returns whether specified tracker can only be involved in focus changes within its tracked component hierarchy or not.
+     * That is true for default trackers without custom children which do not override involvement check.
+     *
+     * @param focusTracker focus tracker
+     * @return true if specified tracker can only be involved in focus changes within its tracked component hierarchy, false otherwise
+     */
+    protected static boolean isScoped ( final FocusTracker focusTracker )
+    {
+        if ( focusTracker instanceof DefaultFocusTracker )
+        {
+            final DefaultFocusTracker tracker = ( DefaultFocusTracker ) focusTracker;
+            final List<WeakReference<Component>> customChildren = tracker.getWeakCustomChildren ();
+            if ( customChildren == null || customChildren.isEmpty () )
+            {
+                try
+                {
+                    final Class<?> declaringClass = tracker.getClass ().getMethod ( "isInvolved", Component.class, Component.class )
+                            .getDeclaringClass ();
+                    return declaringClass == DefaultFocusTracker.class;
+                }
+                catch ( final NoSuchMethodException e )
+                {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Informs manager that specified tracker might now be involved in focus changes outside of its tracked component hierarchy.
+     *
+     * @param focusTracker focus tracker
+     */
+    protected static void trackerScopeChanged ( final FocusTracker focusTracker )
+    {
+        synchronized ( trackersLock )
+        {
+            for ( final Map.Entry<Component, Map<FocusTracker, Boolean>> entry : trackers.entrySet () )
+            {
+                if ( entry.getKey () != null && entry.getValue ().containsKey ( focusTracker ) )
+                {
+                    unscopedComponents.put ( entry.getKey (), true );
+                }
+            }
         }
     }
 
@@ -307,6 +451,7 @@ public class FocusManager
                 componentTrackers.remove ( focusTracker );
                 if ( componentTrackers.size () == 0 )
                 {
+                    unscopedComponents.remove ( entry.getKey () );
                     iterator.remove ();
                 }
             }
@@ -328,6 +473,71 @@ public class FocusManager
                 allTrackers.clear ();
             }
             trackers.remove ( component );
+            unscopedComponents.remove ( component );
         }
     }
+
+    /**
+     * Returns whether trackers are looked up only on ancestors of old and new focus owners or not.
+     *
+     * @return true if trackers are looked up only on ancestors of old and new focus owners, false otherwise
+     */
+    public static boolean isAncestorDispatch ()
+    {
+        return ancestorDispatch;
+    }
+
+    /**
+     * Sets whether trackers should be looked up only on ancestors of old and new focus owners or not.
+     * Disabling it will force manager to check every registered tracker on each focus change.
+     *
+     * @param ancestorDispatch whether trackers should be looked up only on ancestors of old and new focus owners or not
+     */
+    public static void setAncestorDispatch ( final boolean ancestorDispatch )
+    {
+        synchronized ( trackersLock )
+        {
+            FocusManager.ancestorDispatch = ancestorDispatch;
+        }
+    }
+
+    /**
+     * Returns amount of processed focus changes.
+     *
+     * @return amount of processed focus changes
+     */
+    public static long getFocusChanges ()
+    {
+        return focusChanges;
+    }
+
+    /**
+     * Returns total amount of trackers evaluated on focus changes.
+     *
+     * @return total amount of trackers evaluated on focus changes
+     */
+    public static long getEvaluatedTrackers ()
+    {
+        return evaluatedTrackers;
+    }
+
+    /**
+     * Returns amount of trackers evaluated on the last focus change.
+     *
+     * @return amount of trackers evaluated on the last focus change
+     */
+    public static int getLastEvaluatedTrackers ()
+    {
+        return lastEvaluatedTrackers;
+    }
+
+    /**
+     * Resets dispatch statistics.
+     */
+    public static void resetStatistics ()
+    {
+        focusChanges = 0;
+        evaluatedTrackers = 0;
+        lastEvaluatedTrackers = 0;
+    }
 }
\ No newline at end of file
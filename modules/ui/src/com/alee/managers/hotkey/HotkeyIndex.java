@@ -0,0 +1,330 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.alee.managers.hotkey;
+
+import com.alee.utils.SwingUtils;
+
+import java.awt.event.KeyEvent;
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+/**
+ * Index of registered hotkeys keyed by key code and modifiers.
+ * It allows HotkeyManager to find hotkeys matching the key event without scanning all registered hotkeys.
+ * <p/>
+ * Index keeps only weak references to hotkeys since component hotkeys are strongly referenced only by their components.
+ * Hotkeys which were collected or which components were collected are removed from the index on the fly.
+ * <p/>
+ * Note that hotkey data should not be modified after hotkey registration, otherwise hotkey will stay indexed under its old key.
+ * This class is not thread-safe, HotkeyManager synchronizes all calls to it.
+ *
+ * @author Mikle Garin
+ * @see com.alee.managers.hotkey.HotkeyManager
+ */
+
+public final class HotkeyIndex
+{
+    /**
+     * Amount of bits in the quick-check key mask.
+     */
+    private static final int MASK_SIZE = 1 << 16;
+
+    /**
+     * Amount of registrations after which index is fully cleaned up from collected hotkeys.
+     */
+    private static final int CLEANUP_PERIOD = 1024;
+
+    /**
+     * Indexed hotkeys.
+     */
+    private final Map<Integer, List<Entry>> buckets = new HashMap<Integer, List<Entry>> ();
+
+    /**
+     * Quick-check key mask.
+     * Bit is set for each indexed key hash, so most key events without hotkeys are rejected without any lookups.
+     * Bits are never cleared on removal and are only rebuilt on full cleanup, so false positives are possible.
+     */
+    private final long[] mask = new long[ MASK_SIZE / 64 ];
+
+    /**
+     * Amount of indexed hotkeys.
+     */
+    private int size = 0;
+
+    /**
+     * Amount of registrations since last full cleanup.
+     */
+    private int registrations = 0;
+
+    /**
+     * Adds hotkey into the index.
+     *
+     * @param hotkeyInfo hotkey to add
+     * @param component  whether hotkey is registered for component or not
+     */
+    public void add ( final HotkeyInfo hotkeyInfo, final boolean component )
+    {
+        final HotkeyData hotkeyData = hotkeyInfo.getHotkeyData ();
+        if ( hotkeyData == null || !hotkeyData.isHotkeySet () )
+        {
+            // Such hotkey can never be triggered
+            return;
+        }
+        if ( ++registrations >= CLEANUP_PERIOD )
+        {
+            cleanup ();
+        }
+        final int key = getKey ( hotkeyData );
+        List<Entry> bucket = buckets.get ( key );
+        if ( bucket == null )
+        {
+            bucket = new ArrayList<Entry> ( 1 );
+            buckets.put ( key, bucket );
+        }
+        bucket.add ( new Entry ( hotkeyInfo, component ) );
+        mask[ ( key & ( MASK_SIZE - 1 ) ) >>> 6 ] |= 1L << key;
+        size++;
+    }
+
+    /**
+     * Removes hotkey from the index.
+     *
+     * @param hotkeyInfo hotkey to remove
+     */
+    public void remove ( final HotkeyInfo hotkeyInfo )
+    {
+        final HotkeyData hotkeyData = hotkeyInfo.getHotkeyData ();
+        if ( hotkeyData != null && hotkeyData.isHotkeySet () )
+        {
+            final int key = getKey ( hotkeyData );
+            final List<Entry> bucket = buckets.get ( key );
+            if ( bucket != null && remove ( bucket, hotkeyInfo ) )
+            {
+                if ( bucket.isEmpty () )
+                {
+                    buckets.remove ( key );
+                }
+                return;
+            }
+        }
+
+        // Hotkey data might have been modified after registration
+        final Iterator<List<Entry>> iterator = buckets.values ().iterator ();
+        while ( iterator.hasNext () )
+        {
+            final List<Entry> bucket = iterator.next ();
+            if ( remove ( bucket, hotkeyInfo ) )
+            {
+                if ( bucket.isEmpty () )
+                {
+                    iterator.remove ();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes hotkey from the specified bucket.
+     *
+     * @param bucket     hotkeys bucket
+     * @param hotkeyInfo hotkey to remove
+     * @return true if hotkey was removed, false otherwise
+     */
+    private boolean remove ( final List<Entry> bucket, final HotkeyInfo hotkeyInfo )
+    {
+        for ( int i = 0; i < bucket.size (); i++ )
+        {
+            if ( bucket.get ( i ).get () == hotkeyInfo )
+            {
+                bucket.remove ( i );
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether there might be hotkeys matching the specified key event or not.
+     * This method doesn't allocate anything.
+     *
+     * @param keyEvent key event
+     * @return true if there might be hotkeys matching the specified key event, false otherwise
+     */
+    public boolean mayMatch ( final KeyEvent keyEvent )
+    {
+        final int key = getKey ( keyEvent );
+        return ( mask[ ( key & ( MASK_SIZE - 1 ) ) >>> 6 ] & 1L << key ) != 0;
+    }
+
+    /**
+     * Returns hotkeys matching the specified key event or null if there are none.
+     * Global hotkeys go first, just like HotkeyManager always processed them, both groups keep their registration order.
+     * Collected hotkeys and hotkeys of collected components are removed from the index along the way.
+     *
+     * @param keyEvent key event
+     * @return hotkeys matching the specified key event or null if there are none
+     */
+    public List<HotkeyInfo> getMatching ( final KeyEvent keyEvent )
+    {
+        if ( !mayMatch ( keyEvent ) )
+        {
+            return null;
+        }
+        final int key = getKey ( keyEvent );
+        final List<Entry> bucket = buckets.get ( key );
+        if ( bucket == null )
+        {
+            return null;
+        }
+        List<HotkeyInfo> matching = null;
+        int globals = 0;
+        for ( int i = 0; i < bucket.size (); i++ )
+        {
+            final Entry entry = bucket.get ( i );
+            final HotkeyInfo hotkeyInfo = entry.get ();
+            if ( hotkeyInfo == null || entry.component && hotkeyInfo.getForComponent () == null )
+            {
+                bucket.remove ( i-- );
+                size--;
+            }
+            else
+            {
+                if ( matching == null )
+                {
+                    matching = new ArrayList<HotkeyInfo> ( bucket.size () - i );
+                }
+                if ( entry.component )
+                {
+                    matching.add ( hotkeyInfo );
+                }
+                else
+                {
+                    matching.add ( globals++, hotkeyInfo );
+                }
+            }
+        }
+        if ( bucket.isEmpty () )
+        {
+            buckets.remove ( key );
+        }
+        return matching;
+    }
+
+    /**
+     * Removes all collected hotkeys and hotkeys of collected components from the index and rebuilds quick-check key mask.
+     */
+    public void cleanup ()
+    {
+        registrations = 0;
+        Arrays.fill ( mask, 0L );
+        final Iterator<Map.Entry<Integer, List<Entry>>> iterator = buckets.entrySet ().iterator ();
+        while ( iterator.hasNext () )
+        {
+            final Map.Entry<Integer, List<Entry>> bucketEntry = iterator.next ();
+            final List<Entry> bucket = bucketEntry.getValue ();
+            final Iterator<Entry> entries = bucket.iterator ();
+            while ( entries.hasNext () )
+            {
+                final Entry entry = entries.next ();
+                final HotkeyInfo hotkeyInfo = entry.get ();
+                if ( hotkeyInfo == null || entry.component && hotkeyInfo.getForComponent () == null )
+                {
+                    entries.remove ();
+                    size--;
+                }
+            }
+            if ( bucket.isEmpty () )
+            {
+                iterator.remove ();
+            }
+            else
+            {
+                final int key = bucketEntry.getKey ();
+                mask[ ( key & ( MASK_SIZE - 1 ) ) >>> 6 ] |= 1L << key;
+            }
+        }
+    }
+
+    /**
+     * Returns amount of indexed hotkeys.
+     * This amount might include hotkeys which were already collected but not yet removed from the index.
+     *
+     * @return amount of indexed hotkeys
+     */
+    public int size ()
+    {
+        return size;
+    }
+
+    /**
+     * Returns index key for the specified hotkey data.
+     *
+     * @param hotkeyData hotkey data
+     * @return index key for the specified hotkey data
+     */
+    private static int getKey ( final HotkeyData hotkeyData )
+    {
+        return getKey ( hotkeyData.getKeyCode (), hotkeyData.isCtrl (), hotkeyData.isAlt (), hotkeyData.isShift () );
+    }
+
+    /**
+     * Returns index key for the specified key event.
+     * Modifiers are checked the same way {@link HotkeyData#isTriggered(java.awt.event.KeyEvent)} checks them.
+     *
+     * @param keyEvent key event
+     * @return index key for the specified key event
+     */
+    private static int getKey ( final KeyEvent keyEvent )
+    {
+        return getKey ( keyEvent.getKeyCode (), SwingUtils.isShortcut ( keyEvent ), SwingUtils.isAlt ( keyEvent ),
+                SwingUtils.isShift ( keyEvent ) );
+    }
+
+    /**
+     * Returns index key for the specified key code and modifiers.
+     *
+     * @param keyCode key code
+     * @param ctrl    whether CTRL modifier is required or not
+     * @param alt     whether ALT modifier is required or not
+     * @param shift   whether SHIFT modifier is required or not
+     * @return index key for the specified key code and modifiers
+     */
+    private static int getKey ( final int keyCode, final boolean ctrl, final boolean alt, final boolean shift )
+    {
+        return keyCode << 3 | ( ctrl ? 4 : 0 ) | ( alt ? 2 : 0 ) | ( shift ? 1 : 0 );
+    }
+
+    /**
+     * Weakly referenced index entry.
+     */
+    private static final class Entry extends WeakReference<HotkeyInfo>
+    {
+        /**
+         * Whether hotkey is registered for component or not.
+         */
+        private final boolean component;
+
+        public Entry ( final HotkeyInfo hotkeyInfo, final boolean component )
+        {
+            super ( hotkeyInfo );
+            this.component = component;
+        }
+    }
+}
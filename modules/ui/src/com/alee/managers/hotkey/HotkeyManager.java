@@ -113,6 +113,11 @@ public class HotkeyManager
      */
     protected static List<HotkeyInfo> globalHotkeys = new ArrayList<HotkeyInfo> ( 2 );
 
+    /**
+     * Index of all registered hotkeys keyed by key code and modifiers.
+     */
+    protected static final HotkeyIndex hotkeyIndex = new HotkeyIndex ();
+
     /**
      * Conditions for top components which might.
      */
@@ -153,13 +158,7 @@ public class HotkeyManager
                             return;
                         }
 
-                        // Ignore nonexisting hotkeys
-                        if ( !hotkeyForEventExists ( e ) )
-                        {
-                            return;
-                        }
-
-                        // Processing all added hotkeys
+                        // Processing hotkeys matching this event
                         processHotkeys ( e );
                     }
                 }
@@ -227,42 +226,28 @@ public class HotkeyManager
      */
     protected static boolean hotkeyForEventExists ( final KeyEvent keyEvent )
     {
-        final int hotkeyHash = SwingUtils.hotkeyToString ( keyEvent ).hashCode ();
-        for ( final HotkeyInfo hotkeyInfo : globalHotkeys )
-        {
-            if ( hotkeyInfo.getHotkeyData ().hashCode () == hotkeyHash )
-            {
-                return true;
-            }
-        }
-        for ( final Map.Entry<Component, List<HotkeyInfo>> entry : copyComponentHotkeys ().entrySet () )
+        synchronized ( sync )
         {
-            for ( final HotkeyInfo hotkeyInfo : entry.getValue () )
-            {
-                if ( hotkeyInfo.getHotkeyData ().hashCode () == hotkeyHash )
-                {
-                    return true;
-                }
-            }
+            return hotkeyIndex.getMatching ( keyEvent ) != null;
         }
-        return false;
     }
 
     /**
-     * Processes all available registered hotkeys.
+     * Processes registered hotkeys matching the specified key event.
+     * Only hotkeys with the same key code and modifiers are checked, nothing is allocated if there are no such hotkeys.
      *
      * @param e key event
      */
     protected static void processHotkeys ( final KeyEvent e )
     {
-        final Map<Component, List<HotkeyInfo>> hotkeysCopy = copyComponentHotkeys ();
-        for ( final HotkeyInfo hotkeyInfo : globalHotkeys )
+        final List<HotkeyInfo> matching;
+        synchronized ( sync )
         {
-            processHotkey ( e, hotkeyInfo );
+            matching = hotkeyIndex.getMatching ( e );
         }
-        for ( final Map.Entry<Component, List<HotkeyInfo>> entry : hotkeysCopy.entrySet () )
+        if ( matching != null )
         {
-            for ( final HotkeyInfo hotkeyInfo : entry.getValue () )
+            for ( final HotkeyInfo hotkeyInfo : matching )
             {
                 processHotkey ( e, hotkeyInfo );
             }
@@ -558,6 +543,7 @@ public class HotkeyManager
                     hotkeys.put ( forComponent, new WeakReference<List<HotkeyInfo>> ( hlist ) );
                 }
                 hlist.add ( hotkeyInfo );
+                hotkeyIndex.add ( hotkeyInfo, true );
             }
             else
             {
@@ -565,6 +551,7 @@ public class HotkeyManager
                 if ( !globalHotkeys.contains ( hotkeyInfo ) )
                 {
                     globalHotkeys.add ( hotkeyInfo );
+                    hotkeyIndex.add ( hotkeyInfo, false );
                 }
             }
         }
@@ -581,15 +568,18 @@ public class HotkeyManager
                 {
                     // Clearing component hotkey cache
                     final List<HotkeyInfo> hlist = getComponentHotkeysCache ( forComponent );
-                    if ( hlist != null )
+                    if ( hlist != null && hlist.remove ( hotkeyInfo ) )
                     {
-                        hlist.remove ( hotkeyInfo );
+                        hotkeyIndex.remove ( hotkeyInfo );
                     }
                 }
                 else
                 {
                     // Clearing global hotkey cache
-                    globalHotkeys.remove ( hotkeyInfo );
+                    if ( globalHotkeys.remove ( hotkeyInfo ) )
+                    {
+                        hotkeyIndex.remove ( hotkeyInfo );
+                    }
                 }
             }
         }
@@ -615,6 +605,14 @@ public class HotkeyManager
     {
         synchronized ( sync )
         {
+            final List<HotkeyInfo> hlist = getComponentHotkeysCache ( component );
+            if ( hlist != null )
+            {
+                for ( final HotkeyInfo hotkeyInfo : hlist )
+                {
+                    hotkeyIndex.remove ( hotkeyInfo );
+                }
+            }
             component.putClientProperty ( COMPONENT_HOTKEYS_LIST_KEY, null );
             hotkeys.remove ( component );
         }
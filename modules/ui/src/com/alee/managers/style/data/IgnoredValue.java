@@ -17,6 +17,8 @@
 
 package com.alee.managers.style.data;
 
+import java.io.Serializable;
+
 /**
  * A dummy class to represent ignored property value in component style.
  *
@@ -25,10 +27,25 @@ package com.alee.managers.style.data;
  * @see com.alee.managers.style.StyleManager
  */
 
-public final class IgnoredValue
+public final class IgnoredValue implements Serializable
 {
+    /**
+     * Serialization version.
+     */
+    private static final long serialVersionUID = 1L;
+
     /**
      * Constant ignored property value.
      */
     public static final IgnoredValue VALUE = new IgnoredValue ();
+
+    /**
+     * Returns constant ignored property value instead of deserialized instance.
+     *
+     * @return constant ignored property value
+     */
+    private Object readResolve ()
+    {
+        return VALUE;
+    }
 }
\ No newline at end of file
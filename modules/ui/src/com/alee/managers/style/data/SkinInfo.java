@@ -20,6 +20,7 @@ package com.alee.managers.style.data;
 import com.alee.managers.log.Log;
 import com.alee.managers.style.SupportedComponent;
 import com.alee.utils.TextUtils;
+import com.alee.utils.xml.ResourceFile;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 import com.thoughtworks.xstream.annotations.XStreamConverter;
 import com.thoughtworks.xstream.annotations.XStreamImplicit;
@@ -90,6 +91,12 @@ public final class SkinInfo implements Serializable
      */
     private transient Map<SupportedComponent, Map<String, ComponentStyle>> stylesCache;
 
+    /**
+     * All resource files included into this skin directly or through other included files.
+     * Used to determine whether skin snapshot is still valid or not.
+     */
+    private transient List<ResourceFile> includes;
+
     /**
      * Constructs new skin information.
      */
@@ -278,6 +285,26 @@ public final class SkinInfo implements Serializable
         this.stylesCache = stylesCache;
     }
 
+    /**
+     * Returns all resource files included into this skin directly or through other included files.
+     *
+     * @return all resource files included into this skin
+     */
+    public List<ResourceFile> getIncludes ()
+    {
+        return includes;
+    }
+
+    /**
+     * Sets all resource files included into this skin directly or through other included files.
+     *
+     * @param includes all resource files included into this skin
+     */
+    public void setIncludes ( final List<ResourceFile> includes )
+    {
+        this.includes = includes;
+    }
+
     /**
      * Returns style for the specified supported component type.
      * Custom style ID can be specified in any Web-component or Web-UI to override default component style.
@@ -165,6 +165,7 @@ public class SkinInfoConverter extends ReflectionConverter
 
             // Reading all additional included files
             // This operation performed in the end when all required information is read from XML
+            final List<ResourceFile> allIncludes = new ArrayList<ResourceFile> ( includes.size () );
             for ( int i = 0; i < includes.size (); i++ )
             {
                 final ResourceFile resourceFile = includes.get ( i );
@@ -191,7 +192,15 @@ public class SkinInfoConverter extends ReflectionConverter
                 // Adding information from included file
                 // Included styles order is preserved to preserve styles override order
                 styles.addAll ( i, include.getStyles () );
+
+                // Remembering included files
+                allIncludes.add ( resourceFile );
+                if ( include.getIncludes () != null )
+                {
+                    allIncludes.addAll ( include.getIncludes () );
+                }
             }
+            skinInfo.setIncludes ( allIncludes );
 
             // Saving all read styles into the skin
             // At this point there might be more than one style with the same ID
@@ -444,6 +453,16 @@ public class SkinInfoConverter extends ReflectionConverter
         return paintersMap;
     }
 
+    /**
+     * Returns whether there are any custom resources that change the default resources load strategy or not.
+     *
+     * @return true if there are any custom resources that change the default resources load strategy, false otherwise
+     */
+    public static boolean hasCustomResources ()
+    {
+        return !resourceMap.isEmpty ();
+    }
+
     /**
      * Adds custom resource that will be used to change the default resources load strategy.
      * To put it simple - XML will be taken from this map instead of being read from the file.
@@ -0,0 +1,611 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.alee.managers.style.data;
+
+import com.alee.laf.WebLookAndFeel;
+import com.alee.managers.log.Log;
+import com.alee.managers.settings.SettingsManager;
+import com.alee.managers.style.SupportedComponent;
+import com.alee.utils.FileUtils;
+import com.alee.utils.XmlUtils;
+import com.alee.utils.xml.ResourceFile;
+import com.alee.utils.xml.ResourceLocation;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This class provides precompiled skin snapshots support.
+ * <p/>
+ * Snapshot is a compact binary form of a completely resolved {@link SkinInfo} - with all included files read, all styles merged and
+ * styles cache compiled. Each snapshot is marked with a content hash of the library version, skin XML and all files it includes, so it
+ * is only used while library and skin sources stay exactly the same. Any changes in those or in snapshot format simply cause fallback
+ * to XML parsing. Snapshot header is validated before any skin data is deserialized and skin data may only contain library, basic Java
+ * and AWT classes, so modified snapshot files cannot be used to instantiate arbitrary classes.
+ * <p/>
+ * Snapshots are looked up next to the skin XML first (they can be precompiled at build time using
+ * {@link #writeSnapshot(Class, String, java.io.File)}) and then in the snapshots directory where they are saved on first run.
+ *
+ * @author Mikle Garin
+ * @see com.alee.managers.style.data.SkinInfo
+ * @see com.alee.managers.style.skin.CustomSkin
+ */
+
+public final class SkinSnapshot
+{
+    /**
+     * Snapshot format version.
+     * It should be changed whenever snapshot layout is changed, skin data changes between library builds are covered by the hash.
+     */
+    public static final int FORMAT_VERSION = 3;
+
+    /**
+     * Packages of classes which are allowed to be deserialized from snapshots.
+     * Class names starting with "com.alee." are allowed as well.
+     */
+    private static final List<String> ALLOWED_PACKAGES =
+            Arrays.asList ( "java.lang", "java.util", "java.awt", "java.awt.geom", "java.awt.font" );
+
+    /**
+     * Snapshot files extension.
+     */
+    public static final String SNAPSHOT_EXTENSION = ".snapshot";
+
+    /**
+     * Whether skin snapshots should be used or not.
+     */
+    private static boolean enabled = true;
+
+    /**
+     * Directory where skin snapshots are saved on first run.
+     * If it is null snapshots are saved into "skins" subdirectory of the default settings directory.
+     */
+    private static File snapshotsDir = null;
+
+    /**
+     * Library version descriptor content.
+     */
+    private static byte[] libraryVersion = null;
+
+    /**
+     * Returns whether skin snapshots are used or not.
+     *
+     * @return true if skin snapshots are used, false otherwise
+     */
+    public static boolean isEnabled ()
+    {
+        return enabled;
+    }
+
+    /**
+     * Sets whether skin snapshots should be used or not.
+     *
+     * @param enabled whether skin snapshots should be used or not
+     */
+    public static void setEnabled ( final boolean enabled )
+    {
+        SkinSnapshot.enabled = enabled;
+    }
+
+    /**
+     * Returns directory where skin snapshots are saved on first run.
+     *
+     * @return directory where skin snapshots are saved on first run
+     */
+    public static File getSnapshotsDir ()
+    {
+        return snapshotsDir != null ? snapshotsDir : new File ( SettingsManager.getDefaultSettingsDir (), "skins" );
+    }
+
+    /**
+     * Sets directory where skin snapshots are saved on first run.
+     *
+     * @param snapshotsDir directory where skin snapshots are saved on first run
+     */
+    public static void setSnapshotsDir ( final File snapshotsDir )
+    {
+        SkinSnapshot.snapshotsDir = snapshotsDir;
+    }
+
+    /**
+     * Returns skin information loaded from the XML located near the specified class.
+     * Valid skin snapshot is used instead of XML if available, otherwise XML is parsed and new snapshot is saved.
+     *
+     * @param nearClass class near which skin XML is located
+     * @param location  skin XML location relative to the class
+     * @return skin information
+     */
+    public static SkinInfo loadSkinInfo ( final Class<?> nearClass, final String location )
+    {
+        final URL url = nearClass.getResource ( location );
+        if ( !enabled || url == null || SkinInfoConverter.hasCustomResources () )
+        {
+            return XmlUtils.fromXML ( url );
+        }
+
+        // Reading skin XML only once, it is used both for hash calculation and parsing
+        final byte[] xml;
+        try
+        {
+            xml = readResource ( url.openStream () );
+        }
+        catch ( final IOException e )
+        {
+            return XmlUtils.fromXML ( url );
+        }
+
+        // Trying to use precompiled snapshot first and then the one saved on first run
+        final File file = getSnapshotFile ( nearClass, location );
+        final SkinInfo precompiled = readSnapshot ( nearClass.getResource ( location + SNAPSHOT_EXTENSION ), xml );
+        if ( precompiled != null )
+        {
+            return precompiled;
+        }
+        final SkinInfo saved = readSnapshot ( file.exists () ? toURL ( file ) : null, xml );
+        if ( saved != null )
+        {
+            return saved;
+        }
+
+        // Parsing skin XML and saving snapshot for further launches
+        final SkinInfo skinInfo = XmlUtils.fromXML ( new ByteArrayInputStream ( xml ) );
+        if ( skinInfo != null )
+        {
+            try
+            {
+                writeSnapshot ( skinInfo, xml, file );
+            }
+            catch ( final Throwable e )
+            {
+                // Skin cannot be saved as snapshot, it will be parsed from XML on each launch
+                Log.warn ( SkinSnapshot.class, "Unable to save skin snapshot: " + file.getAbsolutePath (), e );
+            }
+        }
+        return skinInfo;
+    }
+
+    /**
+     * Parses skin XML located near the specified class and writes its snapshot into the specified file.
+     * This method can be used to precompile skin snapshot at build time, snapshot should be placed next to the skin XML.
+     *
+     * @param nearClass class near which skin XML is located
+     * @param location  skin XML location relative to the class
+     * @param file      snapshot file
+     * @throws IOException if skin cannot be read or snapshot cannot be written
+     */
+    public static void writeSnapshot ( final Class<?> nearClass, final String location, final File file ) throws IOException
+    {
+        final URL url = nearClass.getResource ( location );
+        if ( url == null )
+        {
+            throw new FileNotFoundException ( "Unable to find skin XML \"" + location + "\" near class \"" + nearClass.getName () + "\"" );
+        }
+        final byte[] xml = readResource ( url.openStream () );
+        final SkinInfo skinInfo = XmlUtils.fromXML ( new ByteArrayInputStream ( xml ) );
+        if ( skinInfo == null )
+        {
+            throw new IOException ( "Unable to parse skin XML \"" + location + "\" near class \"" + nearClass.getName () + "\"" );
+        }
+        writeSnapshot ( skinInfo, xml, file );
+    }
+
+    /**
+     * Returns snapshot file for the skin XML located near the specified class.
+     *
+     * @param nearClass class near which skin XML is located
+     * @param location  skin XML location relative to the class
+     * @return snapshot file for the skin XML located near the specified class
+     */
+    private static File getSnapshotFile ( final Class<?> nearClass, final String location )
+    {
+        final String name = nearClass.getName () + "-" + Integer.toHexString ( location.hashCode () ) + SNAPSHOT_EXTENSION;
+        return new File ( getSnapshotsDir (), name );
+    }
+
+    /**
+     * Returns skin information read from the snapshot or null if snapshot is missing, outdated or cannot be read.
+     * Snapshot header is written with plain primitive values and it is validated before any object is deserialized, skin data itself
+     * is deserialized only from the classes allowed by {@link com.alee.managers.style.data.SkinSnapshot.SnapshotInputStream}.
+     *
+     * @param snapshot snapshot location
+     * @param xml      skin XML content
+     * @return skin information read from the snapshot or null if snapshot is missing, outdated or cannot be read
+     */
+    private static SkinInfo readSnapshot ( final URL snapshot, final byte[] xml )
+    {
+        if ( snapshot == null )
+        {
+            return null;
+        }
+        InputStream is = null;
+        try
+        {
+            is = new GZIPInputStream ( new BufferedInputStream ( snapshot.openStream () ) );
+
+            // Checking snapshot format and skin sources hash
+            final DataInputStream dis = new DataInputStream ( is );
+            if ( dis.readInt () != FORMAT_VERSION )
+            {
+                return null;
+            }
+            final String hash = dis.readUTF ();
+            final List<ResourceFile> includes = readIncludes ( dis );
+            if ( !hash.equals ( computeHash ( xml, includes ) ) )
+            {
+                return null;
+            }
+
+            // Reading compiled skin
+            final ObjectInputStream ois = new SnapshotInputStream ( is );
+            final SkinInfo skinInfo = ( SkinInfo ) ois.readObject ();
+            @SuppressWarnings ( "unchecked" )
+            final Map<SupportedComponent, Map<String, ComponentStyle>> stylesCache =
+                    ( Map<SupportedComponent, Map<String, ComponentStyle>> ) ois.readObject ();
+            skinInfo.setStylesCache ( stylesCache );
+            skinInfo.setIncludes ( includes );
+            return skinInfo;
+        }
+        catch ( final Throwable e )
+        {
+            // Snapshot is broken, contains disallowed classes or was written for incompatible classes
+            return null;
+        }
+        finally
+        {
+            close ( is );
+        }
+    }
+
+    /**
+     * Writes skin snapshot into the specified file.
+     *
+     * @param skinInfo skin information
+     * @param xml      skin XML content
+     * @param file     snapshot file
+     * @throws IOException if snapshot cannot be written
+     */
+    private static void writeSnapshot ( final SkinInfo skinInfo, final byte[] xml, final File file ) throws IOException
+    {
+        final File dir = file.getAbsoluteFile ().getParentFile ();
+        if ( !FileUtils.ensureDirectoryExists ( dir ) )
+        {
+            throw new IOException ( "Cannot create snapshots directory: " + dir.getAbsolutePath () );
+        }
+
+        // Skin sources hash is computed before writing anything
+        final List<ResourceFile> includes = skinInfo.getIncludes ();
+        final String hash;
+        try
+        {
+            hash = computeHash ( xml, includes );
+        }
+        catch ( final Exception e )
+        {
+            throw new IOException ( "Unable to compute skin sources hash", e );
+        }
+
+        // Snapshot is written into temporary file first to avoid partially written snapshots
+        final File temp = new File ( dir, file.getName () + ".tmp" );
+        final OutputStream os = new GZIPOutputStream ( new BufferedOutputStream ( new FileOutputStream ( temp ) ) );
+        try
+        {
+            final DataOutputStream dos = new DataOutputStream ( os );
+            dos.writeInt ( FORMAT_VERSION );
+            dos.writeUTF ( hash );
+            writeIncludes ( dos, includes );
+            dos.flush ();
+
+            final ObjectOutputStream oos = new ObjectOutputStream ( os );
+            oos.writeObject ( skinInfo );
+            oos.writeObject ( skinInfo.getStylesCache () );
+            oos.flush ();
+        }
+        catch ( final IOException e )
+        {
+            close ( os );
+            FileUtils.deleteFile ( temp );
+            throw e;
+        }
+        os.close ();
+
+        try
+        {
+            Files.move ( temp.toPath (), file.toPath (), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        }
+        catch ( final AtomicMoveNotSupportedException e )
+        {
+            Files.move ( temp.toPath (), file.toPath (), StandardCopyOption.REPLACE_EXISTING );
+        }
+    }
+
+    /**
+     * Writes files included into the skin as plain values.
+     *
+     * @param dos      data output stream
+     * @param includes files included into the skin
+     * @throws IOException if includes cannot be written
+     */
+    private static void writeIncludes ( final DataOutputStream dos, final List<ResourceFile> includes ) throws IOException
+    {
+        final int count = includes != null ? includes.size () : 0;
+        dos.writeInt ( count );
+        for ( int i = 0; i < count; i++ )
+        {
+            final ResourceFile include = includes.get ( i );
+            dos.writeUTF ( include.getLocation ().name () );
+            dos.writeUTF ( include.getSource () );
+            dos.writeBoolean ( include.getClassName () != null );
+            if ( include.getClassName () != null )
+            {
+                dos.writeUTF ( include.getClassName () );
+            }
+        }
+    }
+
+    /**
+     * Returns files included into the skin read from plain values.
+     *
+     * @param dis data input stream
+     * @return files included into the skin
+     * @throws IOException if includes cannot be read
+     */
+    private static List<ResourceFile> readIncludes ( final DataInputStream dis ) throws IOException
+    {
+        final int count = dis.readInt ();
+        if ( count < 0 )
+        {
+            throw new IOException ( "Invalid includes count: " + count );
+        }
+        final List<ResourceFile> includes = new ArrayList<ResourceFile> ( Math.min ( count, 64 ) );
+        for ( int i = 0; i < count; i++ )
+        {
+            final ResourceLocation location = ResourceLocation.valueOf ( dis.readUTF () );
+            final String source = dis.readUTF ();
+            final String className = dis.readBoolean () ? dis.readUTF () : null;
+            includes.add ( new ResourceFile ( location, source, className ) );
+        }
+        return includes;
+    }
+
+    /**
+     * Returns content hash of the library version, skin XML and all files it includes.
+     * Library version is a part of the hash since converters and skin data classes might change between library builds.
+     *
+     * @param xml      skin XML content
+     * @param includes files included into the skin
+     * @return content hash of the skin XML and all files it includes
+     * @throws Exception if any of the included files cannot be read
+     */
+    private static String computeHash ( final byte[] xml, final List<ResourceFile> includes ) throws Exception
+    {
+        final MessageDigest digest = MessageDigest.getInstance ( "SHA-1" );
+        digest.update ( getLibraryVersion () );
+        digest.update ( xml );
+        if ( includes != null )
+        {
+            for ( final ResourceFile include : includes )
+            {
+                digest.update ( ( include.getLocation () + ":" + include.getClassName () + ":" + include.getSource () ).getBytes ( "UTF-8" ) );
+                digest.update ( readResource ( openResource ( include ) ) );
+            }
+        }
+        final StringBuilder hash = new StringBuilder ();
+        for ( final byte b : digest.digest () )
+        {
+            hash.append ( Integer.toString ( ( b & 0xff ) + 0x100, 16 ).substring ( 1 ) );
+        }
+        return hash.toString ();
+    }
+
+    /**
+     * Returns library version descriptor content.
+     *
+     * @return library version descriptor content
+     * @throws IOException if library version descriptor cannot be read
+     */
+    private static synchronized byte[] getLibraryVersion () throws IOException
+    {
+        if ( libraryVersion == null )
+        {
+            final InputStream is = WebLookAndFeel.class.getResourceAsStream ( "resources/version.xml" );
+            if ( is == null )
+            {
+                throw new FileNotFoundException ( "Unable to find library version descriptor" );
+            }
+            libraryVersion = readResource ( is );
+        }
+        return libraryVersion;
+    }
+
+    /**
+     * Returns input stream for the specified resource file.
+     *
+     * @param resource resource file
+     * @return input stream for the specified resource file
+     * @throws Exception if resource file cannot be opened
+     */
+    private static InputStream openResource ( final ResourceFile resource ) throws Exception
+    {
+        switch ( resource.getLocation () )
+        {
+            case url:
+            {
+                return new URL ( resource.getSource () ).openStream ();
+            }
+            case filePath:
+            {
+                return new FileInputStream ( resource.getSource () );
+            }
+            case nearClass:
+            {
+                final InputStream is = Class.forName ( resource.getClassName () ).getResourceAsStream ( resource.getSource () );
+                if ( is == null )
+                {
+                    throw new FileNotFoundException ( "Unable to find \"" + resource.getSource () + "\" near \"" + resource.getClassName () + "\"" );
+                }
+                return is;
+            }
+            default:
+            {
+                throw new IllegalArgumentException ( "Unknown resource location: " + resource.getLocation () );
+            }
+        }
+    }
+
+    /**
+     * Returns all bytes read from the specified input stream.
+     * Stream is closed afterwards.
+     *
+     * @param is input stream
+     * @return all bytes read from the specified input stream
+     * @throws IOException if stream cannot be read
+     */
+    private static byte[] readResource ( final InputStream is ) throws IOException
+    {
+        try
+        {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream ();
+            final byte[] buffer = new byte[ 8192 ];
+            int read;
+            while ( ( read = is.read ( buffer ) ) != -1 )
+            {
+                bytes.write ( buffer, 0, read );
+            }
+            return bytes.toByteArray ();
+        }
+        finally
+        {
+            is.close ();
+        }
+    }
+
+    /**
+     * Returns URL for the specified file or null if it cannot be converted.
+     *
+     * @param file file to process
+     * @return URL for the specified file or null if it cannot be converted
+     */
+    private static URL toURL ( final File file )
+    {
+        try
+        {
+            return file.toURI ().toURL ();
+        }
+        catch ( final IOException e )
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Closes specified stream safely.
+     *
+     * @param closeable stream to close
+     */
+    private static void close ( final Closeable closeable )
+    {
+        if ( closeable != null )
+        {
+            try
+            {
+                closeable.close ();
+            }
+            catch ( final IOException e )
+            {
+                // Ignoring close exceptions
+            }
+        }
+    }
+
+    /**
+     * Object input stream which only resolves classes used by skin data.
+     * Any other class found in the snapshot fails deserialization before its instance is created.
+     */
+    private static final class SnapshotInputStream extends ObjectInputStream
+    {
+        /**
+         * Constructs new snapshot input stream.
+         *
+         * @param in stream to read from
+         * @throws IOException if stream header cannot be read
+         */
+        public SnapshotInputStream ( final InputStream in ) throws IOException
+        {
+            super ( in );
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected Class<?> resolveClass ( final ObjectStreamClass desc ) throws IOException, ClassNotFoundException
+        {
+            if ( !isAllowed ( desc.getName () ) )
+            {
+                throw new InvalidClassException ( desc.getName (), "Class is not allowed in skin snapshot" );
+            }
+            return super.resolveClass ( desc );
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected Class<?> resolveProxyClass ( final String[] interfaces ) throws IOException, ClassNotFoundException
+        {
+            throw new InvalidClassException ( "Proxy classes are not allowed in skin snapshot" );
+        }
+
+        /**
+         * Returns whether class with the specified name is allowed to be deserialized or not.
+         *
+         * @param name class name
+         * @return true if class with the specified name is allowed to be deserialized, false otherwise
+         */
+        private static boolean isAllowed ( final String name )
+        {
+            // Arrays are checked by their component type, primitive arrays are always allowed
+            String className = name;
+            while ( className.startsWith ( "[" ) )
+            {
+                className = className.substring ( 1 );
+            }
+            if ( className.startsWith ( "L" ) && className.endsWith ( ";" ) )
+            {
+                className = className.substring ( 1, className.length () - 1 );
+            }
+            else if ( !className.equals ( name ) )
+            {
+                return true;
+            }
+
+            final int dot = className.lastIndexOf ( '.' );
+            return className.startsWith ( "com.alee." ) || dot != -1 && ALLOWED_PACKAGES.contains ( className.substring ( 0, dot ) );
+        }
+    }
+}
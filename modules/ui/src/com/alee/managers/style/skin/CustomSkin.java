@@ -20,7 +20,7 @@ package com.alee.managers.style.skin;
 import com.alee.managers.style.SupportedComponent;
 import com.alee.managers.style.data.ComponentStyle;
 import com.alee.managers.style.data.SkinInfo;
-import com.alee.utils.XmlUtils;
+import com.alee.managers.style.data.SkinSnapshot;
 
 import javax.swing.*;
 import java.util.List;
@@ -47,13 +47,15 @@ public class CustomSkin extends WebLafSkin
 
     /**
      * Constructs new custom theme.
+     * Skin snapshot is used instead of XML if there is a valid one.
      *
      * @param location skin info XML location relative to this class
+     * @see com.alee.managers.style.data.SkinSnapshot
      */
     public CustomSkin ( final String location )
     {
         super ();
-        this.skinInfo = XmlUtils.fromXML ( this.getClass ().getResource ( location ) );
+        this.skinInfo = SkinSnapshot.loadSkinInfo ( this.getClass (), location );
     }
 
     /**
@@ -0,0 +1,418 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.alee.managers.style.skin;
+
+import com.alee.managers.log.Log;
+import com.alee.managers.style.StyleException;
+import com.alee.utils.ReflectUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class provides cached accessors for painter, UI and component properties used by skins.
+ * <p/>
+ * Each accessor is resolved through reflection only once per class and property and then is bound into a {@link MethodHandle}.
+ * Property setters are additionally resolved per value type since the setter method is chosen by the type of value passed into it.
+ * Applying the same style to thousands of components afterwards doesn't perform any method or field lookups.
+ *
+ * @author Mikle Garin
+ * @see com.alee.managers.style.skin.WebLafSkin
+ */
+
+public final class PropertyAccessors
+{
+    /**
+     * Generic setter method type.
+     */
+    private static final MethodType SETTER_TYPE = MethodType.methodType ( void.class, Object.class, Object.class );
+
+    /**
+     * Generic getter method type.
+     */
+    private static final MethodType GETTER_TYPE = MethodType.methodType ( Object.class, Object.class );
+
+    /**
+     * Generic constructor method type.
+     */
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType ( Object.class );
+
+    /**
+     * Lookup used to create method handles.
+     * Private members are only accessed after their accessible flag is set.
+     */
+    private static final MethodHandles.Lookup lookup = MethodHandles.lookup ();
+
+    /**
+     * Cached property setters.
+     */
+    private static final Map<Class<?>, Map<SetterKey, Accessor>> setters = new ConcurrentHashMap<Class<?>, Map<SetterKey, Accessor>> ();
+
+    /**
+     * Cached property getters.
+     */
+    private static final Map<Class<?>, Map<String, Accessor>> getters = new ConcurrentHashMap<Class<?>, Map<String, Accessor>> ();
+
+    /**
+     * Cached default constructors.
+     */
+    private static final Map<String, MethodHandle> constructors = new ConcurrentHashMap<String, MethodHandle> ();
+
+    /**
+     * Returns new instance of the class with the specified canonical name created using its default constructor.
+     *
+     * @param canonicalClassName canonical class name
+     * @param <T>                instance type
+     * @return new instance of the class with the specified canonical name
+     * @throws StyleException if instance cannot be created
+     */
+    @SuppressWarnings ( "unchecked" )
+    public static <T> T createInstance ( final String canonicalClassName )
+    {
+        try
+        {
+            MethodHandle constructor = constructors.get ( canonicalClassName );
+            if ( constructor == null )
+            {
+                final Class<?> type = ReflectUtils.loadClass ( canonicalClassName );
+                final Constructor<?> c = type.getDeclaredConstructor ();
+                c.setAccessible ( true );
+                constructor = lookup.unreflectConstructor ( c ).asType ( CONSTRUCTOR_TYPE );
+                constructors.put ( canonicalClassName, constructor );
+            }
+            return ( T ) ( Object ) constructor.invokeExact ();
+        }
+        catch ( final Throwable e )
+        {
+            throw new StyleException ( "Unable to create instance of class: " + canonicalClassName, e );
+        }
+    }
+
+    /**
+     * Calls setter method for the specified property.
+     * Unlike {@link #setPropertyValue(Object, String, Object)} this method doesn't try to modify field directly.
+     *
+     * @param object   object instance
+     * @param property property name
+     * @param value    property value
+     * @throws StyleException if setter method is missing or has thrown an exception
+     */
+    public static void callSetter ( final Object object, final String property, final Object value )
+    {
+        final Accessor setter = getSetter ( object.getClass (), property, value );
+        if ( setter.method == null )
+        {
+            throw new StyleException ( "Unable to find setter for property \"" + property + "\" in class: " +
+                    object.getClass ().getCanonicalName () );
+        }
+        try
+        {
+            setter.method.invokeExact ( object, value );
+        }
+        catch ( final Throwable e )
+        {
+            throw new StyleException ( "Unable to set property \"" + property + "\" for object: " + object, e );
+        }
+    }
+
+    /**
+     * Applies specified value to object property.
+     * Setter method is used if it exists, otherwise field is modified directly even if it is private.
+     *
+     * @param object   object instance
+     * @param property property name
+     * @param value    property value
+     * @return true if value was applied successfully, false otherwise
+     */
+    public static boolean setPropertyValue ( final Object object, final String property, final Object value )
+    {
+        final Accessor setter = getSetter ( object.getClass (), property, value );
+
+        // Trying to use setter method to apply the specified value
+        if ( setter.method != null )
+        {
+            try
+            {
+                setter.method.invokeExact ( object, value );
+                return true;
+            }
+            catch ( final Throwable e )
+            {
+                Log.error ( PropertyAccessors.class, e );
+            }
+        }
+
+        // Applying field value directly
+        if ( setter.field != null )
+        {
+            try
+            {
+                setter.field.invokeExact ( object, value );
+                return true;
+            }
+            catch ( final Throwable e )
+            {
+                Log.error ( PropertyAccessors.class, e );
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns object property value.
+     * Getter method is used if it exists, otherwise field value is read directly even if it is private.
+     *
+     * @param object   object instance
+     * @param property property name
+     * @param <T>      value type
+     * @return property value for the specified object or null
+     */
+    @SuppressWarnings ( "unchecked" )
+    public static <T> T getPropertyValue ( final Object object, final String property )
+    {
+        final Accessor getter = getGetter ( object.getClass (), property );
+
+        // Trying to use getter method to retrieve value
+        if ( getter.method != null )
+        {
+            try
+            {
+                return ( T ) ( Object ) getter.method.invokeExact ( object );
+            }
+            catch ( final Throwable e )
+            {
+                Log.error ( PropertyAccessors.class, e );
+            }
+        }
+
+        // Retrieving field value directly
+        if ( getter.field != null )
+        {
+            try
+            {
+                return ( T ) ( Object ) getter.field.invokeExact ( object );
+            }
+            catch ( final Throwable e )
+            {
+                Log.error ( PropertyAccessors.class, e );
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns cached setter for the specified class, property and value.
+     *
+     * @param aClass   object class
+     * @param property property name
+     * @param value    property value
+     * @return cached setter for the specified class, property and value
+     */
+    private static Accessor getSetter ( final Class<?> aClass, final String property, final Object value )
+    {
+        Map<SetterKey, Accessor> classSetters = setters.get ( aClass );
+        if ( classSetters == null )
+        {
+            classSetters = new ConcurrentHashMap<SetterKey, Accessor> ();
+            setters.put ( aClass, classSetters );
+        }
+        final SetterKey key = new SetterKey ( property, value != null ? value.getClass () : null );
+        Accessor setter = classSetters.get ( key );
+        if ( setter == null )
+        {
+            setter = resolveSetter ( aClass, property, value );
+            classSetters.put ( key, setter );
+        }
+        return setter;
+    }
+
+    /**
+     * Returns newly resolved setter for the specified class, property and value.
+     *
+     * @param aClass   object class
+     * @param property property name
+     * @param value    property value
+     * @return newly resolved setter for the specified class, property and value
+     */
+    private static Accessor resolveSetter ( final Class<?> aClass, final String property, final Object value )
+    {
+        MethodHandle method = null;
+        try
+        {
+            final Method setter = ReflectUtils.getMethod ( aClass, ReflectUtils.getSetterMethodName ( property ), value );
+            method = lookup.unreflect ( setter ).asType ( SETTER_TYPE );
+        }
+        catch ( final Throwable e )
+        {
+            // Field will be modified directly
+        }
+
+        MethodHandle field = null;
+        try
+        {
+            final Field f = ReflectUtils.getField ( aClass, property );
+            f.setAccessible ( true );
+            field = lookup.unreflectSetter ( f ).asType ( SETTER_TYPE );
+        }
+        catch ( final Throwable e )
+        {
+            if ( method == null )
+            {
+                Log.error ( PropertyAccessors.class, "Unable to find setter or field for property \"" + property + "\" in class: " +
+                        aClass.getCanonicalName (), e );
+            }
+        }
+        return new Accessor ( method, field );
+    }
+
+    /**
+     * Returns cached getter for the specified class and property.
+     *
+     * @param aClass   object class
+     * @param property property name
+     * @return cached getter for the specified class and property
+     */
+    private static Accessor getGetter ( final Class<?> aClass, final String property )
+    {
+        Map<String, Accessor> classGetters = getters.get ( aClass );
+        if ( classGetters == null )
+        {
+            classGetters = new ConcurrentHashMap<String, Accessor> ();
+            getters.put ( aClass, classGetters );
+        }
+        Accessor getter = classGetters.get ( property );
+        if ( getter == null )
+        {
+            getter = resolveGetter ( aClass, property );
+            classGetters.put ( property, getter );
+        }
+        return getter;
+    }
+
+    /**
+     * Returns newly resolved getter for the specified class and property.
+     *
+     * @param aClass   object class
+     * @param property property name
+     * @return newly resolved getter for the specified class and property
+     */
+    private static Accessor resolveGetter ( final Class<?> aClass, final String property )
+    {
+        MethodHandle method = null;
+        try
+        {
+            final Method getter = ReflectUtils.getFieldGetter ( aClass, property );
+            if ( getter != null )
+            {
+                method = lookup.unreflect ( getter ).asType ( GETTER_TYPE );
+            }
+        }
+        catch ( final Throwable e )
+        {
+            // Field will be read directly
+        }
+
+        MethodHandle field = null;
+        try
+        {
+            final Field f = ReflectUtils.getField ( aClass, property );
+            f.setAccessible ( true );
+            field = lookup.unreflectGetter ( f ).asType ( GETTER_TYPE );
+        }
+        catch ( final Throwable e )
+        {
+            if ( method == null )
+            {
+                Log.error ( PropertyAccessors.class, "Unable to find getter or field for property \"" + property + "\" in class: " +
+                        aClass.getCanonicalName (), e );
+            }
+        }
+        return new Accessor ( method, field );
+    }
+
+    /**
+     * Clears all cached accessors.
+     * This might be useful if classes are reloaded at runtime.
+     */
+    public static void clearCache ()
+    {
+        setters.clear ();
+        getters.clear ();
+        constructors.clear ();
+    }
+
+    /**
+     * Resolved property accessor.
+     * Any of the handles might be null if appropriate method or field doesn't exist.
+     */
+    private static final class Accessor
+    {
+        private final MethodHandle method;
+        private final MethodHandle field;
+
+        public Accessor ( final MethodHandle method, final MethodHandle field )
+        {
+            super ();
+            this.method = method;
+            this.field = field;
+        }
+    }
+
+    /**
+     * Setter cache key combining property name and value type.
+     */
+    private static final class SetterKey
+    {
+        private final String property;
+        private final Class<?> type;
+
+        public SetterKey ( final String property, final Class<?> type )
+        {
+            super ();
+            this.property = property;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals ( final Object obj )
+        {
+            if ( this == obj )
+            {
+                return true;
+            }
+            if ( !( obj instanceof SetterKey ) )
+            {
+                return false;
+            }
+            final SetterKey other = ( SetterKey ) obj;
+            return type == other.type && property.equals ( other.property );
+        }
+
+        @Override
+        public int hashCode ()
+        {
+            return 31 * property.hashCode () + ( type != null ? type.hashCode () : 0 );
+        }
+    }
+}
@@ -26,14 +26,10 @@ import com.alee.managers.style.data.ComponentStyle;
 import com.alee.managers.style.data.IgnoredValue;
 import com.alee.managers.style.data.PainterStyle;
 import com.alee.utils.LafUtils;
-import com.alee.utils.ReflectUtils;
 import com.alee.utils.SystemUtils;
 
 import javax.swing.*;
 import javax.swing.plaf.ComponentUI;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -234,11 +230,14 @@ public abstract class WebLafSkin
                 {
                     // Creating painter instance
                     // Be aware that all painters must have default constructor
-                    painter = ReflectUtils.createInstanceSafely ( painterStyle.getPainterClass () );
-                    if ( painter == null )
+                    try
+                    {
+                        painter = PropertyAccessors.createInstance ( painterStyle.getPainterClass () );
+                    }
+                    catch ( final StyleException e )
                     {
                         throw new StyleException (
-                                "Unable to create painter \"" + painterStyle.getPainterClass () + "\" for component: " + component );
+                                "Unable to create painter \"" + painterStyle.getPainterClass () + "\" for component: " + component, e );
                     }
 
                     // Applying painter properties
@@ -249,8 +248,7 @@ public abstract class WebLafSkin
                 }
 
                 // Installing painter into the UI
-                final String setterMethod = ReflectUtils.getSetterMethodName ( painterId );
-                ReflectUtils.callMethod ( ui, setterMethod, painter );
+                PropertyAccessors.callSetter ( ui, painterId, painter );
             }
 
             // Applying UI properties
@@ -299,8 +297,7 @@ public abstract class WebLafSkin
             final ComponentUI ui = getComponentUIImpl ( component );
             for ( final PainterStyle painterStyle : style.getPainters () )
             {
-                final String setterMethod = ReflectUtils.getSetterMethodName ( painterStyle.getId () );
-                ReflectUtils.callMethod ( ui, setterMethod, ( Painter ) null );
+                PropertyAccessors.callSetter ( ui, painterStyle.getId (), null );
             }
             return true;
         }
@@ -458,44 +455,8 @@ public abstract class WebLafSkin
             return false;
         }
 
-        // Trying to use setter method to apply the specified value
-        try
-        {
-            final String setterMethod = ReflectUtils.getSetterMethodName ( field );
-            ReflectUtils.callMethod ( object, setterMethod, value );
-            return true;
-        }
-        catch ( final NoSuchMethodException e )
-        {
-            Log.error ( WebLafSkin.class, e );
-        }
-        catch ( final InvocationTargetException e )
-        {
-            Log.error ( WebLafSkin.class, e );
-        }
-        catch ( final IllegalAccessException e )
-        {
-            Log.error ( WebLafSkin.class, e );
-        }
-
-        // Applying field value directly
-        try
-        {
-            final Field actualField = ReflectUtils.getField ( object.getClass (), field );
-            actualField.setAccessible ( true );
-            actualField.set ( object, value );
-            return true;
-        }
-        catch ( final NoSuchFieldException e )
-        {
-            Log.error ( WebLafSkin.class, e );
-            return false;
-        }
-        catch ( final IllegalAccessException e )
-        {
-            Log.error ( WebLafSkin.class, e );
-            return false;
-        }
+        // Applying value through cached setter method or field accessor
+        return PropertyAccessors.setPropertyValue ( object, field, value );
     }
 
     /**
@@ -510,43 +471,8 @@ public abstract class WebLafSkin
      */
     public static <T> T getFieldValue ( final Object object, final String field )
     {
-        final Class<?> objectClass = object.getClass ();
-
-        // Trying to use getter method to retrieve value
-        // Note that this method might work even if there is no real field with the specified name but there is fitting getter method
-        // This was made to improve call speed (no real field check) and avoid accessing field directly (in most of cases)
-        try
-        {
-            final Method getter = ReflectUtils.getFieldGetter ( object, field );
-            return ( T ) getter.invoke ( object );
-        }
-        catch ( final InvocationTargetException e )
-        {
-            Log.error ( WebLafSkin.class, e );
-        }
-        catch ( final IllegalAccessException e )
-        {
-            Log.error ( WebLafSkin.class, e );
-        }
-
-        // Retrieving field value directly
-        // This one is rarely used and in most of times will be called when inappropriate property is set
-        try
-        {
-            final Field actualField = ReflectUtils.getField ( objectClass, field );
-            actualField.setAccessible ( true );
-            return ( T ) actualField.get ( object );
-        }
-        catch ( final NoSuchFieldException e )
-        {
-            Log.error ( WebLafSkin.class, e );
-            return null;
-        }
-        catch ( final IllegalAccessException e )
-        {
-            Log.error ( WebLafSkin.class, e );
-            return null;
-        }
+        // Retrieving value through cached getter method or field accessor
+        return PropertyAccessors.getPropertyValue ( object, field );
     }
 
     /**
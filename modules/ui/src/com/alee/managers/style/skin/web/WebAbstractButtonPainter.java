@@ -4,6 +4,7 @@ import com.alee.global.StyleConstants;
 import com.alee.laf.button.AbstractButtonPainter;
 import com.alee.laf.button.WebButtonStyle;
 import com.alee.utils.GraphicsUtils;
+import com.alee.utils.ShapeCacheKey;
 import com.alee.utils.SwingUtils;
 import com.alee.utils.swing.AncestorAdapter;
 import com.alee.utils.swing.WebTimer;
@@ -339,6 +340,25 @@ public class WebAbstractButtonPainter<E extends AbstractButton, U extends BasicB
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isBackingImageAllowed ( final E c )
+    {
+        // Cursor-following highlight changes with each mouse move
+        return super.isBackingImageAllowed ( c ) && !( rolloverShine && mousePoint != null && c.isEnabled () );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected ShapeCacheKey getDecorationSettings ( final E c )
+    {
+        return super.getDecorationSettings ( c ).add ( getCurrentTopBgColor ( pressed ) ).add ( getCurrentBottomBgColor ( pressed ) );
+    }
+
     /**
      * Paints button icon.
      *
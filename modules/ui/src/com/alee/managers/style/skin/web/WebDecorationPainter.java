@@ -20,21 +20,27 @@ package com.alee.managers.style.skin.web;
 import com.alee.extended.painter.AbstractPainter;
 import com.alee.extended.painter.PartialDecoration;
 import com.alee.global.StyleConstants;
+import com.alee.graphics.image.BackingImageCache;
 import com.alee.managers.focus.DefaultFocusTracker;
 import com.alee.managers.focus.FocusManager;
 import com.alee.managers.focus.FocusTracker;
 import com.alee.utils.GraphicsUtils;
+import com.alee.utils.ImageUtils;
 import com.alee.utils.LafUtils;
 import com.alee.utils.NinePatchUtils;
 import com.alee.utils.ShapeCache;
+import com.alee.utils.ShapeCacheKey;
 import com.alee.utils.laf.PainterShapeProvider;
-import com.alee.utils.ninepatch.NinePatchIcon;
 import com.alee.utils.swing.DataProvider;
+import com.alee.utils.ninepatch.NinePatchIcon;
 
 import javax.swing.*;
 import javax.swing.plaf.ComponentUI;
 import java.awt.*;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.GeneralPath;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
 
 /**
  * Web-style background painter for any component.
@@ -60,6 +66,11 @@ public class WebDecorationPainter<E extends JComponent, U extends ComponentUI> e
     protected static final String BORDER_SHAPE = "border";
     protected static final String BACKGROUND_SHAPE = "background";
 
+    /**
+     * Decoration backing images cache shared by all decoration painters.
+     */
+    protected static final BackingImageCache backingImageCache = new BackingImageCache ();
+
     /**
      * Style settings.
      */
@@ -81,6 +92,7 @@ public class WebDecorationPainter<E extends JComponent, U extends ComponentUI> e
     protected boolean paintLeftLine = false;
     protected boolean paintBottomLine = false;
     protected boolean paintRightLine = false;
+    protected boolean useBackingImage = WebDecorationPainterStyle.useBackingImage;
 
     /**
      * Listeners.
@@ -99,6 +111,9 @@ public class WebDecorationPainter<E extends JComponent, U extends ComponentUI> e
     protected boolean actualPaintRight;
     protected int w;
     protected int h;
+    protected final ShapeCacheKey shapeSettings = new ShapeCacheKey ();
+    protected final DecorationShapeProvider shapeProvider = new DecorationShapeProvider ();
+    protected final ShapeCacheKey decorationSettings = new ShapeCacheKey ( 48 );
 
     /**
      * {@inheritDoc}
@@ -605,6 +620,43 @@ public class WebDecorationPainter<E extends JComponent, U extends ComponentUI> e
         }
     }
 
+    /**
+     * Returns whether decoration is rendered into a cached backing image or not.
+     *
+     * @return true if decoration is rendered into a cached backing image, false otherwise
+     */
+    public boolean isUseBackingImage ()
+    {
+        return useBackingImage;
+    }
+
+    /**
+     * Sets whether decoration should be rendered into a cached backing image or not.
+     * Backing image is rendered once for each distinct size, state and style and then simply painted on each component repaint.
+     * Images are shared between all components painted with the same settings and kept within {@link #getBackingImageCache()}.
+     *
+     * @param use whether decoration should be rendered into a cached backing image or not
+     */
+    public void setUseBackingImage ( final boolean use )
+    {
+        if ( this.useBackingImage != use )
+        {
+            this.useBackingImage = use;
+            repaint ();
+        }
+    }
+
+    /**
+     * Returns decoration backing images cache shared by all decoration painters.
+     * Its memory budget can be adjusted to fit the amount of decorated components.
+     *
+     * @return decoration backing images cache shared by all decoration painters
+     */
+    public static BackingImageCache getBackingImageCache ()
+    {
+        return backingImageCache;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -656,37 +708,135 @@ public class WebDecorationPainter<E extends JComponent, U extends ComponentUI> e
             h = c.getHeight ();
 
             // Checking need of painting
-            final boolean anyBorder = paintTop || paintRight || paintBottom || paintLeft;
-            if ( anyBorder || paintBackground )
+            if ( paintTop || paintRight || paintBottom || paintLeft || paintBackground )
             {
-                final Object aa = GraphicsUtils.setupAntialias ( g2d );
-                final boolean enabled = c.isEnabled ();
-
-                // Border shape
-                final Shape borderShape = getShape ( c, false );
-                final Shape backgroundShape = getShape ( c, true );
-
-                // Outer shadow
-                if ( anyBorder && shadeWidth > 0 )
+                if ( isBackingImageUsed ( g2d, c ) )
                 {
-                    paintShade ( g2d, bounds, c, borderShape );
+                    paintBackingImage ( g2d, bounds, c );
                 }
-
-                // Background
-                if ( paintBackground )
+                else
                 {
-                    paintBackground ( g2d, bounds, c, backgroundShape );
+                    paintDecoration ( g2d, bounds, c );
                 }
+            }
+        }
+    }
 
-                // Border
-                if ( anyBorder && ( enabled ? borderColor != null : disabledBorderColor != null ) )
-                {
-                    paintBorder ( g2d, bounds, c, borderShape );
-                }
+    /**
+     * Paints decoration shade, background and border.
+     *
+     * @param g2d    graphics context
+     * @param bounds painting bounds
+     * @param c      painted component
+     */
+    protected void paintDecoration ( final Graphics2D g2d, final Rectangle bounds, final E c )
+    {
+        final Object aa = GraphicsUtils.setupAntialias ( g2d );
+        final boolean anyBorder = paintTop || paintRight || paintBottom || paintLeft;
+        final boolean enabled = c.isEnabled ();
 
-                GraphicsUtils.restoreAntialias ( g2d, aa );
-            }
+        // Border shape
+        final Shape borderShape = getShape ( c, false );
+        final Shape backgroundShape = getShape ( c, true );
+
+        // Outer shadow
+        if ( anyBorder && shadeWidth > 0 )
+        {
+            paintShade ( g2d, bounds, c, borderShape );
+        }
+
+        // Background
+        if ( paintBackground )
+        {
+            paintBackground ( g2d, bounds, c, backgroundShape );
+        }
+
+        // Border
+        if ( anyBorder && ( enabled ? borderColor != null : disabledBorderColor != null ) )
+        {
+            paintBorder ( g2d, bounds, c, borderShape );
         }
+
+        GraphicsUtils.restoreAntialias ( g2d, aa );
+    }
+
+    /**
+     * Paints decoration from the cached backing image.
+     * Image is rendered and cached if there is no image for the current decoration settings yet.
+     *
+     * @param g2d    graphics context
+     * @param bounds painting bounds
+     * @param c      painted component
+     */
+    protected void paintBackingImage ( final Graphics2D g2d, final Rectangle bounds, final E c )
+    {
+        final ShapeCacheKey settings = getDecorationSettings ( c );
+        BufferedImage image = backingImageCache.get ( getClass (), settings );
+        if ( image == null )
+        {
+            image = ImageUtils.createCompatibleImage ( w, h, Transparency.TRANSLUCENT );
+            final Graphics2D ig = image.createGraphics ();
+            paintDecoration ( ig, bounds, c );
+            ig.dispose ();
+            backingImageCache.put ( getClass (), settings, image );
+        }
+        g2d.drawImage ( image, 0, 0, null );
+    }
+
+    /**
+     * Returns whether decoration should be painted from the cached backing image or not.
+     * Backing image is not used for transformed graphics since it would be scaled, for images too large for the cache and for
+     * decorations which depend on something not included into decoration settings.
+     *
+     * @param g2d graphics context
+     * @param c   painted component
+     * @return true if decoration should be painted from the cached backing image, false otherwise
+     */
+    protected boolean isBackingImageUsed ( final Graphics2D g2d, final E c )
+    {
+        return useBackingImage && backingImageCache.isCacheable ( w, h ) &&
+                ( g2d.getTransform ().getType () & ~AffineTransform.TYPE_TRANSLATION ) == 0 && isBackingImageAllowed ( c );
+    }
+
+    /**
+     * Returns whether current decoration can be cached or not.
+     * Subclasses should return false while their decoration depends on something which changes too often to be cached.
+     *
+     * @param c painted component
+     * @return true if current decoration can be cached, false otherwise
+     */
+    @SuppressWarnings ( "UnusedParameters" )
+    protected boolean isBackingImageAllowed ( final E c )
+    {
+        return borderStroke == null || borderStroke instanceof BasicStroke;
+    }
+
+    /**
+     * Returns settings key containing everything that affects decoration look.
+     * Subclasses which paint decoration parts differently should add their own settings into the returned key.
+     * Returned key is reused between calls.
+     *
+     * @param c painted component
+     * @return settings key containing everything that affects decoration look
+     */
+    protected ShapeCacheKey getDecorationSettings ( final E c )
+    {
+        final ShapeCacheKey settings = decorationSettings.set ( getCachedShapeSettings ( c ) );
+        settings.add ( c.isEnabled () ).add ( shadeTransparency ).add ( paintFocus && focused ).add ( borderColor )
+                .add ( disabledBorderColor ).add ( paintBackground ).add ( webColoredBackground )
+                .add ( webColoredBackground ? null : c.getBackground () ).add ( StyleConstants.shadeColor )
+                .add ( StyleConstants.fieldFocusColor ).add ( StyleConstants.topBgColor ).add ( StyleConstants.bottomBgColor );
+        if ( borderStroke instanceof BasicStroke )
+        {
+            final BasicStroke stroke = ( BasicStroke ) borderStroke;
+            settings.add ( 1 ).add ( stroke.getLineWidth () ).add ( stroke.getEndCap () ).add ( stroke.getLineJoin () )
+                    .add ( stroke.getMiterLimit () ).add ( Arrays.hashCode ( stroke.getDashArray () ) ).add ( stroke.getDashPhase () );
+        }
+        else
+        {
+            settings.add ( 0 );
+        }
+        return settings;
     }
 
     /**
@@ -802,27 +952,23 @@ public class WebDecorationPainter<E extends JComponent, U extends ComponentUI> e
      */
     protected Shape getShape ( final E c, final boolean background )
     {
-        return ShapeCache.getShape ( c, background ? BACKGROUND_SHAPE : BORDER_SHAPE, new DataProvider<Shape> ()
-        {
-            @Override
-            public Shape provide ()
-            {
-                return createShape ( c, background );
-            }
-        }, getCachedShapeSettings ( c ) );
+        return ShapeCache.getShape ( c, background ? BACKGROUND_SHAPE : BORDER_SHAPE, shapeProvider.set ( c, background ),
+                getCachedShapeSettings ( c ) );
     }
 
     /**
-     * Returns an array of shape settings cached along with the shape.
+     * Returns shape settings key cached along with the shape.
+     * Returned key is reused between calls.
      *
      * @param c painted component
-     * @return an array of shape settings cached along with the shape
+     * @return shape settings key cached along with the shape
      */
     @SuppressWarnings ( "UnusedParameters" )
-    protected Object[] getCachedShapeSettings ( final E c )
+    protected ShapeCacheKey getCachedShapeSettings ( final E c )
     {
-        return new Object[]{ w, h, ltr, round, shadeWidth, paintTop, paintLeft, paintBottom, paintRight, paintTopLine, paintLeftLine,
-                paintBottomLine, paintRightLine };
+        return shapeSettings.clear ().add ( w ).add ( h ).add ( ltr ).add ( round ).add ( shadeWidth ).add ( paintTop ).add ( paintLeft )
+                .add ( paintBottom ).add ( paintRight ).add ( paintTopLine ).add ( paintLeftLine ).add ( paintBottomLine )
+                .add ( paintRightLine );
     }
 
     /**
@@ -941,4 +1087,40 @@ public class WebDecorationPainter<E extends JComponent, U extends ComponentUI> e
             return shape;
         }
     }
+
+    /**
+     * Reusable decoration shape provider.
+     * It is filled with requested shape settings right before each shape request, so nothing is allocated while shape is cached.
+     */
+    protected class DecorationShapeProvider implements DataProvider<Shape>
+    {
+        /**
+         * Requested shape settings.
+         */
+        protected E component;
+        protected boolean background;
+
+        /**
+         * Fills this provider with requested shape settings.
+         *
+         * @param component  painted component
+         * @param background whether should provide background shape or not
+         * @return this provider
+         */
+        public DecorationShapeProvider set ( final E component, final boolean background )
+        {
+            this.component = component;
+            this.background = background;
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Shape provide ()
+        {
+            return createShape ( component, background );
+        }
+    }
 }
\ No newline at end of file
@@ -87,4 +87,10 @@ public final class WebDecorationPainterStyle
      * Decoration background color.
      */
     public static Color backgroundColor = StyleConstants.backgroundColor;
+
+    /**
+     * Whether should render decoration into a cached backing image and paint that image instead of painting decoration each time.
+     * This variable doesn't affect anything if undecorated.
+     */
+    public static boolean useBackingImage = false;
 }
\ No newline at end of file
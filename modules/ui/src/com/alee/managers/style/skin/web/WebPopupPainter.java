@@ -20,8 +20,8 @@ package com.alee.managers.style.skin.web;
 import com.alee.extended.painter.AbstractPainter;
 import com.alee.utils.*;
 import com.alee.utils.laf.PainterShapeProvider;
-import com.alee.utils.ninepatch.NinePatchIcon;
 import com.alee.utils.swing.DataProvider;
+import com.alee.utils.ninepatch.NinePatchIcon;
 
 import javax.swing.*;
 import javax.swing.plaf.ComponentUI;
@@ -67,6 +67,12 @@ public class WebPopupPainter<E extends JComponent, U extends ComponentUI> extend
     protected int relativeCorner = 0;
     protected int cornerAlignment = -1;
 
+    /**
+     * Painting variables.
+     */
+    protected final ShapeCacheKey shapeSettings = new ShapeCacheKey ();
+    protected final PopupShapeProvider shapeProvider = new PopupShapeProvider ();
+
     /**
      * {@inheritDoc}
      */
@@ -604,25 +610,13 @@ public class WebPopupPainter<E extends JComponent, U extends ComponentUI> extend
         {
             case simple:
             {
-                return ShapeCache.getShape ( popup, fill ? SIMPLE_FILL_SHAPE : SIMPLE_BORDER_SHAPE, new DataProvider<Shape> ()
-                {
-                    @Override
-                    public Shape provide ()
-                    {
-                        return createSimpleShape ( popup, popupSize, fill );
-                    }
-                }, getCachedShapeSettings ( popup, popupSize ) );
+                return ShapeCache.getShape ( popup, fill ? SIMPLE_FILL_SHAPE : SIMPLE_BORDER_SHAPE,
+                        shapeProvider.set ( PopupShapeProvider.SIMPLE, popup, popupSize, fill ), getCachedShapeSettings ( popup, popupSize ) );
             }
             case dropdown:
             {
-                return ShapeCache.getShape ( popup, fill ? DROPDOWN_FILL_SHAPE : DROPDOWN_BORDER_SHAPE, new DataProvider<Shape> ()
-                {
-                    @Override
-                    public Shape provide ()
-                    {
-                        return createDropdownShape ( popup, popupSize, fill );
-                    }
-                }, getCachedShapeSettings ( popup, popupSize ) );
+                return ShapeCache.getShape ( popup, fill ? DROPDOWN_FILL_SHAPE : DROPDOWN_BORDER_SHAPE,
+                        shapeProvider.set ( PopupShapeProvider.DROPDOWN, popup, popupSize, fill ), getCachedShapeSettings ( popup, popupSize ) );
             }
             default:
             {
@@ -632,15 +626,17 @@ public class WebPopupPainter<E extends JComponent, U extends ComponentUI> extend
     }
 
     /**
-     * Returns an array of shape settings cached along with the shape.
+     * Returns shape settings key cached along with the shape.
+     * Returned key is reused between calls.
      *
      * @param popup     popup component
      * @param popupSize popup size
-     * @return an array of shape settings cached along with the shape
+     * @return shape settings key cached along with the shape
      */
-    protected Object[] getCachedShapeSettings ( final E popup, final Dimension popupSize )
+    protected ShapeCacheKey getCachedShapeSettings ( final E popup, final Dimension popupSize )
     {
-        return new Object[]{ round, shadeWidth, cornerWidth, cornerSide, relativeCorner, cornerAlignment, popupSize, ltr };
+        return shapeSettings.clear ().add ( round ).add ( shadeWidth ).add ( cornerWidth ).add ( cornerSide ).add ( relativeCorner )
+                .add ( cornerAlignment ).add ( popupSize ).add ( ltr );
     }
 
     /**
@@ -778,14 +774,9 @@ public class WebPopupPainter<E extends JComponent, U extends ComponentUI> extend
      */
     protected Shape getDropdownCornerShape ( final E popupMenu, final Dimension menuSize, final boolean fill )
     {
-        return ShapeCache.getShape ( popupMenu, fill ? "dropdown-corner-fill" : "dropdown-corner-border", new DataProvider<Shape> ()
-        {
-            @Override
-            public Shape provide ()
-            {
-                return createDropdownCornerShape ( popupMenu, menuSize, fill );
-            }
-        }, getCachedShapeSettings ( popupMenu, menuSize ) );
+        return ShapeCache.getShape ( popupMenu, fill ? "dropdown-corner-fill" : "dropdown-corner-border",
+                shapeProvider.set ( PopupShapeProvider.DROPDOWN_CORNER, popupMenu, menuSize, fill ),
+                getCachedShapeSettings ( popupMenu, menuSize ) );
     }
 
     /**
@@ -887,4 +878,63 @@ public class WebPopupPainter<E extends JComponent, U extends ComponentUI> extend
     {
         return popupStyle == PopupStyle.dropdown ? Math.max ( cornerWidth, shadeWidth ) : shadeWidth;
     }
+
+    /**
+     * Reusable popup shape provider.
+     * It is filled with requested shape settings right before each shape request, so nothing is allocated while shape is cached.
+     */
+    protected class PopupShapeProvider implements DataProvider<Shape>
+    {
+        /**
+         * Provided shape types.
+         */
+        public static final int SIMPLE = 0;
+        public static final int DROPDOWN = 1;
+        public static final int DROPDOWN_CORNER = 2;
+
+        /**
+         * Requested shape settings.
+         */
+        protected int type;
+        protected E popup;
+        protected Dimension popupSize;
+        protected boolean fill;
+
+        /**
+         * Fills this provider with requested shape settings.
+         *
+         * @param type      shape type
+         * @param popup     popup component
+         * @param popupSize popup size
+         * @param fill      whether it is a fill shape or not
+         * @return this provider
+         */
+        public PopupShapeProvider set ( final int type, final E popup, final Dimension popupSize, final boolean fill )
+        {
+            this.type = type;
+            this.popup = popup;
+            this.popupSize = popupSize;
+            this.fill = fill;
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Shape provide ()
+        {
+            switch ( type )
+            {
+                case SIMPLE:
+                    return createSimpleShape ( popup, popupSize, fill );
+
+                case DROPDOWN:
+                    return createDropdownShape ( popup, popupSize, fill );
+
+                default:
+                    return createDropdownCornerShape ( popup, popupSize, fill );
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -23,6 +23,7 @@ import com.alee.laf.scroll.ScrollBarButtonPainter;
 import com.alee.laf.scroll.ScrollBarButtonType;
 import com.alee.laf.scroll.WebScrollBarStyle;
 import com.alee.utils.ShapeCache;
+import com.alee.utils.ShapeCacheKey;
 import com.alee.utils.swing.DataProvider;
 
 import javax.swing.*;
@@ -70,6 +71,9 @@ public class WebScrollBarButtonPainter<E extends JButton, U extends WebButtonUI>
      * Paint variables.
      */
     protected boolean verticalScroll;
+    protected final ShapeCacheKey shapeSettings = new ShapeCacheKey ();
+    protected final ArrowShapeProvider shapeProvider = new ArrowShapeProvider ();
+    protected final Insets shapeInsets = new Insets ( 0, 0, 0, 0 );
 
     /**
      * Returns button border color.
@@ -314,25 +318,21 @@ public class WebScrollBarButtonPainter<E extends JButton, U extends WebButtonUI>
      */
     protected Shape getArrowButtonShape ( final E button, final Rectangle bounds )
     {
-        return ShapeCache.getShape ( button, ARROW_BUTTON_SHAPE_CACHE_ID, new DataProvider<Shape> ()
-        {
-            @Override
-            public Shape provide ()
-            {
-                return createArrowButtonShape ( bounds, button );
-            }
-        }, getCachedShapeSettings ( button ) );
+        return ShapeCache.getShape ( button, ARROW_BUTTON_SHAPE_CACHE_ID, shapeProvider.set ( bounds, button ),
+                getCachedShapeSettings ( button ) );
     }
 
     /**
-     * Returns an array of shape settings cached along with the shape.
+     * Returns shape settings key cached along with the shape.
+     * Returned key is reused between calls.
      *
      * @param button button component
-     * @return an array of shape settings cached along with the shape
+     * @return shape settings key cached along with the shape
      */
-    protected Object[] getCachedShapeSettings ( final E button )
+    protected ShapeCacheKey getCachedShapeSettings ( final E button )
     {
-        return new Object[]{ button.getSize (), button.getInsets (), buttonType, isLtrScroll (), verticalScroll };
+        return shapeSettings.clear ().add ( button.getWidth () ).add ( button.getHeight () ).add ( button.getInsets ( shapeInsets ) )
+                .add ( buttonType ).add ( isLtrScroll () ).add ( verticalScroll );
     }
 
     /**
@@ -423,4 +423,40 @@ public class WebScrollBarButtonPainter<E extends JButton, U extends WebButtonUI>
     {
         return new Dimension ( WebScrollBarStyle.buttonsSize );
     }
+
+    /**
+     * Reusable arrow button shape provider.
+     * It is filled with requested shape settings right before each shape request, so nothing is allocated while shape is cached.
+     */
+    protected class ArrowShapeProvider implements DataProvider<Shape>
+    {
+        /**
+         * Requested shape settings.
+         */
+        protected Rectangle bounds;
+        protected E button;
+
+        /**
+         * Fills this provider with requested shape settings.
+         *
+         * @param bounds button bounds
+         * @param button button component
+         * @return this provider
+         */
+        public ArrowShapeProvider set ( final Rectangle bounds, final E button )
+        {
+            this.bounds = bounds;
+            this.button = button;
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Shape provide ()
+        {
+            return createArrowButtonShape ( bounds, button );
+        }
+    }
 }
\ No newline at end of file
@@ -32,10 +32,8 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.lang.ref.WeakReference;
-import java.util.ArrayList;
+import java.util.*;
 import java.util.List;
-import java.util.Map;
-import java.util.WeakHashMap;
 
 /**
  * This manager allows you to set extended tooltips for any Swing component with any possible content (would it be simple text or some
@@ -63,7 +61,16 @@ public class TooltipManager
     // Standart tooltips
     protected static final Map<Component, List<WebCustomTooltip>> webTooltips = new WeakHashMap<Component, List<WebCustomTooltip>> ();
     protected static final Map<Component, MouseAdapter> adapters = new WeakHashMap<Component, MouseAdapter> ();
-    protected static final Map<Component, WebTimer> timers = new WeakHashMap<Component, WebTimer> ();
+    protected static final Map<Component, Long> delays = new WeakHashMap<Component, Long> ();
+
+    // Currently visible standart tooltips
+    // Tooltips are referenced weakly since they might never be hidden properly if their window is disposed
+    protected static final Set<WebCustomTooltip> visibleTooltips =
+            Collections.newSetFromMap ( new WeakHashMap<WebCustomTooltip, Boolean> () );
+
+    // Hover scheduler, only one component can wait for its tooltips to be displayed at a time
+    protected static WebTimer hoverTimer = null;
+    protected static WeakReference<Component> pendingComponent = null;
 
     // One-time tooltips
     protected static final List<WebCustomTooltip> oneTimeTooltips = new ArrayList<WebCustomTooltip> ();
@@ -101,31 +108,85 @@ public class TooltipManager
      */
     public static void hideAllTooltips ()
     {
-        // Hiding standart tooltips
-        for ( final Component component : CollectionUtils.copy ( webTooltips.keySet () ) )
+        // Cancelling pending tooltips
+        cancelPendingTooltips ();
+
+        // Hiding visible standart tooltips
+        if ( visibleTooltips.size () > 0 )
+        {
+            for ( final WebCustomTooltip tooltip : CollectionUtils.copy ( visibleTooltips ) )
+            {
+                tooltip.closeTooltip ();
+            }
+        }
+
+        // Hiding one-time tooltips
+        if ( oneTimeTooltips.size () > 0 )
         {
-            // Stopping any timers
-            final WebTimer timer = timers.get ( component );
-            if ( timer != null )
+            for ( final WebCustomTooltip tooltip : CollectionUtils.copy ( oneTimeTooltips ) )
             {
-                timer.stop ();
+                tooltip.closeTooltip ();
             }
+        }
+    }
 
-            // Closing tooltips
-            final List<WebCustomTooltip> list = webTooltips.get ( component );
-            if ( list != null && list.size () > 0 )
+    /**
+     * Schedules delayed display of the specified component tooltips.
+     * Any other pending tooltips display is cancelled since only one component can be hovered at a time.
+     *
+     * @param component component to display tooltips for
+     */
+    protected static void scheduleTooltips ( final Component component )
+    {
+        if ( hoverTimer == null )
+        {
+            hoverTimer = new WebTimer ( "TooltipManager.hoverTimer", defaultDelay );
+            hoverTimer.setRepeats ( false );
+            hoverTimer.addActionListener ( new ActionListener ()
             {
-                for ( final WebCustomTooltip tooltip : CollectionUtils.copy ( list ) )
+                @Override
+                public void actionPerformed ( final ActionEvent e )
                 {
-                    tooltip.closeTooltip ();
+                    final Component c = pendingComponent != null ? pendingComponent.get () : null;
+                    pendingComponent = null;
+                    if ( c != null )
+                    {
+                        final Window wa = SwingUtils.getWindowAncestor ( c );
+                        if ( wa != null && wa.isActive () )
+                        {
+                            showTooltips ( c, false );
+                        }
+                    }
                 }
-            }
+            } );
         }
+        final Long delay = delays.get ( component );
+        pendingComponent = new WeakReference<Component> ( component );
+        hoverTimer.restart ( delay != null ? delay : defaultDelay );
+    }
 
-        // Hiding one-time tooltips
-        for ( final WebCustomTooltip tooltip : CollectionUtils.copy ( oneTimeTooltips ) )
+    /**
+     * Cancels pending tooltips display.
+     */
+    protected static void cancelPendingTooltips ()
+    {
+        if ( pendingComponent != null )
         {
-            tooltip.closeTooltip ();
+            pendingComponent = null;
+            hoverTimer.stop ();
+        }
+    }
+
+    /**
+     * Cancels pending tooltips display if it was scheduled for the specified component.
+     *
+     * @param component component to cancel tooltips display for
+     */
+    protected static void cancelPendingTooltips ( final Component component )
+    {
+        if ( pendingComponent != null && pendingComponent.get () == component )
+        {
+            cancelPendingTooltips ();
         }
     }
 
@@ -262,32 +323,30 @@ public class TooltipManager
         final WebCustomTooltip customTooltip = new WebCustomTooltip ( component, tooltip, tooltipWay, showHotkeysInTooltips );
         webTooltips.get ( component ).add ( customTooltip );
 
+        // Tracking tooltip visibility
+        customTooltip.addTooltipListener ( new TooltipAdapter ()
+        {
+            @Override
+            public void tooltipShowing ()
+            {
+                visibleTooltips.add ( customTooltip );
+            }
+
+            @Override
+            public void tooltipHidden ()
+            {
+                visibleTooltips.remove ( customTooltip );
+            }
+        } );
+
         // Creating listeners for component if they aren't created yet
-        if ( !timers.containsKey ( component ) || !adapters.containsKey ( component ) )
+        if ( !adapters.containsKey ( component ) )
         {
             // Weak component reference to avoid memory leaks due to listeners
             final WeakReference<Component> reference = new WeakReference<Component> ( component );
 
-            // Tooltip pop timer
-            final WebTimer showTips = new WebTimer ( "TooltipManager.displayTimer", delay );
-            showTips.addActionListener ( new ActionListener ()
-            {
-                @Override
-                public void actionPerformed ( final ActionEvent e )
-                {
-                    final Component c = reference.get ();
-                    if ( c != null )
-                    {
-                        final Window wa = SwingUtils.getWindowAncestor ( c );
-                        if ( wa != null && wa.isActive () )
-                        {
-                            showTooltips ( c, false );
-                        }
-                    }
-                }
-            } );
-            showTips.setRepeats ( false );
-            timers.put ( component, showTips );
+            // Tooltip display delay
+            delays.put ( component, ( long ) delay );
 
             // Show/hide listener
             final MouseAdapter mouseAdapter = new MouseAdapter ()
@@ -302,10 +361,10 @@ public class TooltipManager
                         // Component ancestor window
                         final Window window = SwingUtils.getWindowAncestor ( c );
 
-                        // Starting show timer if needed
+                        // Scheduling tooltips display if needed
                         if ( window.isShowing () && window.isActive () )
                         {
-                            showTips.start ();
+                            scheduleTooltips ( c );
                         }
                     }
                 }
@@ -335,7 +394,7 @@ public class TooltipManager
                     if ( c != null )
                     {
                         // Hiding component tooltips
-                        showTips.stop ();
+                        cancelPendingTooltips ( c );
                         hideTooltips ( c );
                     }
                 }
@@ -375,7 +434,7 @@ public class TooltipManager
         {
             if ( delayed )
             {
-                timers.get ( component ).restart ();
+                scheduleTooltips ( component );
             }
             else
             {
@@ -510,13 +569,14 @@ public class TooltipManager
                 component.removeMouseListener ( adapters.get ( component ) );
                 adapters.remove ( component );
 
-                // Clearing timers
-                timers.get ( component ).stop ();
-                timers.remove ( component );
+                // Cancelling pending display
+                cancelPendingTooltips ( component );
+                delays.remove ( component );
             }
 
             // Removing registered tooltip
             tooltips.remove ( tooltip );
+            visibleTooltips.remove ( tooltip );
 
             // Hiding and destroying tooltip
             tooltip.closeTooltip ();
@@ -31,11 +31,8 @@ import java.awt.*;
 import java.awt.geom.Area;
 import java.awt.geom.RoundRectangle2D;
 import java.awt.image.BufferedImage;
-import java.lang.ref.WeakReference;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.*;
 import java.util.List;
-import java.util.Map;
 
 /**
  * This class provides a set of utilities to work with various nine-patch images.
@@ -57,12 +54,33 @@ public final class NinePatchUtils
     private static final String SEPARATOR = ";";
 
     /**
-     * Shade nine-patch icons cache.
+     * Maximum amount of cached shade masks.
      */
-    private static final Map<String, WeakReference<NinePatchIcon>> shadeIconCache = new HashMap<String, WeakReference<NinePatchIcon>> ();
+    private static int shadeCacheSize = 32;
+
+    /**
+     * Shade masks cache.
+     * Masks are generated with full opacity and do not depend on requested shade opacity, so this cache stays small and is kept
+     * strongly referenced to avoid blurring the same shade again between paints.
+     */
+    private static final Map<String, NinePatchIcon> shadeIconCache = new LinkedHashMap<String, NinePatchIcon> ( 16, 0.75f, true )
+    {
+        @Override
+        protected boolean removeEldestEntry ( final Map.Entry<String, NinePatchIcon> eldest )
+        {
+            return size () > shadeCacheSize;
+        }
+    };
+
+    /**
+     * Shade cache statistics.
+     */
+    private static long shadeGenerations = 0;
+    private static long shadeCacheHits = 0;
 
     /**
      * Returns cached shade nine-patch icon.
+     * Returned icon shares cached shade mask and applies opacity when painted.
      *
      * @param shadeWidth   shade width
      * @param round        corners round
@@ -71,17 +89,151 @@ public final class NinePatchUtils
      */
     public static NinePatchIcon getShadeIcon ( final int shadeWidth, final int round, final float shadeOpacity )
     {
-        final String key = OUTER_SHADE_PREFIX + SEPARATOR + shadeWidth + SEPARATOR + round + SEPARATOR + shadeOpacity;
-        final NinePatchIcon icon = getNinePatchIconFromCache ( key );
-        if ( icon != null )
+        return getShadeMask ( OUTER_SHADE_PREFIX, shadeWidth, round ).derive ( getPaintOpacity ( shadeOpacity ) );
+    }
+
+    /**
+     * Returns cached inner shade nine-patch icon.
+     * Returned icon shares cached shade mask and applies opacity when painted.
+     *
+     * @param shadeWidth   shade width
+     * @param round        corners round
+     * @param shadeOpacity shade opacity
+     * @return cached inner shade nine-patch icon
+     */
+    public static NinePatchIcon getInnerShadeIcon ( final int shadeWidth, final int round, final float shadeOpacity )
+    {
+        return getShadeMask ( INNER_SHADE_PREFIX, shadeWidth, round ).derive ( getPaintOpacity ( shadeOpacity ) );
+    }
+
+    /**
+     * Returns opacity which should be used to paint shade mask to get the same result as shade generated with specified opacity.
+     * {@link com.alee.graphics.filters.ShadowFilter} applies opacity twice - to the blurred mask and when painting that mask.
+     *
+     * @param shadeOpacity shade opacity
+     * @return opacity which should be used to paint shade mask
+     */
+    private static float getPaintOpacity ( final float shadeOpacity )
+    {
+        final float opacity = Math.max ( 0f, Math.min ( shadeOpacity, 1f ) );
+        return opacity * opacity;
+    }
+
+    /**
+     * Returns cached shade mask generated with full opacity.
+     *
+     * @param prefix     shade type prefix
+     * @param shadeWidth shade width
+     * @param round      corners round
+     * @return cached shade mask generated with full opacity
+     */
+    private static NinePatchIcon getShadeMask ( final String prefix, final int shadeWidth, final int round )
+    {
+        final String key = prefix + SEPARATOR + shadeWidth + SEPARATOR + round;
+        synchronized ( shadeIconCache )
         {
-            return icon;
+            final NinePatchIcon mask = shadeIconCache.get ( key );
+            if ( mask != null )
+            {
+                shadeCacheHits++;
+                return mask;
+            }
         }
-        else
+
+        // Mask is generated outside of the lock since blurring might take a while
+        final NinePatchIcon mask = prefix.equals ( INNER_SHADE_PREFIX ) ? createInnerShadeIcon ( shadeWidth, round, 1f ) :
+                createShadeIcon ( shadeWidth, round, 1f );
+        synchronized ( shadeIconCache )
         {
-            final NinePatchIcon ninePatchIcon = createShadeIcon ( shadeWidth, round, shadeOpacity );
-            shadeIconCache.put ( key, new WeakReference<NinePatchIcon> ( ninePatchIcon ) );
-            return ninePatchIcon;
+            shadeGenerations++;
+            shadeIconCache.put ( key, mask );
+        }
+        return mask;
+    }
+
+    /**
+     * Returns maximum amount of cached shade masks.
+     *
+     * @return maximum amount of cached shade masks
+     */
+    public static int getShadeCacheSize ()
+    {
+        synchronized ( shadeIconCache )
+        {
+            return shadeCacheSize;
+        }
+    }
+
+    /**
+     * Sets maximum amount of cached shade masks.
+     *
+     * @param shadeCacheSize maximum amount of cached shade masks
+     */
+    public static void setShadeCacheSize ( final int shadeCacheSize )
+    {
+        if ( shadeCacheSize < 0 )
+        {
+            throw new IllegalArgumentException ( "Invalid shade cache size: " + shadeCacheSize );
+        }
+        synchronized ( shadeIconCache )
+        {
+            NinePatchUtils.shadeCacheSize = shadeCacheSize;
+            final Iterator<String> iterator = shadeIconCache.keySet ().iterator ();
+            while ( shadeIconCache.size () > shadeCacheSize && iterator.hasNext () )
+            {
+                iterator.next ();
+                iterator.remove ();
+            }
+        }
+    }
+
+    /**
+     * Removes all cached shade masks.
+     */
+    public static void clearShadeCache ()
+    {
+        synchronized ( shadeIconCache )
+        {
+            shadeIconCache.clear ();
+        }
+    }
+
+    /**
+     * Returns amount of generated shade masks.
+     * Each generation requires blurring the shade image, so this value should stay small even when shade opacity is animated.
+     *
+     * @return amount of generated shade masks
+     */
+    public static long getShadeGenerations ()
+    {
+        synchronized ( shadeIconCache )
+        {
+            return shadeGenerations;
+        }
+    }
+
+    /**
+     * Returns amount of shade requests served from cache.
+     *
+     * @return amount of shade requests served from cache
+     */
+    public static long getShadeCacheHits ()
+    {
+        synchronized ( shadeIconCache )
+        {
+            return shadeCacheHits;
+        }
+    }
+
+    /**
+     * Resets shade cache statistics.
+     */
+    public static void resetStatistics ()
+    {
+        synchronized ( shadeIconCache )
+        {
+            shadeGenerations = 0;
+            shadeCacheHits = 0;
         }
     }
 
@@ -131,41 +283,6 @@ public final class NinePatchUtils
         return ninePatchIcon;
     }
 
-    /**
-     * Returns cached inner shade nine-patch icon.
-     *
-     * @param shadeWidth   shade width
-     * @param round        corners round
-     * @param shadeOpacity shade opacity
-     * @return cached inner shade nine-patch icon
-     */
-    public static NinePatchIcon getInnerShadeIcon ( final int shadeWidth, final int round, final float shadeOpacity )
-    {
-        final String key = INNER_SHADE_PREFIX + SEPARATOR + shadeWidth + SEPARATOR + round + SEPARATOR + shadeOpacity;
-        final NinePatchIcon icon = getNinePatchIconFromCache ( key );
-        if ( icon != null )
-        {
-            return icon;
-        }
-        else
-        {
-            final NinePatchIcon ninePatchIcon = createInnerShadeIcon ( shadeWidth, round, shadeOpacity );
-            shadeIconCache.put ( key, new WeakReference<NinePatchIcon> ( ninePatchIcon ) );
-            return ninePatchIcon;
-        }
-    }
-
-    /**
-     * Fetches the nine-patch icon from the cache.
-     *
-     * @param key Cache key.
-     * @return Nine-patch icon from the cache or null on cache miss.
-     */
-    private static NinePatchIcon getNinePatchIconFromCache ( final String key )
-    {
-        return shadeIconCache.containsKey ( key ) ? shadeIconCache.get ( key ).get () : null;
-    }
-
     /**
      * Returns inner shade nine-patch icon.
      *
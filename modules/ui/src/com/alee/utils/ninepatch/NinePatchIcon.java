@@ -17,6 +17,7 @@
 
 package com.alee.utils.ninepatch;
 
+import com.alee.utils.GraphicsUtils;
 import com.alee.utils.ImageUtils;
 import com.alee.utils.NinePatchUtils;
 import com.thoughtworks.xstream.annotations.XStreamConverter;
@@ -69,6 +70,11 @@ public class NinePatchIcon implements Icon
      */
     protected Insets margin;
 
+    /**
+     * Opacity applied to the image when icon is painted.
+     */
+    protected float opacity = 1f;
+
     /**
      * Cached fixed areas width of the nine-patch image with additional 1px for each stretchable area.
      */
@@ -305,6 +311,37 @@ public class NinePatchIcon implements Icon
         this.component = component;
     }
 
+    /**
+     * Returns opacity applied to the image when icon is painted.
+     *
+     * @return opacity applied to the image when icon is painted
+     */
+    public float getOpacity ()
+    {
+        return opacity;
+    }
+
+    /**
+     * Returns new nine-patch icon painted with the specified opacity.
+     * Returned icon shares raw image and patches with this icon, so it is cheap to create and doesn't use any additional memory.
+     *
+     * @param opacity icon opacity
+     * @return new nine-patch icon painted with the specified opacity
+     */
+    public NinePatchIcon derive ( final float opacity )
+    {
+        final NinePatchIcon icon = new NinePatchIcon ( rawImage, component, false );
+        icon.horizontalStretch = horizontalStretch;
+        icon.verticalStretch = verticalStretch;
+        icon.margin = margin;
+        icon.cachedWidth0 = cachedWidth0;
+        icon.cachedWidth1 = cachedWidth1;
+        icon.cachedHeight0 = cachedHeight0;
+        icon.cachedHeight1 = cachedHeight1;
+        icon.opacity = opacity;
+        return icon;
+    }
+
     /**
      * Horizontal image patches data
      */
@@ -508,6 +545,7 @@ public class NinePatchIcon implements Icon
         final int unfixedX = availableWidth - fixedPixelsX;
         final int fixedPixelsY = getFixedPixelsHeight ( false );
         final int unfixedY = availableHeight - fixedPixelsY;
+        final Composite oc = GraphicsUtils.setupAlphaComposite ( g2d, opacity, opacity < 1f );
 
         int currentY = y;
         for ( final NinePatchInterval intervalY : verticalStretch )
@@ -552,6 +590,8 @@ public class NinePatchIcon implements Icon
             // Icrementing current Y
             currentY += finalHeight;
         }
+
+        GraphicsUtils.restoreComposite ( g2d, oc, opacity < 1f );
     }
 
     /**